@@ -0,0 +1,66 @@
+package edu.bu.admission;
+
+/**
+ * Concurrency limit that adapts to observed latency with additive increase and multiplicative
+ * decrease. Requests that finish within the latency threshold while the limit is at least half in
+ * use grow it by one; slow or failed requests shrink it by the backoff ratio. Requests beyond the
+ * current limit are rejected rather than queued.
+ */
+public class AdaptiveLimiter {
+
+  static final double BACKOFF_RATIO = 0.9;
+
+  private final String name;
+  private final int minLimit;
+  private final int maxLimit;
+  private final long latencyThresholdNanos;
+
+  private double limit;
+  private int inFlight;
+
+  /** Creates a limiter starting at initialLimit and kept between minLimit and maxLimit. */
+  public AdaptiveLimiter(
+      String name, int initialLimit, int minLimit, int maxLimit, long latencyThresholdMillis) {
+    if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException(
+          "Limits for " + name + " must satisfy 1 <= min <= initial <= max");
+    }
+    this.name = name;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.latencyThresholdNanos = latencyThresholdMillis * 1_000_000L;
+    this.limit = initialLimit;
+  }
+
+  /** Admits a request if fewer than the current limit are in flight. */
+  public synchronized boolean tryAcquire() {
+    if (inFlight >= (int) limit) {
+      return false;
+    }
+    inFlight++;
+    return true;
+  }
+
+  /** Releases an admitted request and adjusts the limit from how it went. */
+  public synchronized void release(long latencyNanos, boolean failed) {
+    boolean wasUtilized = inFlight * 2 >= limit;
+    inFlight--;
+    if (failed || latencyNanos > latencyThresholdNanos) {
+      limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+    } else if (wasUtilized) {
+      limit = Math.min(maxLimit, limit + 1);
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+}
@@ -0,0 +1,155 @@
+package edu.bu.admission;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Sheds REST reads beyond what the data tier can currently serve. Latest-value reads and history
+ * reads each have their own {@link AdaptiveLimiter}, so a burst of expensive history queries cannot
+ * starve the cheap ones. Rejected requests get an immediate 503 with Retry-After instead of
+ * waiting in the container's queue. Other endpoints, including the event stream and ingestion
+ * paths, are never limited.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+  private static final Logger log = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+  private final AdaptiveLimiter latestLimiter;
+  private final AdaptiveLimiter historyLimiter;
+  private final int retryAfterSeconds;
+
+  /** Creates the filter with limiter settings from application properties. */
+  public AdmissionControlFilter(
+      @Value("${admission.latest.initial-limit:128}") int latestInitialLimit,
+      @Value("${admission.latest.max-limit:1024}") int latestMaxLimit,
+      @Value("${admission.latest.latency-threshold-ms:250}") long latestLatencyThresholdMillis,
+      @Value("${admission.history.initial-limit:64}") int historyInitialLimit,
+      @Value("${admission.history.max-limit:256}") int historyMaxLimit,
+      @Value("${admission.history.latency-threshold-ms:2000}") long historyLatencyThresholdMillis,
+      @Value("${admission.retry-after-seconds:1}") int retryAfterSeconds) {
+    this.latestLimiter =
+        new AdaptiveLimiter(
+            "latest", latestInitialLimit, 1, latestMaxLimit, latestLatencyThresholdMillis);
+    this.historyLimiter =
+        new AdaptiveLimiter(
+            "history", historyInitialLimit, 1, historyMaxLimit, historyLatencyThresholdMillis);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return limiterFor(request) == null;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    AdaptiveLimiter limiter = limiterFor(request);
+    if (!limiter.tryAcquire()) {
+      reject(response, limiter);
+      return;
+    }
+
+    long start = System.nanoTime();
+    boolean releaseOnCompletion = false;
+    try {
+      filterChain.doFilter(request, response);
+      if (request.isAsyncStarted()) {
+        request.getAsyncContext().addListener(new ReleaseListener(limiter, start));
+        releaseOnCompletion = true;
+      }
+    } finally {
+      if (!releaseOnCompletion) {
+        limiter.release(System.nanoTime() - start, response.getStatus() >= 500);
+      }
+    }
+  }
+
+  /** Picks the limiter for a read endpoint, or null for unlimited requests. */
+  AdaptiveLimiter limiterFor(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    if ("POST".equals(request.getMethod())) {
+      return path.equals("/history/batch") ? historyLimiter : null;
+    }
+    if (!"GET".equals(request.getMethod())) {
+      return null;
+    }
+    if (path.startsWith("/history/")) {
+      return historyLimiter;
+    }
+    if (path.startsWith("/current/")
+        || path.startsWith("/temperature/")
+        || path.startsWith("/pressure/")
+        || path.startsWith("/location/")
+        || path.startsWith("/stats/")
+        || path.startsWith("/kinematics/")
+        || path.startsWith("/spatial/")
+        || path.equals("/fleet/latest")
+        || path.equals("/shadow")
+        || path.equals("/anomalies")) {
+      return latestLimiter;
+    }
+    return null;
+  }
+
+  private void reject(HttpServletResponse response, AdaptiveLimiter limiter) throws IOException {
+    log.debug(
+        "Shedding {} read at limit {} ({} in flight)",
+        limiter.getName(),
+        limiter.getLimit(),
+        limiter.getInFlight());
+    response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, Integer.toString(retryAfterSeconds));
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.getWriter().write("{\"error\":\"Server busy, retry later\"}");
+  }
+
+  /** Releases the permit once an async request completes, counting timeouts and errors as drops. */
+  private static class ReleaseListener implements AsyncListener {
+
+    private final AdaptiveLimiter limiter;
+    private final long start;
+    private final AtomicBoolean failed = new AtomicBoolean();
+
+    ReleaseListener(AdaptiveLimiter limiter, long start) {
+      this.limiter = limiter;
+      this.start = start;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+      boolean serverError = response != null && response.getStatus() >= 500;
+      limiter.release(System.nanoTime() - start, failed.get() || serverError);
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      failed.set(true);
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      failed.set(true);
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {}
+  }
+}
@@ -0,0 +1,22 @@
+package edu.bu.alert;
+
+import java.time.Instant;
+
+/**
+ * A notification about one buoy, handed to every {@link AlertSink}.
+ *
+ * @param type what happened, such as geofence_exit or anomaly_pressure
+ * @param timestamp time of the reading that raised the alert
+ * @param suppressed alerts of the same buoy and type dropped as duplicates since the last one sent
+ */
+public record Alert(int buoyId, String type, String message, Instant timestamp, int suppressed) {
+
+  public static final String GEOFENCE_EXIT = "geofence_exit";
+  public static final String GEOFENCE_RETURN = "geofence_return";
+  public static final String ANOMALY_PREFIX = "anomaly_";
+
+  /** Returns this alert carrying the number of duplicates suppressed before it. */
+  Alert withSuppressed(int count) {
+    return new Alert(buoyId, type, message, timestamp, count);
+  }
+}
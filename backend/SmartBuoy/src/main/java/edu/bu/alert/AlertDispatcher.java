@@ -0,0 +1,235 @@
+package edu.bu.alert;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import edu.bu.analytics.anomaly.AnomalyEvent;
+import edu.bu.analytics.geofence.FenceState;
+import edu.bu.analytics.geofence.GeofenceTransitionEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Turns geofence transitions and anomalies into alerts and fans them out to every
+ * {@link AlertSink}.
+ *
+ * <p>Ingestion only pays for a map lookup and a non-blocking queue offer per sink; delivery,
+ * retries and slow endpoints are handled by each sink's own worker thread. Repeats of the same
+ * buoy and alert type within the minimum interval are suppressed and counted on the next alert
+ * sent, or, when none follows, on the latest repeat sent once the interval has expired. Geofence
+ * alerts are grouped per buoy and fence instead, so only a repeat of the same fence state is
+ * suppressed and every exit or return goes out.
+ */
+@Service
+public class AlertDispatcher {
+
+  private static final Logger log = LoggerFactory.getLogger(AlertDispatcher.class);
+  private static final long MAX_FLUSH_PERIOD_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+  private final List<SinkWorker> workers;
+  private final Duration minInterval;
+  private final Clock clock;
+  private final Map<AlertKey, KeyState> lastSent = new ConcurrentHashMap<>();
+  private final AtomicLong suppressed = new AtomicLong();
+  private final List<Thread> threads = new ArrayList<>();
+  private final ScheduledExecutorService flusher =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setNameFormat("alert-flush").setDaemon(true).build());
+
+  /** Creates an AlertDispatcher with queue and deduplication settings from properties. */
+  @Autowired
+  public AlertDispatcher(
+      List<AlertSink> sinks,
+      @Value("${alerts.queue-capacity:1000}") int queueCapacity,
+      @Value("${alerts.min-interval-seconds:300}") long minIntervalSeconds) {
+    this(sinks, queueCapacity, Duration.ofSeconds(minIntervalSeconds), Clock.systemUTC());
+  }
+
+  AlertDispatcher(List<AlertSink> sinks, int queueCapacity, Duration minInterval, Clock clock) {
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException("alerts.queue-capacity must be positive");
+    }
+    this.workers = sinks.stream().map(sink -> new SinkWorker(sink, queueCapacity)).toList();
+    this.minInterval = minInterval;
+    this.clock = clock;
+  }
+
+  /** Starts one worker thread per sink, and the flushing of expired suppression windows. */
+  @PostConstruct
+  public void start() {
+    for (SinkWorker worker : workers) {
+      Thread thread = new Thread(worker, "alert-sink-" + worker.sink().name());
+      thread.setDaemon(true);
+      thread.start();
+      threads.add(thread);
+    }
+    long flushPeriod = Math.min(minInterval.toMillis(), MAX_FLUSH_PERIOD_MILLIS);
+    if (flushPeriod > 0) {
+      flusher.scheduleWithFixedDelay(
+          this::flushExpired, flushPeriod, flushPeriod, TimeUnit.MILLISECONDS);
+    }
+    log.info(
+        "Alert dispatcher started with sinks {}",
+        workers.stream().map(worker -> worker.sink().name()).toList());
+  }
+
+  @PreDestroy
+  public void stop() {
+    flusher.shutdownNow();
+    threads.forEach(Thread::interrupt);
+  }
+
+  @EventListener
+  public void onGeofenceTransition(GeofenceTransitionEvent event) {
+    boolean left = event.current() == FenceState.OUTSIDE;
+    String message =
+        left
+            ? String.format("left geofence, %.0f m from centre", event.distanceMeters())
+            : "returned inside geofence";
+    submit(
+        new Alert(
+            event.buoyId(),
+            left ? Alert.GEOFENCE_EXIT : Alert.GEOFENCE_RETURN,
+            message,
+            event.timestamp(),
+            0),
+        "geofence@" + event.deployedAt());
+  }
+
+  @EventListener
+  public void onAnomaly(AnomalyEvent event) {
+    String message =
+        String.format(
+            "%s %.2f, expected %.2f (z %.1f)",
+            event.field(), event.value(), event.expected(), event.zScore());
+    submit(
+        new Alert(
+            event.buoyId(),
+            Alert.ANOMALY_PREFIX + event.field(),
+            message,
+            Instant.ofEpochMilli(event.timestamp()),
+            0));
+  }
+
+  /**
+   * Queues an alert for every sink that accepts it, unless the same buoy and type was alerted
+   * within the minimum interval. Never blocks.
+   *
+   * @return false when the alert was suppressed as a duplicate
+   */
+  public boolean submit(Alert alert) {
+    return submit(alert, alert.type());
+  }
+
+  /**
+   * Queues an alert unless the last one sent for the same buoy and group had the same type and
+   * was sent within the minimum interval. An alert of another type replaces the group's window,
+   * and the latest repeat suppressed in that window is sent first so its count is not lost.
+   */
+  boolean submit(Alert alert, String group) {
+    long now = clock.millis();
+    int[] previouslySuppressed = {-1};
+    KeyState[] replaced = {null};
+    lastSent.compute(
+        new AlertKey(alert.buoyId(), group),
+        (key, state) -> {
+          if (state != null && !state.type.equals(alert.type())) {
+            replaced[0] = state;
+            previouslySuppressed[0] = 0;
+          } else if (state != null && now - state.sentAt < minInterval.toMillis()) {
+            state.suppressed++;
+            state.latestRepeat = alert;
+            return state;
+          } else {
+            previouslySuppressed[0] = state == null ? 0 : state.suppressed;
+          }
+          return new KeyState(alert.type(), now);
+        });
+    if (previouslySuppressed[0] < 0) {
+      suppressed.incrementAndGet();
+      return false;
+    }
+    if (replaced[0] != null) {
+      flush(replaced[0]);
+    }
+    send(alert.withSuppressed(previouslySuppressed[0]));
+    return true;
+  }
+
+  /**
+   * Ends every window whose minimum interval has expired. A window that suppressed repeats sends
+   * the latest of them, counting the ones before it, so a burst of duplicates is reported even
+   * when nothing follows it.
+   */
+  void flushExpired() {
+    long now = clock.millis();
+    for (AlertKey key : lastSent.keySet()) {
+      KeyState[] expired = {null};
+      lastSent.computeIfPresent(
+          key,
+          (ignored, state) -> {
+            if (now - state.sentAt < minInterval.toMillis()) {
+              return state;
+            }
+            expired[0] = state;
+            return null;
+          });
+      if (expired[0] != null) {
+        flush(expired[0]);
+      }
+    }
+  }
+
+  private void flush(KeyState state) {
+    if (state.latestRepeat != null) {
+      send(state.latestRepeat.withSuppressed(state.suppressed - 1));
+    }
+  }
+
+  private void send(Alert alert) {
+    for (SinkWorker worker : workers) {
+      if (worker.sink().accepts(alert)) {
+        worker.offer(alert);
+      }
+    }
+  }
+
+  /** Returns delivery counters of every sink. */
+  public List<SinkStats> getSinkStats() {
+    return workers.stream().map(SinkWorker::stats).toList();
+  }
+
+  /** Returns the number of alerts suppressed as duplicates since startup. */
+  public long getSuppressedCount() {
+    return suppressed.get();
+  }
+
+  private record AlertKey(int buoyId, String group) {}
+
+  private static final class KeyState {
+    private final String type;
+    private final long sentAt;
+    private int suppressed;
+    private Alert latestRepeat;
+
+    private KeyState(String type, long sentAt) {
+      this.type = type;
+      this.sentAt = sentAt;
+    }
+  }
+}
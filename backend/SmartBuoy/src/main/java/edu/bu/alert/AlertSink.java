@@ -0,0 +1,35 @@
+package edu.bu.alert;
+
+import java.time.Duration;
+
+/**
+ * A destination for alerts. Each sink is fed by its own queue and worker thread, so a slow or
+ * failing sink delays neither ingestion nor the other sinks.
+ */
+public interface AlertSink {
+
+  /** Short name used in logs and delivery statistics. */
+  String name();
+
+  /**
+   * Delivers one alert.
+   *
+   * @throws Exception when delivery failed and should be retried
+   */
+  void deliver(Alert alert) throws Exception;
+
+  /** Whether this sink wants the alert at all; by default it receives every alert. */
+  default boolean accepts(Alert alert) {
+    return true;
+  }
+
+  /** Delivery attempts per alert, including the first. */
+  default int maxAttempts() {
+    return 1;
+  }
+
+  /** Wait before the first retry; it doubles on each further retry. */
+  default Duration initialBackoff() {
+    return Duration.ofSeconds(1);
+  }
+}
@@ -0,0 +1,31 @@
+package edu.bu.alert;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/** Writes every alert to the application log. */
+@Component
+public class LogAlertSink implements AlertSink {
+
+  private static final Logger log = LoggerFactory.getLogger(LogAlertSink.class);
+
+  @Override
+  public String name() {
+    return "log";
+  }
+
+  @Override
+  public void deliver(Alert alert) {
+    if (alert.suppressed() > 0) {
+      log.warn(
+          "ALERT: Buoy {} {}: {} ({} similar suppressed)",
+          alert.buoyId(),
+          alert.type(),
+          alert.message(),
+          alert.suppressed());
+    } else {
+      log.warn("ALERT: Buoy {} {}: {}", alert.buoyId(), alert.type(), alert.message());
+    }
+  }
+}
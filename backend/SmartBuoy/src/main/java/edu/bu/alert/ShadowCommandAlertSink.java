@@ -0,0 +1,47 @@
+package edu.bu.alert;
+
+import edu.bu.shadow.BuoyThingNames;
+import edu.bu.shadow.ShadowService;
+import edu.bu.shadow.ShadowUpdateMessage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns on the LED and buzzer of a buoy that leaves its geofence, through its MQTT device shadow,
+ * so it is easier to find when recovered.
+ */
+@Component
+@ConditionalOnProperty(name = "alerts.shadow-command.enabled", havingValue = "true")
+public class ShadowCommandAlertSink implements AlertSink {
+
+  private final ShadowService shadowService;
+  private final BuoyThingNames buoyThingNames;
+
+  /** Creates a ShadowCommandAlertSink addressing buoys by the shadow API's thing mapping. */
+  public ShadowCommandAlertSink(ShadowService shadowService, BuoyThingNames buoyThingNames) {
+    this.shadowService = shadowService;
+    this.buoyThingNames = buoyThingNames;
+  }
+
+  @Override
+  public String name() {
+    return "shadow-command";
+  }
+
+  /** Only exits of buoys that map to a thing, since there is no device to command otherwise. */
+  @Override
+  public boolean accepts(Alert alert) {
+    return Alert.GEOFENCE_EXIT.equals(alert.type())
+        && buoyThingNames.thingName(alert.buoyId()).isPresent();
+  }
+
+  @Override
+  public void deliver(Alert alert) {
+    ShadowUpdateMessage.ShadowFields desired = new ShadowUpdateMessage.ShadowFields();
+    desired.setLed(true);
+    desired.setBuzzer(true);
+    buoyThingNames
+        .thingName(alert.buoyId())
+        .ifPresent(thingName -> shadowService.publishDesiredState(thingName, desired));
+  }
+}
@@ -0,0 +1,5 @@
+package edu.bu.alert;
+
+/** Delivery counters of one sink since startup. */
+public record SinkStats(
+    String sink, int queued, long delivered, long retried, long failed, long dropped) {}
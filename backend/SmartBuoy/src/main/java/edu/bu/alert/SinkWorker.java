@@ -0,0 +1,87 @@
+package edu.bu.alert;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded queue and worker thread of one sink. Offering never blocks: when the queue is full the
+ * alert is dropped and counted. The worker delivers alerts in order, retrying each failure with
+ * exponential backoff up to the sink's attempt limit.
+ */
+class SinkWorker implements Runnable {
+
+  private static final Logger log = LoggerFactory.getLogger(SinkWorker.class);
+
+  private final AlertSink sink;
+  private final BlockingQueue<Alert> queue;
+  private final AtomicLong delivered = new AtomicLong();
+  private final AtomicLong retried = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+
+  SinkWorker(AlertSink sink, int capacity) {
+    this.sink = sink;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+  }
+
+  AlertSink sink() {
+    return sink;
+  }
+
+  /** Queues an alert for delivery, or drops it when the queue is full. */
+  boolean offer(Alert alert) {
+    if (queue.offer(alert)) {
+      return true;
+    }
+    dropped.incrementAndGet();
+    log.warn("Alert queue of sink {} is full, dropping {}", sink.name(), alert.type());
+    return false;
+  }
+
+  SinkStats stats() {
+    return new SinkStats(
+        sink.name(), queue.size(), delivered.get(), retried.get(), failed.get(), dropped.get());
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        deliver(queue.take());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void deliver(Alert alert) throws InterruptedException {
+    long backoffMillis = sink.initialBackoff().toMillis();
+    for (int attempt = 1; ; attempt++) {
+      try {
+        sink.deliver(alert);
+        delivered.incrementAndGet();
+        return;
+      } catch (InterruptedException e) {
+        throw e;
+      } catch (Exception e) {
+        if (attempt >= sink.maxAttempts()) {
+          failed.incrementAndGet();
+          log.error(
+              "Sink {} failed to deliver {} for buoy {} after {} attempt(s): {}",
+              sink.name(),
+              alert.type(),
+              alert.buoyId(),
+              attempt,
+              e.getMessage());
+          return;
+        }
+        retried.incrementAndGet();
+        Thread.sleep(backoffMillis);
+        backoffMillis *= 2;
+      }
+    }
+  }
+}
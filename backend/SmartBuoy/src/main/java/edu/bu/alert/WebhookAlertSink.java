@@ -0,0 +1,72 @@
+package edu.bu.alert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** POSTs each alert as JSON to a webhook, retrying on connection errors and non-2xx answers. */
+@Component
+@ConditionalOnProperty(name = "alerts.webhook.enabled", havingValue = "true")
+public class WebhookAlertSink implements AlertSink {
+
+  private final ObjectMapper objectMapper;
+  private final URI url;
+  private final Duration timeout;
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final HttpClient client;
+
+  /** Creates a WebhookAlertSink with the target and retry policy from application properties. */
+  public WebhookAlertSink(
+      ObjectMapper objectMapper,
+      @Value("${alerts.webhook.url}") String url,
+      @Value("${alerts.webhook.timeout-ms:5000}") long timeoutMillis,
+      @Value("${alerts.webhook.max-attempts:5}") int maxAttempts,
+      @Value("${alerts.webhook.initial-backoff-ms:1000}") long initialBackoffMillis) {
+    if (url == null || url.isBlank()) {
+      throw new IllegalArgumentException("alerts.webhook.url is required when webhooks are on");
+    }
+    this.objectMapper = objectMapper;
+    this.url = URI.create(url);
+    this.timeout = Duration.ofMillis(timeoutMillis);
+    this.maxAttempts = maxAttempts;
+    this.initialBackoff = Duration.ofMillis(initialBackoffMillis);
+    this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+  }
+
+  @Override
+  public String name() {
+    return "webhook";
+  }
+
+  @Override
+  public void deliver(Alert alert) throws IOException, InterruptedException {
+    HttpRequest request =
+        HttpRequest.newBuilder(url)
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(alert)))
+            .build();
+    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+    if (response.statusCode() / 100 != 2) {
+      throw new IOException("Webhook answered " + response.statusCode());
+    }
+  }
+
+  @Override
+  public int maxAttempts() {
+    return maxAttempts;
+  }
+
+  @Override
+  public Duration initialBackoff() {
+    return initialBackoff;
+  }
+}
@@ -0,0 +1,121 @@
+package edu.bu.analytics.anomaly;
+
+import edu.bu.data.BuoyReadingEvent;
+import edu.bu.data.BuoyResponse;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Flags temperature and pressure readings that stray from their buoy's recent behaviour, such as a
+ * failing sensor or a sudden pressure drop. Each buoy keeps one {@link EwmaDetector} per field, so
+ * a reading costs constant time and memory on the ingest path. Anomalies are kept in an
+ * {@link AnomalyLog} and published as {@link AnomalyEvent}s.
+ */
+@Service
+public class AnomalyDetectionService {
+
+  private static final Logger log = LoggerFactory.getLogger(AnomalyDetectionService.class);
+
+  // Floors on the standard deviation, so a perfectly steady sensor is not flagged for a tiny step.
+  private static final double MIN_TEMPERATURE_STDDEV = 0.05;
+  private static final double MIN_PRESSURE_STDDEV = 5.0;
+
+  private final ApplicationEventPublisher eventPublisher;
+  private final double alpha;
+  private final double threshold;
+  private final int warmup;
+  private final AnomalyLog anomalyLog;
+  private final Map<Integer, BuoyDetectors> detectors = new ConcurrentHashMap<>();
+
+  /** Creates an AnomalyDetectionService with detector settings from application properties. */
+  public AnomalyDetectionService(
+      ApplicationEventPublisher eventPublisher,
+      @Value("${anomaly.alpha:0.02}") double alpha,
+      @Value("${anomaly.z-threshold:5}") double threshold,
+      @Value("${anomaly.warmup-readings:30}") int warmup,
+      @Value("${anomaly.log-capacity:1000}") int logCapacity) {
+    this.eventPublisher = eventPublisher;
+    this.alpha = alpha;
+    this.threshold = threshold;
+    this.warmup = warmup;
+    this.anomalyLog = new AnomalyLog(logCapacity);
+  }
+
+  @EventListener
+  public void onReading(BuoyReadingEvent event) {
+    BuoyResponse reading = event.reading();
+    BuoyDetectors buoy = detectors.computeIfAbsent(reading.getBuoyId(), ignored -> newDetectors());
+    double temperatureZ;
+    double pressureZ;
+    double expectedTemperature;
+    double expectedPressure;
+    synchronized (buoy) {
+      // A late reading would be scored against statistics that already include newer ones.
+      if (buoy.lastReading != null && !reading.getTimestamp().isAfter(buoy.lastReading)) {
+        return;
+      }
+      buoy.lastReading = reading.getTimestamp();
+      expectedTemperature = buoy.temperature.mean();
+      expectedPressure = buoy.pressure.mean();
+      temperatureZ = buoy.temperature.update(reading.getTemperature());
+      pressureZ = buoy.pressure.update(reading.getPressure());
+    }
+    if (Math.abs(temperatureZ) > threshold) {
+      flag(reading, "temperature", reading.getTemperature(), expectedTemperature, temperatureZ);
+    }
+    if (Math.abs(pressureZ) > threshold) {
+      flag(reading, "pressure", reading.getPressure(), expectedPressure, pressureZ);
+    }
+  }
+
+  /** Returns up to limit recent anomalies, newest first, optionally for one buoy and time range. */
+  public List<AnomalyEvent> getAnomalies(Integer buoyId, Long since, int limit) {
+    return anomalyLog.query(buoyId, since, limit);
+  }
+
+  private void flag(
+      BuoyResponse reading, String field, double value, double expected, double zScore) {
+    AnomalyEvent anomaly =
+        new AnomalyEvent(
+            reading.getBuoyId(),
+            field,
+            reading.getTimestamp().toEpochMilli(),
+            value,
+            expected,
+            zScore);
+    anomalyLog.add(anomaly);
+    log.info(
+        "Anomaly: buoy {} {} {} (expected {}, z {})",
+        reading.getBuoyId(),
+        field,
+        value,
+        String.format("%.2f", expected),
+        String.format("%.1f", zScore));
+    eventPublisher.publishEvent(anomaly);
+  }
+
+  private BuoyDetectors newDetectors() {
+    return new BuoyDetectors(
+        new EwmaDetector(alpha, threshold, MIN_TEMPERATURE_STDDEV, warmup),
+        new EwmaDetector(alpha, threshold, MIN_PRESSURE_STDDEV, warmup));
+  }
+
+  private static final class BuoyDetectors {
+    private final EwmaDetector temperature;
+    private final EwmaDetector pressure;
+    private Instant lastReading;
+
+    private BuoyDetectors(EwmaDetector temperature, EwmaDetector pressure) {
+      this.temperature = temperature;
+      this.pressure = pressure;
+    }
+  }
+}
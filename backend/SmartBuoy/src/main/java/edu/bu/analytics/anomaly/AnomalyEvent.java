@@ -0,0 +1,13 @@
+package edu.bu.analytics.anomaly;
+
+/**
+ * A reading that deviated from its buoy's recent behaviour, recorded in the {@link AnomalyLog} and
+ * published to listeners.
+ *
+ * @param field temperature or pressure
+ * @param timestamp epoch millis of the reading
+ * @param expected exponentially weighted mean before the reading
+ * @param zScore deviation from the mean in exponentially weighted standard deviations
+ */
+public record AnomalyEvent(
+    int buoyId, String field, long timestamp, double value, double expected, double zScore) {}
@@ -0,0 +1,44 @@
+package edu.bu.analytics.anomaly;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Bounded in-memory log of the most recent anomalies; the oldest are dropped when it is full. */
+public class AnomalyLog {
+
+  private final AnomalyEvent[] events;
+  private int next;
+  private int size;
+
+  /** Creates a log holding at most capacity events. */
+  public AnomalyLog(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Anomaly log capacity must be positive");
+    }
+    this.events = new AnomalyEvent[capacity];
+  }
+
+  public synchronized void add(AnomalyEvent event) {
+    events[next] = event;
+    next = (next + 1) % events.length;
+    size = Math.min(size + 1, events.length);
+  }
+
+  /**
+   * Returns up to limit logged anomalies, newest first.
+   *
+   * @param buoyId only this buoy's anomalies, or all when null
+   * @param since only readings at or after these epoch millis, or all when null
+   */
+  public synchronized List<AnomalyEvent> query(Integer buoyId, Long since, int limit) {
+    List<AnomalyEvent> matches = new ArrayList<>();
+    for (int i = 1; i <= size && matches.size() < limit; i++) {
+      AnomalyEvent event = events[Math.floorMod(next - i, events.length)];
+      if ((buoyId == null || event.buoyId() == buoyId)
+          && (since == null || event.timestamp() >= since)) {
+        matches.add(event);
+      }
+    }
+    return matches;
+  }
+}
@@ -0,0 +1,63 @@
+package edu.bu.analytics.anomaly;
+
+/**
+ * Streaming outlier test on one series using an exponentially weighted mean and variance, in
+ * constant time and memory per value. Not thread-safe.
+ *
+ * <p>Each value is scored against the statistics before it. During warm-up the weight is at least
+ * 1/n, so the first values form a plain average instead of being dominated by the first one.
+ * Flagged values are clamped to the threshold before they update the statistics, so one spike does
+ * not inflate the variance and hide the next, while a lasting level shift is still adopted
+ * gradually.
+ */
+final class EwmaDetector {
+
+  private final double alpha;
+  private final double threshold;
+  private final double minStddev;
+  private final int warmup;
+
+  private long count;
+  private double mean;
+  private double variance;
+
+  EwmaDetector(double alpha, double threshold, double minStddev, int warmup) {
+    if (!(alpha > 0 && alpha < 1)) {
+      throw new IllegalArgumentException("EWMA alpha must be between 0 and 1");
+    }
+    this.alpha = alpha;
+    this.threshold = threshold;
+    this.minStddev = minStddev;
+    this.warmup = warmup;
+  }
+
+  double mean() {
+    return mean;
+  }
+
+  /**
+   * Scores a value and folds it into the statistics.
+   *
+   * @return its z-score, or 0 while warming up or for non-finite values
+   */
+  double update(double value) {
+    if (!Double.isFinite(value)) {
+      return 0;
+    }
+    count++;
+    if (count == 1) {
+      mean = value;
+      return 0;
+    }
+    double stddev = Math.max(Math.sqrt(variance), minStddev);
+    double zScore = (value - mean) / stddev;
+    double clamped =
+        Math.abs(zScore) > threshold ? mean + Math.signum(zScore) * threshold * stddev : value;
+    double weight = Math.max(alpha, 1.0 / count);
+    double diff = clamped - mean;
+    double increment = weight * diff;
+    mean += increment;
+    variance = (1 - weight) * (variance + diff * increment);
+    return count > warmup ? zScore : 0;
+  }
+}
@@ -0,0 +1,105 @@
+package edu.bu.analytics.downsample;
+
+import java.util.Arrays;
+
+/**
+ * Ramer-Douglas-Peucker polyline simplification.
+ *
+ * <p>The first and last points are kept. Within each span between kept points, the point farthest
+ * from the segment joining the span's ends is kept too and the span is split there, until every
+ * dropped point lies within the tolerance of the simplified line. Spans wait on an explicit stack
+ * of index pairs rather than the call stack, so million-point tracks cannot overflow it, and the
+ * coordinates stay in primitive arrays throughout.
+ */
+public class DouglasPeucker {
+
+  /**
+   * Selects the points to keep.
+   *
+   * @param xCoords first coordinate of each point, in the same unit as the tolerance
+   * @param yCoords second coordinate of each point
+   * @param tolerance largest distance a dropped point may lie from the simplified line
+   * @return ascending indices of the points to keep
+   */
+  public static int[] simplify(double[] xCoords, double[] yCoords, double tolerance) {
+    if (xCoords.length != yCoords.length) {
+      throw new IllegalArgumentException("xCoords and yCoords must have the same length");
+    }
+    if (!(tolerance >= 0)) {
+      throw new IllegalArgumentException("tolerance must not be negative");
+    }
+    int length = xCoords.length;
+    if (length <= 2) {
+      int[] all = new int[length];
+      for (int i = 0; i < length; i++) {
+        all[i] = i;
+      }
+      return all;
+    }
+
+    boolean[] keep = new boolean[length];
+    keep[0] = true;
+    keep[length - 1] = true;
+    int kept = 2;
+    double toleranceSquared = tolerance * tolerance;
+    int[] stack = new int[64];
+    int top = 0;
+    stack[top++] = 0;
+    stack[top++] = length - 1;
+    while (top > 0) {
+      int last = stack[--top];
+      int first = stack[--top];
+      int farthest = -1;
+      double farthestSquared = toleranceSquared;
+      for (int i = first + 1; i < last; i++) {
+        double distanceSquared = segmentDistanceSquared(xCoords, yCoords, i, first, last);
+        if (distanceSquared > farthestSquared) {
+          farthest = i;
+          farthestSquared = distanceSquared;
+        }
+      }
+      if (farthest < 0) {
+        continue;
+      }
+      keep[farthest] = true;
+      kept++;
+      if (top + 4 > stack.length) {
+        stack = Arrays.copyOf(stack, stack.length * 2);
+      }
+      if (farthest - first > 1) {
+        stack[top++] = first;
+        stack[top++] = farthest;
+      }
+      if (last - farthest > 1) {
+        stack[top++] = farthest;
+        stack[top++] = last;
+      }
+    }
+
+    int[] indices = new int[kept];
+    int next = 0;
+    for (int i = 0; i < length; i++) {
+      if (keep[i]) {
+        indices[next++] = i;
+      }
+    }
+    return indices;
+  }
+
+  /** Squared distance from the point to the segment between the start and end points. */
+  private static double segmentDistanceSquared(
+      double[] xCoords, double[] yCoords, int point, int start, int end) {
+    double spanX = xCoords[end] - xCoords[start];
+    double spanY = yCoords[end] - yCoords[start];
+    double offsetX = xCoords[point] - xCoords[start];
+    double offsetY = yCoords[point] - yCoords[start];
+    double lengthSquared = spanX * spanX + spanY * spanY;
+    if (lengthSquared > 0) {
+      double fraction =
+          Math.max(0, Math.min(1, (offsetX * spanX + offsetY * spanY) / lengthSquared));
+      offsetX -= fraction * spanX;
+      offsetY -= fraction * spanY;
+    }
+    return offsetX * offsetX + offsetY * offsetY;
+  }
+}
@@ -0,0 +1,129 @@
+package edu.bu.analytics.downsample;
+
+import edu.bu.analytics.geofence.GeoUtils;
+import edu.bu.data.BuoyResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Reduces a buoy history to a bounded number of visually faithful points for charting. */
+public class HistoryDownsampler {
+
+  /** Web Mercator metres per pixel of 256 px tiles at zoom 0 on the equator. */
+  private static final double METERS_PER_PIXEL_AT_ZOOM_0 = 156_543.03392;
+
+  private static final int MAX_ZOOM = 24;
+
+  /**
+   * Downsamples the history for the given measurement type with {@link Lttb}.
+   *
+   * <p>Temperature and pressure are treated as time series. Location is treated as a track: the
+   * points are projected onto a local plane (longitude scaled by the cosine of the mean latitude)
+   * so that turns are weighted by their real shape rather than by degrees.
+   *
+   * @param history readings in ascending timestamp order
+   * @param type temperature, pressure or location
+   * @param maxPoints maximum number of readings to return
+   */
+  public static List<BuoyResponse> downsample(
+      List<BuoyResponse> history, String type, int maxPoints) {
+    if (maxPoints < Lttb.MIN_THRESHOLD) {
+      throw new IllegalArgumentException("maxPoints must be at least " + Lttb.MIN_THRESHOLD);
+    }
+    if (history.size() <= maxPoints) {
+      return history;
+    }
+    int size = history.size();
+    double[] xCoords = new double[size];
+    double[] yCoords = new double[size];
+    switch (type) {
+      case "temperature":
+      case "pressure":
+        boolean temperature = "temperature".equals(type);
+        for (int i = 0; i < size; i++) {
+          BuoyResponse reading = history.get(i);
+          xCoords[i] = reading.getTimestamp().toEpochMilli();
+          yCoords[i] = temperature ? reading.getTemperature() : reading.getPressure();
+        }
+        break;
+      case "location":
+        double meanLat =
+            history.stream().mapToDouble(BuoyResponse::getLatitude).average().orElse(0);
+        double lonScale = Math.cos(Math.toRadians(meanLat));
+        for (int i = 0; i < size; i++) {
+          BuoyResponse reading = history.get(i);
+          xCoords[i] = reading.getLongitude() * lonScale;
+          yCoords[i] = reading.getLatitude();
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Invalid measurement type: " + type);
+    }
+
+    int[] kept = Lttb.downsample(xCoords, yCoords, maxPoints);
+    List<BuoyResponse> result = new ArrayList<>(kept.length);
+    for (int index : kept) {
+      result.add(history.get(index));
+    }
+    return result;
+  }
+
+  /**
+   * Simplifies a location track with {@link DouglasPeucker}, keeping every turn that deviates more
+   * than the tolerance from the simplified line.
+   *
+   * <p>Points are projected to metres east and north of the first fix, so the tolerance is the
+   * same in every direction; the projection is accurate for tracks spanning up to a few hundred
+   * kilometres.
+   *
+   * @param history readings in ascending timestamp order
+   * @param toleranceMeters largest distance a dropped fix may lie from the simplified track
+   */
+  public static List<BuoyResponse> simplifyTrack(
+      List<BuoyResponse> history, double toleranceMeters) {
+    if (!(toleranceMeters >= 0)) {
+      throw new IllegalArgumentException("toleranceMeters must not be negative");
+    }
+    int size = history.size();
+    if (size <= 2) {
+      return history;
+    }
+    double originLat = history.get(0).getLatitude();
+    double originLon = history.get(0).getLongitude();
+    double metersPerDegree = Math.toRadians(GeoUtils.EARTH_RADIUS);
+    double metersPerDegreeLon = metersPerDegree * Math.cos(Math.toRadians(originLat));
+    double[] east = new double[size];
+    double[] north = new double[size];
+    for (int i = 0; i < size; i++) {
+      BuoyResponse reading = history.get(i);
+      double deltaLon = reading.getLongitude() - originLon;
+      if (deltaLon > 180) {
+        deltaLon -= 360;
+      } else if (deltaLon < -180) {
+        deltaLon += 360;
+      }
+      east[i] = deltaLon * metersPerDegreeLon;
+      north[i] = (reading.getLatitude() - originLat) * metersPerDegree;
+    }
+
+    int[] kept = DouglasPeucker.simplify(east, north, toleranceMeters);
+    List<BuoyResponse> result = new ArrayList<>(kept.length);
+    for (int index : kept) {
+      result.add(history.get(index));
+    }
+    return result;
+  }
+
+  /**
+   * Tolerance matching one screen pixel of a Web Mercator map at the given zoom level, so the
+   * simplified track is indistinguishable from the full one at that zoom.
+   *
+   * @param zoom map zoom level from 0 to 24
+   * @param latitude latitude the track is viewed at, which sets the Mercator scale
+   */
+  public static double toleranceForZoom(int zoom, double latitude) {
+    if (zoom < 0 || zoom > MAX_ZOOM) {
+      throw new IllegalArgumentException("zoom must be between 0 and " + MAX_ZOOM);
+    }
+    return METERS_PER_PIXEL_AT_ZOOM_0 * Math.cos(Math.toRadians(latitude)) / (1L << zoom);
+  }
+}
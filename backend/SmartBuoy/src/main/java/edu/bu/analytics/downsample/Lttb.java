@@ -0,0 +1,86 @@
+package edu.bu.analytics.downsample;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling.
+ *
+ * <p>The first and last points are always kept. The points in between are split into equal
+ * buckets, and from each bucket the point forming the largest triangle with the previously kept
+ * point and the average of the next bucket is kept. Unlike averaging this keeps spikes and sharp
+ * turns, and it runs in a single linear pass.
+ */
+public class Lttb {
+
+  /** Smallest threshold the algorithm can honour: first point, one bucket, last point. */
+  public static final int MIN_THRESHOLD = 3;
+
+  /**
+   * Selects the points to keep.
+   *
+   * <p>Buckets follow array order, so the coordinates do not have to be monotonic: passing time
+   * and value downsamples a time series, passing projected longitude and latitude in time order
+   * simplifies a track.
+   *
+   * @param xCoords first coordinate of each point
+   * @param yCoords second coordinate of each point
+   * @param threshold maximum number of points to keep, at least {@link #MIN_THRESHOLD}
+   * @return ascending indices of the points to keep
+   */
+  public static int[] downsample(double[] xCoords, double[] yCoords, int threshold) {
+    if (xCoords.length != yCoords.length) {
+      throw new IllegalArgumentException("xCoords and yCoords must have the same length");
+    }
+    if (threshold < MIN_THRESHOLD) {
+      throw new IllegalArgumentException("threshold must be at least " + MIN_THRESHOLD);
+    }
+    int length = xCoords.length;
+    if (threshold >= length) {
+      int[] all = new int[length];
+      for (int i = 0; i < length; i++) {
+        all[i] = i;
+      }
+      return all;
+    }
+
+    int[] kept = new int[threshold];
+    double bucketSize = (double) (length - 2) / (threshold - 2);
+    int previous = 0;
+    kept[0] = 0;
+
+    for (int bucket = 0; bucket < threshold - 2; bucket++) {
+      int start = (int) Math.floor(bucket * bucketSize) + 1;
+      int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+
+      // Average of the next bucket; the last bucket looks ahead to the final point only.
+      int nextStart = end;
+      int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, length);
+      double avgX = 0;
+      double avgY = 0;
+      for (int i = nextStart; i < nextEnd; i++) {
+        avgX += xCoords[i];
+        avgY += yCoords[i];
+      }
+      int nextCount = nextEnd - nextStart;
+      avgX /= nextCount;
+      avgY /= nextCount;
+
+      double prevX = xCoords[previous];
+      double prevY = yCoords[previous];
+      double maxArea = -1;
+      int chosen = start;
+      for (int i = start; i < end; i++) {
+        // Twice the triangle area; the factor does not change which point wins.
+        double area =
+            Math.abs((prevX - avgX) * (yCoords[i] - prevY) - (prevX - xCoords[i]) * (avgY - prevY));
+        if (area > maxArea) {
+          maxArea = area;
+          chosen = i;
+        }
+      }
+      kept[bucket + 1] = chosen;
+      previous = chosen;
+    }
+
+    kept[threshold - 1] = length - 1;
+    return kept;
+  }
+}
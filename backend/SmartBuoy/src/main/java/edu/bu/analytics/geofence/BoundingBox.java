@@ -0,0 +1,49 @@
+package edu.bu.analytics.geofence;
+
+/**
+ * A latitude/longitude rectangle. A box whose minLon is greater than its maxLon wraps across the
+ * antimeridian.
+ */
+public record BoundingBox(double minLat, double minLon, double maxLat, double maxLon) {
+
+  /** Validates the corners of the box. */
+  public BoundingBox {
+    if (minLat > maxLat) {
+      throw new IllegalArgumentException("minLat must not be greater than maxLat");
+    }
+    if (minLat < -90 || maxLat > 90 || minLon < -180 || maxLon > 180) {
+      throw new IllegalArgumentException("Bounding box is outside valid coordinates");
+    }
+  }
+
+  /**
+   * Builds a box from optional request parameters.
+   *
+   * @return null when no corner was given
+   * @throws IllegalArgumentException if only some of the corners were given
+   */
+  public static BoundingBox fromParams(Double minLat, Double minLon, Double maxLat, Double maxLon) {
+    if (minLat == null && minLon == null && maxLat == null && maxLon == null) {
+      return null;
+    }
+    if (minLat == null || minLon == null || maxLat == null || maxLon == null) {
+      throw new IllegalArgumentException(
+          "minLat, minLon, maxLat and maxLon must be given together");
+    }
+    return new BoundingBox(minLat, minLon, maxLat, maxLon);
+  }
+
+  public boolean wrapsAntimeridian() {
+    return minLon > maxLon;
+  }
+
+  public boolean contains(double lat, double lon) {
+    if (lat < minLat || lat > maxLat) {
+      return false;
+    }
+    if (wrapsAntimeridian()) {
+      return lon >= minLon || lon <= maxLon;
+    }
+    return lon >= minLon && lon <= maxLon;
+  }
+}
@@ -0,0 +1,159 @@
+package edu.bu.analytics.geofence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Corridor fence: every point within a half-width of a polyline, such as a shipping lane or a tow
+ * route, tested in a local projection around the first vertex.
+ *
+ * <p>Segments are bucketed in a uniform grid over the corridor's box, each in the cells its
+ * half-width-padded box overlaps. A check looks up one cell and measures the distance only to the
+ * segments listed there, so long polylines cost little more to test than short ones.
+ */
+public final class CorridorFence implements Fence {
+
+  /** Cells per side at most, which bounds the grid to a few thousand cells. */
+  private static final int MAX_CELLS_PER_SIDE = 64;
+
+  private static final int[] NO_SEGMENTS = new int[0];
+
+  private final List<double[]> path;
+  private final double halfWidthMeters;
+  private final LocalProjection projection;
+  private final double[] easts;
+  private final double[] norths;
+  private final double gridMinEast;
+  private final double gridMinNorth;
+  private final double cellSize;
+  private final int columns;
+  private final int rows;
+  private final int[][] cells;
+  private final BoundingBox bounds;
+
+  /** Creates a corridor of halfWidthMeters either side of the path of [lat, lon] points. */
+  public CorridorFence(List<double[]> path, double halfWidthMeters) {
+    FenceValidation.requireValidPoints(path, 2, "Corridor");
+    if (path.size() > FenceValidation.MAX_VERTICES) {
+      throw new IllegalArgumentException(
+          "Corridor has more than " + FenceValidation.MAX_VERTICES + " points");
+    }
+    if (!(halfWidthMeters > 0)) {
+      throw new IllegalArgumentException("Corridor half-width must be positive");
+    }
+    this.path = List.copyOf(path);
+    this.halfWidthMeters = halfWidthMeters;
+    this.projection = new LocalProjection(path.get(0)[0], path.get(0)[1]);
+    int points = path.size();
+    this.easts = new double[points];
+    this.norths = new double[points];
+    double minEast = Double.POSITIVE_INFINITY;
+    double minNorth = Double.POSITIVE_INFINITY;
+    double maxEast = Double.NEGATIVE_INFINITY;
+    double maxNorth = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < points; i++) {
+      easts[i] = projection.east(path.get(i)[1]);
+      norths[i] = projection.north(path.get(i)[0]);
+      minEast = Math.min(minEast, easts[i]);
+      minNorth = Math.min(minNorth, norths[i]);
+      maxEast = Math.max(maxEast, easts[i]);
+      maxNorth = Math.max(maxNorth, norths[i]);
+    }
+    this.gridMinEast = minEast - halfWidthMeters;
+    this.gridMinNorth = minNorth - halfWidthMeters;
+    double extent = Math.max(maxEast - minEast, maxNorth - minNorth) + 2 * halfWidthMeters;
+    this.cellSize = Math.max(halfWidthMeters, extent / MAX_CELLS_PER_SIDE);
+    this.columns = (int) ((maxEast + halfWidthMeters - gridMinEast) / cellSize) + 1;
+    this.rows = (int) ((maxNorth + halfWidthMeters - gridMinNorth) / cellSize) + 1;
+
+    List<List<Integer>> buckets = new ArrayList<>(columns * rows);
+    for (int i = 0; i < columns * rows; i++) {
+      buckets.add(null);
+    }
+    for (int segment = 0; segment < points - 1; segment++) {
+      int firstColumn = column(Math.min(easts[segment], easts[segment + 1]) - halfWidthMeters);
+      int lastColumn = column(Math.max(easts[segment], easts[segment + 1]) + halfWidthMeters);
+      int firstRow = row(Math.min(norths[segment], norths[segment + 1]) - halfWidthMeters);
+      int lastRow = row(Math.max(norths[segment], norths[segment + 1]) + halfWidthMeters);
+      for (int row = firstRow; row <= lastRow; row++) {
+        for (int column = firstColumn; column <= lastColumn; column++) {
+          int cell = row * columns + column;
+          if (buckets.get(cell) == null) {
+            buckets.set(cell, new ArrayList<>());
+          }
+          buckets.get(cell).add(segment);
+        }
+      }
+    }
+    this.cells = new int[columns * rows][];
+    for (int i = 0; i < cells.length; i++) {
+      List<Integer> bucket = buckets.get(i);
+      cells[i] =
+          bucket == null ? NO_SEGMENTS : bucket.stream().mapToInt(Integer::intValue).toArray();
+    }
+    this.bounds = FenceValidation.bounds(path, halfWidthMeters);
+  }
+
+  public List<double[]> path() {
+    return path;
+  }
+
+  public double halfWidthMeters() {
+    return halfWidthMeters;
+  }
+
+  @Override
+  public boolean isOutside(double lat, double lon) {
+    if (!bounds.contains(lat, lon)) {
+      return true;
+    }
+    double pointEast = projection.east(lon);
+    double pointNorth = projection.north(lat);
+    if (pointEast < gridMinEast || pointNorth < gridMinNorth) {
+      return true;
+    }
+    int column = (int) ((pointEast - gridMinEast) / cellSize);
+    int row = (int) ((pointNorth - gridMinNorth) / cellSize);
+    if (column >= columns || row >= rows) {
+      return true;
+    }
+    for (int segment : cells[row * columns + column]) {
+      double distance =
+          LocalProjection.segmentDistance(
+              pointEast,
+              pointNorth,
+              easts[segment],
+              norths[segment],
+              easts[segment + 1],
+              norths[segment + 1]);
+      if (distance <= halfWidthMeters) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public BoundingBox bounds() {
+    return bounds;
+  }
+
+  /** A corridor of the same path whose half-width is widened, or narrowed to no less than 1 m. */
+  @Override
+  public CorridorFence withMargin(double marginMeters) {
+    return new CorridorFence(path, Math.max(1, halfWidthMeters + marginMeters));
+  }
+
+  @Override
+  public String type() {
+    return "corridor";
+  }
+
+  private int column(double east) {
+    return Math.min(columns - 1, Math.max(0, (int) ((east - gridMinEast) / cellSize)));
+  }
+
+  private int row(double north) {
+    return Math.min(rows - 1, Math.max(0, (int) ((north - gridMinNorth) / cellSize)));
+  }
+}
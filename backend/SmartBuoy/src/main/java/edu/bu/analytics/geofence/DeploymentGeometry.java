@@ -0,0 +1,147 @@
+package edu.bu.analytics.geofence;
+
+import edu.bu.data.Deployment;
+
+/**
+ * Circle fence with its geometry precomputed, for containment checks on the ingest path.
+ *
+ * <p>A check first rejects points outside the circle's exact latitude/longitude bounding box. It
+ * then compares the squared equirectangular distance, scaled by the centre's cos(lat), against
+ * squared radii widened and narrowed by a relative margin. Only points in that margin fall back to
+ * {@link GeoUtils#distanceMeters}, so the usual check costs a few multiplications and no trig.
+ *
+ * <p>Error bound: within distance d of the centre, the equirectangular distance differs from the
+ * haversine distance by a relative error below |tan(lat0)|·d/(2R) + (1 + tan²(lat0))·(d/R)², where
+ * R is the earth radius. The margin is twice that bound at d = radius, so the fast answer always
+ * agrees with haversine. For a 100 km fence at 42°N the margin is about 1.5%; near the poles it
+ * grows until every check falls back to haversine.
+ */
+public final class DeploymentGeometry implements Fence {
+
+  private static final double METERS_PER_DEGREE = Math.toRadians(GeoUtils.EARTH_RADIUS);
+
+  private final double lat;
+  private final double lon;
+  private final double radiusMeters;
+  private final double latExtentDegrees;
+  private final double lonExtentDegrees;
+  private final double metersPerDegreeLon;
+  private final double innerRadiusSquared;
+  private final double outerRadiusSquared;
+
+  /** Precomputes the geometry of a circle of radiusMeters around the given centre. */
+  public DeploymentGeometry(double lat, double lon, double radiusMeters) {
+    if (!(radiusMeters >= 0)) {
+      throw new IllegalArgumentException("Radius must not be negative: " + radiusMeters);
+    }
+    this.lat = lat;
+    this.lon = lon;
+    this.radiusMeters = radiusMeters;
+
+    double angular = radiusMeters / GeoUtils.EARTH_RADIUS;
+    double cosLat = Math.cos(Math.toRadians(lat));
+    // Tiny slack keeps points on the box edge from being rejected by rounding.
+    this.latExtentDegrees = Math.toDegrees(angular) * (1 + 1e-9);
+    double sinLonExtent = Math.sin(Math.min(angular, Math.PI / 2)) / cosLat;
+    this.lonExtentDegrees =
+        sinLonExtent >= 1 || Math.abs(lat) + latExtentDegrees >= 90
+            ? 180
+            : Math.toDegrees(Math.asin(sinLonExtent)) * (1 + 1e-9);
+    this.metersPerDegreeLon = METERS_PER_DEGREE * cosLat;
+
+    double tanLat = Math.abs(Math.tan(Math.toRadians(lat)));
+    double margin = 2 * (tanLat * angular / 2 + (1 + tanLat * tanLat) * angular * angular);
+    double inner = margin >= 1 ? 0 : radiusMeters * (1 - margin);
+    double outer = margin >= 1 ? 0 : radiusMeters * (1 + margin);
+    this.innerRadiusSquared = inner * inner;
+    // A zero outer radius marks the margin as unusable, so every check past the box uses haversine.
+    this.outerRadiusSquared = outer * outer;
+  }
+
+  /** Precomputes the geometry of a deployment's fence. */
+  public static DeploymentGeometry of(Deployment deployment) {
+    return new DeploymentGeometry(deployment.lat, deployment.lon, deployment.allowedRadiusMeters);
+  }
+
+  public double radiusMeters() {
+    return radiusMeters;
+  }
+
+  /** True when the point is farther from the centre than the radius, as haversine would judge. */
+  @Override
+  public boolean isOutside(double pointLat, double pointLon) {
+    double dLat = pointLat - lat;
+    if (Math.abs(dLat) > latExtentDegrees) {
+      return true;
+    }
+    double dLon = wrapLongitude(pointLon - lon);
+    if (Math.abs(dLon) > lonExtentDegrees) {
+      return true;
+    }
+    if (outerRadiusSquared > 0) {
+      double north = dLat * METERS_PER_DEGREE;
+      double east = dLon * metersPerDegreeLon;
+      double squared = north * north + east * east;
+      if (squared < innerRadiusSquared) {
+        return false;
+      }
+      if (squared > outerRadiusSquared) {
+        return true;
+      }
+    }
+    return GeoUtils.distanceMeters(lat, lon, pointLat, pointLon) > radiusMeters;
+  }
+
+  /** The circle's exact box; it spans every longitude when the circle crosses the antimeridian. */
+  @Override
+  public BoundingBox bounds() {
+    double minLon = lon - lonExtentDegrees;
+    double maxLon = lon + lonExtentDegrees;
+    if (minLon < -180 || maxLon > 180) {
+      minLon = -180;
+      maxLon = 180;
+    }
+    double minLat = Math.max(-90, lat - latExtentDegrees);
+    double maxLat = Math.min(90, lat + latExtentDegrees);
+    return new BoundingBox(minLat, minLon, maxLat, maxLon);
+  }
+
+  @Override
+  public DeploymentGeometry withMargin(double marginMeters) {
+    return new DeploymentGeometry(lat, lon, Math.max(0, radiusMeters + marginMeters));
+  }
+
+  @Override
+  public String type() {
+    return "circle";
+  }
+
+  /**
+   * Checks many points at once, writing each answer to outside.
+   *
+   * @return the number of points outside
+   */
+  public int classify(double[] lats, double[] lons, boolean[] outside) {
+    if (lats.length != lons.length || outside.length < lats.length) {
+      throw new IllegalArgumentException("Coordinate and result arrays must match in length");
+    }
+    int count = 0;
+    for (int i = 0; i < lats.length; i++) {
+      outside[i] = isOutside(lats[i], lons[i]);
+      if (outside[i]) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static double wrapLongitude(double dLon) {
+    if (dLon > 180) {
+      return dLon - 360;
+    }
+    if (dLon < -180) {
+      return dLon + 360;
+    }
+    return dLon;
+  }
+}
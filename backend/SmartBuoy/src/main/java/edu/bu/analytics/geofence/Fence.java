@@ -0,0 +1,24 @@
+package edu.bu.analytics.geofence;
+
+import edu.bu.data.Deployment;
+
+/** A region a deployed buoy must stay inside, with a containment test cheap enough for ingest. */
+public interface Fence {
+
+  /** The fence of a deployment: its shape when it has one, otherwise its circle. */
+  static Fence of(Deployment deployment) {
+    return deployment.fence != null ? deployment.fence : DeploymentGeometry.of(deployment);
+  }
+
+  /** True when the point lies outside the fence. */
+  boolean isOutside(double lat, double lon);
+
+  /** A box containing the whole fence. */
+  BoundingBox bounds();
+
+  /** This fence grown by marginMeters in every direction, or shrunk when it is negative. */
+  Fence withMargin(double marginMeters);
+
+  /** The fence kind as named in deployment requests: circle, polygon or corridor. */
+  String type();
+}
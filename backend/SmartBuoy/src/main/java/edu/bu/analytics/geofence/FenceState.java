@@ -0,0 +1,7 @@
+package edu.bu.analytics.geofence;
+
+/** Whether a deployed buoy is currently considered inside or outside its fence. */
+public enum FenceState {
+  INSIDE,
+  OUTSIDE
+}
@@ -0,0 +1,65 @@
+package edu.bu.analytics.geofence;
+
+import edu.bu.data.Deployment;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Inside/outside state machine for one buoy. Leaving needs a position beyond the fence grown by the
+ * hysteresis margin and returning needs one within the fence shrunk by it, so a buoy bobbing on the
+ * boundary does not flap. A candidate transition must also hold on every reading for the dwell
+ * time, measured in reading timestamps, before it takes effect. Both thresholds are precomputed
+ * {@link Fence} instances. Not thread-safe.
+ */
+class FenceTracker {
+
+  private final Fence exitFence;
+  private final Fence returnFence;
+  private final Duration dwell;
+
+  private FenceState state = FenceState.INSIDE;
+  private Instant pendingSince;
+  private Instant lastReading;
+
+  FenceTracker(Deployment deployment, double hysteresisMeters, Duration dwell) {
+    Fence fence = Fence.of(deployment);
+    this.exitFence = fence.withMargin(hysteresisMeters);
+    this.returnFence = fence.withMargin(-hysteresisMeters);
+    this.dwell = dwell;
+  }
+
+  FenceState state() {
+    return state;
+  }
+
+  /**
+   * Feeds a reading's position.
+   *
+   * @return the new state when this reading completes a transition
+   */
+  Optional<FenceState> update(Instant timestamp, double lat, double lon) {
+    if (lastReading != null && timestamp.isBefore(lastReading)) {
+      return Optional.empty();
+    }
+    lastReading = timestamp;
+
+    boolean crossed =
+        state == FenceState.INSIDE
+            ? exitFence.isOutside(lat, lon)
+            : !returnFence.isOutside(lat, lon);
+    if (!crossed) {
+      pendingSince = null;
+      return Optional.empty();
+    }
+    if (pendingSince == null) {
+      pendingSince = timestamp;
+    }
+    if (Duration.between(pendingSince, timestamp).compareTo(dwell) < 0) {
+      return Optional.empty();
+    }
+    state = state == FenceState.INSIDE ? FenceState.OUTSIDE : FenceState.INSIDE;
+    pendingSince = null;
+    return Optional.of(state);
+  }
+}
@@ -0,0 +1,46 @@
+package edu.bu.analytics.geofence;
+
+import java.util.List;
+
+/** Shared checks on the vertex lists of polygon and corridor fences. */
+final class FenceValidation {
+
+  static final int MAX_VERTICES = 2_000;
+
+  private FenceValidation() {}
+
+  static void requireValidPoints(List<double[]> points, int minimum, String what) {
+    if (points == null || points.size() < minimum) {
+      throw new IllegalArgumentException(what + " needs at least " + minimum + " points");
+    }
+    for (double[] point : points) {
+      if (point == null
+          || point.length != 2
+          || !(point[0] >= -90 && point[0] <= 90 && point[1] >= -180 && point[1] <= 180)) {
+        throw new IllegalArgumentException(what + " points must be valid [lat, lon] pairs");
+      }
+    }
+  }
+
+  /** Box around the points, assuming they do not straddle the antimeridian. */
+  static BoundingBox bounds(List<double[]> points, double padMeters) {
+    double minLat = 90;
+    double maxLat = -90;
+    double minLon = 180;
+    double maxLon = -180;
+    for (double[] point : points) {
+      minLat = Math.min(minLat, point[0]);
+      maxLat = Math.max(maxLat, point[0]);
+      minLon = Math.min(minLon, point[1]);
+      maxLon = Math.max(maxLon, point[1]);
+    }
+    double padLat = Math.toDegrees(padMeters / GeoUtils.EARTH_RADIUS);
+    double widestLat = Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat)));
+    double padLon = padLat / Math.max(Math.cos(widestLat), 1e-6);
+    return new BoundingBox(
+        Math.max(-90, minLat - padLat),
+        Math.max(-180, minLon - padLon),
+        Math.min(90, maxLat + padLat),
+        Math.min(180, maxLon + padLon));
+  }
+}
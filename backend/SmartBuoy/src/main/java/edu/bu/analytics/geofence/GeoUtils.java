@@ -5,7 +5,7 @@ package edu.bu.analytics.geofence;
  * geographic coordinates.
  */
 public class GeoUtils {
-  private static final double EARTH_RADIUS = 6371000;
+  public static final double EARTH_RADIUS = 6371000;
 
   public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
 
@@ -0,0 +1,124 @@
+package edu.bu.analytics.geofence;
+
+import edu.bu.data.BuoyReadingEvent;
+import edu.bu.data.BuoyResponse;
+import edu.bu.data.DataStore;
+import edu.bu.data.Deployment;
+import edu.bu.data.DeploymentSavedEvent;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Evaluates each ingested reading against its buoy's cached deployment, with no store reads on
+ * the ingest path. Each deployed buoy has a {@link FenceTracker}; only confirmed state changes are
+ * logged and published as {@link GeofenceTransitionEvent}s, so a buoy that stays outside raises
+ * one alert rather than one per reading. Alerts themselves are sent by the alert dispatcher.
+ */
+@Service
+public class GeofenceMonitor {
+
+  private static final Logger log = LoggerFactory.getLogger(GeofenceMonitor.class);
+
+  private final DataStore dataStore;
+  private final ApplicationEventPublisher eventPublisher;
+  private final double hysteresisMeters;
+  private final Duration dwell;
+  private final Map<Integer, TrackedFence> fences = new ConcurrentHashMap<>();
+
+  /** Creates a GeofenceMonitor with hysteresis and dwell settings from application properties. */
+  public GeofenceMonitor(
+      DataStore dataStore,
+      ApplicationEventPublisher eventPublisher,
+      @Value("${geofence.hysteresis-meters:10}") double hysteresisMeters,
+      @Value("${geofence.dwell-seconds:60}") long dwellSeconds) {
+    this.dataStore = dataStore;
+    this.eventPublisher = eventPublisher;
+    this.hysteresisMeters = hysteresisMeters;
+    this.dwell = Duration.ofSeconds(dwellSeconds);
+  }
+
+  /** Caches the deployment of every stored buoy so fences are enforced after a restart. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void seedFromStore() {
+    try {
+      for (BuoyResponse reading : dataStore.getLatestForAll()) {
+        dataStore.getDeployment(reading.getBuoyId()).ifPresent(this::track);
+      }
+      log.info("Geofence monitor tracking {} deployment(s)", fences.size());
+    } catch (Exception e) {
+      log.warn("Could not seed geofence monitor from store: {}", e.getMessage());
+    }
+  }
+
+  /** A new deployment starts the buoy inside its fence, since the fence is centred on it. */
+  @EventListener
+  public void onDeployment(DeploymentSavedEvent event) {
+    track(event.deployment());
+  }
+
+  @EventListener
+  public void onReading(BuoyReadingEvent event) {
+    BuoyResponse reading = event.reading();
+    int buoyId = reading.getBuoyId();
+    TrackedFence fence = fences.get(buoyId);
+    if (fence == null) {
+      return;
+    }
+    FenceTracker tracker = fence.tracker();
+    Optional<FenceState> transition;
+    synchronized (tracker) {
+      transition =
+          tracker.update(reading.getTimestamp(), reading.getLatitude(), reading.getLongitude());
+    }
+    transition.ifPresent(
+        current -> {
+          Deployment deployment = fence.deployment();
+          double distance =
+              GeoUtils.distanceMeters(
+                  deployment.lat, deployment.lon, reading.getLatitude(), reading.getLongitude());
+          FenceState previous =
+              current == FenceState.OUTSIDE ? FenceState.INSIDE : FenceState.OUTSIDE;
+          if (current == FenceState.OUTSIDE) {
+            log.info("Buoy {} left geofence ({} m from centre)", buoyId, (long) distance);
+          } else {
+            log.info("Buoy {} returned inside geofence", buoyId);
+          }
+          eventPublisher.publishEvent(
+              new GeofenceTransitionEvent(
+                  buoyId,
+                  deployment.deployedAt,
+                  previous,
+                  current,
+                  distance,
+                  reading.getTimestamp()));
+        });
+  }
+
+  /** Returns the tracked fence state of a deployed buoy. */
+  public Optional<FenceState> getState(int buoyId) {
+    TrackedFence fence = fences.get(buoyId);
+    if (fence == null) {
+      return Optional.empty();
+    }
+    synchronized (fence.tracker()) {
+      return Optional.of(fence.tracker().state());
+    }
+  }
+
+  private void track(Deployment deployment) {
+    FenceTracker tracker = new FenceTracker(deployment, hysteresisMeters, dwell);
+    fences.put(deployment.buoyId, new TrackedFence(deployment, tracker));
+  }
+
+  /** A deployment paired with its state, replaced together so they never disagree. */
+  private record TrackedFence(Deployment deployment, FenceTracker tracker) {}
+}
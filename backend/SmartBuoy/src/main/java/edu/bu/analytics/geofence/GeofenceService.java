@@ -7,6 +7,9 @@ public class GeofenceService {
 
   public static boolean isOutsideFence(
       Deployment deployment, double currentLat, double currentLon) {
+    if (deployment.fence != null) {
+      return deployment.fence.isOutside(currentLat, currentLon);
+    }
 
     double distance =
         GeoUtils.distanceMeters(deployment.lat, deployment.lon, currentLat, currentLon);
@@ -0,0 +1,17 @@
+package edu.bu.analytics.geofence;
+
+import java.time.Instant;
+
+/**
+ * Published when a buoy's fence state changes from previous to current, after the new state has
+ * held for the dwell time. Distance is that of the reading that confirmed the transition.
+ *
+ * @param deployedAt deployment time of the fence that was crossed, which identifies it
+ */
+public record GeofenceTransitionEvent(
+    int buoyId,
+    long deployedAt,
+    FenceState previous,
+    FenceState current,
+    double distanceMeters,
+    Instant timestamp) {}
@@ -0,0 +1,59 @@
+package edu.bu.analytics.geofence;
+
+/**
+ * Equirectangular projection to metres east and north of an origin. Distances it yields are
+ * accurate to well under a percent within a few tens of kilometres of the origin, which covers
+ * harbour and lane sized fences.
+ */
+final class LocalProjection {
+
+  private static final double METERS_PER_DEGREE = Math.toRadians(GeoUtils.EARTH_RADIUS);
+
+  private final double originLat;
+  private final double originLon;
+  private final double metersPerDegreeLon;
+
+  LocalProjection(double originLat, double originLon) {
+    this.originLat = originLat;
+    this.originLon = originLon;
+    this.metersPerDegreeLon = METERS_PER_DEGREE * Math.cos(Math.toRadians(originLat));
+  }
+
+  /** Metres east of the origin. */
+  double east(double lon) {
+    double deltaLon = lon - originLon;
+    if (deltaLon > 180) {
+      deltaLon -= 360;
+    } else if (deltaLon < -180) {
+      deltaLon += 360;
+    }
+    return deltaLon * metersPerDegreeLon;
+  }
+
+  /** Metres north of the origin. */
+  double north(double lat) {
+    return (lat - originLat) * METERS_PER_DEGREE;
+  }
+
+  /** Distance from a point to the segment from start to end, all in projected metres. */
+  static double segmentDistance(
+      double pointEast,
+      double pointNorth,
+      double startEast,
+      double startNorth,
+      double endEast,
+      double endNorth) {
+    double segmentEast = endEast - startEast;
+    double segmentNorth = endNorth - startNorth;
+    double lengthSquared = segmentEast * segmentEast + segmentNorth * segmentNorth;
+    double fraction =
+        lengthSquared == 0
+            ? 0
+            : ((pointEast - startEast) * segmentEast + (pointNorth - startNorth) * segmentNorth)
+                / lengthSquared;
+    fraction = Math.max(0, Math.min(1, fraction));
+    return Math.hypot(
+        pointEast - (startEast + fraction * segmentEast),
+        pointNorth - (startNorth + fraction * segmentNorth));
+  }
+}
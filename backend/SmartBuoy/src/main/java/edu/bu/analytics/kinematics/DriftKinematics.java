@@ -0,0 +1,26 @@
+package edu.bu.analytics.kinematics;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Speed, heading and cumulative drift of one buoy. Speed and heading are omitted from JSON until
+ * the buoy has two accepted fixes at different times.
+ *
+ * @param speedMetersPerSecond speed over ground fitted to the recent fixes
+ * @param headingDegrees course over ground, clockwise from true north in [0, 360)
+ * @param driftMeters distance drifted since {@code since}, ignoring movement below GPS jitter
+ * @param fixes accepted fixes in the fitting window
+ * @param rejectedFixes fixes discarded as outliers since {@code since}
+ * @param since epoch millis of the first fix counted in driftMeters
+ * @param lastFix epoch millis of the newest accepted fix
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DriftKinematics(
+    int buoyId,
+    Double speedMetersPerSecond,
+    Double headingDegrees,
+    double driftMeters,
+    int fixes,
+    int rejectedFixes,
+    long since,
+    long lastFix) {}
@@ -0,0 +1,79 @@
+package edu.bu.analytics.kinematics;
+
+import edu.bu.data.BuoyReadingEvent;
+import edu.bu.data.BuoyResponse;
+import edu.bu.data.Deployment;
+import edu.bu.data.DeploymentSavedEvent;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains speed, heading and cumulative drift of every buoy as location readings arrive, so
+ * clients need not download and differentiate the location history. Drift counts from the first
+ * reading after startup, or from the buoy's latest deployment.
+ */
+@Service
+public class KinematicsService {
+
+  private final int windowFixes;
+  private final double maxSpeedMetersPerSecond;
+  private final double minStepMeters;
+  private final Map<Integer, KinematicsTracker> trackers = new ConcurrentHashMap<>();
+
+  /** Creates a KinematicsService with window and outlier settings from application properties. */
+  public KinematicsService(
+      @Value("${kinematics.window-fixes:10}") int windowFixes,
+      @Value("${kinematics.max-speed-mps:15}") double maxSpeedMetersPerSecond,
+      @Value("${kinematics.min-step-meters:5}") double minStepMeters) {
+    if (windowFixes < 2) {
+      throw new IllegalArgumentException("kinematics.window-fixes must be at least 2");
+    }
+    this.windowFixes = windowFixes;
+    this.maxSpeedMetersPerSecond = maxSpeedMetersPerSecond;
+    this.minStepMeters = minStepMeters;
+  }
+
+  /** Runs before other reading listeners so the fleet snapshot sees this reading's kinematics. */
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onReading(BuoyReadingEvent event) {
+    BuoyResponse reading = event.reading();
+    KinematicsTracker tracker = trackerFor(reading.getBuoyId());
+    synchronized (tracker) {
+      tracker.update(reading.getTimestamp(), reading.getLatitude(), reading.getLongitude());
+    }
+  }
+
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onDeployment(DeploymentSavedEvent event) {
+    Deployment deployment = event.deployment();
+    KinematicsTracker tracker = trackerFor(deployment.buoyId);
+    synchronized (tracker) {
+      tracker.resetDrift(deployment.deployedAt);
+    }
+  }
+
+  /** Returns the kinematics of a buoy, or empty when it has not reported a position yet. */
+  public Optional<DriftKinematics> get(int buoyId) {
+    KinematicsTracker tracker = trackers.get(buoyId);
+    if (tracker == null) {
+      return Optional.empty();
+    }
+    synchronized (tracker) {
+      return tracker.isEmpty() ? Optional.empty() : Optional.of(tracker.snapshot());
+    }
+  }
+
+  private KinematicsTracker trackerFor(int buoyId) {
+    return trackers.computeIfAbsent(
+        buoyId,
+        id -> new KinematicsTracker(id, windowFixes, maxSpeedMetersPerSecond, minStepMeters));
+  }
+}
@@ -0,0 +1,176 @@
+package edu.bu.analytics.kinematics;
+
+import edu.bu.analytics.geofence.GeoUtils;
+import java.time.Instant;
+
+/**
+ * Incremental kinematics of one buoy over a ring buffer of its last accepted fixes. Not
+ * thread-safe.
+ *
+ * <p>A fix is rejected as an outlier when reaching it from the previous accepted fix would need
+ * more than the maximum speed. Several rejections in a row mean the buoy really moved, for example
+ * when it was recovered and redeployed, so the window restarts from the latest fix instead of
+ * rejecting it forever.
+ *
+ * <p>Speed and heading come from a least-squares fit of east and north position against time over
+ * the window, which averages out GPS jitter that differencing two fixes would amplify. Drift is
+ * accumulated from an anchor that only moves once the buoy is at least the minimum step away from
+ * it, so jitter around a stationary position adds nothing.
+ */
+class KinematicsTracker {
+
+  /** Consecutive rejections after which the window restarts at the latest fix. */
+  static final int RESTART_AFTER_REJECTIONS = 3;
+
+  private final int buoyId;
+  private final double maxSpeedMetersPerSecond;
+  private final double minStepMeters;
+  private final long[] times;
+  private final double[] lats;
+  private final double[] lons;
+
+  private int newest = -1;
+  private int count;
+  private int consecutiveRejections;
+  private int rejectedFixes;
+  private double anchorLat;
+  private double anchorLon;
+  private double driftMeters;
+  private long since;
+
+  KinematicsTracker(
+      int buoyId, int windowFixes, double maxSpeedMetersPerSecond, double minStepMeters) {
+    if (windowFixes < 2) {
+      throw new IllegalArgumentException("Kinematics window needs at least 2 fixes");
+    }
+    this.buoyId = buoyId;
+    this.maxSpeedMetersPerSecond = maxSpeedMetersPerSecond;
+    this.minStepMeters = minStepMeters;
+    this.times = new long[windowFixes];
+    this.lats = new double[windowFixes];
+    this.lons = new double[windowFixes];
+  }
+
+  /**
+   * Feeds a fix. Fixes not newer than the last accepted one are ignored.
+   *
+   * @return true when the fix was accepted
+   */
+  boolean update(Instant timestamp, double lat, double lon) {
+    long millis = timestamp.toEpochMilli();
+    if (count == 0) {
+      restart(millis, lat, lon);
+      return true;
+    }
+    long elapsed = millis - times[newest];
+    if (elapsed <= 0) {
+      return false;
+    }
+    double step = GeoUtils.distanceMeters(lats[newest], lons[newest], lat, lon);
+    if (step > maxSpeedMetersPerSecond * elapsed / 1000.0) {
+      rejectedFixes++;
+      if (++consecutiveRejections >= RESTART_AFTER_REJECTIONS) {
+        count = 0;
+        consecutiveRejections = 0;
+        restart(millis, lat, lon);
+        return true;
+      }
+      return false;
+    }
+    consecutiveRejections = 0;
+    append(millis, lat, lon);
+    double fromAnchor = GeoUtils.distanceMeters(anchorLat, anchorLon, lat, lon);
+    if (fromAnchor >= minStepMeters) {
+      driftMeters += fromAnchor;
+      anchorLat = lat;
+      anchorLon = lon;
+    }
+    return true;
+  }
+
+  /** Starts counting drift afresh from the newest fix, as of the given time. */
+  void resetDrift(long sinceMillis) {
+    driftMeters = 0;
+    rejectedFixes = 0;
+    since = sinceMillis;
+    if (count > 0) {
+      anchorLat = lats[newest];
+      anchorLon = lons[newest];
+    }
+  }
+
+  boolean isEmpty() {
+    return count == 0;
+  }
+
+  DriftKinematics snapshot() {
+    Double speed = null;
+    Double heading = null;
+    if (count >= 2) {
+      double[] velocity = fitVelocity();
+      if (velocity != null) {
+        speed = Math.hypot(velocity[0], velocity[1]);
+        heading = (Math.toDegrees(Math.atan2(velocity[0], velocity[1])) + 360) % 360;
+      }
+    }
+    return new DriftKinematics(
+        buoyId, speed, heading, driftMeters, count, rejectedFixes, since, times[newest]);
+  }
+
+  private void restart(long millis, double lat, double lon) {
+    append(millis, lat, lon);
+    anchorLat = lat;
+    anchorLon = lon;
+    if (since == 0) {
+      since = millis;
+    }
+  }
+
+  private void append(long millis, double lat, double lon) {
+    newest = (newest + 1) % times.length;
+    times[newest] = millis;
+    lats[newest] = lat;
+    lons[newest] = lon;
+    count = Math.min(count + 1, times.length);
+  }
+
+  /** East and north velocity in m/s fitted to the window, or null when all fixes share a time. */
+  private double[] fitVelocity() {
+    double originLat = lats[newest];
+    double originLon = lons[newest];
+    double metersPerDegree = Math.toRadians(GeoUtils.EARTH_RADIUS);
+    double metersPerDegreeLon = metersPerDegree * Math.cos(Math.toRadians(originLat));
+    double sumSeconds = 0;
+    double sumEast = 0;
+    double sumNorth = 0;
+    double sumSecondsSquared = 0;
+    double sumSecondsEast = 0;
+    double sumSecondsNorth = 0;
+    for (int i = 0; i < count; i++) {
+      int slot = Math.floorMod(newest - i, times.length);
+      double seconds = (times[slot] - times[newest]) / 1000.0;
+      double deltaLon = lons[slot] - originLon;
+      if (deltaLon > 180) {
+        deltaLon -= 360;
+      } else if (deltaLon < -180) {
+        deltaLon += 360;
+      }
+      double east = deltaLon * metersPerDegreeLon;
+      double north = (lats[slot] - originLat) * metersPerDegree;
+      sumSeconds += seconds;
+      sumEast += east;
+      sumNorth += north;
+      sumSecondsSquared += seconds * seconds;
+      sumSecondsEast += seconds * east;
+      sumSecondsNorth += seconds * north;
+    }
+    double varianceSeconds = sumSecondsSquared - sumSeconds * sumSeconds / count;
+    if (varianceSeconds <= 0) {
+      return null;
+    }
+    return new double[] {
+      (sumSecondsEast - sumSeconds * sumEast / count) / varianceSeconds,
+      (sumSecondsNorth - sumSeconds * sumNorth / count) / varianceSeconds
+    };
+  }
+}
@@ -0,0 +1,174 @@
+package edu.bu.analytics.stats;
+
+import java.util.Arrays;
+
+/**
+ * Incremental index over one field of a time-ordered series that answers {@link WindowStats} for
+ * any time range in O(log n). Prefix sums give count, mean and variance, a segment tree gives min
+ * and max, and the window bounds are found by binary search over the timestamps.
+ *
+ * <p>Readings are appended in timestamp order and dropped from the front when they age out; a
+ * reading that arrives out of order requires rebuilding the index. Not thread-safe; callers guard
+ * it together with the series it indexes.
+ */
+public class SeriesIndex {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private long[] times = new long[INITIAL_CAPACITY];
+  private double[] values = new double[INITIAL_CAPACITY];
+  // prefixSum[i] is the sum of shifted values before index i, so sums live one slot ahead.
+  private double[] prefixSum = new double[INITIAL_CAPACITY + 1];
+  private double[] prefixSumOfSquares = new double[INITIAL_CAPACITY + 1];
+  private double[] minTree = new double[2 * INITIAL_CAPACITY];
+  private double[] maxTree = new double[2 * INITIAL_CAPACITY];
+  private int capacity = INITIAL_CAPACITY;
+  private double reference = Double.NaN;
+  private int head;
+  private int size;
+
+  /** Creates an empty index. */
+  public SeriesIndex() {
+    clear();
+  }
+
+  /** Appends a reading no older than the last one appended. */
+  public void append(long timeMillis, double value) {
+    if (size > head && timeMillis < times[size - 1]) {
+      throw new IllegalArgumentException("Readings must be appended in timestamp order");
+    }
+    if (size == capacity) {
+      grow();
+    }
+    if (Double.isNaN(reference)) {
+      reference = value;
+    }
+    double shifted = value - reference;
+    times[size] = timeMillis;
+    values[size] = value;
+    prefixSum[size + 1] = prefixSum[size] + shifted;
+    prefixSumOfSquares[size + 1] = prefixSumOfSquares[size] + shifted * shifted;
+    setLeaf(size, value);
+    size++;
+  }
+
+  /** Drops readings older than the given time. */
+  public void trimBefore(long timeMillis) {
+    head = lowerBound(timeMillis);
+    if (head == size) {
+      clear();
+    } else if (head > capacity / 2) {
+      compact();
+    }
+  }
+
+  /** Removes every reading. */
+  public void clear() {
+    Arrays.fill(minTree, Double.POSITIVE_INFINITY);
+    Arrays.fill(maxTree, Double.NEGATIVE_INFINITY);
+    reference = Double.NaN;
+    head = 0;
+    size = 0;
+  }
+
+  public int size() {
+    return size - head;
+  }
+
+  /** Stats over readings with timestamps in [fromMillis, toMillis]. */
+  public WindowStats stats(long fromMillis, long toMillis) {
+    int from = lowerBound(fromMillis);
+    int end = lowerBound(toMillis == Long.MAX_VALUE ? toMillis : toMillis + 1);
+    if (from >= end) {
+      return WindowStats.empty();
+    }
+    return WindowStats.fromShiftedSums(
+        end - from,
+        queryMin(from, end),
+        queryMax(from, end),
+        reference,
+        prefixSum[end] - prefixSum[from],
+        prefixSumOfSquares[end] - prefixSumOfSquares[from],
+        times[from],
+        values[from],
+        times[end - 1],
+        values[end - 1]);
+  }
+
+  /** Index of the first live reading at or after the given time. */
+  private int lowerBound(long timeMillis) {
+    int low = head;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (times[mid] < timeMillis) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private void setLeaf(int index, double value) {
+    int node = index + capacity;
+    minTree[node] = value;
+    maxTree[node] = value;
+    for (node >>= 1; node >= 1; node >>= 1) {
+      minTree[node] = Math.min(minTree[2 * node], minTree[2 * node + 1]);
+      maxTree[node] = Math.max(maxTree[2 * node], maxTree[2 * node + 1]);
+    }
+  }
+
+  private double queryMin(int from, int end) {
+    double min = Double.POSITIVE_INFINITY;
+    for (int low = from + capacity, high = end + capacity; low < high; low >>= 1, high >>= 1) {
+      if ((low & 1) == 1) {
+        min = Math.min(min, minTree[low++]);
+      }
+      if ((high & 1) == 1) {
+        min = Math.min(min, minTree[--high]);
+      }
+    }
+    return min;
+  }
+
+  private double queryMax(int from, int end) {
+    double max = Double.NEGATIVE_INFINITY;
+    for (int low = from + capacity, high = end + capacity; low < high; low >>= 1, high >>= 1) {
+      if ((low & 1) == 1) {
+        max = Math.max(max, maxTree[low++]);
+      }
+      if ((high & 1) == 1) {
+        max = Math.max(max, maxTree[--high]);
+      }
+    }
+    return max;
+  }
+
+  /** Doubles the capacity, or only drops aged-out readings when that frees enough room. */
+  private void grow() {
+    rebuild(head > 0 && size - head <= capacity / 2 ? capacity : capacity * 2);
+  }
+
+  private void compact() {
+    rebuild(capacity);
+  }
+
+  /** Re-appends the live readings into fresh arrays of the given capacity. */
+  private void rebuild(int newCapacity) {
+    long[] liveTimes = Arrays.copyOfRange(times, head, size);
+    double[] liveValues = Arrays.copyOfRange(values, head, size);
+    capacity = newCapacity;
+    times = new long[capacity];
+    values = new double[capacity];
+    prefixSum = new double[capacity + 1];
+    prefixSumOfSquares = new double[capacity + 1];
+    minTree = new double[2 * capacity];
+    maxTree = new double[2 * capacity];
+    clear();
+    for (int i = 0; i < liveTimes.length; i++) {
+      append(liveTimes[i], liveValues[i]);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package edu.bu.analytics.stats;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Summary of one field over a time window. Values are null when the window has too few readings
+ * to define them: everything but count for an empty window, and the sample standard deviation and
+ * rate of change for a single reading.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record WindowStats(
+    long count, Double min, Double max, Double mean, Double stddev, Double ratePerHour) {
+
+  static final double MILLIS_PER_HOUR = 3_600_000.0;
+
+  /** Stats for a window without readings. */
+  public static WindowStats empty() {
+    return new WindowStats(0, null, null, null, null, null);
+  }
+
+  /** Builds stats from sums over values shifted by a reference, which keeps the variance exact. */
+  static WindowStats fromShiftedSums(
+      long count,
+      double min,
+      double max,
+      double reference,
+      double shiftedSum,
+      double shiftedSumOfSquares,
+      long firstMillis,
+      double firstValue,
+      long lastMillis,
+      double lastValue) {
+    if (count == 0) {
+      return empty();
+    }
+    double mean = reference + shiftedSum / count;
+    Double stddev = null;
+    if (count > 1) {
+      double variance = (shiftedSumOfSquares - shiftedSum * shiftedSum / count) / (count - 1);
+      stddev = Math.sqrt(Math.max(0, variance));
+    }
+    return new WindowStats(
+        count, min, max, mean, stddev, rate(firstMillis, firstValue, lastMillis, lastValue));
+  }
+
+  /** Change per hour between the first and last readings, or null when they coincide in time. */
+  public static Double rate(
+      long firstMillis, double firstValue, long lastMillis, double lastValue) {
+    if (lastMillis == firstMillis) {
+      return null;
+    }
+    return (lastValue - firstValue) / ((lastMillis - firstMillis) / MILLIS_PER_HOUR);
+  }
+}
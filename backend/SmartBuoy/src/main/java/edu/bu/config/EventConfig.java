@@ -0,0 +1,26 @@
+package edu.bu.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+
+/**
+ * Application event delivery. Events such as BuoyReadingEvent are handled synchronously by many
+ * independent listeners, so a listener that throws is logged and the remaining listeners still
+ * run, instead of the exception skipping them and failing the publisher.
+ */
+@Configuration
+public class EventConfig {
+
+  private static final Logger log = LoggerFactory.getLogger(EventConfig.class);
+
+  /** Replaces the context's default multicaster, which is looked up by this bean name. */
+  @Bean
+  public static SimpleApplicationEventMulticaster applicationEventMulticaster() {
+    SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+    multicaster.setErrorHandler(failure -> log.error("Event listener failed", failure));
+    return multicaster;
+  }
+}
@@ -12,8 +12,13 @@ import java.security.cert.Certificate;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SNIHostName;
 import javax.net.ssl.SSLContext;
@@ -21,9 +26,17 @@ import javax.net.ssl.SSLParameters;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManagerFactory;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import edu.bu.mqtt.Mqtt5ShardConnection;
+import edu.bu.mqtt.MqttConnection;
+import edu.bu.mqtt.MqttShardConnection;
+import edu.bu.mqtt.MqttShards;
+import edu.bu.mqtt.SubscribeBatches;
 import edu.bu.shadow.ShadowService;
-import org.eclipse.paho.client.mqttv3.IMqttAsyncClient;
+import edu.bu.shadow.ShadowSyncService;
+import edu.bu.shadow.ShadowTopicRouter;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.mqttv5.client.MqttConnectionOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -31,18 +44,14 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.context.event.EventListener;
 import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.config.EnableIntegration;
-import org.springframework.integration.mqtt.core.ClientManager;
-import org.springframework.integration.mqtt.core.Mqttv3ClientManager;
-import org.springframework.integration.mqtt.event.MqttSubscribedEvent;
-import org.springframework.integration.mqtt.inbound.MqttPahoMessageDrivenChannelAdapter;
-import org.springframework.integration.mqtt.outbound.MqttPahoMessageHandler;
-import org.springframework.integration.mqtt.support.DefaultPahoMessageConverter;
+import org.springframework.integration.mqtt.support.MqttHeaders;
+import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHandlingException;
 
 /** Spring Integration configuration for AWS IoT Core MQTT device shadow messaging. */
 @Configuration
@@ -53,12 +62,31 @@ public class MqttConfig {
   private static final Logger log = LoggerFactory.getLogger(MqttConfig.class);
 
   private static final int KEEP_ALIVE_INTERVAL = 60;
-  private static final int COMPLETION_TIMEOUT = 5000;
   private static final int DEFAULT_QOS = 1;
+  private static final int TLS_SESSION_TIMEOUT_SECONDS = 24 * 3600;
 
   @Value("${mqtt.endpoint}")
   private String endpoint;
 
+  /** Broker URI; empty for AWS IoT Core over TLS, or e.g. tcp://localhost:1883 for a local one. */
+  @Value("${mqtt.server-uri:}")
+  private String serverUri;
+
+  /** MQTT protocol version, 3 (3.1.1) or 5. */
+  @Value("${mqtt.protocol-version:3}")
+  private int protocolVersion;
+
+  /**
+   * MQTT 5 share group that every backend node subscribes in, so the broker delivers each shadow
+   * message to one node of the group; empty for ordinary subscriptions.
+   */
+  @Value("${mqtt.shared-group:}")
+  private String sharedGroup;
+
+  /** How long an MQTT 5 broker keeps the session of a disconnected client. */
+  @Value("${mqtt.session-expiry-seconds:3600}")
+  private long sessionExpirySeconds;
+
   @Value("${mqtt.client-id}")
   private String clientId;
 
@@ -71,13 +99,27 @@ public class MqttConfig {
   @Value("${mqtt.root-ca-path}")
   private String rootCaPath;
 
-  @Value("${mqtt.thing-name:esp32}")
-  private String thingName;
+  /** Thing name filter of the shadow subscriptions; + covers every thing in the account. */
+  @Value("${mqtt.thing-filter:+}")
+  private String thingFilter;
+
+  /** Things whose shadows are requested on connect, along with any stale snapshot entries. */
+  @Value("${mqtt.thing-names:${mqtt.thing-name:esp32}}")
+  private String[] thingNames;
+
+  @Value("${mqtt.max-inflight:100}")
+  private int maxInflight;
+
+  @Value("${mqtt.connections:1}")
+  private int connections;
 
   private final ShadowService shadowService;
+  private final ShadowSyncService shadowSyncService;
+  private SSLSocketFactory sslSocketFactory;
 
-  public MqttConfig(@Lazy ShadowService shadowService) {
+  public MqttConfig(@Lazy ShadowService shadowService, @Lazy ShadowSyncService shadowSyncService) {
     this.shadowService = shadowService;
+    this.shadowSyncService = shadowSyncService;
   }
 
   /**
@@ -87,6 +129,10 @@ public class MqttConfig {
    * hostname string. Without it, the JVM cannot include the SNI extension in the TLS ClientHello.
    * AWS IoT Core requires SNI and drops the connection without it (EOFException). This wrapper
    * re-injects the endpoint hostname into every socket so SNI is always sent.
+   *
+   * <p>The factory is built once and shared by every connection, so their sockets come from one
+   * SSLContext whose client session cache lets reconnects resume a TLS session rather than repeat
+   * the full certificate handshake.
    */
   private SSLSocketFactory buildSslSocketFactory() throws Exception {
     CertificateFactory cf = CertificateFactory.getInstance("X.509");
@@ -124,8 +170,9 @@ public class MqttConfig {
         KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
     kmf.init(keyStore, emptyPassword);
 
-    SSLContext sslContext = SSLContext.getInstance("TLSv1.2");
+    SSLContext sslContext = SSLContext.getInstance("TLS");
     sslContext.init(kmf.getKeyManagers(), tmf.getTrustManagers(), null);
+    sslContext.getClientSessionContext().setSessionTimeout(TLS_SESSION_TIMEOUT_SECONDS);
 
     SSLSocketFactory base = sslContext.getSocketFactory();
     String sniHost = endpoint;
@@ -135,8 +182,14 @@ public class MqttConfig {
         SSLParameters p = s.getSSLParameters();
         p.setServerNames(List.of(new SNIHostName(host)));
         s.setSSLParameters(p);
-        s.addHandshakeCompletedListener(event ->
-            log.info("TLS handshake COMPLETED: cipher={}, protocol={}", event.getCipherSuite(), event.getSession().getProtocol()));
+        if (log.isDebugEnabled()) {
+          s.addHandshakeCompletedListener(
+              event ->
+                  log.debug(
+                      "TLS handshake completed: cipher={}, protocol={}",
+                      event.getCipherSuite(),
+                      event.getSession().getProtocol()));
+        }
         return s;
       }
 
@@ -195,33 +248,159 @@ public class MqttConfig {
     return kf.generatePrivate(spec);
   }
 
+  private String brokerUri() {
+    return serverUri.isBlank() ? "ssl://" + endpoint + ":8883" : serverUri;
+  }
+
+  /** The TLS socket factory shared by every connection, or null for a plain TCP broker. */
+  private SSLSocketFactory socketFactory() {
+    if (!brokerUri().startsWith("ssl://")) {
+      return null;
+    }
+    if (sslSocketFactory == null) {
+      try {
+        sslSocketFactory = buildSslSocketFactory();
+      } catch (IOException e) {
+        log.warn("MQTT cert files not found — MQTT will not connect: {}", e.getMessage());
+      } catch (Exception e) {
+        log.warn("Failed to build MQTT SSL context: {}", e.getMessage());
+      }
+    }
+    return sslSocketFactory;
+  }
+
   @Bean
   public MqttConnectOptions mqttConnectOptions() {
     MqttConnectOptions options = new MqttConnectOptions();
-    options.setServerURIs(new String[] {"ssl://" + endpoint + ":8883"});
+    options.setServerURIs(new String[] {brokerUri()});
     options.setKeepAliveInterval(KEEP_ALIVE_INTERVAL);
     options.setCleanSession(true);
     // automaticReconnect=true lets Paho handle reconnect with built-in exponential backoff
-    // (1s → 2s → 4s → ... → 128s). The Mqttv3ClientManager uses a single shared connection,
-    // so there is only one reconnect happening at a time — no more dual-client storm.
+    // (1s → 2s → 4s → ... → 128s). Each connection reconnects on its own, and they resume
+    // TLS sessions from the shared SSLContext instead of doing a full handshake.
     options.setAutomaticReconnect(true);
-    try {
-      options.setSocketFactory(buildSslSocketFactory());
-    } catch (IOException e) {
-      log.warn("MQTT cert files not found — MQTT will not connect: {}", e.getMessage());
-    } catch (Exception e) {
-      log.warn("Failed to build MQTT SSL context: {}", e.getMessage());
+    // Paho allows 10 unacknowledged QoS 1 publishes by default, too few to command a fleet.
+    options.setMaxInflight(maxInflight);
+    SSLSocketFactory factory = socketFactory();
+    if (factory != null) {
+      options.setSocketFactory(factory);
     }
     return options;
   }
 
   /**
-   * Shared MQTT connection manager. Both the inbound adapter and outbound handler reuse this
-   * single IMqttAsyncClient, which halves the number of TLS connections to AWS IoT Core.
+   * MQTT 5 options with a persistent session: clean start is off and the broker keeps the session
+   * for the expiry interval, so a node that reconnects gets back its subscriptions and the
+   * messages queued for it. Paho's automatic reconnect is off because {@link Mqtt5ShardConnection}
+   * reconnects itself to see whether the session was resumed.
    */
-  @Bean
-  public ClientManager<IMqttAsyncClient, MqttConnectOptions> mqttClientManager() {
-    return new Mqttv3ClientManager(mqttConnectOptions(), clientId);
+  private MqttConnectionOptions mqtt5ConnectionOptions() {
+    MqttConnectionOptions options = new MqttConnectionOptions();
+    options.setServerURIs(new String[] {brokerUri()});
+    options.setKeepAliveInterval(KEEP_ALIVE_INTERVAL);
+    options.setCleanStart(false);
+    options.setSessionExpiryInterval(sessionExpirySeconds);
+    options.setAutomaticReconnect(false);
+    // Caps the unacknowledged messages the broker sends one connection, so a slow node of the
+    // share group is not handed more than it can take.
+    options.setReceiveMaximum(maxInflight);
+    SSLSocketFactory factory = socketFactory();
+    if (factory != null) {
+      options.setSocketFactory(factory);
+    }
+    return options;
+  }
+
+  /**
+   * The MQTT connections, all sharing one SSLContext and its TLS session cache. With more than one,
+   * things are assigned to connections by the hash of their name: each connection publishes for its
+   * things and, when the subscriptions are per thing, subscribes to theirs. A wildcard thing filter
+   * is subscribed on the first connection only, since every connection subscribing to it would
+   * receive every message, unless it is shared: with an MQTT 5 share group every connection of
+   * every node subscribes to the delta topic in the group and the broker hands each delta to one
+   * of them. Update and GET responses are never shared, since only the node that sent the request
+   * holds its client token or resync; the first connection of each node subscribes to them
+   * directly, and every node receives all of them. Startup fails when a connection would exceed
+   * the broker's subscription quota.
+   */
+  @Bean(initMethod = "start", destroyMethod = "stop")
+  public MqttShards mqttShards() throws Exception {
+    if (protocolVersion != 3 && protocolVersion != 5) {
+      throw new IllegalArgumentException("Unsupported mqtt.protocol-version: " + protocolVersion);
+    }
+    if (protocolVersion == 3 && !sharedGroup.isBlank()) {
+      throw new IllegalArgumentException("mqtt.shared-group requires mqtt.protocol-version=5");
+    }
+    ScheduledExecutorService reconnects =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("mqtt-connect").setDaemon(true).build());
+    MessageChannel inbound = mqttInboundChannel();
+    MqttConnectionOptions mqtt5Options = protocolVersion == 5 ? mqtt5ConnectionOptions() : null;
+    List<MqttConnection> shards = new ArrayList<>();
+    for (int i = 0; i < connections; i++) {
+      String shardClientId = connections == 1 ? clientId : clientId + "-" + i;
+      String[] topics = shardTopics(i);
+      SubscribeBatches.checkQuota(i, topics);
+      if (mqtt5Options != null) {
+        shards.add(
+            new Mqtt5ShardConnection(
+                i,
+                shardClientId,
+                mqtt5Options,
+                topics,
+                DEFAULT_QOS,
+                inbound::send,
+                this::onSubscribed,
+                reconnects));
+      } else {
+        shards.add(
+            new MqttShardConnection(
+                i,
+                shardClientId,
+                mqttConnectOptions(),
+                topics,
+                DEFAULT_QOS,
+                inbound::send,
+                this::onSubscribed,
+                reconnects));
+      }
+    }
+    return new MqttShards(shards);
+  }
+
+  private String[] shardTopics(int shard) {
+    if (!sharedGroup.isBlank()) {
+      List<String> topics = new ArrayList<>();
+      for (String topic : fleetTopics(ShadowTopicRouter::deltaSubscriptions)) {
+        topics.add(Mqtt5ShardConnection.sharedFilter(sharedGroup, topic));
+      }
+      if (shard == 0) {
+        topics.addAll(Arrays.asList(fleetTopics(ShadowTopicRouter::responseSubscriptions)));
+      }
+      return topics.toArray(new String[0]);
+    }
+    if (!thingFilter.isBlank()) {
+      return shard == 0 ? ShadowTopicRouter.subscriptions(thingFilter) : new String[0];
+    }
+    List<String> topics = new ArrayList<>();
+    for (String thingName : thingNames) {
+      if (MqttShards.shardOf(thingName, connections) == shard) {
+        topics.addAll(Arrays.asList(ShadowTopicRouter.subscriptions(thingName)));
+      }
+    }
+    return topics.toArray(new String[0]);
+  }
+
+  /** Shadow subscriptions of the whole fleet, by thing filter or else per listed thing. */
+  private String[] fleetTopics(Function<String, String[]> subscriptions) {
+    if (!thingFilter.isBlank()) {
+      return subscriptions.apply(thingFilter);
+    }
+    List<String> topics = new ArrayList<>();
+    for (String thingName : thingNames) {
+      topics.addAll(Arrays.asList(subscriptions.apply(thingName)));
+    }
+    return topics.toArray(new String[0]);
   }
 
   @Bean
@@ -234,54 +413,42 @@ public class MqttConfig {
     return new DirectChannel();
   }
 
-  @Bean
-  public MqttPahoMessageDrivenChannelAdapter mqttInboundAdapter() {
-    String[] topics = {
-      "$aws/things/" + thingName + "/shadow/update/delta",
-      "$aws/things/" + thingName + "/shadow/update/accepted",
-      "$aws/things/" + thingName + "/shadow/update/rejected",
-      "$aws/things/" + thingName + "/shadow/get/accepted",
-    };
-    MqttPahoMessageDrivenChannelAdapter adapter =
-        new MqttPahoMessageDrivenChannelAdapter(mqttClientManager(), topics);
-    adapter.setCompletionTimeout(COMPLETION_TIMEOUT);
-    adapter.setConverter(new DefaultPahoMessageConverter());
-    adapter.setQos(DEFAULT_QOS);
-    adapter.setOutputChannel(mqttInboundChannel());
-    return adapter;
-  }
-
+  /**
+   * Runs on Paho's callback thread; ShadowService only routes the topic here and hands parsing and
+   * merging to its per-thing workers.
+   */
   @Bean
   @ServiceActivator(inputChannel = "mqttInboundChannel")
   public MessageHandler mqttInboundHandler() {
-    return message -> shadowService.handleInbound((org.springframework.messaging.Message<String>) message);
+    return message -> shadowService.handleInbound((Message<String>) message);
   }
 
   /**
-   * Fires the shadow GET exactly once the inbound adapter has successfully subscribed.
-   * This avoids the polling storm: the outbound publish only fires AFTER we know AWS IoT
-   * is accepting our certificate, and uses the same shared connection as the inbound adapter.
+   * Fires the shadow resync once a connection has successfully subscribed, including after every
+   * reconnect that did not resume an MQTT 5 session. This avoids the polling storm: the GETs only
+   * go out AFTER we know AWS IoT is accepting our certificate, and only for things whose shadow is
+   * missing or stale. The resync is paced and retried on its own scheduler, so this returns
+   * immediately, and connections subscribing together collapse into one resync.
    */
-  @EventListener(MqttSubscribedEvent.class)
-  public void onMqttSubscribed(MqttSubscribedEvent event) {
-    log.info("shadow-init: MQTT subscribed ({}), requesting initial shadow", event.getMessage());
-    for (int attempt = 1; attempt <= 5; attempt++) {
-      if (shadowService.requestShadow(thingName)) return;
-      log.warn("shadow-init: shadow GET failed on attempt {}, retrying in 2s", attempt);
-      try { Thread.sleep(2000); } catch (InterruptedException e) {
-        Thread.currentThread().interrupt();
-        return;
-      }
-    }
-    log.error("shadow-init: shadow GET failed after 5 attempts");
+  private void onSubscribed() {
+    log.info("shadow-init: MQTT subscribed, starting shadow resync");
+    shadowSyncService.resync(Arrays.asList(thingNames));
   }
 
+  /** Publishes each outbound message on the connection of the thing named in its topic. */
   @Bean
   @ServiceActivator(inputChannel = "mqttOutboundChannel")
-  public MessageHandler mqttOutboundHandler() {
-    MqttPahoMessageHandler handler = new MqttPahoMessageHandler(mqttClientManager());
-    handler.setAsync(true);
-    handler.setDefaultQos(DEFAULT_QOS);
-    return handler;
+  public MessageHandler mqttOutboundHandler() throws Exception {
+    MqttShards shards = mqttShards();
+    return message -> {
+      String topic = (String) message.getHeaders().get(MqttHeaders.TOPIC);
+      if (topic == null) {
+        throw new MessageHandlingException(message, "Outbound MQTT message has no topic");
+      }
+      String thingName = ShadowTopicRouter.thingName(topic);
+      if (!shards.connectionFor(thingName).publish(topic, (String) message.getPayload())) {
+        throw new MessageHandlingException(message, "MQTT publish to " + topic + " failed");
+      }
+    };
   }
 }
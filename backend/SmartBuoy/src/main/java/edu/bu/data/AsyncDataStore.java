@@ -0,0 +1,34 @@
+package edu.bu.data;
+
+import edu.bu.analytics.stats.WindowStats;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking read side of a {@link DataStore}. Futures fail with {@link
+ * edu.bu.analytics.UnknownBuoyException} where the blocking methods would throw it, so callers do
+ * not hold a thread while the store is busy.
+ */
+public interface AsyncDataStore {
+  /** Get the entire history of updates that we have seen for buoy. */
+  CompletableFuture<List<BuoyResponse>> getHistoryAsync(int buoyId);
+
+  CompletableFuture<Optional<BuoyResponse>> getLatestAsync(int buoyId);
+
+  /**
+   * Get up to limit readings following the given position, or from the start of the history when
+   * it is null. Implementations seek to the position rather than skipping earlier readings, so a
+   * page deep into the history costs the same as the first.
+   */
+  CompletableFuture<HistoryPage> getHistoryPageAsync(
+      int buoyId, HistoryPage.Position after, int limit);
+
+  /**
+   * Get min, max, mean, standard deviation, count and rate of change of the temperature or
+   * pressure field over readings timestamped in [from, until], computed where the data lives.
+   */
+  CompletableFuture<WindowStats> getStatsAsync(
+      int buoyId, String field, Instant from, Instant until);
+}
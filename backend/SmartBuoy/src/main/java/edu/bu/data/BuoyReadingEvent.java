@@ -0,0 +1,8 @@
+package edu.bu.data;
+
+/**
+ * Published once a freshly parsed reading has been written to the {@link DataStore}. In-memory
+ * views that follow ingestion (versions, snapshots, streams) listen for this instead of re-reading
+ * the store.
+ */
+public record BuoyReadingEvent(BuoyResponse reading) {}
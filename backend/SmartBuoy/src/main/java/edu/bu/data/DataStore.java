@@ -16,6 +16,9 @@ public interface DataStore {
 
   Optional<BuoyResponse> getLatest(int buoyId) throws UnknownBuoyException;
 
+  /** Get the latest reading of every buoy the store has seen. */
+  List<BuoyResponse> getLatestForAll();
+
   void saveDeployment(Deployment deployment);
 
   Optional<Deployment> getDeployment(int buoyId);
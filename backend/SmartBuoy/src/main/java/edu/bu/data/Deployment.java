@@ -1,9 +1,13 @@
 package edu.bu.data;
 
+import edu.bu.analytics.geofence.Fence;
+
 /**
  * Represents a buoy deployment configuration.
  *
- * <p>A deployment defines the geographic boundaries within which a buoy is expected to remain.
+ * <p>A deployment defines the geographic boundaries within which a buoy is expected to remain:
+ * a circle of allowedRadiusMeters around the deployment position, or a polygon or corridor fence
+ * when one is given.
  */
 public class Deployment {
   public final int buoyId;
@@ -12,12 +16,26 @@ public class Deployment {
   public final double allowedRadiusMeters;
   public final long deployedAt;
 
+  /** The polygon or corridor fence, or null for the circle. */
+  public final Fence fence;
+
   public Deployment(
       int buoyId, double lat, double lon, double allowedRadiusMeters, long deployedAt) {
+    this(buoyId, lat, lon, allowedRadiusMeters, deployedAt, null);
+  }
+
+  public Deployment(
+      int buoyId,
+      double lat,
+      double lon,
+      double allowedRadiusMeters,
+      long deployedAt,
+      Fence fence) {
     this.buoyId = buoyId;
     this.lat = lat;
     this.lon = lon;
     this.allowedRadiusMeters = allowedRadiusMeters;
     this.deployedAt = deployedAt;
+    this.fence = fence;
   }
 }
@@ -0,0 +1,4 @@
+package edu.bu.data;
+
+/** Published after a {@link Deployment} has been saved to the {@link DataStore}. */
+public record DeploymentSavedEvent(Deployment deployment) {}
@@ -0,0 +1,24 @@
+package edu.bu.data;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One page of a buoy's history in timestamp order. {@code next} is the position after the last
+ * reading on the page when more readings follow it, and null on the last page.
+ */
+public record HistoryPage(List<BuoyResponse> readings, Position next) {
+
+  /**
+   * A point in a buoy's history: every reading before {@code timestamp}, and the first {@code
+   * seen} readings at it, lie before the point. Counting the readings at the timestamp lets a page
+   * boundary fall between readings that share it.
+   */
+  public record Position(Instant timestamp, int seen) {
+
+    /** The point just before the first reading at or after the instant. */
+    public static Position at(Instant timestamp) {
+      return new Position(timestamp, 0);
+    }
+  }
+}
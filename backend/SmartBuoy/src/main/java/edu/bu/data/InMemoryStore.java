@@ -1,14 +1,18 @@
 package edu.bu.data;
 
 import edu.bu.analytics.UnknownBuoyException;
+import edu.bu.analytics.stats.SeriesIndex;
+import edu.bu.analytics.stats.WindowStats;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
@@ -16,21 +20,38 @@ import org.springframework.stereotype.Service;
 /** In-memory data store used to hold buoy readings. */
 @Service
 @ConditionalOnProperty(name = "influxdb.enabled", havingValue = "false", matchIfMissing = true)
-public class InMemoryStore implements DataStore {
+public class InMemoryStore implements DataStore, AsyncDataStore {
+
+  private static final List<String> STATS_FIELDS = List.of("temperature", "pressure");
 
   private final Map<Integer, List<BuoyResponse>> storedData = new ConcurrentHashMap<>();
+  private final Map<Integer, Map<String, SeriesIndex>> statsIndexes = new ConcurrentHashMap<>();
   private final Map<Integer, Deployment> deployments = new ConcurrentHashMap<>();
 
   @Override
   public void update(List<BuoyResponse> responses) {
-    Instant oneWeekAgo = Instant.now().minus(7, ChronoUnit.DAYS);
+    // Millisecond-aligned so the stats indexes, which count in millis, trim the same readings.
+    Instant oneWeekAgo = Instant.now().minus(7, ChronoUnit.DAYS).truncatedTo(ChronoUnit.MILLIS);
     for (BuoyResponse response : responses) {
       if (response == null) continue;
       int buoyId = response.getBuoyId();
       List<BuoyResponse> list =
           storedData.computeIfAbsent(buoyId, ignored -> Collections.synchronizedList(new ArrayList<>()));
-      list.add(response);
-      list.removeIf(r -> r.getTimestamp().isBefore(oneWeekAgo));
+      // Readings are kept in timestamp order so pages can be found by binary search.
+      synchronized (list) {
+        int position = seek(list, response.getTimestamp(), false);
+        list.add(position, response);
+        Map<String, SeriesIndex> indexes =
+            statsIndexes.computeIfAbsent(buoyId, ignored -> newStatsIndexes());
+        if (position == list.size() - 1) {
+          long timeMillis = response.getTimestamp().toEpochMilli();
+          indexes.forEach((field, index) -> index.append(timeMillis, fieldValue(response, field)));
+        } else {
+          rebuildStatsIndexes(indexes, list);
+        }
+        list.subList(0, seek(list, oneWeekAgo, true)).clear();
+        indexes.values().forEach(index -> index.trimBefore(oneWeekAgo.toEpochMilli()));
+      }
     }
   }
 
@@ -50,6 +71,87 @@ public class InMemoryStore implements DataStore {
     return storedData.get(buoyId).stream().max(Comparator.comparing(BuoyResponse::getTimestamp));
   }
 
+  /** Reads from memory never block, so the future is already complete. */
+  @Override
+  public CompletableFuture<List<BuoyResponse>> getHistoryAsync(int buoyId) {
+    try {
+      return CompletableFuture.completedFuture(getHistory(buoyId));
+    } catch (UnknownBuoyException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /** Reads from memory never block, so the future is already complete. */
+  @Override
+  public CompletableFuture<Optional<BuoyResponse>> getLatestAsync(int buoyId) {
+    try {
+      return CompletableFuture.completedFuture(getLatest(buoyId));
+    } catch (UnknownBuoyException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  @Override
+  public CompletableFuture<HistoryPage> getHistoryPageAsync(
+      int buoyId, HistoryPage.Position after, int limit) {
+    List<BuoyResponse> history = storedData.get(buoyId);
+    if (history == null) {
+      return CompletableFuture.failedFuture(new UnknownBuoyException(buoyId));
+    }
+    synchronized (history) {
+      int from = 0;
+      if (after != null) {
+        // Readings at the same timestamp keep their insertion order, so the seen ones come first.
+        int firstAt = seek(history, after.timestamp(), true);
+        int firstAfter = seek(history, after.timestamp(), false);
+        from = firstAt + Math.min(after.seen(), firstAfter - firstAt);
+      }
+      int end = Math.min(history.size(), from + limit);
+      List<BuoyResponse> readings = new ArrayList<>(history.subList(from, end));
+      HistoryPage.Position next = null;
+      if (end < history.size() && !readings.isEmpty()) {
+        Instant last = readings.get(readings.size() - 1).getTimestamp();
+        next = new HistoryPage.Position(last, end - seek(history, last, true));
+      }
+      return CompletableFuture.completedFuture(new HistoryPage(readings, next));
+    }
+  }
+
+  /** Answered from the buoy's stats index in O(log n) regardless of the window's size. */
+  @Override
+  public CompletableFuture<WindowStats> getStatsAsync(
+      int buoyId, String field, Instant from, Instant until) {
+    List<BuoyResponse> history = storedData.get(buoyId);
+    if (history == null) {
+      return CompletableFuture.failedFuture(new UnknownBuoyException(buoyId));
+    }
+    if (!STATS_FIELDS.contains(field)) {
+      return CompletableFuture.failedFuture(
+          new IllegalArgumentException("No stats for field: " + field));
+    }
+    synchronized (history) {
+      Map<String, SeriesIndex> indexes = statsIndexes.get(buoyId);
+      WindowStats stats =
+          indexes == null
+              ? WindowStats.empty()
+              : indexes.get(field).stats(from.toEpochMilli(), until.toEpochMilli());
+      return CompletableFuture.completedFuture(stats);
+    }
+  }
+
+  @Override
+  public List<BuoyResponse> getLatestForAll() {
+    List<BuoyResponse> latest = new ArrayList<>();
+    for (List<BuoyResponse> history : storedData.values()) {
+      synchronized (history) {
+        history.stream()
+            .max(Comparator.comparing(BuoyResponse::getTimestamp))
+            .ifPresent(latest::add);
+      }
+    }
+    return latest;
+  }
+
   @Override
   public void saveDeployment(Deployment deployment) {
     deployments.put(deployment.buoyId, deployment);
@@ -60,9 +162,53 @@ public class InMemoryStore implements DataStore {
     return Optional.ofNullable(deployments.get(buoyId));
   }
 
+  private static Map<String, SeriesIndex> newStatsIndexes() {
+    Map<String, SeriesIndex> indexes = new HashMap<>();
+    for (String field : STATS_FIELDS) {
+      indexes.put(field, new SeriesIndex());
+    }
+    return indexes;
+  }
+
+  /** Re-indexes a series after a reading arrived out of order. */
+  private static void rebuildStatsIndexes(
+      Map<String, SeriesIndex> indexes, List<BuoyResponse> sorted) {
+    indexes.forEach(
+        (field, index) -> {
+          index.clear();
+          for (BuoyResponse reading : sorted) {
+            index.append(reading.getTimestamp().toEpochMilli(), fieldValue(reading, field));
+          }
+        });
+  }
+
+  private static double fieldValue(BuoyResponse response, String field) {
+    return field.equals("temperature") ? response.getTemperature() : response.getPressure();
+  }
+
+  /**
+   * Returns the index of the first reading after the instant, or at it when inclusive, in a list
+   * sorted by timestamp.
+   */
+  private static int seek(List<BuoyResponse> sorted, Instant instant, boolean inclusive) {
+    int low = 0;
+    int high = sorted.size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      int comparison = sorted.get(mid).getTimestamp().compareTo(instant);
+      if (comparison < 0 || (comparison == 0 && !inclusive)) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
   /** Clears all stored data. Used in tests to reset state between runs. */
   public void clearAll() {
     storedData.clear();
+    statsIndexes.clear();
     deployments.clear();
   }
 }
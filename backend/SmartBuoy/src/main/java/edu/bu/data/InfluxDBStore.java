@@ -2,20 +2,28 @@ package edu.bu.data;
 
 import com.influxdb.client.InfluxDBClient;
 import com.influxdb.client.InfluxDBClientFactory;
+import com.influxdb.client.InfluxDBClientOptions;
 import com.influxdb.client.QueryApi;
 import com.influxdb.client.WriteApiBlocking;
 import com.influxdb.client.domain.WritePrecision;
 import com.influxdb.query.FluxRecord;
 import com.influxdb.query.FluxTable;
 import edu.bu.analytics.UnknownBuoyException;
+import edu.bu.analytics.stats.WindowStats;
 import jakarta.annotation.PreDestroy;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
@@ -23,7 +31,10 @@ import org.springframework.stereotype.Service;
 /** Persistent data store backed by InfluxDB for time-series buoy readings. */
 @Service
 @ConditionalOnProperty(name = "influxdb.enabled", havingValue = "true")
-public class InfluxDBStore implements DataStore {
+public class InfluxDBStore implements DataStore, AsyncDataStore {
+
+  private static final int DEFAULT_MAX_CONCURRENT_QUERIES = 64;
+  private static final List<String> STATS_FIELDS = List.of("temperature", "pressure");
 
   private final InfluxDBClient client;
   private final String bucket;
@@ -32,13 +43,36 @@ public class InfluxDBStore implements DataStore {
   private final WriteApiBlocking writeApi;
   private final Map<Integer, Deployment> deployments = new ConcurrentHashMap<>();
 
-  /** Creates an InfluxDBStore with connection parameters from application properties. */
+  /** Creates an InfluxDBStore with the default limit on concurrent queries. */
+  public InfluxDBStore(String url, String token, String influxOrg, String influxBucket) {
+    this(url, token, influxOrg, influxBucket, DEFAULT_MAX_CONCURRENT_QUERIES);
+  }
+
+  /**
+   * Creates an InfluxDBStore with connection parameters from application properties.
+   *
+   * <p>Async queries run on the HTTP client's dispatcher, whose per-host limit (5 by default) would
+   * otherwise cap in-flight queries far below what InfluxDB can serve.
+   */
+  @Autowired
   public InfluxDBStore(
       @Value("${influxdb.url}") String url,
       @Value("${influxdb.token}") String token,
       @Value("${influxdb.org}") String influxOrg,
-      @Value("${influxdb.bucket}") String influxBucket) {
-    this.client = InfluxDBClientFactory.create(url, token.toCharArray(), influxOrg, influxBucket);
+      @Value("${influxdb.bucket}") String influxBucket,
+      @Value("${influxdb.max-concurrent-queries:64}") int maxConcurrentQueries) {
+    Dispatcher dispatcher = new Dispatcher();
+    dispatcher.setMaxRequests(maxConcurrentQueries);
+    dispatcher.setMaxRequestsPerHost(maxConcurrentQueries);
+    InfluxDBClientOptions options =
+        InfluxDBClientOptions.builder()
+            .url(url)
+            .authenticateToken(token.toCharArray())
+            .org(influxOrg)
+            .bucket(influxBucket)
+            .okHttpClient(new OkHttpClient.Builder().dispatcher(dispatcher))
+            .build();
+    this.client = InfluxDBClientFactory.create(options);
     this.bucket = influxBucket;
     this.org = influxOrg;
     this.queryApi = client.getQueryApi();
@@ -55,30 +89,109 @@ public class InfluxDBStore implements DataStore {
   @Override
   public List<BuoyResponse> getHistory(int buoyId) throws UnknownBuoyException {
     String flux = buildHistoryQuery(buoyId);
-    List<FluxTable> tables = executeQuery(flux);
-    if (tables.isEmpty()) {
-      throw new UnknownBuoyException(buoyId);
-    }
-    Map<Instant, Map<String, Double>> groupedData = groupRecordsByTimestamp(tables);
-    if (groupedData.isEmpty()) {
-      throw new UnknownBuoyException(buoyId);
-    }
-    return convertToSortedBuoyResponses(groupedData, buoyId);
+    return toHistory(buoyId, toRecords(executeQuery(flux)));
   }
 
   @Override
   public Optional<BuoyResponse> getLatest(int buoyId) throws UnknownBuoyException {
     String flux = buildLatestQuery(buoyId);
-    List<FluxTable> tables = executeQuery(flux);
-    if (tables.isEmpty()) {
-      return Optional.empty();
+    return toLatest(buoyId, toRecords(executeQuery(flux)));
+  }
+
+  @Override
+  public CompletableFuture<List<BuoyResponse>> getHistoryAsync(int buoyId) {
+    return executeQueryAsync(buildHistoryQuery(buoyId))
+        .thenApply(
+            records -> {
+              try {
+                return toHistory(buoyId, records);
+              } catch (UnknownBuoyException e) {
+                throw new CompletionException(e);
+              }
+            });
+  }
+
+  @Override
+  public CompletableFuture<Optional<BuoyResponse>> getLatestAsync(int buoyId) {
+    return executeQueryAsync(buildLatestQuery(buoyId))
+        .thenApply(records -> toLatest(buoyId, records));
+  }
+
+  /**
+   * Seeks with the range start instead of skipping earlier points, and limits each field's series
+   * before pivoting so only one page of points, plus those at the position's timestamp that were
+   * already seen, leaves the storage engine.
+   */
+  @Override
+  public CompletableFuture<HistoryPage> getHistoryPageAsync(
+      int buoyId, HistoryPage.Position after, int limit) {
+    int seen = after == null ? 0 : after.seen();
+    return executeQueryAsync(buildHistoryPageQuery(buoyId, after, seen + limit + 1))
+        .thenApply(
+            records -> {
+              List<BuoyResponse> readings = toPivotedReadings(buoyId, records);
+              if (readings.isEmpty() && after == null) {
+                throw new CompletionException(new UnknownBuoyException(buoyId));
+              }
+              int from = 0;
+              while (from < seen
+                  && from < readings.size()
+                  && readings.get(from).getTimestamp().equals(after.timestamp())) {
+                from++;
+              }
+              if (readings.size() - from <= limit) {
+                return new HistoryPage(readings.subList(from, readings.size()), null);
+              }
+              List<BuoyResponse> page = new ArrayList<>(readings.subList(from, from + limit));
+              Instant last = page.get(limit - 1).getTimestamp();
+              int atLast = 0;
+              for (int i = from + limit - 1; i >= 0; i--) {
+                if (!readings.get(i).getTimestamp().equals(last)) {
+                  break;
+                }
+                atLast++;
+              }
+              return new HistoryPage(page, new HistoryPage.Position(last, atLast));
+            });
+  }
+
+  /**
+   * Pushes the aggregations down into one Flux query with a yield per statistic, so only seven
+   * values come back however large the window is.
+   */
+  @Override
+  public CompletableFuture<WindowStats> getStatsAsync(
+      int buoyId, String field, Instant from, Instant until) {
+    if (!STATS_FIELDS.contains(field)) {
+      return CompletableFuture.failedFuture(
+          new IllegalArgumentException("No stats for field: " + field));
     }
-    Map<String, Double> values = new HashMap<>();
-    Instant timestamp = extractFieldValues(tables, values);
-    if (values.size() != 4 || timestamp == null) {
-      return Optional.empty();
+    return executeQueryAsync(buildStatsQuery(buoyId, field, from, until))
+        .thenApply(InfluxDBStore::toWindowStats);
+  }
+
+  @Override
+  public List<BuoyResponse> getLatestForAll() {
+    List<FluxTable> tables = executeQuery(buildLatestForAllQuery());
+    Map<Integer, Map<String, Double>> valuesByBuoy = new HashMap<>();
+    Map<Integer, Instant> timestampByBuoy = new HashMap<>();
+    for (FluxTable table : tables) {
+      for (FluxRecord record : table.getRecords()) {
+        int buoyId = Integer.parseInt((String) record.getValueByKey("buoy_id"));
+        String field = (String) record.getField();
+        Double value = ((Number) record.getValue()).doubleValue();
+        valuesByBuoy.computeIfAbsent(buoyId, ignored -> new HashMap<>()).put(field, value);
+        timestampByBuoy.merge(
+            buoyId, record.getTime(), (alpha, beta) -> alpha.isAfter(beta) ? alpha : beta);
+      }
     }
-    return Optional.of(createBuoyResponse(buoyId, timestamp, values));
+    return valuesByBuoy.entrySet().stream()
+        .filter(entry -> entry.getValue().size() == 4)
+        .map(
+            entry ->
+                createBuoyResponse(
+                    entry.getKey(), timestampByBuoy.get(entry.getKey()), entry.getValue()))
+        .collect(Collectors.toList());
   }
 
   @Override
@@ -119,6 +232,36 @@ public class InfluxDBStore implements DataStore {
         bucket, buoyId);
   }
 
+  private String buildHistoryPageQuery(int buoyId, HistoryPage.Position after, int limit) {
+    // Range starts are inclusive, so readings at the position's timestamp come back to be skipped.
+    String start = after == null ? "-30d" : after.timestamp().toString();
+    return String.format(
+        "from(bucket: \"%s\") "
+            + "|> range(start: %s) "
+            + "|> filter(fn: (r) => r[\"_measurement\"] == \"buoy_data\") "
+            + "|> filter(fn: (r) => r[\"buoy_id\"] == \"%d\") "
+            + "|> limit(n: %d) "
+            + "|> pivot(rowKey: [\"_time\"], columnKey: [\"_field\"], valueColumn: \"_value\") "
+            + "|> sort(columns: [\"_time\"])",
+        bucket, start, buoyId, limit);
+  }
+
+  private String buildStatsQuery(int buoyId, String field, Instant from, Instant until) {
+    StringBuilder flux =
+        new StringBuilder(
+            String.format(
+                "data = from(bucket: \"%s\") "
+                    + "|> range(start: %s, stop: %s) "
+                    + "|> filter(fn: (r) => r[\"_measurement\"] == \"buoy_data\") "
+                    + "|> filter(fn: (r) => r[\"buoy_id\"] == \"%d\") "
+                    + "|> filter(fn: (r) => r[\"_field\"] == \"%s\")\n",
+                bucket, from, until.plusNanos(1), buoyId, field));
+    for (String statistic : List.of("count", "min", "max", "mean", "stddev", "first", "last")) {
+      flux.append(String.format("data |> %s() |> yield(name: \"%s\")\n", statistic, statistic));
+    }
+    return flux.toString();
+  }
+
   private String buildLatestQuery(int buoyId) {
     return String.format(
         "from(bucket: \"%s\") "
@@ -130,34 +273,135 @@ public class InfluxDBStore implements DataStore {
         bucket, buoyId);
   }
 
+  private String buildLatestForAllQuery() {
+    return String.format(
+        "from(bucket: \"%s\") "
+            + "|> range(start: -30d) "
+            + "|> filter(fn: (r) => r[\"_measurement\"] == \"buoy_data\") "
+            + "|> last()",
+        bucket);
+  }
+
   private List<FluxTable> executeQuery(String flux) {
     return queryApi.query(flux, org);
   }
 
-  private Map<Instant, Map<String, Double>> groupRecordsByTimestamp(List<FluxTable> tables) {
-    Map<Instant, Map<String, Double>> groupedData = new HashMap<>();
+  /**
+   * Runs a query on the client's HTTP dispatcher and streams its records into a list, so no
+   * caller thread waits for the response. Cancelling the future cancels the query when its next
+   * record arrives, which releases the dispatcher slot it streams over.
+   */
+  private CompletableFuture<List<FluxRecord>> executeQueryAsync(String flux) {
+    CompletableFuture<List<FluxRecord>> future = new CompletableFuture<>();
+    List<FluxRecord> records = new ArrayList<>();
+    queryApi.query(
+        flux,
+        org,
+        (cancellable, record) -> {
+          if (future.isCancelled()) {
+            cancellable.cancel();
+            return;
+          }
+          records.add(record);
+        },
+        future::completeExceptionally,
+        () -> future.complete(records));
+    return future;
+  }
+
+  private static List<FluxRecord> toRecords(List<FluxTable> tables) {
+    List<FluxRecord> records = new ArrayList<>();
     for (FluxTable table : tables) {
-      for (FluxRecord record : table.getRecords()) {
-        Instant timestamp = record.getTime();
-        String field = (String) record.getField();
-        Double value = ((Number) record.getValue()).doubleValue();
-        groupedData.computeIfAbsent(timestamp, ignored -> new HashMap<>()).put(field, value);
+      records.addAll(table.getRecords());
+    }
+    return records;
+  }
+
+  private List<BuoyResponse> toHistory(int buoyId, List<FluxRecord> records)
+      throws UnknownBuoyException {
+    Map<Instant, Map<String, Double>> groupedData = groupRecordsByTimestamp(records);
+    if (groupedData.isEmpty()) {
+      throw new UnknownBuoyException(buoyId);
+    }
+    return convertToSortedBuoyResponses(groupedData, buoyId);
+  }
+
+  /** Converts pivoted rows, which carry every field as a column, skipping incomplete points. */
+  private List<BuoyResponse> toPivotedReadings(int buoyId, List<FluxRecord> records) {
+    List<BuoyResponse> readings = new ArrayList<>();
+    for (FluxRecord record : records) {
+      Map<String, Double> values = new HashMap<>();
+      for (String field : List.of("temperature", "pressure", "latitude", "longitude")) {
+        if (record.getValueByKey(field) instanceof Number number) {
+          values.put(field, number.doubleValue());
+        }
+      }
+      if (values.size() == 4) {
+        readings.add(createBuoyResponse(buoyId, record.getTime(), values));
       }
     }
+    return readings;
+  }
+
+  /** Collects the per-yield records of a stats query, keyed by their result name. */
+  private static WindowStats toWindowStats(List<FluxRecord> records) {
+    Map<String, FluxRecord> byResult = new HashMap<>();
+    for (FluxRecord record : records) {
+      byResult.put((String) record.getValueByKey("result"), record);
+    }
+    long count = byResult.containsKey("count") ? numberValue(byResult.get("count")).longValue() : 0;
+    if (count == 0) {
+      return WindowStats.empty();
+    }
+    FluxRecord first = byResult.get("first");
+    FluxRecord last = byResult.get("last");
+    Number stddev = byResult.containsKey("stddev") ? numberValue(byResult.get("stddev")) : null;
+    return new WindowStats(
+        count,
+        numberValue(byResult.get("min")).doubleValue(),
+        numberValue(byResult.get("max")).doubleValue(),
+        numberValue(byResult.get("mean")).doubleValue(),
+        stddev == null ? null : stddev.doubleValue(),
+        WindowStats.rate(
+            first.getTime().toEpochMilli(),
+            numberValue(first).doubleValue(),
+            last.getTime().toEpochMilli(),
+            numberValue(last).doubleValue()));
+  }
+
+  private static Number numberValue(FluxRecord record) {
+    return (Number) record.getValue();
+  }
+
+  private Optional<BuoyResponse> toLatest(int buoyId, List<FluxRecord> records) {
+    Map<String, Double> values = new HashMap<>();
+    Instant timestamp = extractFieldValues(records, values);
+    if (values.size() != 4 || timestamp == null) {
+      return Optional.empty();
+    }
+    return Optional.of(createBuoyResponse(buoyId, timestamp, values));
+  }
+
+  private Map<Instant, Map<String, Double>> groupRecordsByTimestamp(List<FluxRecord> records) {
+    Map<Instant, Map<String, Double>> groupedData = new HashMap<>();
+    for (FluxRecord record : records) {
+      Instant timestamp = record.getTime();
+      String field = (String) record.getField();
+      Double value = ((Number) record.getValue()).doubleValue();
+      groupedData.computeIfAbsent(timestamp, ignored -> new HashMap<>()).put(field, value);
+    }
     return groupedData;
   }
 
-  private Instant extractFieldValues(List<FluxTable> tables, Map<String, Double> values) {
+  private Instant extractFieldValues(List<FluxRecord> records, Map<String, Double> values) {
     Instant timestamp = null;
-    for (FluxTable table : tables) {
-      for (FluxRecord record : table.getRecords()) {
-        if (timestamp == null) {
-          timestamp = record.getTime();
-        }
-        String field = (String) record.getField();
-        Double value = ((Number) record.getValue()).doubleValue();
-        values.put(field, value);
+    for (FluxRecord record : records) {
+      if (timestamp == null) {
+        timestamp = record.getTime();
       }
+      String field = (String) record.getField();
+      Double value = ((Number) record.getValue()).doubleValue();
+      values.put(field, value);
     }
     return timestamp;
   }
@@ -0,0 +1,54 @@
+package edu.bu.data;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks a per-buoy ingest version and last-update time. Controllers use it to build ETag and
+ * Last-Modified validators so conditional GETs can be answered without a store lookup.
+ */
+@Component
+public class IngestVersionTracker {
+
+  /** Distinguishes versions issued by this process from those issued before a restart. */
+  private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+  private final Map<Integer, IngestVersion> versions = new ConcurrentHashMap<>();
+
+  /**
+   * Bumps the version of the buoy that produced the reading, ahead of the other reading listeners
+   * so validators change as soon as the reading is stored.
+   */
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onReading(BuoyReadingEvent event) {
+    record(event.reading().getBuoyId());
+  }
+
+  /** Bumps the version of the given buoy and stamps it with the current time. */
+  public void record(int buoyId) {
+    long now = System.currentTimeMillis();
+    versions.compute(
+        buoyId,
+        (id, previous) ->
+            new IngestVersion(epoch, previous == null ? 1 : previous.version() + 1, now));
+  }
+
+  public Optional<IngestVersion> getVersion(int buoyId) {
+    return Optional.ofNullable(versions.get(buoyId));
+  }
+
+  /** Immutable version stamp for a single buoy. */
+  public record IngestVersion(String epoch, long version, long lastModifiedMillis) {
+
+    /** Builds a quoted entity tag; the variant distinguishes representations of the same data. */
+    public String etag(String variant) {
+      return "\"" + epoch + "-" + version + "-" + variant + "\"";
+    }
+  }
+}
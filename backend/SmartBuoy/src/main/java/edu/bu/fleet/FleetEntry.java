@@ -0,0 +1,55 @@
+package edu.bu.fleet;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import edu.bu.analytics.geofence.GeofenceService;
+import edu.bu.analytics.kinematics.DriftKinematics;
+import edu.bu.data.BuoyResponse;
+import edu.bu.data.Deployment;
+
+/**
+ * Latest known state of one buoy in the fleet snapshot. Deployment and fence status are omitted
+ * from JSON for buoys that have not been deployed, and kinematics for buoys without any.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record FleetEntry(
+    int buoyId,
+    long timestamp,
+    double temperature,
+    double pressure,
+    double latitude,
+    double longitude,
+    FleetDeployment deployment,
+    Boolean outsideFence,
+    DriftKinematics kinematics) {
+
+  /** Builds an entry from a reading and the buoy's deployment and kinematics, which may be null. */
+  public static FleetEntry of(
+      BuoyResponse reading, Deployment deployment, DriftKinematics kinematics) {
+    FleetDeployment fleetDeployment = null;
+    Boolean outside = null;
+    if (deployment != null) {
+      fleetDeployment =
+          new FleetDeployment(
+              deployment.lat,
+              deployment.lon,
+              deployment.allowedRadiusMeters,
+              deployment.deployedAt);
+      outside =
+          GeofenceService.isOutsideFence(deployment, reading.getLatitude(), reading.getLongitude());
+    }
+    return new FleetEntry(
+        reading.getBuoyId(),
+        reading.getTimestamp().toEpochMilli(),
+        reading.getTemperature(),
+        reading.getPressure(),
+        reading.getLatitude(),
+        reading.getLongitude(),
+        fleetDeployment,
+        outside,
+        kinematics);
+  }
+
+  /** Deployment centre and radius as shown in the fleet view. */
+  public record FleetDeployment(
+      double latitude, double longitude, double allowedRadiusMeters, long deployedAt) {}
+}
@@ -0,0 +1,24 @@
+package edu.bu.fleet;
+
+import edu.bu.analytics.geofence.BoundingBox;
+import java.util.List;
+
+/**
+ * Immutable view of the whole fleet at one snapshot version. The same instance is handed to every
+ * reader until ingestion changes the fleet.
+ */
+public record FleetSnapshot(long version, long generatedAt, List<FleetEntry> buoys) {
+
+  /** Returns the entries inside the box and updated since the given time; null skips a filter. */
+  public FleetSnapshot filter(BoundingBox box, Long updatedSince) {
+    if (box == null && updatedSince == null) {
+      return this;
+    }
+    List<FleetEntry> matching =
+        buoys.stream()
+            .filter(entry -> box == null || box.contains(entry.latitude(), entry.longitude()))
+            .filter(entry -> updatedSince == null || entry.timestamp() >= updatedSince)
+            .toList();
+    return new FleetSnapshot(version, generatedAt, matching);
+  }
+}
@@ -0,0 +1,118 @@
+package edu.bu.fleet;
+
+import edu.bu.analytics.kinematics.KinematicsService;
+import edu.bu.data.BuoyReadingEvent;
+import edu.bu.data.BuoyResponse;
+import edu.bu.data.DataStore;
+import edu.bu.data.Deployment;
+import edu.bu.data.DeploymentSavedEvent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the latest reading, deployment, fence status and kinematics of every buoy, updated by
+ * ingestion.
+ *
+ * <p>Readers share one immutable {@link FleetSnapshot}. It is rebuilt at most once per change, on
+ * the first read after the change, so a burst of polls between two readings costs a single copy.
+ */
+@Service
+public class FleetSnapshotService {
+
+  private static final Logger log = LoggerFactory.getLogger(FleetSnapshotService.class);
+
+  private final DataStore dataStore;
+  private final KinematicsService kinematicsService;
+  private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+  private final Map<Integer, BuoyResponse> latestReadings = new ConcurrentHashMap<>();
+  private final Map<Integer, Deployment> deployments = new ConcurrentHashMap<>();
+  private final Map<Integer, FleetEntry> entries = new ConcurrentHashMap<>();
+  private final AtomicLong version = new AtomicLong();
+  private volatile FleetSnapshot snapshot = new FleetSnapshot(0, 0, List.of());
+
+  /** Creates a FleetSnapshotService that seeds itself from the given DataStore. */
+  public FleetSnapshotService(DataStore dataStore, KinematicsService kinematicsService) {
+    this.dataStore = dataStore;
+    this.kinematicsService = kinematicsService;
+  }
+
+  /** Loads the latest reading of every stored buoy so the snapshot is complete after a restart. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void seedFromStore() {
+    try {
+      List<BuoyResponse> latest = dataStore.getLatestForAll();
+      latest.forEach(this::applyReading);
+      log.info("Fleet snapshot seeded with {} buoy(s)", latest.size());
+    } catch (Exception e) {
+      log.warn("Could not seed fleet snapshot from store: {}", e.getMessage());
+    }
+  }
+
+  @EventListener
+  public void onReading(BuoyReadingEvent event) {
+    applyReading(event.reading());
+  }
+
+  @EventListener
+  public void onDeployment(DeploymentSavedEvent event) {
+    Deployment deployment = event.deployment();
+    deployments.put(deployment.buoyId, deployment);
+    refresh(deployment.buoyId);
+  }
+
+  /** Returns the current snapshot, rebuilding it first if the fleet changed since the last read. */
+  public FleetSnapshot getSnapshot() {
+    FleetSnapshot current = snapshot;
+    if (current.version() == version.get()) {
+      return current;
+    }
+    synchronized (this) {
+      long target = version.get();
+      if (snapshot.version() != target) {
+        List<FleetEntry> buoys = new ArrayList<>(entries.values());
+        buoys.sort(Comparator.comparingInt(FleetEntry::buoyId));
+        snapshot = new FleetSnapshot(target, System.currentTimeMillis(), List.copyOf(buoys));
+      }
+      return snapshot;
+    }
+  }
+
+  /** Builds a quoted entity tag for the given snapshot. */
+  public String etag(FleetSnapshot fleetSnapshot) {
+    return "\"fleet-" + epoch + "-" + fleetSnapshot.version() + "\"";
+  }
+
+  private void applyReading(BuoyResponse reading) {
+    // Out-of-order deliveries must not move a buoy back to an older position.
+    latestReadings.merge(
+        reading.getBuoyId(),
+        reading,
+        (previous, incoming) ->
+            incoming.getTimestamp().isBefore(previous.getTimestamp()) ? previous : incoming);
+    refresh(reading.getBuoyId());
+  }
+
+  private void refresh(int buoyId) {
+    BuoyResponse reading = latestReadings.get(buoyId);
+    if (reading == null) {
+      return;
+    }
+    entries.compute(
+        buoyId,
+        (id, previous) ->
+            FleetEntry.of(
+                latestReadings.get(id),
+                deployments.get(id),
+                kinematicsService.get(id).orElse(null)));
+    version.incrementAndGet();
+  }
+}
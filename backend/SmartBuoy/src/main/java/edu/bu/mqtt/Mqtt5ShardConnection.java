@@ -0,0 +1,302 @@
+package edu.bu.mqtt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.eclipse.paho.mqttv5.client.IMqttToken;
+import org.eclipse.paho.mqttv5.client.MqttActionListener;
+import org.eclipse.paho.mqttv5.client.MqttAsyncClient;
+import org.eclipse.paho.mqttv5.client.MqttCallback;
+import org.eclipse.paho.mqttv5.client.MqttConnectionOptions;
+import org.eclipse.paho.mqttv5.client.MqttDisconnectResponse;
+import org.eclipse.paho.mqttv5.client.persist.MemoryPersistence;
+import org.eclipse.paho.mqttv5.common.MqttException;
+import org.eclipse.paho.mqttv5.common.MqttMessage;
+import org.eclipse.paho.mqttv5.common.MqttSubscription;
+import org.eclipse.paho.mqttv5.common.packet.MqttProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.integration.mqtt.support.MqttHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+/**
+ * An MQTT 5 connection of {@link MqttShards}, meant for shared subscriptions ({@code
+ * $share/{group}/{filter}}) that the broker load-balances across every backend node in the group.
+ *
+ * <p>The session outlives the connection when the options set a session expiry and clean start
+ * is off: while this client is away the broker keeps its subscriptions and queues its QoS 1
+ * messages, and on reconnect delivers just those instead of the whole group's traffic being
+ * redelivered or every shadow requested again. Reconnects are driven here rather than by Paho so
+ * that the session-present flag of each CONNACK is seen; a resumed session is neither subscribed
+ * again nor resynced.
+ *
+ * <p>Topics are subscribed in {@link SubscribeBatches}, one SUBSCRIBE after another. A batch that
+ * fails or is refused with a reason code of 0x80 or above is retried with the connect backoff.
+ */
+public class Mqtt5ShardConnection implements MqttConnection, MqttCallback {
+
+  private static final Logger log = LoggerFactory.getLogger(Mqtt5ShardConnection.class);
+  private static final long INITIAL_RETRY_SECONDS = 1;
+  private static final long MAX_RETRY_SECONDS = 128;
+  private static final int FIRST_FAILURE_REASON_CODE = 0x80;
+
+  private final int index;
+  private final String clientId;
+  private final MqttAsyncClient client;
+  private final MqttConnectionOptions options;
+  private final String[] topics;
+  private final List<String[]> batches;
+  private final int qos;
+  private final Consumer<Message<String>> inbound;
+  private final Runnable onSubscribed;
+  private final ScheduledExecutorService scheduler;
+  private final MqttConnectionMetrics metrics = new MqttConnectionMetrics(System::nanoTime);
+  private final AtomicInteger connects = new AtomicInteger();
+  private long retrySeconds = INITIAL_RETRY_SECONDS;
+  private long subscribeRetrySeconds = INITIAL_RETRY_SECONDS;
+  private volatile boolean subscribed;
+  private volatile boolean running;
+
+  /**
+   * Creates a connection; nothing is sent until {@link #start()}. The client id must be stable
+   * across restarts and unique per node for the broker to hand back the right session.
+   *
+   * @param topics subscription filters of this connection, possibly shared, possibly none
+   * @param onSubscribed run after each fresh subscription, but not when a session is resumed
+   */
+  public Mqtt5ShardConnection(
+      int index,
+      String clientId,
+      MqttConnectionOptions options,
+      String[] topics,
+      int qos,
+      Consumer<Message<String>> inbound,
+      Runnable onSubscribed,
+      ScheduledExecutorService scheduler)
+      throws MqttException {
+    this.index = index;
+    this.clientId = clientId;
+    this.options = options;
+    this.topics = topics;
+    this.batches = SubscribeBatches.of(topics);
+    this.qos = qos;
+    this.inbound = inbound;
+    this.onSubscribed = onSubscribed;
+    this.scheduler = scheduler;
+    this.client =
+        new MqttAsyncClient(options.getServerURIs()[0], clientId, new MemoryPersistence());
+    client.setCallback(this);
+  }
+
+  /** The shared subscription of a group to a topic filter. */
+  public static String sharedFilter(String group, String filter) {
+    if (group.isEmpty() || group.contains("/") || group.contains("+") || group.contains("#")) {
+      throw new IllegalArgumentException("Invalid MQTT share group: " + group);
+    }
+    return "$share/" + group + "/" + filter;
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    connect();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    try {
+      if (client.isConnected()) {
+        client.disconnect().waitForCompletion(TimeUnit.SECONDS.toMillis(5));
+      }
+      client.close();
+    } catch (MqttException e) {
+      log.warn("MQTT connection {} did not close cleanly: {}", clientId, e.getMessage());
+    }
+  }
+
+  @Override
+  public boolean publish(String topic, String payload) {
+    try {
+      client.publish(topic, payload.getBytes(StandardCharsets.UTF_8), qos, false);
+      metrics.recordOutbound();
+      return true;
+    } catch (MqttException e) {
+      metrics.recordFailure();
+      log.warn("MQTT publish to {} on {} failed: {}", topic, clientId, e.getMessage());
+      return false;
+    }
+  }
+
+  @Override
+  public MqttConnectionStats stats() {
+    return new MqttConnectionStats(
+        index,
+        clientId,
+        client.isConnected(),
+        topics.length,
+        metrics.inbound(),
+        metrics.outbound(),
+        metrics.failures(),
+        metrics.inboundPerSecond(),
+        metrics.outboundPerSecond());
+  }
+
+  private void connect() {
+    if (!running) {
+      return;
+    }
+    try {
+      client.connect(
+          options,
+          null,
+          new MqttActionListener() {
+            @Override
+            public void onSuccess(IMqttToken token) {
+              retrySeconds = INITIAL_RETRY_SECONDS;
+              connected(token.getSessionPresent());
+            }
+
+            @Override
+            public void onFailure(IMqttToken token, Throwable error) {
+              scheduleReconnect(error);
+            }
+          });
+    } catch (MqttException e) {
+      scheduleReconnect(e);
+    }
+  }
+
+  private void scheduleReconnect(Throwable error) {
+    if (!running) {
+      return;
+    }
+    log.warn(
+        "MQTT connection {} failed, retrying in {}s: {}",
+        clientId,
+        retrySeconds,
+        error == null ? "disconnected" : error.getMessage());
+    scheduler.schedule(this::connect, retrySeconds, TimeUnit.SECONDS);
+    retrySeconds = Math.min(retrySeconds * 2, MAX_RETRY_SECONDS);
+  }
+
+  /**
+   * The broker still holds this client's subscriptions when it reports the session present, but
+   * only a session this process subscribed itself is trusted; the first connect after a restart
+   * always subscribes and resyncs so the shadows that were missed while down are requested.
+   */
+  private void connected(boolean sessionPresent) {
+    int connect = connects.incrementAndGet();
+    if (sessionPresent && subscribed) {
+      log.info("MQTT connection {} resumed its session, not subscribing again", clientId);
+      return;
+    }
+    if (topics.length == 0) {
+      return;
+    }
+    subscribeRetrySeconds = INITIAL_RETRY_SECONDS;
+    subscribe(connect, 0);
+  }
+
+  /**
+   * Subscribes one batch and, once the broker has granted it, the next. A retry or the next batch
+   * belonging to an earlier connect is dropped, since every connect starts over from the first.
+   */
+  private void subscribe(int connect, int batch) {
+    if (!running || connect != connects.get()) {
+      return;
+    }
+    String[] filters = batches.get(batch);
+    MqttSubscription[] subscriptions = new MqttSubscription[filters.length];
+    for (int i = 0; i < filters.length; i++) {
+      subscriptions[i] = new MqttSubscription(filters[i], qos);
+    }
+    try {
+      client.subscribe(
+          subscriptions,
+          null,
+          new MqttActionListener() {
+            @Override
+            public void onSuccess(IMqttToken token) {
+              for (int reasonCode : token.getReasonCodes()) {
+                if (reasonCode >= FIRST_FAILURE_REASON_CODE) {
+                  retrySubscribe(
+                      connect,
+                      batch,
+                      "subscription refused with reason code 0x" + Integer.toHexString(reasonCode));
+                  return;
+                }
+              }
+              if (batch + 1 < batches.size()) {
+                subscribe(connect, batch + 1);
+                return;
+              }
+              log.info("MQTT connection {} subscribed to {} topic(s)", clientId, topics.length);
+              subscribed = true;
+              onSubscribed.run();
+            }
+
+            @Override
+            public void onFailure(IMqttToken token, Throwable error) {
+              retrySubscribe(connect, batch, error.getMessage());
+            }
+          },
+          new MqttProperties());
+    } catch (MqttException e) {
+      retrySubscribe(connect, batch, e.getMessage());
+    }
+  }
+
+  private void retrySubscribe(int connect, int batch, String reason) {
+    if (!running || connect != connects.get()) {
+      return;
+    }
+    log.warn(
+        "MQTT connection {} could not subscribe, retrying in {}s: {}",
+        clientId,
+        subscribeRetrySeconds,
+        reason);
+    scheduler.schedule(() -> subscribe(connect, batch), subscribeRetrySeconds, TimeUnit.SECONDS);
+    subscribeRetrySeconds = Math.min(subscribeRetrySeconds * 2, MAX_RETRY_SECONDS);
+  }
+
+  @Override
+  public void connectComplete(boolean reconnect, String serverUri) {
+    log.info("MQTT 5 connection {} connected to {}", clientId, serverUri);
+  }
+
+  @Override
+  public void disconnected(MqttDisconnectResponse response) {
+    log.warn("MQTT connection {} lost: {}", clientId, response.getReasonString());
+    scheduleReconnect(response.getException());
+  }
+
+  @Override
+  public void mqttErrorOccurred(MqttException error) {
+    log.error("MQTT connection {} error: {}", clientId, error.getMessage());
+  }
+
+  @Override
+  public void messageArrived(String topic, MqttMessage message) {
+    metrics.recordInbound();
+    try {
+      inbound.accept(
+          MessageBuilder.withPayload(new String(message.getPayload(), StandardCharsets.UTF_8))
+              .setHeader(MqttHeaders.RECEIVED_TOPIC, topic)
+              .build());
+    } catch (RuntimeException e) {
+      // An exception escaping this callback makes Paho drop the connection.
+      log.error("MQTT message on {} could not be handled: {}", topic, e.getMessage());
+    }
+  }
+
+  @Override
+  public void deliveryComplete(IMqttToken token) {}
+
+  @Override
+  public void authPacketArrived(int reasonCode, MqttProperties properties) {}
+}
@@ -0,0 +1,15 @@
+package edu.bu.mqtt;
+
+/** One broker connection of {@link MqttShards}, over MQTT 3.1.1 or MQTT 5. */
+public interface MqttConnection {
+
+  /** Connects and keeps reconnecting until {@link #stop()}. */
+  void start();
+
+  void stop();
+
+  /** Publishes a message on this connection; returns false and counts a failure if it cannot. */
+  boolean publish(String topic, String payload);
+
+  MqttConnectionStats stats();
+}
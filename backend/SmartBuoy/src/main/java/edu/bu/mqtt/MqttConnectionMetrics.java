@@ -0,0 +1,81 @@
+package edu.bu.mqtt;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Message counters of one MQTT connection. Rates are averaged over the interval since they were
+ * last recomputed, which happens on read once at least ten seconds have passed, so recording a
+ * message is a single atomic increment.
+ */
+class MqttConnectionMetrics {
+
+  static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+  private final Rate inbound;
+  private final Rate outbound;
+  private final AtomicLong failures = new AtomicLong();
+
+  MqttConnectionMetrics(LongSupplier nanoClock) {
+    this.inbound = new Rate(nanoClock);
+    this.outbound = new Rate(nanoClock);
+  }
+
+  void recordInbound() {
+    inbound.total.incrementAndGet();
+  }
+
+  void recordOutbound() {
+    outbound.total.incrementAndGet();
+  }
+
+  void recordFailure() {
+    failures.incrementAndGet();
+  }
+
+  long inbound() {
+    return inbound.total.get();
+  }
+
+  long outbound() {
+    return outbound.total.get();
+  }
+
+  long failures() {
+    return failures.get();
+  }
+
+  double inboundPerSecond() {
+    return inbound.perSecond();
+  }
+
+  double outboundPerSecond() {
+    return outbound.perSecond();
+  }
+
+  private static final class Rate {
+    private final LongSupplier nanoClock;
+    private final AtomicLong total = new AtomicLong();
+    private long windowStart;
+    private long windowStartTotal;
+    private double perSecond;
+
+    Rate(LongSupplier nanoClock) {
+      this.nanoClock = nanoClock;
+      this.windowStart = nanoClock.getAsLong();
+    }
+
+    synchronized double perSecond() {
+      long now = nanoClock.getAsLong();
+      long elapsed = now - windowStart;
+      if (elapsed >= WINDOW_NANOS) {
+        long count = total.get();
+        perSecond = (count - windowStartTotal) * 1e9 / elapsed;
+        windowStart = now;
+        windowStartTotal = count;
+      }
+      return perSecond;
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package edu.bu.mqtt;
+
+/** Message counters and recent throughput of one MQTT connection. */
+public record MqttConnectionStats(
+    int connection,
+    String clientId,
+    boolean connected,
+    int subscriptions,
+    long messagesIn,
+    long messagesOut,
+    long publishFailures,
+    double messagesInPerSecond,
+    double messagesOutPerSecond) {}
@@ -0,0 +1,260 @@
+package edu.bu.mqtt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttCallbackExtended;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.integration.mqtt.support.MqttHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+/**
+ * An MQTT 3.1.1 connection of {@link MqttShards}. It subscribes to its topics whenever it
+ * connects, hands inbound messages on as Spring messages with the received topic header, and
+ * counts traffic in its metrics. Paho reconnects an established connection itself; a failed first
+ * connect is retried here with the same doubling backoff, capped at 128 seconds.
+ *
+ * <p>Topics are subscribed in {@link SubscribeBatches}, one SUBSCRIBE after another. A batch that
+ * fails or is refused in its SUBACK is retried with the connect backoff, so the connection never
+ * sits connected without its subscriptions.
+ */
+public class MqttShardConnection implements MqttConnection, MqttCallbackExtended {
+
+  private static final Logger log = LoggerFactory.getLogger(MqttShardConnection.class);
+  private static final long INITIAL_RETRY_SECONDS = 1;
+  private static final long MAX_RETRY_SECONDS = 128;
+  private static final int SUBACK_FAILURE = 0x80;
+
+  private final int index;
+  private final String clientId;
+  private final MqttAsyncClient client;
+  private final MqttConnectOptions options;
+  private final String[] topics;
+  private final List<String[]> batches;
+  private final int qos;
+  private final Consumer<Message<String>> inbound;
+  private final Runnable onSubscribed;
+  private final ScheduledExecutorService scheduler;
+  private final MqttConnectionMetrics metrics = new MqttConnectionMetrics(System::nanoTime);
+  private final AtomicInteger connects = new AtomicInteger();
+  private long retrySeconds = INITIAL_RETRY_SECONDS;
+  private long subscribeRetrySeconds = INITIAL_RETRY_SECONDS;
+  private volatile boolean running;
+
+  /**
+   * Creates a connection; nothing is sent until {@link #start()}.
+   *
+   * @param topics subscription filters of this connection, possibly none
+   * @param onSubscribed run after each successful subscription, including after reconnects
+   */
+  public MqttShardConnection(
+      int index,
+      String clientId,
+      MqttConnectOptions options,
+      String[] topics,
+      int qos,
+      Consumer<Message<String>> inbound,
+      Runnable onSubscribed,
+      ScheduledExecutorService scheduler)
+      throws MqttException {
+    this.index = index;
+    this.clientId = clientId;
+    this.options = options;
+    this.topics = topics;
+    this.batches = SubscribeBatches.of(topics);
+    this.qos = qos;
+    this.inbound = inbound;
+    this.onSubscribed = onSubscribed;
+    this.scheduler = scheduler;
+    this.client =
+        new MqttAsyncClient(options.getServerURIs()[0], clientId, new MemoryPersistence());
+    client.setCallback(this);
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    connect();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    try {
+      if (client.isConnected()) {
+        client.disconnect().waitForCompletion(TimeUnit.SECONDS.toMillis(5));
+      }
+      client.close();
+    } catch (MqttException e) {
+      log.warn("MQTT connection {} did not close cleanly: {}", clientId, e.getMessage());
+    }
+  }
+
+  @Override
+  public boolean publish(String topic, String payload) {
+    try {
+      client.publish(topic, payload.getBytes(StandardCharsets.UTF_8), qos, false);
+      metrics.recordOutbound();
+      return true;
+    } catch (MqttException e) {
+      metrics.recordFailure();
+      log.warn("MQTT publish to {} on {} failed: {}", topic, clientId, e.getMessage());
+      return false;
+    }
+  }
+
+  @Override
+  public MqttConnectionStats stats() {
+    return new MqttConnectionStats(
+        index,
+        clientId,
+        client.isConnected(),
+        topics.length,
+        metrics.inbound(),
+        metrics.outbound(),
+        metrics.failures(),
+        metrics.inboundPerSecond(),
+        metrics.outboundPerSecond());
+  }
+
+  private void connect() {
+    try {
+      client.connect(
+          options,
+          null,
+          new IMqttActionListener() {
+            @Override
+            public void onSuccess(IMqttToken token) {
+              retrySeconds = INITIAL_RETRY_SECONDS;
+            }
+
+            @Override
+            public void onFailure(IMqttToken token, Throwable error) {
+              scheduleReconnect(error);
+            }
+          });
+    } catch (MqttException e) {
+      scheduleReconnect(e);
+    }
+  }
+
+  private void scheduleReconnect(Throwable error) {
+    if (!running) {
+      return;
+    }
+    log.warn(
+        "MQTT connection {} failed, retrying in {}s: {}",
+        clientId,
+        retrySeconds,
+        error.getMessage());
+    scheduler.schedule(this::connect, retrySeconds, TimeUnit.SECONDS);
+    retrySeconds = Math.min(retrySeconds * 2, MAX_RETRY_SECONDS);
+  }
+
+  @Override
+  public void connectComplete(boolean reconnect, String serverUri) {
+    log.info(
+        "MQTT connection {} {} to {}",
+        clientId,
+        reconnect ? "reconnected" : "connected",
+        serverUri);
+    int connect = connects.incrementAndGet();
+    if (topics.length == 0) {
+      return;
+    }
+    subscribeRetrySeconds = INITIAL_RETRY_SECONDS;
+    subscribe(connect, 0);
+  }
+
+  /**
+   * Subscribes one batch and, once the broker has granted it, the next. A retry or the next batch
+   * belonging to an earlier connect is dropped, since every connect starts over from the first.
+   */
+  private void subscribe(int connect, int batch) {
+    if (!running || connect != connects.get()) {
+      return;
+    }
+    String[] filters = batches.get(batch);
+    int[] qosLevels = new int[filters.length];
+    Arrays.fill(qosLevels, qos);
+    try {
+      client.subscribe(
+          filters,
+          qosLevels,
+          null,
+          new IMqttActionListener() {
+            @Override
+            public void onSuccess(IMqttToken token) {
+              for (int granted : token.getGrantedQos()) {
+                if (granted >= SUBACK_FAILURE) {
+                  retrySubscribe(connect, batch, "subscription refused");
+                  return;
+                }
+              }
+              if (batch + 1 < batches.size()) {
+                subscribe(connect, batch + 1);
+                return;
+              }
+              log.info("MQTT connection {} subscribed to {} topic(s)", clientId, topics.length);
+              onSubscribed.run();
+            }
+
+            @Override
+            public void onFailure(IMqttToken token, Throwable error) {
+              retrySubscribe(connect, batch, error.getMessage());
+            }
+          });
+    } catch (MqttException e) {
+      retrySubscribe(connect, batch, e.getMessage());
+    }
+  }
+
+  private void retrySubscribe(int connect, int batch, String reason) {
+    if (!running || connect != connects.get()) {
+      return;
+    }
+    log.warn(
+        "MQTT connection {} could not subscribe, retrying in {}s: {}",
+        clientId,
+        subscribeRetrySeconds,
+        reason);
+    scheduler.schedule(() -> subscribe(connect, batch), subscribeRetrySeconds, TimeUnit.SECONDS);
+    subscribeRetrySeconds = Math.min(subscribeRetrySeconds * 2, MAX_RETRY_SECONDS);
+  }
+
+  @Override
+  public void connectionLost(Throwable cause) {
+    log.warn("MQTT connection {} lost: {}", clientId, cause.getMessage());
+  }
+
+  @Override
+  public void messageArrived(String topic, MqttMessage message) {
+    metrics.recordInbound();
+    try {
+      inbound.accept(
+          MessageBuilder.withPayload(new String(message.getPayload(), StandardCharsets.UTF_8))
+              .setHeader(MqttHeaders.RECEIVED_TOPIC, topic)
+              .build());
+    } catch (RuntimeException e) {
+      // An exception escaping this callback makes Paho drop the connection.
+      log.error("MQTT message on {} could not be handled: {}", topic, e.getMessage());
+    }
+  }
+
+  @Override
+  public void deliveryComplete(IMqttDeliveryToken token) {}
+}
@@ -0,0 +1,50 @@
+package edu.bu.mqtt;
+
+import java.util.List;
+
+/**
+ * The MQTT connections shadow traffic is spread over. Each thing belongs to one connection,
+ * chosen by the hash of its name, which carries its subscriptions when they are per thing and all
+ * of its publishes, so a thing's messages stay in order while the fleet's load is shared.
+ *
+ * <p>With an MQTT 5 shared subscription every connection joins the same group instead, and the
+ * broker spreads inbound messages over the group's connections on every backend node.
+ */
+public class MqttShards {
+
+  private final List<MqttConnection> connections;
+
+  public MqttShards(List<? extends MqttConnection> connections) {
+    if (connections.isEmpty()) {
+      throw new IllegalArgumentException("At least one MQTT connection is required");
+    }
+    this.connections = List.copyOf(connections);
+  }
+
+  /** Connection index of a thing among count connections. */
+  public static int shardOf(String thingName, int count) {
+    int hash = thingName.hashCode();
+    return Math.floorMod(hash ^ (hash >>> 16), count);
+  }
+
+  public int size() {
+    return connections.size();
+  }
+
+  /** Connection for a thing; messages that concern no thing use the first connection. */
+  public MqttConnection connectionFor(String thingName) {
+    return connections.get(thingName == null ? 0 : shardOf(thingName, connections.size()));
+  }
+
+  public void start() {
+    connections.forEach(MqttConnection::start);
+  }
+
+  public void stop() {
+    connections.forEach(MqttConnection::stop);
+  }
+
+  public List<MqttConnectionStats> stats() {
+    return connections.stream().map(MqttConnection::stats).toList();
+  }
+}
@@ -0,0 +1,44 @@
+package edu.bu.mqtt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * AWS IoT Core subscription limits: a SUBSCRIBE carries at most 8 topic filters and a connection
+ * holds at most 50 subscriptions. Connections send their filters in batches within the first
+ * limit, and the configuration is checked against the second when it is loaded, since the broker
+ * would otherwise refuse the excess subscriptions only once connected.
+ */
+public final class SubscribeBatches {
+
+  public static final int MAX_FILTERS_PER_SUBSCRIBE = 8;
+  public static final int MAX_SUBSCRIPTIONS_PER_CONNECTION = 50;
+
+  private SubscribeBatches() {}
+
+  /** The topics split into consecutive batches of at most {@link #MAX_FILTERS_PER_SUBSCRIBE}. */
+  public static List<String[]> of(String[] topics) {
+    List<String[]> batches = new ArrayList<>();
+    for (int from = 0; from < topics.length; from += MAX_FILTERS_PER_SUBSCRIBE) {
+      batches.add(
+          Arrays.copyOfRange(
+              topics, from, Math.min(from + MAX_FILTERS_PER_SUBSCRIBE, topics.length)));
+    }
+    return batches;
+  }
+
+  /** Fails when a connection would hold more subscriptions than the broker allows. */
+  public static void checkQuota(int connection, String[] topics) {
+    if (topics.length > MAX_SUBSCRIPTIONS_PER_CONNECTION) {
+      throw new IllegalArgumentException(
+          "MQTT connection "
+              + connection
+              + " would hold "
+              + topics.length
+              + " subscriptions, more than the "
+              + MAX_SUBSCRIPTIONS_PER_CONNECTION
+              + " allowed; raise mqtt.connections or subscribe by mqtt.thing-filter");
+    }
+  }
+}
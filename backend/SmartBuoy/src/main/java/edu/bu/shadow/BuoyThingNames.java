@@ -0,0 +1,92 @@
+package edu.bu.shadow;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps buoy ids to the AWS IoT thing names whose shadows they address, for the shadow API and
+ * the shadow command alert sink alike.
+ *
+ * <p>Buoys are mapped by numeric id with shadow.buoy-things, and clients may name them either way
+ * the frontend does, as "1" or "buoy-1". Any other id addresses a thing of that name when it is
+ * listed in mqtt.thing-names or its shadow is known. An id that resolves to nothing falls back to
+ * mqtt.thing-name only when shadow.default-thing-fallback is set, since otherwise every unknown id
+ * would read and command that one device.
+ */
+@Component
+public class BuoyThingNames {
+
+  private static final String CLIENT_ID_PREFIX = "buoy-";
+
+  private final ShadowService shadowService;
+  private final Map<Integer, String> thingsByBuoy = new HashMap<>();
+  private final Set<String> thingNames = new HashSet<>();
+  private final String defaultThing;
+
+  /**
+   * Creates the mapping from properties.
+   *
+   * @param mappings comma-separated buoyId=thingName pairs with numeric buoy ids, possibly empty
+   * @param thingNames things that can be addressed by their own name
+   * @param defaultThingFallback whether ids that resolve to nothing address the default thing
+   */
+  public BuoyThingNames(
+      ShadowService shadowService,
+      @Value("${shadow.buoy-things:1=${mqtt.thing-name:esp32}}") String mappings,
+      @Value("${mqtt.thing-names:${mqtt.thing-name:esp32}}") String[] thingNames,
+      @Value("${shadow.default-thing-fallback:false}") boolean defaultThingFallback,
+      @Value("${mqtt.thing-name:esp32}") String defaultThing) {
+    this.shadowService = shadowService;
+    for (String mapping : mappings.split(",")) {
+      if (mapping.isBlank()) {
+        continue;
+      }
+      String[] pair = mapping.split("=", -1);
+      Integer buoyId = pair.length == 2 ? buoyId(pair[0].trim()) : null;
+      if (buoyId == null || pair[1].isBlank()) {
+        throw new IllegalArgumentException(
+            "shadow.buoy-things entries must be buoyId=thingName: " + mapping);
+      }
+      thingsByBuoy.put(buoyId, pair[1].trim());
+    }
+    for (String thingName : thingNames) {
+      if (!thingName.isBlank()) {
+        this.thingNames.add(thingName.trim());
+      }
+    }
+    this.thingNames.addAll(thingsByBuoy.values());
+    this.defaultThing = defaultThingFallback ? defaultThing : null;
+  }
+
+  /** The thing whose shadow belongs to the buoy, if any. */
+  public Optional<String> thingName(int buoyId) {
+    String mapped = thingsByBuoy.get(buoyId);
+    return mapped != null ? Optional.of(mapped) : Optional.ofNullable(defaultThing);
+  }
+
+  /** The thing a client's buoy id or thing name addresses, if any. */
+  public Optional<String> thingName(String id) {
+    Integer buoyId = buoyId(id);
+    if (buoyId != null && thingsByBuoy.containsKey(buoyId)) {
+      return Optional.of(thingsByBuoy.get(buoyId));
+    }
+    if (thingNames.contains(id) || shadowService.getShadow(id).isPresent()) {
+      return Optional.of(id);
+    }
+    return Optional.ofNullable(defaultThing);
+  }
+
+  /** The numeric buoy id in "1" or "buoy-1", or null for any other id. */
+  private static Integer buoyId(String id) {
+    String digits = id.startsWith(CLIENT_ID_PREFIX) ? id.substring(CLIENT_ID_PREFIX.length()) : id;
+    if (digits.isEmpty() || digits.length() > 9 || !digits.chars().allMatch(Character::isDigit)) {
+      return null;
+    }
+    return Integer.parseInt(digits);
+  }
+}
@@ -0,0 +1,141 @@
+package edu.bu.shadow;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per-thing outbox for desired-state updates. Fields submitted within the debounce window are
+ * merged, later values winning, and published as one shadow update. At most maxInFlight updates
+ * per thing await acknowledgement at a time; each carries a client token that AWS IoT echoes on
+ * update/accepted or update/rejected, and fields submitted meanwhile wait for that response or the
+ * acknowledgement timeout. Tokens start with an id drawn per outbox, so a response to another
+ * backend node's update, which every node receives, never releases this node's slot.
+ */
+class DesiredStateOutbox {
+
+  private static final Logger log = LoggerFactory.getLogger(DesiredStateOutbox.class);
+
+  /** Sends one merged desired-state update; returns false when it could not be sent. */
+  @FunctionalInterface
+  interface Publisher {
+    boolean publish(String thingName, Map<String, Object> desired, String clientToken);
+  }
+
+  private final Publisher publisher;
+  private final ScheduledExecutorService scheduler;
+  private final long debounceMillis;
+  private final int maxInFlight;
+  private final long ackTimeoutMillis;
+  private final Map<String, Entry> entries = new HashMap<>();
+  private final String tokenPrefix = UUID.randomUUID() + "-";
+  private final AtomicLong tokens = new AtomicLong();
+
+  DesiredStateOutbox(
+      Publisher publisher,
+      ScheduledExecutorService scheduler,
+      long debounceMillis,
+      int maxInFlight,
+      long ackTimeoutMillis) {
+    if (debounceMillis < 0 || maxInFlight < 1 || ackTimeoutMillis < 1) {
+      throw new IllegalArgumentException(
+          "Outbox debounce must be non-negative and in-flight limit and ack timeout positive");
+    }
+    this.publisher = publisher;
+    this.scheduler = scheduler;
+    this.debounceMillis = debounceMillis;
+    this.maxInFlight = maxInFlight;
+    this.ackTimeoutMillis = ackTimeoutMillis;
+  }
+
+  /** Merges the fields into the thing's pending update and schedules it for publishing. */
+  void submit(String thingName, Map<String, Object> desired) {
+    synchronized (this) {
+      Entry entry = entries.computeIfAbsent(thingName, ignored -> new Entry());
+      entry.pending.putAll(desired);
+      scheduleFlush(thingName, entry, debounceMillis);
+    }
+  }
+
+  /**
+   * Releases the in-flight slot of an acknowledged update and publishes any fields that were
+   * waiting for it. Tokens this outbox did not issue, or already released, are ignored.
+   *
+   * @return true when the token was outstanding
+   */
+  boolean acknowledge(String thingName, String clientToken) {
+    synchronized (this) {
+      Entry entry = entries.get(thingName);
+      if (entry == null || !entry.inFlight.remove(clientToken)) {
+        return false;
+      }
+      // Pending fields have already waited out the in-flight update.
+      scheduleFlush(thingName, entry, 0);
+      removeIfIdle(thingName, entry);
+      return true;
+    }
+  }
+
+  /** Number of things with pending or unacknowledged updates. */
+  synchronized int activeThings() {
+    return entries.size();
+  }
+
+  private void scheduleFlush(String thingName, Entry entry, long delayMillis) {
+    if (!entry.flushScheduled && !entry.pending.isEmpty() && entry.inFlight.size() < maxInFlight) {
+      entry.flushScheduled = true;
+      scheduler.schedule(() -> flush(thingName), delayMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void flush(String thingName) {
+    Map<String, Object> batch;
+    String token;
+    synchronized (this) {
+      Entry entry = entries.get(thingName);
+      if (entry == null) {
+        return;
+      }
+      entry.flushScheduled = false;
+      if (entry.pending.isEmpty() || entry.inFlight.size() >= maxInFlight) {
+        removeIfIdle(thingName, entry);
+        return;
+      }
+      batch = new LinkedHashMap<>(entry.pending);
+      entry.pending.clear();
+      token = tokenPrefix + tokens.incrementAndGet();
+      entry.inFlight.add(token);
+    }
+    if (publisher.publish(thingName, batch, token)) {
+      scheduler.schedule(() -> expire(thingName, token), ackTimeoutMillis, TimeUnit.MILLISECONDS);
+    } else {
+      acknowledge(thingName, token);
+    }
+  }
+
+  private void expire(String thingName, String token) {
+    if (acknowledge(thingName, token)) {
+      log.warn("No response to desired state update {} for {}, releasing it", token, thingName);
+    }
+  }
+
+  private void removeIfIdle(String thingName, Entry entry) {
+    if (entry.pending.isEmpty() && entry.inFlight.isEmpty() && !entry.flushScheduled) {
+      entries.remove(thingName);
+    }
+  }
+
+  private static final class Entry {
+    private final Map<String, Object> pending = new LinkedHashMap<>();
+    private final Set<String> inFlight = new HashSet<>();
+    private boolean flushScheduled;
+  }
+}
@@ -2,10 +2,15 @@ package edu.bu.shadow;
 
 import java.time.Instant;
 
+/**
+ * Merged reported and desired state of one thing. The version is that of the newest AWS IoT
+ * shadow document applied, or null when none carried one.
+ */
 public record DeviceShadow(
     String buoyId,
     Integer battery,
     Boolean led,
     Boolean buzzer,
     Boolean deployed,
-    Instant lastUpdated) {}
+    Instant lastUpdated,
+    Long version) {}
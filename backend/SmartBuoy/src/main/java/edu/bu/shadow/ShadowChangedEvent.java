@@ -0,0 +1,4 @@
+package edu.bu.shadow;
+
+/** Published whenever {@link ShadowService} stores a new version of a device shadow. */
+public record ShadowChangedEvent(DeviceShadow shadow) {}
@@ -0,0 +1,20 @@
+package edu.bu.shadow;
+
+/** The AWS IoT shadow response topics the backend subscribes to, by topic suffix. */
+public enum ShadowMessageType {
+  UPDATE_DELTA("update/delta"),
+  UPDATE_ACCEPTED("update/accepted"),
+  UPDATE_REJECTED("update/rejected"),
+  GET_ACCEPTED("get/accepted");
+
+  private final String suffix;
+
+  ShadowMessageType(String suffix) {
+    this.suffix = suffix;
+  }
+
+  /** Topic path after {@code $aws/things/{thingName}/shadow/}. */
+  public String suffix() {
+    return suffix;
+  }
+}
@@ -0,0 +1,129 @@
+package edu.bu.shadow;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Requests shadows of a set of things at a fixed rate after a random initial delay, so a reconnect
+ * does not send a burst of GETs. A failed request is retried after a jittered, doubling backoff
+ * on the scheduler rather than by sleeping. Starting a new resync abandons the previous one.
+ */
+class ShadowResync {
+
+  private static final Logger log = LoggerFactory.getLogger(ShadowResync.class);
+
+  private final Predicate<String> request;
+  private final ScheduledExecutorService scheduler;
+  private final Random random;
+  private final long jitterMillis;
+  private final long intervalMillis;
+  private final int maxAttempts;
+  private final long initialBackoffMillis;
+  private final Deque<Attempt> queue = new ArrayDeque<>();
+  private ScheduledFuture<?> pacer;
+  private int generation;
+  private int waitingRetries;
+
+  private record Attempt(String thingName, int number) {}
+
+  /**
+   * Creates a ShadowResync.
+   *
+   * @param request sends one shadow GET and returns whether it was published
+   */
+  ShadowResync(
+      Predicate<String> request,
+      ScheduledExecutorService scheduler,
+      Random random,
+      long jitterMillis,
+      double requestsPerSecond,
+      int maxAttempts,
+      long initialBackoffMillis) {
+    if (jitterMillis < 0 || !(requestsPerSecond > 0) || maxAttempts < 1) {
+      throw new IllegalArgumentException(
+          "Resync jitter must be non-negative and rate and attempts positive");
+    }
+    this.request = request;
+    this.scheduler = scheduler;
+    this.random = random;
+    this.jitterMillis = jitterMillis;
+    this.intervalMillis = Math.max(1, Math.round(1000 / requestsPerSecond));
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffMillis = initialBackoffMillis;
+  }
+
+  /** Starts requesting the things' shadows, replacing any resync still in progress. */
+  synchronized void start(Collection<String> thingNames) {
+    stopPacer();
+    generation++;
+    queue.clear();
+    waitingRetries = 0;
+    thingNames.forEach(thingName -> queue.add(new Attempt(thingName, 1)));
+    if (queue.isEmpty()) {
+      return;
+    }
+    long delay = jitterMillis == 0 ? 0 : (long) (random.nextDouble() * jitterMillis);
+    pacer =
+        scheduler.scheduleAtFixedRate(this::next, delay, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /** Things still queued or waiting to retry. */
+  synchronized int remaining() {
+    return queue.size() + waitingRetries;
+  }
+
+  private void next() {
+    Attempt attempt;
+    int current;
+    synchronized (this) {
+      attempt = queue.poll();
+      if (attempt == null) {
+        if (waitingRetries == 0) {
+          stopPacer();
+        }
+        return;
+      }
+      current = generation;
+    }
+    if (request.test(attempt.thingName())) {
+      return;
+    }
+    if (attempt.number() >= maxAttempts) {
+      log.warn(
+          "Giving up on shadow GET for {} after {} attempt(s)", attempt.thingName(), maxAttempts);
+      return;
+    }
+    long backoff = initialBackoffMillis << (attempt.number() - 1);
+    long delay = backoff / 2 + (long) (random.nextDouble() * backoff);
+    Attempt retry = new Attempt(attempt.thingName(), attempt.number() + 1);
+    synchronized (this) {
+      if (current != generation) {
+        return;
+      }
+      waitingRetries++;
+    }
+    scheduler.schedule(() -> requeue(current, retry), delay, TimeUnit.MILLISECONDS);
+  }
+
+  private synchronized void requeue(int retryGeneration, Attempt retry) {
+    if (retryGeneration == generation) {
+      waitingRetries--;
+      queue.add(retry);
+    }
+  }
+
+  private void stopPacer() {
+    if (pacer != null) {
+      pacer.cancel(false);
+      pacer = null;
+    }
+  }
+}
@@ -1,14 +1,25 @@
 package edu.bu.shadow;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.integration.mqtt.support.MqttHeaders;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
@@ -16,13 +27,27 @@ import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 
-/** Maintains in-memory device shadow state and handles MQTT shadow messages. */
+/**
+ * Maintains in-memory device shadow state for every thing in the fleet and handles MQTT shadow
+ * messages, which arrive for all things over one wildcard subscription.
+ *
+ * <p>Inbound messages are only routed on the MQTT callback thread; parsing and merging happen on
+ * workers partitioned by thing, so a slow message never delays keep-alives or acknowledgements and
+ * each thing's messages are still applied in order. Documents older than the stored version are
+ * ignored.
+ *
+ * <p>Desired-state changes go through a per-thing outbox that merges bursts of changes into one
+ * shadow update and waits for AWS IoT to acknowledge it before sending the next.
+ */
 @Service
 public class ShadowService {
 
   private static final Logger log = LoggerFactory.getLogger(ShadowService.class);
 
-  private final Map<String, DeviceShadow> shadowState = new ConcurrentHashMap<>();
+  private final ShadowStore shadowState;
+  private final ShadowWorkers workers;
+  private final ScheduledExecutorService outboxScheduler;
+  private final DesiredStateOutbox outbox;
 
   /**
    * Nullable — only wired when mqtt.enabled=true and MqttConfig is active.
@@ -31,44 +56,86 @@ public class ShadowService {
   @Nullable private final MessageChannel mqttOutboundChannel;
 
   private final ObjectMapper objectMapper;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Autowired
   public ShadowService(
       @Autowired(required = false) @Qualifier("mqttOutboundChannel") MessageChannel mqttOutboundChannel,
-      ObjectMapper objectMapper) {
+      ObjectMapper objectMapper,
+      ApplicationEventPublisher eventPublisher,
+      @Value("${shadow.shards:16}") int shards,
+      @Value("${shadow.workers:4}") int workers,
+      @Value("${shadow.queue-capacity:1000}") int queueCapacity,
+      @Value("${shadow.desired.debounce-millis:250}") long debounceMillis,
+      @Value("${shadow.desired.max-in-flight:1}") int maxInFlight,
+      @Value("${shadow.desired.ack-timeout-seconds:10}") long ackTimeoutSeconds) {
     this.mqttOutboundChannel = mqttOutboundChannel;
     this.objectMapper = objectMapper;
+    this.eventPublisher = eventPublisher;
+    this.shadowState = new ShadowStore(shards);
+    this.workers = new ShadowWorkers(workers, queueCapacity);
+    this.outboxScheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("shadow-outbox").setDaemon(true).build());
+    this.outbox =
+        new DesiredStateOutbox(
+            this::publishUpdate,
+            outboxScheduler,
+            debounceMillis,
+            maxInFlight,
+            TimeUnit.SECONDS.toMillis(ackTimeoutSeconds));
   }
 
-  /** Receives inbound shadow messages from AWS IoT Core via Spring Integration. */
+  @PostConstruct
+  public void start() {
+    workers.start();
+  }
+
+  @PreDestroy
+  public void stop() {
+    workers.stop();
+    outboxScheduler.shutdownNow();
+  }
+
+  /**
+   * Receives inbound shadow messages from AWS IoT Core via Spring Integration and queues them for
+   * the worker of their thing.
+   */
   public void handleInbound(Message<String> message) {
     String topic = (String) message.getHeaders().get(MqttHeaders.RECEIVED_TOPIC);
-    log.info("MQTT inbound: topic={}", topic);
+    log.debug("MQTT inbound: topic={}", topic);
     if (topic == null) {
       log.warn("Received MQTT message without topic header");
       return;
     }
 
-    String buoyId = extractBuoyId(topic);
-    if (buoyId == null) {
-      log.warn("Could not extract buoy ID from topic: {}", topic);
+    ShadowTopicRouter.Route route = ShadowTopicRouter.route(topic);
+    if (route == null) {
+      log.warn("Ignoring message on unrouted topic: {}", topic);
       return;
     }
 
-    String messageType = extractMessageType(topic);
+    String payload = message.getPayload();
+    workers.submit(route.thingName(), () -> parseAndProcess(topic, route, payload));
+  }
 
+  private void parseAndProcess(String topic, ShadowTopicRouter.Route route, String payload) {
     try {
-      ShadowUpdateMessage update =
-          objectMapper.readValue(message.getPayload(), ShadowUpdateMessage.class);
-      processShadowUpdate(buoyId, messageType, update);
+      ShadowUpdateMessage update = objectMapper.readValue(payload, ShadowUpdateMessage.class);
+      processShadowUpdate(route.thingName(), route.type(), update);
     } catch (Exception e) {
       log.error("Failed to parse shadow message on topic {}: {}", topic, e.getMessage());
     }
   }
 
   private void processShadowUpdate(
-      String buoyId, String messageType, ShadowUpdateMessage update) {
-    if ("rejected".equals(messageType)) {
+      String buoyId, ShadowMessageType messageType, ShadowUpdateMessage update) {
+    if (update.getClientToken() != null
+        && (messageType == ShadowMessageType.UPDATE_ACCEPTED
+            || messageType == ShadowMessageType.UPDATE_REJECTED)) {
+      outbox.acknowledge(buoyId, update.getClientToken());
+    }
+    if (messageType == ShadowMessageType.UPDATE_REJECTED) {
       log.warn("Shadow update rejected for buoy {}", buoyId);
       return;
     }
@@ -78,12 +145,36 @@ public class ShadowService {
       return;
     }
 
-    if ("delta".equals(messageType) && state.getDelta() != null) {
+    if (messageType == ShadowMessageType.UPDATE_DELTA && state.getDelta() != null) {
       ShadowUpdateMessage.ShadowFields delta = state.getDelta();
-      log.info("Buoy {} shadow delta: led={}, buzzer={}, deployed={}", buoyId, delta.getLed(), delta.getBuzzer(), delta.getDeployed());
+      log.debug(
+          "Buoy {} shadow delta: led={}, buzzer={}, deployed={}",
+          buoyId,
+          delta.getLed(),
+          delta.getBuzzer(),
+          delta.getDeployed());
+    }
+
+    DeviceShadow shadow = shadowState.update(buoyId, existing -> merge(buoyId, existing, update));
+    if (shadow == null) {
+      log.debug("Ignoring stale shadow version {} for buoy {}", update.getVersion(), buoyId);
+      return;
     }
+    eventPublisher.publishEvent(new ShadowChangedEvent(shadow));
+  }
+
+  /**
+   * Applies a shadow document to the current shadow, or returns the current shadow unchanged when
+   * the document's version is older than the one already applied.
+   */
+  static DeviceShadow merge(String buoyId, DeviceShadow existing, ShadowUpdateMessage update) {
+    Long version = update.getVersion();
+    Long currentVersion = existing != null ? existing.version() : null;
+    if (version != null && currentVersion != null && version < currentVersion) {
+      return existing;
+    }
+    ShadowUpdateMessage.ShadowState state = update.getState();
 
-    DeviceShadow existing = shadowState.get(buoyId);
     Integer battery = existing != null ? existing.battery() : null;
     Boolean led = existing != null ? existing.led() : null;
     Boolean buzzer = existing != null ? existing.buzzer() : null;
@@ -104,13 +195,19 @@ public class ShadowService {
       if (desired.getDeployed() != null) deployed = desired.getDeployed();
     }
 
-    shadowState.put(
+    return new DeviceShadow(
         buoyId,
-        new DeviceShadow(buoyId, battery, led, buzzer, deployed, Instant.now()));
+        battery,
+        led,
+        buzzer,
+        deployed,
+        Instant.now(),
+        version != null ? version : currentVersion);
   }
 
   /**
-   * Publishes a desired state update to the AWS IoT Core shadow for the given buoy.
+   * Queues a desired state update to the AWS IoT Core shadow for the given buoy. Updates to the
+   * same buoy within the debounce window are merged and published together.
    *
    * @param buoyId the thing name (e.g. "esp32")
    * @param desired the desired shadow fields to publish
@@ -120,21 +217,26 @@ public class ShadowService {
       log.warn("MQTT is disabled — skipping desired state publish for buoy {}", buoyId);
       return;
     }
-    String topic = "$aws/things/" + buoyId + "/shadow/update";
-    try {
-      Map<String, Object> desiredMap = new java.util.HashMap<>();
-
-      if (desired.getLed() != null) {
-        desiredMap.put("led", desired.getLed());
-      }
-      if (desired.getBuzzer() != null) {
-        desiredMap.put("buzzer", desired.getBuzzer());
-      }
-      if (desired.getDeployed() != null) {
-        desiredMap.put("deployed", desired.getDeployed());
-      }
+    Map<String, Object> desiredMap = new LinkedHashMap<>();
+    if (desired.getLed() != null) {
+      desiredMap.put("led", desired.getLed());
+    }
+    if (desired.getBuzzer() != null) {
+      desiredMap.put("buzzer", desired.getBuzzer());
+    }
+    if (desired.getDeployed() != null) {
+      desiredMap.put("deployed", desired.getDeployed());
+    }
+    if (!desiredMap.isEmpty()) {
+      outbox.submit(buoyId, desiredMap);
+    }
+  }
 
-      Map<String, Object> payload = Map.of("state", Map.of("desired", desiredMap));
+  private boolean publishUpdate(String buoyId, Map<String, Object> desired, String clientToken) {
+    String topic = ShadowTopicRouter.updateTopic(buoyId);
+    try {
+      Map<String, Object> payload =
+          Map.of("state", Map.of("desired", desired), "clientToken", clientToken);
 
       String json = objectMapper.writeValueAsString(payload);
       Message<String> msg =
@@ -143,8 +245,10 @@ public class ShadowService {
               .build();
       mqttOutboundChannel.send(msg);
       log.info("Published desired state to {}: {}", topic, json);
+      return true;
     } catch (Exception e) {
       log.error("Failed to publish desired state for buoy {}: {}", buoyId, e.getMessage());
+      return false;
     }
   }
 
@@ -152,6 +256,30 @@ public class ShadowService {
     return Optional.ofNullable(shadowState.get(buoyId));
   }
 
+  /** Restores shadows from a snapshot without replacing state already received for a thing. */
+  public void restore(Collection<DeviceShadow> shadows) {
+    for (DeviceShadow shadow : shadows) {
+      shadowState.update(shadow.buoyId(), existing -> existing == null ? shadow : existing);
+    }
+  }
+
+  /** Every known shadow, ordered by thing name. */
+  public List<DeviceShadow> getShadows() {
+    return shadowState.all();
+  }
+
+  /** The known shadows of the given things, in the given order; unknown things are skipped. */
+  public List<DeviceShadow> getShadows(Collection<String> thingNames) {
+    List<DeviceShadow> shadows = new ArrayList<>(thingNames.size());
+    for (String thingName : thingNames) {
+      DeviceShadow shadow = shadowState.get(thingName);
+      if (shadow != null) {
+        shadows.add(shadow);
+      }
+    }
+    return shadows;
+  }
+
   /**
    * Publishes an empty get request so AWS IoT responds with the current shadow state.
    *
@@ -159,33 +287,15 @@ public class ShadowService {
    */
   public boolean requestShadow(String buoyId) {
     if (mqttOutboundChannel == null) return false;
-    String topic = "$aws/things/" + buoyId + "/shadow/get";
+    String topic = ShadowTopicRouter.getTopic(buoyId);
     try {
       Message<String> msg = MessageBuilder.withPayload("{}").setHeader(MqttHeaders.TOPIC, topic).build();
       mqttOutboundChannel.send(msg);
-      log.info("Requested shadow state for {}", buoyId);
+      log.debug("Requested shadow state for {}", buoyId);
       return true;
     } catch (Exception e) {
       log.warn("Shadow request failed for {}", buoyId, e);
       return false;
     }
   }
-
-  /** Extracts thing name from a shadow topic path. */
-  private static String extractBuoyId(String topic) {
-    // Topic format: $aws/things/{thingName}/shadow/update/{type}
-    String[] parts = topic.split("/");
-    if (parts.length >= 3 && "$aws".equals(parts[0]) && "things".equals(parts[1])) {
-      return parts[2];
-    }
-    return null;
-  }
-
-  /** Extracts the message type suffix from a shadow topic. */
-  private static String extractMessageType(String topic) {
-    if (topic.endsWith("/delta")) return "delta";
-    if (topic.endsWith("/accepted")) return "accepted";
-    if (topic.endsWith("/rejected")) return "rejected";
-    return "unknown";
-  }
 }
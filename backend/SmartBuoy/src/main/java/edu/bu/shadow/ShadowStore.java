@@ -0,0 +1,97 @@
+package edu.bu.shadow;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Device shadows keyed by thing name, split across shards that each have their own lock. Updates
+ * to one thing read and replace its shadow atomically, and updates to things in different shards
+ * never contend.
+ */
+class ShadowStore {
+
+  private final Map<String, DeviceShadow>[] shards;
+  private final int mask;
+
+  @SuppressWarnings("unchecked")
+  ShadowStore(int shardCount) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("Shadow shard count must be positive");
+    }
+    int size = Integer.highestOneBit(shardCount);
+    if (size < shardCount) {
+      size <<= 1;
+    }
+    this.shards = new Map[size];
+    for (int i = 0; i < size; i++) {
+      shards[i] = new HashMap<>();
+    }
+    this.mask = size - 1;
+  }
+
+  /** Number of shards, the requested count rounded up to a power of two. */
+  int shardCount() {
+    return shards.length;
+  }
+
+  DeviceShadow get(String thingName) {
+    Map<String, DeviceShadow> shard = shardFor(thingName);
+    synchronized (shard) {
+      return shard.get(thingName);
+    }
+  }
+
+  /**
+   * Replaces the thing's shadow with the result of applying the change to the current one, which
+   * is null for a thing not seen before. A change that returns the current shadow leaves it as is.
+   *
+   * @return the new shadow, or null when the change kept the current one
+   */
+  DeviceShadow update(String thingName, UnaryOperator<DeviceShadow> change) {
+    Map<String, DeviceShadow> shard = shardFor(thingName);
+    synchronized (shard) {
+      DeviceShadow current = shard.get(thingName);
+      DeviceShadow updated = change.apply(current);
+      if (updated == current) {
+        return null;
+      }
+      shard.put(thingName, updated);
+      return updated;
+    }
+  }
+
+  /** Every stored shadow, ordered by thing name. */
+  List<DeviceShadow> all() {
+    List<DeviceShadow> all = new ArrayList<>();
+    for (Map<String, DeviceShadow> shard : shards) {
+      synchronized (shard) {
+        all.addAll(shard.values());
+      }
+    }
+    all.sort(Comparator.comparing(DeviceShadow::buoyId));
+    return all;
+  }
+
+  int size() {
+    int size = 0;
+    for (Map<String, DeviceShadow> shard : shards) {
+      synchronized (shard) {
+        size += shard.size();
+      }
+    }
+    return size;
+  }
+
+  int shardOf(String thingName) {
+    int hash = thingName.hashCode();
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  private Map<String, DeviceShadow> shardFor(String thingName) {
+    return shards[shardOf(thingName)];
+  }
+}
@@ -0,0 +1,175 @@
+package edu.bu.shadow;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps device shadows across restarts and reconnects. Shadows are written to a local snapshot
+ * file periodically and on shutdown and loaded back on startup, so they are served before MQTT
+ * connects. When the shadow subscriptions come up, only things whose shadow is missing or older
+ * than the maximum age are requested again, at a limited rate after a random delay.
+ */
+@Service
+public class ShadowSyncService {
+
+  private static final Logger log = LoggerFactory.getLogger(ShadowSyncService.class);
+  private static final long INITIAL_RETRY_BACKOFF_MILLIS = 2000;
+
+  private final ShadowService shadowService;
+  private final ObjectMapper objectMapper;
+  private final Path snapshotPath;
+  private final long snapshotIntervalSeconds;
+  private final Duration maxAge;
+  private final ScheduledExecutorService scheduler;
+  private final ShadowResync resync;
+  private final AtomicBoolean dirty = new AtomicBoolean();
+
+  /** Creates a ShadowSyncService with snapshot and resync settings from properties. */
+  public ShadowSyncService(
+      ShadowService shadowService,
+      ObjectMapper objectMapper,
+      @Value("${shadow.snapshot-path:}") String snapshotPath,
+      @Value("${shadow.snapshot-interval-seconds:30}") long snapshotIntervalSeconds,
+      @Value("${shadow.resync.max-age-seconds:300}") long maxAgeSeconds,
+      @Value("${shadow.resync.gets-per-second:50}") double getsPerSecond,
+      @Value("${shadow.resync.jitter-seconds:10}") long jitterSeconds,
+      @Value("${shadow.resync.max-attempts:5}") int maxAttempts) {
+    this.shadowService = shadowService;
+    this.objectMapper = objectMapper;
+    this.snapshotPath = snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+    this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+    this.maxAge = Duration.ofSeconds(maxAgeSeconds);
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("shadow-sync").setDaemon(true).build());
+    this.resync =
+        new ShadowResync(
+            shadowService::requestShadow,
+            scheduler,
+            new Random(),
+            TimeUnit.SECONDS.toMillis(jitterSeconds),
+            getsPerSecond,
+            maxAttempts,
+            INITIAL_RETRY_BACKOFF_MILLIS);
+  }
+
+  /** Loads the snapshot and starts saving it periodically. */
+  @PostConstruct
+  public void start() {
+    if (snapshotPath == null) {
+      return;
+    }
+    loadSnapshot();
+    scheduler.scheduleWithFixedDelay(
+        this::saveIfChanged,
+        snapshotIntervalSeconds,
+        snapshotIntervalSeconds,
+        TimeUnit.SECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    scheduler.shutdownNow();
+    saveIfChanged();
+  }
+
+  @EventListener
+  public void onShadowChanged(ShadowChangedEvent event) {
+    dirty.set(true);
+  }
+
+  /**
+   * Requests the shadows of the configured things and every thing already known whose shadow is
+   * stale. Returns immediately; the requests are paced on a background thread.
+   */
+  public void resync(Collection<String> thingNames) {
+    List<String> stale = staleThings(thingNames, Instant.now());
+    log.info("shadow-resync: requesting {} stale shadow(s)", stale.size());
+    resync.start(stale);
+  }
+
+  /** The given and known things whose shadow is missing or older than the maximum age. */
+  List<String> staleThings(Collection<String> thingNames, Instant now) {
+    Set<String> candidates = new LinkedHashSet<>(thingNames);
+    shadowService.getShadows().forEach(shadow -> candidates.add(shadow.buoyId()));
+    Instant freshAfter = now.minus(maxAge);
+    List<String> stale = new ArrayList<>();
+    for (String thingName : candidates) {
+      DeviceShadow shadow = shadowService.getShadow(thingName).orElse(null);
+      if (shadow == null
+          || shadow.lastUpdated() == null
+          || shadow.lastUpdated().isBefore(freshAfter)) {
+        stale.add(thingName);
+      }
+    }
+    return stale;
+  }
+
+  private void loadSnapshot() {
+    if (!Files.exists(snapshotPath)) {
+      return;
+    }
+    try {
+      DeviceShadow[] shadows =
+          objectMapper.readValue(Files.readString(snapshotPath), DeviceShadow[].class);
+      shadowService.restore(List.of(shadows));
+      log.info("Restored {} shadow(s) from {}", shadows.length, snapshotPath);
+    } catch (Exception e) {
+      log.warn("Could not load shadow snapshot {}: {}", snapshotPath, e.getMessage());
+    }
+  }
+
+  private static void deleteQuietly(Path path) {
+    if (path == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      log.debug("Could not delete {}: {}", path, e.getMessage());
+    }
+  }
+
+  private void saveIfChanged() {
+    if (snapshotPath == null || !dirty.getAndSet(false)) {
+      return;
+    }
+    Path temp = null;
+    try {
+      Path parent = snapshotPath.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      temp = Files.createTempFile(parent, "shadow-snapshot", ".tmp");
+      Files.writeString(temp, objectMapper.writeValueAsString(shadowService.getShadows()));
+      // Renaming over the old file means a crash never leaves a partial snapshot behind.
+      Files.move(
+          temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      dirty.set(true);
+      log.warn("Could not save shadow snapshot {}: {}", snapshotPath, e.getMessage());
+      deleteQuietly(temp);
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package edu.bu.shadow;
+
+import java.util.Arrays;
+
+/**
+ * Builds and classifies AWS IoT classic shadow topics of the form {@code
+ * $aws/things/{thingName}/shadow/{suffix}}.
+ *
+ * <p>Inbound topics are matched against the fixed prefix and the known suffixes in place, so
+ * routing a message allocates only the thing name rather than an array of topic segments.
+ */
+public final class ShadowTopicRouter {
+
+  private static final String PREFIX = "$aws/things/";
+  private static final String SHADOW = "/shadow/";
+  private static final ShadowMessageType[] TYPES = ShadowMessageType.values();
+
+  private ShadowTopicRouter() {}
+
+  /** A routed inbound topic: the thing it concerns and the kind of shadow response. */
+  public record Route(String thingName, ShadowMessageType type) {}
+
+  /**
+   * Subscription filters for every routed shadow response of the matching things. A filter of
+   * {@code +} covers the whole fleet with one subscription per response type.
+   */
+  public static String[] subscriptions(String thingFilter) {
+    String[] topics = new String[TYPES.length];
+    for (int i = 0; i < TYPES.length; i++) {
+      topics[i] = PREFIX + thingFilter + SHADOW + TYPES[i].suffix();
+    }
+    return topics;
+  }
+
+  /**
+   * Subscription filter for the deltas of the matching things: traffic any backend node can handle,
+   * and so the only part a share group may spread over the nodes.
+   */
+  public static String[] deltaSubscriptions(String thingFilter) {
+    return subscriptions(thingFilter, true);
+  }
+
+  /**
+   * Subscription filters for the responses to this backend's own update and GET requests, which
+   * must reach the node that sent the request and so are never shared.
+   */
+  public static String[] responseSubscriptions(String thingFilter) {
+    return subscriptions(thingFilter, false);
+  }
+
+  private static String[] subscriptions(String thingFilter, boolean deltas) {
+    return Arrays.stream(TYPES)
+        .filter(type -> (type == ShadowMessageType.UPDATE_DELTA) == deltas)
+        .map(type -> PREFIX + thingFilter + SHADOW + type.suffix())
+        .toArray(String[]::new);
+  }
+
+  /** Topic for publishing a shadow update to the thing. */
+  public static String updateTopic(String thingName) {
+    return PREFIX + thingName + SHADOW + "update";
+  }
+
+  /** Topic for requesting the thing's current shadow document. */
+  public static String getTopic(String thingName) {
+    return PREFIX + thingName + SHADOW + "get";
+  }
+
+  /** Thing named in any {@code $aws/things/{thingName}/...} topic, or null for other topics. */
+  public static String thingName(String topic) {
+    if (topic == null || !topic.startsWith(PREFIX)) {
+      return null;
+    }
+    int thingEnd = topic.indexOf('/', PREFIX.length());
+    return thingEnd <= PREFIX.length() ? null : topic.substring(PREFIX.length(), thingEnd);
+  }
+
+  /** Routes an inbound topic, or returns null when it is not a known shadow response topic. */
+  public static Route route(String topic) {
+    if (topic == null || !topic.startsWith(PREFIX)) {
+      return null;
+    }
+    int thingEnd = topic.indexOf('/', PREFIX.length());
+    if (thingEnd <= PREFIX.length() || !topic.startsWith(SHADOW, thingEnd)) {
+      return null;
+    }
+    int suffixStart = thingEnd + SHADOW.length();
+    int suffixLength = topic.length() - suffixStart;
+    for (ShadowMessageType type : TYPES) {
+      String suffix = type.suffix();
+      if (suffix.length() == suffixLength && topic.startsWith(suffix, suffixStart)) {
+        return new Route(topic.substring(PREFIX.length(), thingEnd), type);
+      }
+    }
+    return null;
+  }
+}
@@ -6,6 +6,8 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 public class ShadowUpdateMessage {
 
   private ShadowState state;
+  private Long version;
+  private String clientToken;
 
   public ShadowState getState() {
     return state;
@@ -15,6 +17,24 @@ public class ShadowUpdateMessage {
     this.state = state;
   }
 
+  /** Shadow document version, incremented by AWS IoT on every accepted update. */
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
+  /** Token sent with an update and echoed by AWS IoT on its accepted or rejected response. */
+  public String getClientToken() {
+    return clientToken;
+  }
+
+  public void setClientToken(String clientToken) {
+    this.clientToken = clientToken;
+  }
+
   @JsonIgnoreProperties(ignoreUnknown = true)
   public static class ShadowState {
 
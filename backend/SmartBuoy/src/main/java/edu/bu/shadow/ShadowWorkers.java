@@ -0,0 +1,80 @@
+package edu.bu.shadow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Worker threads that process inbound shadow messages off the MQTT callback thread. Messages are
+ * partitioned by thing name, so one worker handles all of a thing's messages in arrival order while
+ * different things proceed in parallel. Each partition has a bounded queue; submitting to a full
+ * one waits for room, slowing the callback thread rather than dropping shadow state.
+ */
+class ShadowWorkers {
+
+  private static final Logger log = LoggerFactory.getLogger(ShadowWorkers.class);
+
+  private final List<BlockingQueue<Runnable>> queues = new ArrayList<>();
+  private final List<Thread> threads = new ArrayList<>();
+
+  ShadowWorkers(int partitions, int capacity) {
+    if (partitions < 1 || capacity < 1) {
+      throw new IllegalArgumentException("Shadow worker partitions and capacity must be positive");
+    }
+    for (int i = 0; i < partitions; i++) {
+      queues.add(new ArrayBlockingQueue<>(capacity));
+    }
+  }
+
+  void start() {
+    for (int i = 0; i < queues.size(); i++) {
+      BlockingQueue<Runnable> queue = queues.get(i);
+      Thread thread = new Thread(() -> drain(queue), "shadow-worker-" + i);
+      thread.setDaemon(true);
+      thread.start();
+      threads.add(thread);
+    }
+  }
+
+  void stop() {
+    threads.forEach(Thread::interrupt);
+  }
+
+  int partitionOf(String thingName) {
+    int hash = thingName.hashCode();
+    return Math.floorMod(hash ^ (hash >>> 16), queues.size());
+  }
+
+  /** Queues a task behind the earlier tasks of the same thing, waiting while its queue is full. */
+  void submit(String thingName, Runnable task) {
+    try {
+      queues.get(partitionOf(thingName)).put(task);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("Interrupted while queueing shadow message for {}", thingName);
+    }
+  }
+
+  /** Number of queued tasks across all partitions. */
+  int pending() {
+    return queues.stream().mapToInt(BlockingQueue::size).sum();
+  }
+
+  private static void drain(BlockingQueue<Runnable> queue) {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        Runnable task = queue.take();
+        try {
+          task.run();
+        } catch (RuntimeException e) {
+          log.error("Shadow message processing failed: {}", e.getMessage(), e);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
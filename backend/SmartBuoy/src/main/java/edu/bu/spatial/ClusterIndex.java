@@ -0,0 +1,159 @@
+package edu.bu.spatial;
+
+import edu.bu.analytics.geofence.BoundingBox;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical grid of buoy clusters, one level per map zoom, over the latest positions.
+ *
+ * <p>Cells are square in Web Mercator and {@link #CELL_PIXELS} screen pixels wide at their zoom,
+ * and a query returns one marker per occupied cell at that zoom. Markers sit at the mean position
+ * of their buoys, so two clusters in adjacent cells can still be drawn close together near the
+ * shared edge. Each cell keeps only a count, coordinate sums and the XOR of its buoy ids, which is
+ * the id of the remaining buoy whenever the count is one. A move therefore updates each level in
+ * constant time, and a viewport query visits at most the cells on screen.
+ */
+class ClusterIndex {
+
+  /** Width of a cluster cell in screen pixels; map tiles are 256 pixels. */
+  static final int CELL_PIXELS = 64;
+
+  private static final int CELLS_PER_TILE_BITS = 2;
+  private static final double MAX_MERCATOR_LAT = 85.05112878;
+
+  private final int maxZoom;
+  private final List<Map<Long, Cell>> levels = new ArrayList<>();
+  private final Map<Integer, double[]> positions = new HashMap<>();
+
+  ClusterIndex(int maxZoom) {
+    if (maxZoom < 0 || maxZoom > 24) {
+      throw new IllegalArgumentException("Cluster max zoom must be between 0 and 24");
+    }
+    this.maxZoom = maxZoom;
+    for (int zoom = 0; zoom <= maxZoom; zoom++) {
+      levels.add(new HashMap<>());
+    }
+  }
+
+  int maxZoom() {
+    return maxZoom;
+  }
+
+  /** Moves a buoy to its new position on every level. */
+  void put(int buoyId, double lat, double lon) {
+    double[] previous = positions.put(buoyId, new double[] {lat, lon});
+    double currentX = mercatorX(lon);
+    double currentY = mercatorY(lat);
+    double previousX = previous == null ? 0 : mercatorX(previous[1]);
+    double previousY = previous == null ? 0 : mercatorY(previous[0]);
+    for (int zoom = 0; zoom <= maxZoom; zoom++) {
+      Map<Long, Cell> level = levels.get(zoom);
+      if (previous != null) {
+        long oldKey = key(zoom, previousX, previousY);
+        Cell cell = level.get(oldKey);
+        cell.remove(buoyId, previous[0], previous[1]);
+        if (cell.count == 0) {
+          level.remove(oldKey);
+        }
+      }
+      level
+          .computeIfAbsent(key(zoom, currentX, currentY), ignored -> new Cell())
+          .add(buoyId, lat, lon);
+    }
+  }
+
+  /** Markers of the clusters in the box at the given zoom, which is capped at the maximum. */
+  List<ClusterMarker> clusters(BoundingBox box, int zoom) {
+    int cappedZoom = Math.min(zoom, maxZoom);
+    Map<Long, Cell> level = levels.get(cappedZoom);
+    int side = side(cappedZoom);
+    int firstRow = index(side, mercatorY(box.maxLat()));
+    int lastRow = index(side, mercatorY(box.minLat()));
+    int firstColumn = index(side, mercatorX(box.minLon()));
+    int lastColumn = index(side, mercatorX(box.maxLon()));
+    int columns = Math.floorMod(lastColumn - firstColumn, side) + 1;
+    if (box.wrapsAntimeridian() && lastColumn == firstColumn) {
+      columns = side;
+    }
+    long cellsInBox = (long) (lastRow - firstRow + 1) * columns;
+
+    List<ClusterMarker> markers = new ArrayList<>();
+    if (cellsInBox > level.size()) {
+      for (Map.Entry<Long, Cell> entry : level.entrySet()) {
+        long key = entry.getKey();
+        int row = (int) (key / side);
+        int column = (int) (key % side);
+        boolean inColumns = Math.floorMod(column - firstColumn, side) < columns;
+        if (row >= firstRow && row <= lastRow && inColumns) {
+          markers.add(marker(entry.getValue()));
+        }
+      }
+      return markers;
+    }
+    for (int row = firstRow; row <= lastRow; row++) {
+      for (int offset = 0; offset < columns; offset++) {
+        Cell cell = level.get((long) row * side + (firstColumn + offset) % side);
+        if (cell != null) {
+          markers.add(marker(cell));
+        }
+      }
+    }
+    return markers;
+  }
+
+  private ClusterMarker marker(Cell cell) {
+    if (cell.count == 1) {
+      double[] position = positions.get(cell.buoyIdXor);
+      return new ClusterMarker(position[0], position[1], 1, cell.buoyIdXor);
+    }
+    return new ClusterMarker(cell.sumLat / cell.count, cell.sumLon / cell.count, cell.count, null);
+  }
+
+  private static int side(int zoom) {
+    return 1 << (zoom + CELLS_PER_TILE_BITS);
+  }
+
+  private static long key(int zoom, double unitX, double unitY) {
+    int side = side(zoom);
+    return (long) index(side, unitY) * side + index(side, unitX);
+  }
+
+  private static int index(int side, double unit) {
+    return Math.min(side - 1, Math.max(0, (int) (unit * side)));
+  }
+
+  /** Longitude mapped to [0, 1) from west to east. */
+  private static double mercatorX(double lon) {
+    return (lon + 180) / 360;
+  }
+
+  /** Latitude mapped to [0, 1] from north to south, clamped at the Mercator limit. */
+  private static double mercatorY(double lat) {
+    double phi = Math.toRadians(Math.max(-MAX_MERCATOR_LAT, Math.min(MAX_MERCATOR_LAT, lat)));
+    return (1 - Math.log(Math.tan(phi) + 1 / Math.cos(phi)) / Math.PI) / 2;
+  }
+
+  private static final class Cell {
+    private int count;
+    private int buoyIdXor;
+    private double sumLat;
+    private double sumLon;
+
+    void add(int buoyId, double lat, double lon) {
+      count++;
+      buoyIdXor ^= buoyId;
+      sumLat += lat;
+      sumLon += lon;
+    }
+
+    void remove(int buoyId, double lat, double lon) {
+      count--;
+      buoyIdXor ^= buoyId;
+      sumLat -= lat;
+      sumLon -= lon;
+    }
+  }
+}
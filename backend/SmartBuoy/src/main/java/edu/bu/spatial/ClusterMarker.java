@@ -0,0 +1,10 @@
+package edu.bu.spatial;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A map marker standing for one or more buoys: the centroid and count of a cluster, or the
+ * position and id of a lone buoy.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ClusterMarker(double latitude, double longitude, int count, Integer buoyId) {}
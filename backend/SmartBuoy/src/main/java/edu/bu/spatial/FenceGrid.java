@@ -0,0 +1,102 @@
+package edu.bu.spatial;
+
+import edu.bu.analytics.geofence.Fence;
+import edu.bu.analytics.geofence.GeoUtils;
+import edu.bu.data.Deployment;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Grid index over deployment fences. Each fence is registered in every cell its circle, or the
+ * bounding box of its polygon or corridor, overlaps, so a point lookup reads a single cell. Fences
+ * spanning more than {@link #MAX_CELLS_PER_FENCE} cells are kept aside and checked on every lookup
+ * instead. Not thread-safe.
+ */
+class FenceGrid {
+
+  static final int MAX_CELLS_PER_FENCE = 256;
+
+  private final GeoGrid grid;
+  private final Map<Long, Set<Integer>> cells = new HashMap<>();
+  private final Map<Integer, Deployment> fences = new HashMap<>();
+  private final Map<Integer, Fence> shapes = new HashMap<>();
+  private final Map<Integer, List<Long>> fenceCells = new HashMap<>();
+  private final Set<Integer> largeFences = new HashSet<>();
+
+  FenceGrid(GeoGrid grid) {
+    this.grid = grid;
+  }
+
+  /** Adds a buoy's fence, replacing its previous one. */
+  void put(Deployment deployment) {
+    remove(deployment.buoyId);
+    fences.put(deployment.buoyId, deployment);
+    shapes.put(deployment.buoyId, Fence.of(deployment));
+    GeoGrid.Region region;
+    if (deployment.fence == null) {
+      region = grid.region(deployment.lat, deployment.lon, deployment.allowedRadiusMeters);
+    } else {
+      region = grid.region(deployment.fence.bounds());
+    }
+    if (grid.cellCount(region) > MAX_CELLS_PER_FENCE) {
+      largeFences.add(deployment.buoyId);
+      return;
+    }
+    List<Long> covered = new ArrayList<>();
+    grid.forEachCell(
+        region,
+        cell -> {
+          covered.add(cell);
+          cells.computeIfAbsent(cell, ignored -> new HashSet<>()).add(deployment.buoyId);
+        });
+    fenceCells.put(deployment.buoyId, covered);
+  }
+
+  int size() {
+    return fences.size();
+  }
+
+  /** Fences that contain the point, nearest deployment position first. */
+  List<FenceMatch> containing(double lat, double lon) {
+    List<FenceMatch> matches = new ArrayList<>();
+    addMatches(cells.getOrDefault(grid.cellOf(lat, lon), Set.of()), lat, lon, matches);
+    addMatches(largeFences, lat, lon, matches);
+    matches.sort(Comparator.comparingDouble(FenceMatch::distanceMeters));
+    return matches;
+  }
+
+  private void addMatches(Set<Integer> candidates, double lat, double lon, List<FenceMatch> out) {
+    for (int buoyId : candidates) {
+      if (shapes.get(buoyId).isOutside(lat, lon)) {
+        continue;
+      }
+      Deployment fence = fences.get(buoyId);
+      double distance = GeoUtils.distanceMeters(fence.lat, fence.lon, lat, lon);
+      out.add(new FenceMatch(buoyId, fence.lat, fence.lon, fence.allowedRadiusMeters, distance));
+    }
+  }
+
+  private void remove(int buoyId) {
+    if (fences.remove(buoyId) == null) {
+      return;
+    }
+    shapes.remove(buoyId);
+    largeFences.remove(buoyId);
+    List<Long> covered = fenceCells.remove(buoyId);
+    if (covered == null) {
+      return;
+    }
+    for (long cell : covered) {
+      Set<Integer> buoys = cells.get(cell);
+      buoys.remove(buoyId);
+      if (buoys.isEmpty()) {
+        cells.remove(cell);
+      }
+    }
+  }
+}
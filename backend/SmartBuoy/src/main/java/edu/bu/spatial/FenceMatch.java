@@ -0,0 +1,9 @@
+package edu.bu.spatial;
+
+/** A deployment fence containing a queried point, with the point's distance from its centre. */
+public record FenceMatch(
+    int buoyId,
+    double latitude,
+    double longitude,
+    double allowedRadiusMeters,
+    double distanceMeters) {}
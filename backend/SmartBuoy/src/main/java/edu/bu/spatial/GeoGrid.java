@@ -0,0 +1,106 @@
+package edu.bu.spatial;
+
+import edu.bu.analytics.geofence.BoundingBox;
+import edu.bu.analytics.geofence.GeoUtils;
+import java.util.function.LongConsumer;
+
+/**
+ * Equal-angle latitude/longitude cells addressed by a single long key. A region is a latitude band
+ * and a run of longitude that starts at a western edge and extends east, so regions crossing the
+ * antimeridian need no special casing by callers.
+ */
+final class GeoGrid {
+
+  private final double cellDegrees;
+  private final int rows;
+  private final int columns;
+
+  GeoGrid(double cellDegrees) {
+    if (!(cellDegrees > 0) || cellDegrees > 90) {
+      throw new IllegalArgumentException("Cell size must be in (0, 90] degrees: " + cellDegrees);
+    }
+    this.cellDegrees = cellDegrees;
+    this.rows = (int) Math.ceil(180 / cellDegrees);
+    this.columns = (int) Math.ceil(360 / cellDegrees);
+  }
+
+  long cellOf(double lat, double lon) {
+    return key(row(lat), column(lon));
+  }
+
+  double cellDegrees() {
+    return cellDegrees;
+  }
+
+  /** Southern edge of a cell. */
+  double cellMinLat(long cell) {
+    return cell / columns * cellDegrees - 90;
+  }
+
+  /** Western edge of a cell. */
+  double cellMinLon(long cell) {
+    return cell % columns * cellDegrees - 180;
+  }
+
+  /** A region covering the box. */
+  Region region(BoundingBox box) {
+    double span = box.maxLon() - box.minLon();
+    return new Region(box.minLat(), box.maxLat(), box.minLon(), span < 0 ? span + 360 : span);
+  }
+
+  /**
+   * A region covering every point within radiusMeters of the centre. Circles that reach a pole, or
+   * are wide enough at their latitude, cover every longitude.
+   */
+  Region region(double lat, double lon, double radiusMeters) {
+    double angular = radiusMeters / GeoUtils.EARTH_RADIUS;
+    double latDelta = Math.toDegrees(angular);
+    double minLat = lat - latDelta;
+    double maxLat = lat + latDelta;
+    double sinLonDelta = Math.sin(Math.min(angular, Math.PI / 2)) / Math.cos(Math.toRadians(lat));
+    if (minLat <= -90 || maxLat >= 90 || angular >= Math.PI / 2 || sinLonDelta >= 1) {
+      return new Region(Math.max(minLat, -90), Math.min(maxLat, 90), -180, 360);
+    }
+    double lonDelta = Math.toDegrees(Math.asin(sinLonDelta));
+    return new Region(minLat, maxLat, lon - lonDelta, 2 * lonDelta);
+  }
+
+  long cellCount(Region region) {
+    return (long) (row(region.maxLat()) - row(region.minLat()) + 1) * columnCount(region);
+  }
+
+  void forEachCell(Region region, LongConsumer action) {
+    int firstColumn = column(region.westLon());
+    int columnCount = columnCount(region);
+    for (int row = row(region.minLat()); row <= row(region.maxLat()); row++) {
+      for (int offset = 0; offset < columnCount; offset++) {
+        action.accept(key(row, (firstColumn + offset) % columns));
+      }
+    }
+  }
+
+  private int columnCount(Region region) {
+    if (region.lonSpan() >= 360) {
+      return columns;
+    }
+    double westOffset = region.westLon() + 180;
+    int first = (int) Math.floor(westOffset / cellDegrees);
+    int last = (int) Math.floor((westOffset + region.lonSpan()) / cellDegrees);
+    return Math.min(columns, last - first + 1);
+  }
+
+  private int row(double lat) {
+    return Math.min(rows - 1, Math.max(0, (int) Math.floor((lat + 90) / cellDegrees)));
+  }
+
+  private int column(double lon) {
+    return Math.floorMod((int) Math.floor((lon + 180) / cellDegrees), columns);
+  }
+
+  private long key(int row, int column) {
+    return (long) row * columns + column;
+  }
+
+  /** Latitudes [minLat, maxLat] and longitudes from westLon eastward over lonSpan degrees. */
+  record Region(double minLat, double maxLat, double westLon, double lonSpan) {}
+}
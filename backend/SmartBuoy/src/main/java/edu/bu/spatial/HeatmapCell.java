@@ -0,0 +1,15 @@
+package edu.bu.spatial;
+
+/**
+ * Aggregate of the latest readings of the buoys in one heatmap cell.
+ *
+ * @param minLat southern edge of the cell
+ * @param minLon western edge of the cell
+ * @param count buoys whose latest position is in the cell
+ */
+public record HeatmapCell(
+    double minLat, double minLon, int count, FieldStats temperature, FieldStats pressure) {
+
+  /** Mean, minimum and maximum of one measurement over the cell's buoys. */
+  public record FieldStats(double mean, double min, double max) {}
+}
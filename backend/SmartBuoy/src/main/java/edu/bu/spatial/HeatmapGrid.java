@@ -0,0 +1,113 @@
+package edu.bu.spatial;
+
+import edu.bu.analytics.geofence.BoundingBox;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-cell temperature and pressure aggregates at one grid resolution, over the latest reading of
+ * each buoy. A new reading moves its buoy out of its old cell and into the new one, updating both
+ * cells' sums in constant time; a cell's minimum or maximum is only rescanned when the value
+ * leaving it was that extreme. Not thread-safe.
+ */
+class HeatmapGrid {
+
+  private static final int TEMPERATURE = 0;
+  private static final int PRESSURE = 1;
+
+  private final GeoGrid grid;
+  private final Map<Long, Cell> cells = new HashMap<>();
+  private final Map<Integer, Long> buoyCells = new HashMap<>();
+
+  HeatmapGrid(GeoGrid grid) {
+    this.grid = grid;
+  }
+
+  double cellDegrees() {
+    return grid.cellDegrees();
+  }
+
+  /** Replaces a buoy's contribution with its new position and readings. */
+  void put(int buoyId, double lat, double lon, double temperature, double pressure) {
+    Long previous = buoyCells.get(buoyId);
+    if (previous != null) {
+      Cell cell = cells.get(previous);
+      cell.remove(buoyId);
+      if (cell.members.isEmpty()) {
+        cells.remove(previous);
+      }
+    }
+    long key = grid.cellOf(lat, lon);
+    buoyCells.put(buoyId, key);
+    cells.computeIfAbsent(key, ignored -> new Cell()).add(buoyId, temperature, pressure);
+  }
+
+  /** Non-empty cells whose south-west corner is in the box, or all when box is null. */
+  List<HeatmapCell> cells(BoundingBox box) {
+    List<HeatmapCell> result = new ArrayList<>();
+    for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+      double minLat = grid.cellMinLat(entry.getKey());
+      double minLon = grid.cellMinLon(entry.getKey());
+      if (box == null || box.contains(minLat, minLon)) {
+        result.add(entry.getValue().toHeatmapCell(minLat, minLon));
+      }
+    }
+    result.sort(
+        Comparator.comparingDouble(HeatmapCell::minLat).thenComparingDouble(HeatmapCell::minLon));
+    return result;
+  }
+
+  private static final class Cell {
+    private final Map<Integer, double[]> members = new HashMap<>();
+    private final double[] sums = new double[2];
+    private final double[] mins = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+    private final double[] maxes = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+
+    void add(int buoyId, double temperature, double pressure) {
+      double[] values = {temperature, pressure};
+      members.put(buoyId, values);
+      for (int field = TEMPERATURE; field <= PRESSURE; field++) {
+        sums[field] += values[field];
+        mins[field] = Math.min(mins[field], values[field]);
+        maxes[field] = Math.max(maxes[field], values[field]);
+      }
+    }
+
+    void remove(int buoyId) {
+      double[] values = members.remove(buoyId);
+      for (int field = TEMPERATURE; field <= PRESSURE; field++) {
+        sums[field] -= values[field];
+        if (values[field] == mins[field] || values[field] == maxes[field]) {
+          rescan(field);
+        }
+      }
+    }
+
+    private void rescan(int field) {
+      double min = Double.POSITIVE_INFINITY;
+      double max = Double.NEGATIVE_INFINITY;
+      double sum = 0;
+      for (double[] values : members.values()) {
+        min = Math.min(min, values[field]);
+        max = Math.max(max, values[field]);
+        sum += values[field];
+      }
+      mins[field] = min;
+      maxes[field] = max;
+      // Resumming here also stops rounding error from building up in long-lived cells.
+      sums[field] = sum;
+    }
+
+    HeatmapCell toHeatmapCell(double minLat, double minLon) {
+      return new HeatmapCell(
+          minLat, minLon, members.size(), fieldStats(TEMPERATURE), fieldStats(PRESSURE));
+    }
+
+    private HeatmapCell.FieldStats fieldStats(int field) {
+      return new HeatmapCell.FieldStats(sums[field] / members.size(), mins[field], maxes[field]);
+    }
+  }
+}
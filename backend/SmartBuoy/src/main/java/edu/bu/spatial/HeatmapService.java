@@ -0,0 +1,111 @@
+package edu.bu.spatial;
+
+import edu.bu.analytics.geofence.BoundingBox;
+import edu.bu.data.BuoyReadingEvent;
+import edu.bu.data.BuoyResponse;
+import edu.bu.data.DataStore;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains temperature and pressure heatmaps of the fleet's latest readings at a fixed set of
+ * grid resolutions. Every grid is updated as readings are ingested, so a request only copies out
+ * the non-empty cells of one grid.
+ */
+@Service
+public class HeatmapService {
+
+  private static final Logger log = LoggerFactory.getLogger(HeatmapService.class);
+
+  private final DataStore dataStore;
+  private final Map<Double, HeatmapGrid> grids = new TreeMap<>();
+  private final Map<Integer, Long> latestTimestamps = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /** Creates a HeatmapService with the grid resolutions from application properties. */
+  public HeatmapService(
+      DataStore dataStore,
+      @Value("${heatmap.resolutions-degrees:0.1,0.25,0.5,1,2,5}") double[] resolutions) {
+    if (resolutions.length == 0) {
+      throw new IllegalArgumentException("heatmap.resolutions-degrees must not be empty");
+    }
+    this.dataStore = dataStore;
+    for (double resolution : resolutions) {
+      grids.put(resolution, new HeatmapGrid(new GeoGrid(resolution)));
+    }
+  }
+
+  /** Aggregates the latest stored reading of every buoy after a restart. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void seedFromStore() {
+    try {
+      List<BuoyResponse> latest = dataStore.getLatestForAll();
+      latest.forEach(this::apply);
+      log.info("Heatmaps seeded with {} buoy(s)", latest.size());
+    } catch (Exception e) {
+      log.warn("Could not seed heatmaps from store: {}", e.getMessage());
+    }
+  }
+
+  @EventListener
+  public void onReading(BuoyReadingEvent event) {
+    apply(event.reading());
+  }
+
+  /** The resolutions, in degrees, that heatmaps are kept at. */
+  public double[] resolutions() {
+    return grids.keySet().stream().mapToDouble(Double::doubleValue).toArray();
+  }
+
+  /**
+   * Returns the non-empty cells at the given resolution, optionally limited to cells whose
+   * south-west corner lies in the box.
+   */
+  public List<HeatmapCell> heatmap(double resolution, BoundingBox box) {
+    HeatmapGrid grid = grids.get(resolution);
+    if (grid == null) {
+      throw new IllegalArgumentException(
+          "resolution must be one of " + Arrays.toString(resolutions()) + " degrees");
+    }
+    lock.readLock().lock();
+    try {
+      return grid.cells(box);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void apply(BuoyResponse reading) {
+    long timestamp = reading.getTimestamp().toEpochMilli();
+    lock.writeLock().lock();
+    try {
+      Long previous = latestTimestamps.get(reading.getBuoyId());
+      // Out-of-order deliveries must not replace a buoy's newer reading.
+      if (previous != null && previous > timestamp) {
+        return;
+      }
+      latestTimestamps.put(reading.getBuoyId(), timestamp);
+      for (HeatmapGrid grid : grids.values()) {
+        grid.put(
+            reading.getBuoyId(),
+            reading.getLatitude(),
+            reading.getLongitude(),
+            reading.getTemperature(),
+            reading.getPressure());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package edu.bu.spatial;
+
+import edu.bu.analytics.geofence.BoundingBox;
+import edu.bu.analytics.geofence.GeoUtils;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Grid index over the latest position of each buoy. Queries visit only the cells their region
+ * covers, then check the exact condition on the buoys found there; a region covering more cells
+ * than there are buoys is answered by scanning the buoys instead. Not thread-safe.
+ */
+class PositionGrid {
+
+  private final GeoGrid grid;
+  private final Map<Long, Set<Integer>> cells = new HashMap<>();
+  private final Map<Integer, Position> positions = new HashMap<>();
+
+  PositionGrid(GeoGrid grid) {
+    this.grid = grid;
+  }
+
+  /**
+   * Moves a buoy to a new position unless the index already holds a newer one.
+   *
+   * @return false when the position was older and ignored
+   */
+  boolean put(int buoyId, double lat, double lon, long timestampMillis) {
+    Position previous = positions.get(buoyId);
+    if (previous != null) {
+      if (previous.timestampMillis() > timestampMillis) {
+        return false;
+      }
+      removeFromCell(buoyId, previous.cell());
+    }
+    long cell = grid.cellOf(lat, lon);
+    positions.put(buoyId, new Position(lat, lon, timestampMillis, cell));
+    cells.computeIfAbsent(cell, ignored -> new HashSet<>()).add(buoyId);
+    return true;
+  }
+
+  int size() {
+    return positions.size();
+  }
+
+  /** Buoys inside the box, in buoy id order. */
+  List<SpatialMatch> inBox(BoundingBox box) {
+    List<SpatialMatch> matches = new ArrayList<>();
+    for (int buoyId : candidates(grid.region(box))) {
+      Position position = positions.get(buoyId);
+      if (box.contains(position.lat(), position.lon())) {
+        matches.add(new SpatialMatch(buoyId, position.lat(), position.lon(), null));
+      }
+    }
+    matches.sort(Comparator.comparingInt(SpatialMatch::buoyId));
+    return matches;
+  }
+
+  /** Buoys within radiusMeters of the point, nearest first. */
+  List<SpatialMatch> within(double lat, double lon, double radiusMeters) {
+    List<SpatialMatch> matches = new ArrayList<>();
+    for (int buoyId : candidates(grid.region(lat, lon, radiusMeters))) {
+      Position position = positions.get(buoyId);
+      double distance = GeoUtils.distanceMeters(lat, lon, position.lat(), position.lon());
+      if (distance <= radiusMeters) {
+        matches.add(new SpatialMatch(buoyId, position.lat(), position.lon(), distance));
+      }
+    }
+    matches.sort(Comparator.comparingDouble(SpatialMatch::distanceMeters));
+    return matches;
+  }
+
+  private Iterable<Integer> candidates(GeoGrid.Region region) {
+    if (grid.cellCount(region) > positions.size()) {
+      return positions.keySet();
+    }
+    List<Integer> candidates = new ArrayList<>();
+    grid.forEachCell(
+        region,
+        cell -> {
+          Set<Integer> buoys = cells.get(cell);
+          if (buoys != null) {
+            candidates.addAll(buoys);
+          }
+        });
+    return candidates;
+  }
+
+  private void removeFromCell(int buoyId, long cell) {
+    Set<Integer> buoys = cells.get(cell);
+    buoys.remove(buoyId);
+    if (buoys.isEmpty()) {
+      cells.remove(cell);
+    }
+  }
+
+  private record Position(double lat, double lon, long timestampMillis, long cell) {}
+}
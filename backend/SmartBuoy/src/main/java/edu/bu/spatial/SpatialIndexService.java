@@ -0,0 +1,134 @@
+package edu.bu.spatial;
+
+import edu.bu.analytics.geofence.BoundingBox;
+import edu.bu.data.BuoyReadingEvent;
+import edu.bu.data.BuoyResponse;
+import edu.bu.data.DataStore;
+import edu.bu.data.Deployment;
+import edu.bu.data.DeploymentSavedEvent;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Answers fleet-wide spatial questions from grid indexes over the latest buoy positions and the
+ * deployment fences, both kept current by ingestion and deployment events, and clusters those
+ * positions into map markers per zoom level. Queries share a read lock, so they only wait on the
+ * brief index updates.
+ */
+@Service
+public class SpatialIndexService {
+
+  private static final Logger log = LoggerFactory.getLogger(SpatialIndexService.class);
+
+  private final DataStore dataStore;
+  private final PositionGrid positions;
+  private final FenceGrid fences;
+  private final ClusterIndex clusters;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /** Creates a SpatialIndexService with the grid cell size and zoom range from properties. */
+  public SpatialIndexService(
+      DataStore dataStore,
+      @Value("${spatial.cell-degrees:0.25}") double cellDegrees,
+      @Value("${spatial.cluster-max-zoom:16}") int clusterMaxZoom) {
+    this.dataStore = dataStore;
+    GeoGrid grid = new GeoGrid(cellDegrees);
+    this.positions = new PositionGrid(grid);
+    this.fences = new FenceGrid(grid);
+    this.clusters = new ClusterIndex(clusterMaxZoom);
+  }
+
+  /** Indexes the latest stored position and deployment of every buoy after a restart. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void seedFromStore() {
+    try {
+      for (BuoyResponse reading : dataStore.getLatestForAll()) {
+        indexReading(reading);
+        dataStore.getDeployment(reading.getBuoyId()).ifPresent(this::indexFence);
+      }
+      log.info(
+          "Spatial index seeded with {} position(s) and {} fence(s)",
+          positions.size(),
+          fences.size());
+    } catch (Exception e) {
+      log.warn("Could not seed spatial index from store: {}", e.getMessage());
+    }
+  }
+
+  @EventListener
+  public void onReading(BuoyReadingEvent event) {
+    indexReading(event.reading());
+  }
+
+  @EventListener
+  public void onDeployment(DeploymentSavedEvent event) {
+    indexFence(event.deployment());
+  }
+
+  /** Buoys whose latest position is within radiusMeters of the point, nearest first. */
+  public List<SpatialMatch> buoysWithin(double lat, double lon, double radiusMeters) {
+    return read(() -> positions.within(lat, lon, radiusMeters));
+  }
+
+  /** Buoys whose latest position is inside the box, in buoy id order. */
+  public List<SpatialMatch> buoysInBox(BoundingBox box) {
+    return read(() -> positions.inBox(box));
+  }
+
+  /**
+   * Markers for the clustering cells that overlap the box at a map zoom level: a centroid and count
+   * per cell, or the buoy itself when it is alone. Zooms past the configured maximum use the
+   * maximum.
+   */
+  public List<ClusterMarker> clusters(BoundingBox box, int zoom) {
+    return read(() -> clusters.clusters(box, zoom));
+  }
+
+  /** Deployment fences that contain the point, nearest centre first. */
+  public List<FenceMatch> fencesContaining(double lat, double lon) {
+    return read(() -> fences.containing(lat, lon));
+  }
+
+  private void indexReading(BuoyResponse reading) {
+    lock.writeLock().lock();
+    try {
+      boolean applied =
+          positions.put(
+              reading.getBuoyId(),
+              reading.getLatitude(),
+              reading.getLongitude(),
+              reading.getTimestamp().toEpochMilli());
+      if (applied) {
+        clusters.put(reading.getBuoyId(), reading.getLatitude(), reading.getLongitude());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void indexFence(Deployment deployment) {
+    lock.writeLock().lock();
+    try {
+      fences.put(deployment);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private <T> T read(Supplier<T> query) {
+    lock.readLock().lock();
+    try {
+      return query.get();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+}
@@ -0,0 +1,7 @@
+package edu.bu.spatial;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/** A buoy position found by a spatial query. Distance is omitted for bounding-box queries. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SpatialMatch(int buoyId, double latitude, double longitude, Double distanceMeters) {}
@@ -1,19 +1,18 @@
 package edu.bu.sqs;
 
-import edu.bu.analytics.geofence.GeofenceService;
+import edu.bu.data.BuoyReadingEvent;
 import edu.bu.data.BuoyResponse;
 import edu.bu.data.DataStore;
-import edu.bu.data.Deployment;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.time.Instant;
 import java.util.List;
-import java.util.Optional;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.sqs.SqsClient;
@@ -40,6 +39,7 @@ public class SQSQueueReader {
   private static final int SQS_WAIT_TIME_SECONDS = 10;
 
   private final DataStore dataStore;
+  private final ApplicationEventPublisher eventPublisher;
   private final SqsClient sqsClient;
   private final String sqsQueueName;
   private String queueUrl;
@@ -50,9 +50,11 @@ public class SQSQueueReader {
   /** Constructs a SQSQueueReader with the provided DataStore and configuration. */
   public SQSQueueReader(
       DataStore dataStore,
+      ApplicationEventPublisher eventPublisher,
       @Value("${sqs.queue-name:smartbuoy}") String sqsQueueName,
       @Value("${AWS_REGION:us-east-1}") String awsRegion) {
     this.dataStore = dataStore;
+    this.eventPublisher = eventPublisher;
     this.sqsQueueName = sqsQueueName;
     this.sqsClient = SqsClient.builder().region(Region.of(awsRegion)).build();
     this.currentBackoffMs = INITIAL_BACKOFF_MS;
@@ -157,35 +159,13 @@ public class SQSQueueReader {
       JSONObject json = (JSONObject) jsonParser.parse(messageBody);
       BuoyResponse buoyResponse = parseBuoyResponse(json);
       dataStore.update(List.of(buoyResponse));
-      checkGeofence(buoyResponse.getBuoyId());
+      eventPublisher.publishEvent(new BuoyReadingEvent(buoyResponse));
     } catch (Exception e) {
       log.error("Error processing message: {}", e.getMessage());
       throw new RuntimeException(e);
     }
   }
 
-  private void checkGeofence(int buoyId) {
-    try {
-      Optional<BuoyResponse> latestOpt = dataStore.getLatest(buoyId);
-      if (!latestOpt.isPresent()) {
-        return;
-      }
-      Optional<Deployment> deploymentOpt = dataStore.getDeployment(buoyId);
-      if (!deploymentOpt.isPresent()) {
-        return;
-      }
-      BuoyResponse latest = latestOpt.get();
-      boolean outside =
-          GeofenceService.isOutsideFence(
-              deploymentOpt.get(), latest.getLatitude(), latest.getLongitude());
-      if (outside) {
-        log.warn("ALERT: Buoy {} left geofence!", buoyId);
-      }
-    } catch (Exception e) {
-      log.error("Error in geofence check (non-fatal): {}", e.getMessage());
-    }
-  }
-
   private BuoyResponse parseBuoyResponse(JSONObject json) {
     Object buoyIdRaw = json.get("buoyId") != null ? json.get("buoyId") : json.get("buoy_id");
     if (buoyIdRaw == null) throw new IllegalArgumentException("Missing buoyId field");
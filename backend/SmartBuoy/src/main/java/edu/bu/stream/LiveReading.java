@@ -0,0 +1,24 @@
+package edu.bu.stream;
+
+import edu.bu.data.BuoyResponse;
+
+/** Payload of a "reading" stream event, with the timestamp in epoch millis like the REST API. */
+public record LiveReading(
+    int buoyId,
+    long timestamp,
+    double temperature,
+    double pressure,
+    double latitude,
+    double longitude) {
+
+  /** Copies the fields of an ingested reading. */
+  public static LiveReading of(BuoyResponse reading) {
+    return new LiveReading(
+        reading.getBuoyId(),
+        reading.getTimestamp().toEpochMilli(),
+        reading.getTemperature(),
+        reading.getPressure(),
+        reading.getLatitude(),
+        reading.getLongitude());
+  }
+}
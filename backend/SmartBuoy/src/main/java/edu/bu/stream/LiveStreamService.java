@@ -0,0 +1,183 @@
+package edu.bu.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import edu.bu.data.BuoyReadingEvent;
+import edu.bu.shadow.DeviceShadow;
+import edu.bu.shadow.ShadowChangedEvent;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * Pushes live readings and shadow changes to Server-Sent Events subscribers.
+ *
+ * <p>Each event is serialized into a complete SSE frame once and the same bytes are handed to every
+ * interested subscriber. Subscribers only hold a bounded, coalescing buffer, which a virtual thread
+ * writes out while it has frames, so connections do not occupy a thread while idle and a client
+ * whose writes block parks only its own virtual thread rather than a pool thread every other
+ * stream is waiting for. A subscriber whose buffer overflows is disconnected.
+ */
+@Service
+public class LiveStreamService {
+
+  private static final Logger log = LoggerFactory.getLogger(LiveStreamService.class);
+  private static final byte[] HEARTBEAT_FRAME = ":heartbeat\n\n".getBytes(StandardCharsets.UTF_8);
+
+  private final ObjectMapper objectMapper;
+  private final int maxPendingEvents;
+  private final long timeoutMillis;
+  private final ExecutorService dispatcher;
+  private final ScheduledExecutorService heartbeat;
+  private final Set<StreamSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final Set<StreamSubscriber> everyBuoy = ConcurrentHashMap.newKeySet();
+  private final Map<String, Set<StreamSubscriber>> byBuoy = new ConcurrentHashMap<>();
+
+  /** Creates a LiveStreamService with buffer, heartbeat and timeout settings from properties. */
+  public LiveStreamService(
+      ObjectMapper objectMapper,
+      @Value("${stream.max-pending-events:256}") int maxPendingEvents,
+      @Value("${stream.heartbeat-seconds:15}") long heartbeatSeconds,
+      @Value("${stream.timeout-minutes:30}") long timeoutMinutes) {
+    this.objectMapper = objectMapper;
+    this.maxPendingEvents = maxPendingEvents;
+    this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+    this.dispatcher =
+        Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("stream-dispatch-", 0).factory());
+    this.heartbeat =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("stream-heartbeat").setDaemon(true).build());
+    heartbeat.scheduleAtFixedRate(
+        this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Registers a new subscriber.
+   *
+   * @param buoyFilter buoy ids or thing names to receive, or null for every buoy
+   */
+  public ResponseBodyEmitter subscribe(Set<String> buoyFilter) {
+    return register(new ResponseBodyEmitter(timeoutMillis), buoyFilter);
+  }
+
+  ResponseBodyEmitter register(ResponseBodyEmitter emitter, Set<String> buoyFilter) {
+    StreamSubscriber subscriber = new StreamSubscriber(emitter, buoyFilter, maxPendingEvents);
+    subscribers.add(subscriber);
+    if (buoyFilter == null) {
+      everyBuoy.add(subscriber);
+    } else {
+      for (String buoy : buoyFilter) {
+        byBuoy.computeIfAbsent(buoy, ignored -> ConcurrentHashMap.newKeySet()).add(subscriber);
+      }
+    }
+    emitter.onCompletion(() -> unsubscribe(subscriber));
+    emitter.onTimeout(() -> unsubscribe(subscriber));
+    emitter.onError(error -> unsubscribe(subscriber));
+    log.debug("Stream subscriber added ({} total)", subscribers.size());
+    return emitter;
+  }
+
+  public int getSubscriberCount() {
+    return subscribers.size();
+  }
+
+  @EventListener
+  public void onReading(BuoyReadingEvent event) {
+    LiveReading reading = LiveReading.of(event.reading());
+    publish("reading", String.valueOf(reading.buoyId()), reading);
+  }
+
+  @EventListener
+  public void onShadowChanged(ShadowChangedEvent event) {
+    DeviceShadow shadow = event.shadow();
+    publish("shadow", shadow.buoyId(), shadow);
+  }
+
+  /** Stops dispatching and closes every open stream. */
+  @PreDestroy
+  public void shutdown() {
+    heartbeat.shutdownNow();
+    dispatcher.shutdownNow();
+    subscribers.forEach(subscriber -> subscriber.getEmitter().complete());
+  }
+
+  private void publish(String eventType, String buoy, Object payload) {
+    Set<StreamSubscriber> interested = byBuoy.get(buoy);
+    if (everyBuoy.isEmpty() && (interested == null || interested.isEmpty())) {
+      return;
+    }
+    byte[] frame;
+    try {
+      frame = encodeFrame(eventType, objectMapper.writeValueAsString(payload));
+    } catch (JsonProcessingException e) {
+      log.error("Failed to serialize {} event for {}: {}", eventType, buoy, e.getMessage());
+      return;
+    }
+    String key = eventType + ":" + buoy;
+    everyBuoy.forEach(subscriber -> enqueue(subscriber, key, frame));
+    if (interested != null) {
+      interested.forEach(subscriber -> enqueue(subscriber, key, frame));
+    }
+  }
+
+  private static byte[] encodeFrame(String eventType, String json) {
+    return ("event: " + eventType + "\ndata: " + json + "\n\n").getBytes(StandardCharsets.UTF_8);
+  }
+
+  private void sendHeartbeats() {
+    subscribers.forEach(subscriber -> enqueue(subscriber, "heartbeat", HEARTBEAT_FRAME));
+  }
+
+  private void enqueue(StreamSubscriber subscriber, String key, byte[] frame) {
+    boolean schedule = subscriber.offer(key, frame);
+    if (subscriber.isOverflowed() && subscribers.contains(subscriber)) {
+      log.info("Disconnecting stream subscriber that fell {} frames behind", maxPendingEvents);
+      unsubscribe(subscriber);
+    }
+    if (schedule) {
+      dispatcher.execute(() -> drain(subscriber));
+    }
+  }
+
+  private void drain(StreamSubscriber subscriber) {
+    try {
+      subscriber.drain();
+    } catch (IOException | IllegalStateException e) {
+      // The container reports the broken connection through onError; just stop writing to it.
+      log.debug("Dropping stream subscriber: {}", e.getMessage());
+      unsubscribe(subscriber);
+    }
+  }
+
+  private void unsubscribe(StreamSubscriber subscriber) {
+    if (!subscribers.remove(subscriber)) {
+      return;
+    }
+    everyBuoy.remove(subscriber);
+    if (subscriber.getBuoyFilter() != null) {
+      for (String buoy : subscriber.getBuoyFilter()) {
+        byBuoy.computeIfPresent(
+            buoy,
+            (ignored, set) -> {
+              set.remove(subscriber);
+              return set.isEmpty() ? null : set;
+            });
+      }
+    }
+  }
+}
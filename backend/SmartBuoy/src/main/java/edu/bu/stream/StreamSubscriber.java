@@ -0,0 +1,109 @@
+package edu.bu.stream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * One connected stream client with a bounded buffer of frames that have not been written yet.
+ *
+ * <p>Frames are keyed by what they describe (e.g. the readings of one buoy). A newer frame for a
+ * key still in the buffer replaces the older one, so a slow client skips intermediate values. A
+ * client that falls so far behind that the buffer overflows with distinct keys is cut off: its
+ * buffer is discarded and the next drain closes the stream, and EventSource clients reconnect.
+ */
+class StreamSubscriber {
+
+  private final ResponseBodyEmitter emitter;
+  private final Set<String> buoyFilter;
+  private final int capacity;
+  private final Map<String, byte[]> pending = new LinkedHashMap<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private boolean overflowed;
+
+  /**
+   * Creates a subscriber.
+   *
+   * @param buoyFilter buoy ids or thing names to receive, or null for every buoy
+   */
+  StreamSubscriber(ResponseBodyEmitter emitter, Set<String> buoyFilter, int capacity) {
+    this.emitter = emitter;
+    this.buoyFilter = buoyFilter;
+    this.capacity = capacity;
+  }
+
+  ResponseBodyEmitter getEmitter() {
+    return emitter;
+  }
+
+  Set<String> getBuoyFilter() {
+    return buoyFilter;
+  }
+
+  /** Whether the buffer overflowed; the subscriber then accepts no more frames. */
+  synchronized boolean isOverflowed() {
+    return overflowed;
+  }
+
+  /**
+   * Buffers a frame, coalescing with a pending frame of the same key, or discards the buffer and
+   * marks the subscriber overflowed when it would exceed its capacity.
+   *
+   * @return true if the caller must schedule a drain for this subscriber
+   */
+  boolean offer(String key, byte[] frame) {
+    synchronized (this) {
+      if (overflowed) {
+        return false;
+      }
+      if (pending.put(key, frame) == null && pending.size() > capacity) {
+        pending.clear();
+        overflowed = true;
+      }
+    }
+    return scheduled.compareAndSet(false, true);
+  }
+
+  /**
+   * Writes buffered frames until the buffer is empty, then closes the stream if the subscriber
+   * overflowed meanwhile. Only one drain runs at a time per subscriber.
+   *
+   * @throws IOException if the client went away
+   */
+  void drain() throws IOException {
+    while (true) {
+      List<byte[]> frames = takePending();
+      if (frames.isEmpty()) {
+        if (isOverflowed()) {
+          emitter.complete();
+          return;
+        }
+        scheduled.set(false);
+        // A frame offered between takePending() and the reset above would otherwise be stranded.
+        if (isIdle() || !scheduled.compareAndSet(false, true)) {
+          return;
+        }
+        continue;
+      }
+      for (byte[] frame : frames) {
+        emitter.send(frame, MediaType.TEXT_EVENT_STREAM);
+      }
+    }
+  }
+
+  private synchronized List<byte[]> takePending() {
+    List<byte[]> frames = new ArrayList<>(pending.values());
+    pending.clear();
+    return frames;
+  }
+
+  private synchronized boolean isIdle() {
+    return pending.isEmpty();
+  }
+}
@@ -0,0 +1,25 @@
+package edu.bu.web;
+
+import edu.bu.alert.AlertDispatcher;
+import edu.bu.web.dto.AlertStatsResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** REST controller exposing alert delivery statistics. */
+@RestController
+public class AlertController {
+
+  private final AlertDispatcher alertDispatcher;
+
+  /** Creates an AlertController backed by the given AlertDispatcher. */
+  public AlertController(AlertDispatcher alertDispatcher) {
+    this.alertDispatcher = alertDispatcher;
+  }
+
+  /** Returns the duplicate count and the queue and delivery counters of every alert sink. */
+  @GetMapping("/alerts/stats")
+  public AlertStatsResponse getStats() {
+    return new AlertStatsResponse(
+        alertDispatcher.getSuppressedCount(), alertDispatcher.getSinkStats());
+  }
+}
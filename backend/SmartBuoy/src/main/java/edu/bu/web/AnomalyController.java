@@ -0,0 +1,37 @@
+package edu.bu.web;
+
+import edu.bu.analytics.anomaly.AnomalyDetectionService;
+import edu.bu.analytics.anomaly.AnomalyEvent;
+import java.util.List;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/** REST controller exposing the log of temperature and pressure anomalies flagged on ingest. */
+@RestController
+public class AnomalyController {
+
+  private static final int MAX_LIMIT = 1000;
+
+  private final AnomalyDetectionService anomalyDetectionService;
+
+  /** Creates an AnomalyController backed by the given AnomalyDetectionService. */
+  public AnomalyController(AnomalyDetectionService anomalyDetectionService) {
+    this.anomalyDetectionService = anomalyDetectionService;
+  }
+
+  /**
+   * Returns recent anomalies, newest first, optionally only for one buoy and for readings at or
+   * after since (epoch millis).
+   */
+  @GetMapping("/anomalies")
+  public List<AnomalyEvent> getAnomalies(
+      @RequestParam(required = false) Integer buoyId,
+      @RequestParam(required = false) Long since,
+      @RequestParam(defaultValue = "100") int limit) {
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+    }
+    return anomalyDetectionService.getAnomalies(buoyId, since, limit);
+  }
+}
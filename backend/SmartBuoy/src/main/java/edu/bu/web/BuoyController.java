@@ -1,95 +1,356 @@
 package edu.bu.web;
 
 import edu.bu.analytics.UnknownBuoyException;
+import edu.bu.analytics.downsample.HistoryDownsampler;
+import edu.bu.data.AsyncDataStore;
 import edu.bu.data.BuoyResponse;
-import edu.bu.data.DataStore;
+import edu.bu.data.HistoryPage;
+import edu.bu.data.IngestVersionTracker;
+import edu.bu.web.dto.BatchHistoryRequest;
+import edu.bu.web.dto.BatchHistoryResponse;
+import edu.bu.web.dto.BuoyHistoryResult;
 import edu.bu.web.dto.HistoryEntry;
 import edu.bu.web.dto.HistoryResponse;
 import edu.bu.web.dto.MeasurementResponse;
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
-/** REST controller exposing buoy sensor data endpoints. */
+/**
+ * REST controller exposing buoy sensor data endpoints.
+ *
+ * <p>Handlers return futures from the {@link AsyncDataStore}, so the servlet thread is released
+ * while the store works and the number of requests in flight is bounded by the store instead of
+ * the container's thread pool.
+ */
 @RestController
 public class BuoyController {
 
-  private final DataStore dataStore;
+  private static final int DEFAULT_PAGE_SIZE = 1_000;
+  static final int MAX_PAGE_SIZE = 10_000;
+  private static final int MAX_BATCH_BUOYS = 100;
+  private static final int MAX_BATCH_READINGS_PER_BUOY = 10_000;
+  private static final long DEFAULT_BATCH_DEADLINE_MILLIS = 5_000L;
+  private static final long MAX_BATCH_DEADLINE_MILLIS = 30_000L;
 
-  /** Creates a BuoyController backed by the given DataStore. */
-  public BuoyController(DataStore dataStore) {
+  private final AsyncDataStore dataStore;
+  private final IngestVersionTracker versionTracker;
+
+  /** Creates a BuoyController backed by the given AsyncDataStore. */
+  public BuoyController(AsyncDataStore dataStore, IngestVersionTracker versionTracker) {
     this.dataStore = dataStore;
+    this.versionTracker = versionTracker;
   }
 
-  /** Returns history for a buoy, filtered to the last N hours if the hours param is provided. */
+  /**
+   * Returns history for a buoy, filtered to the last N hours if the hours param is provided and
+   * downsampled to at most maxPoints shape-preserving points if that param is provided. Location
+   * history can instead be simplified to a track within toleranceMeters of every fix, or within one
+   * map pixel at the given zoom level. With a limit or cursor the history is returned a page at a
+   * time, each page carrying the cursor for the next. Answers 304 without reading the store when
+   * the client's ETag still matches the buoy's ingest version, except for an hours window, whose
+   * contents also age out with the clock.
+   */
   @GetMapping("/history/{measurementType}/{buoyId}")
-  public HistoryResponse getHistory(
+  public CompletableFuture<ResponseEntity<HistoryResponse>> getHistory(
       @PathVariable String measurementType,
       @PathVariable int buoyId,
-      @RequestParam(required = false) Integer hours)
-      throws UnknownBuoyException {
+      @RequestParam(required = false) Integer hours,
+      @RequestParam(required = false) Integer maxPoints,
+      @RequestParam(required = false) Double toleranceMeters,
+      @RequestParam(required = false) Integer zoom,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) String cursor,
+      WebRequest webRequest) {
 
-    List<BuoyResponse> history = dataStore.getHistory(buoyId);
+    boolean paged = limit != null || cursor != null;
+    if (paged && maxPoints != null) {
+      throw new IllegalArgumentException("maxPoints cannot be combined with limit or cursor");
+    }
+    if (toleranceMeters != null || zoom != null) {
+      validateSimplification(measurementType, toleranceMeters, zoom, paged || maxPoints != null);
+    }
+    if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+      throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    HistoryPage.Position after = cursor == null ? null : HistoryCursor.decode(cursor);
 
-    if (hours != null) {
-      Instant cutoff = Instant.now().minusSeconds(hours * 3600L);
-      history = history.stream().filter(r -> r.getTimestamp().isAfter(cutoff)).collect(Collectors.toList());
+    String variant = "history";
+    if (maxPoints != null) {
+      variant += "-n" + maxPoints;
+    }
+    if (toleranceMeters != null) {
+      variant += "-t" + toleranceMeters;
+    }
+    if (zoom != null) {
+      variant += "-z" + zoom;
+    }
+    if (paged) {
+      variant += "-l" + limit + "-c" + cursor;
+    }
+    // A relative window slides with the clock as well as with ingest, so the ingest version cannot
+    // validate it and those responses are always served in full.
+    if (hours == null && isNotModified(webRequest, buoyId, variant)) {
+      return notModified();
     }
 
     String type = measurementType.toLowerCase();
-    List<HistoryEntry> entries = history.stream().map(r -> toHistoryEntry(r, buoyId, type)).collect(Collectors.toList());
+    if (paged) {
+      if (hours != null) {
+        Instant cutoff = Instant.now().minusSeconds(hours * 3600L);
+        if (after == null || after.timestamp().isBefore(cutoff)) {
+          after = HistoryPage.Position.at(cutoff);
+        }
+      }
+      return dataStore
+          .getHistoryPageAsync(buoyId, after, limit == null ? DEFAULT_PAGE_SIZE : limit)
+          .thenApply(page -> toHistoryPageResponse(page, buoyId, type))
+          .thenApply(ResponseEntity::ok);
+    }
+    return dataStore
+        .getHistoryAsync(buoyId)
+        .thenApply(
+            history ->
+                toHistoryResponse(
+                    history, buoyId, type, hours, maxPoints, toleranceMeters, zoom))
+        .thenApply(ResponseEntity::ok);
+  }
 
-    return new HistoryResponse(entries);
+  /**
+   * Returns the history of several buoys in one payload. The per-buoy reads run concurrently and
+   * the response is sent when all finish or the deadline passes, whichever is first; buoys still
+   * outstanding at the deadline are reported as timed out alongside the completed ones.
+   */
+  @PostMapping("/history/batch")
+  public CompletableFuture<BatchHistoryResponse> getHistoryBatch(
+      @RequestBody BatchHistoryRequest request) {
+    List<Integer> buoyIds = request.getBuoyIds();
+    if (buoyIds == null || buoyIds.isEmpty() || buoyIds.size() > MAX_BATCH_BUOYS) {
+      throw new IllegalArgumentException("buoyIds must list 1 to " + MAX_BATCH_BUOYS + " buoys");
+    }
+    List<String> types =
+        request.getTypes() == null || request.getTypes().isEmpty()
+            ? List.of("temperature", "pressure", "location")
+            : request.getTypes().stream().map(String::toLowerCase).distinct().toList();
+    for (String type : types) {
+      if (!type.equals("temperature") && !type.equals("pressure") && !type.equals("location")) {
+        throw new IllegalArgumentException("Invalid measurement type: " + type);
+      }
+    }
+    long deadlineMillis =
+        request.getDeadlineMillis() == null
+            ? DEFAULT_BATCH_DEADLINE_MILLIS
+            : request.getDeadlineMillis();
+    if (deadlineMillis < 1 || deadlineMillis > MAX_BATCH_DEADLINE_MILLIS) {
+      throw new IllegalArgumentException(
+          "deadlineMillis must be between 1 and " + MAX_BATCH_DEADLINE_MILLIS);
+    }
+    // Without a start the single capped page would hold each buoy's oldest readings.
+    if (request.getFrom() == null) {
+      throw new IllegalArgumentException("from is required");
+    }
+    Instant from = Instant.ofEpochMilli(request.getFrom());
+    Instant until = request.getUntil() == null ? null : Instant.ofEpochMilli(request.getUntil());
+
+    List<CompletableFuture<BuoyHistoryResult>> results =
+        buoyIds.stream()
+            .distinct()
+            .map(buoyId -> readBatchEntry(buoyId, types, from, until, deadlineMillis))
+            .toList();
+    return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+        .thenApply(
+            ignored ->
+                new BatchHistoryResponse(
+                    results.stream().map(CompletableFuture::join).toList()));
+  }
+
+  /**
+   * Seeks to the start of the range with a single capped page, so a narrow range deep in the
+   * history does not read everything before it. A read still running at the deadline is cancelled
+   * so it stops holding a store connection.
+   */
+  private CompletableFuture<BuoyHistoryResult> readBatchEntry(
+      int buoyId, List<String> types, Instant from, Instant until, long deadlineMillis) {
+    CompletableFuture<HistoryPage> read =
+        dataStore.getHistoryPageAsync(
+            buoyId, HistoryPage.Position.at(from), MAX_BATCH_READINGS_PER_BUOY);
+    CompletableFuture<BuoyHistoryResult> result =
+        read.thenApply(
+                page -> {
+                  List<BuoyResponse> readings = page.readings();
+                  if (until != null) {
+                    readings =
+                        readings.stream()
+                            .filter(reading -> !reading.getTimestamp().isAfter(until))
+                            .toList();
+                  }
+                  boolean truncated =
+                      page.next() != null
+                          && (until == null || page.next().timestamp().isBefore(until));
+                  Map<String, List<HistoryEntry>> history = new LinkedHashMap<>();
+                  for (String type : types) {
+                    history.put(
+                        type,
+                        readings.stream()
+                            .map(reading -> toHistoryEntry(reading, buoyId, type))
+                            .toList());
+                  }
+                  return BuoyHistoryResult.ok(buoyId, history, truncated);
+                })
+            .exceptionally(
+                failure -> {
+                  Throwable cause =
+                      failure instanceof CompletionException && failure.getCause() != null
+                          ? failure.getCause()
+                          : failure;
+                  return cause instanceof UnknownBuoyException
+                      ? BuoyHistoryResult.notFound(buoyId)
+                      : BuoyHistoryResult.error(buoyId, cause.getMessage());
+                })
+            .completeOnTimeout(
+                BuoyHistoryResult.timeout(buoyId), deadlineMillis, TimeUnit.MILLISECONDS);
+    result.whenComplete((ignored, failure) -> read.cancel(false));
+    return result;
   }
 
   /** Returns the latest measurement for a specific type and buoy via /current path. */
   @GetMapping("/current/{measurementType}/{buoyId}")
-  public MeasurementResponse getCurrent(
-      @PathVariable String measurementType, @PathVariable int buoyId)
-      throws UnknownBuoyException {
-
-    BuoyResponse latest =
-        dataStore
-            .getLatest(buoyId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No data for buoy " + buoyId));
-
-    return toMeasurementResponse(latest, measurementType.toLowerCase());
+  public CompletableFuture<ResponseEntity<MeasurementResponse>> getCurrent(
+      @PathVariable String measurementType, @PathVariable int buoyId, WebRequest webRequest) {
+    return latestMeasurement(buoyId, measurementType.toLowerCase(), webRequest);
   }
 
   /** Returns the latest temperature reading for a buoy. */
   @GetMapping("/temperature/{buoyId}")
-  public MeasurementResponse getTemperature(@PathVariable int buoyId) throws UnknownBuoyException {
-    BuoyResponse latest =
-        dataStore
-            .getLatest(buoyId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No data for buoy " + buoyId));
-    return MeasurementResponse.temperature(buoyId, latest.getTimestamp().toEpochMilli(), latest.getTemperature());
+  public CompletableFuture<ResponseEntity<MeasurementResponse>> getTemperature(
+      @PathVariable int buoyId, WebRequest webRequest) {
+    return latestMeasurement(buoyId, "temperature", webRequest);
   }
 
   /** Returns the latest pressure reading for a buoy. */
   @GetMapping("/pressure/{buoyId}")
-  public MeasurementResponse getPressure(@PathVariable int buoyId) throws UnknownBuoyException {
-    BuoyResponse latest =
-        dataStore
-            .getLatest(buoyId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No data for buoy " + buoyId));
-    return MeasurementResponse.pressure(buoyId, latest.getTimestamp().toEpochMilli(), latest.getPressure());
+  public CompletableFuture<ResponseEntity<MeasurementResponse>> getPressure(
+      @PathVariable int buoyId, WebRequest webRequest) {
+    return latestMeasurement(buoyId, "pressure", webRequest);
   }
 
   /** Returns the latest location reading for a buoy. */
   @GetMapping("/location/{buoyId}")
-  public MeasurementResponse getLocation(@PathVariable int buoyId) throws UnknownBuoyException {
-    BuoyResponse latest =
-        dataStore
-            .getLatest(buoyId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No data for buoy " + buoyId));
-    return MeasurementResponse.location(buoyId, latest.getTimestamp().toEpochMilli(), latest.getLatitude(), latest.getLongitude());
+  public CompletableFuture<ResponseEntity<MeasurementResponse>> getLocation(
+      @PathVariable int buoyId, WebRequest webRequest) {
+    return latestMeasurement(buoyId, "location", webRequest);
+  }
+
+  private CompletableFuture<ResponseEntity<MeasurementResponse>> latestMeasurement(
+      int buoyId, String type, WebRequest webRequest) {
+    if (isNotModified(webRequest, buoyId, "current")) {
+      return notModified();
+    }
+    return dataStore
+        .getLatestAsync(buoyId)
+        .thenApply(
+            latest -> {
+              BuoyResponse reading =
+                  latest.orElseThrow(
+                      () ->
+                          new ResponseStatusException(
+                              HttpStatus.NOT_FOUND, "No data for buoy " + buoyId));
+              return ResponseEntity.ok(toMeasurementResponse(reading, type));
+            });
+  }
+
+  /** The 304 status and validators were already written to the response by checkNotModified. */
+  private static <T> CompletableFuture<ResponseEntity<T>> notModified() {
+    return CompletableFuture.completedFuture(
+        ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+  }
+
+  private static void validateSimplification(
+      String measurementType, Double toleranceMeters, Integer zoom, boolean reduced) {
+    if (!measurementType.equalsIgnoreCase("location")) {
+      throw new IllegalArgumentException("toleranceMeters and zoom apply to location history only");
+    }
+    if (toleranceMeters != null && zoom != null) {
+      throw new IllegalArgumentException("Give either toleranceMeters or zoom, not both");
+    }
+    if (reduced) {
+      throw new IllegalArgumentException(
+          "Track simplification cannot be combined with maxPoints, limit or cursor");
+    }
+    if (toleranceMeters != null && !(toleranceMeters >= 0)) {
+      throw new IllegalArgumentException("toleranceMeters must not be negative");
+    }
+    if (zoom != null) {
+      HistoryDownsampler.toleranceForZoom(zoom, 0);
+    }
+  }
+
+  private HistoryResponse toHistoryResponse(
+      List<BuoyResponse> history,
+      int buoyId,
+      String type,
+      Integer hours,
+      Integer maxPoints,
+      Double toleranceMeters,
+      Integer zoom) {
+    if (hours != null) {
+      Instant cutoff = Instant.now().minusSeconds(hours * 3600L);
+      history =
+          history.stream()
+              .filter(r -> r.getTimestamp().isAfter(cutoff))
+              .collect(Collectors.toList());
+    }
+    if (maxPoints != null) {
+      history = HistoryDownsampler.downsample(history, type, maxPoints);
+    }
+    if (zoom != null && !history.isEmpty()) {
+      double meanLat = history.stream().mapToDouble(BuoyResponse::getLatitude).average().orElse(0);
+      toleranceMeters = HistoryDownsampler.toleranceForZoom(zoom, meanLat);
+    }
+    if (toleranceMeters != null) {
+      history = HistoryDownsampler.simplifyTrack(history, toleranceMeters);
+    }
+    List<HistoryEntry> entries =
+        history.stream().map(r -> toHistoryEntry(r, buoyId, type)).collect(Collectors.toList());
+    return new HistoryResponse(entries);
+  }
+
+  private HistoryResponse toHistoryPageResponse(HistoryPage page, int buoyId, String type) {
+    List<HistoryEntry> entries =
+        page.readings().stream()
+            .map(r -> toHistoryEntry(r, buoyId, type))
+            .collect(Collectors.toList());
+    String nextCursor = page.next() == null ? null : HistoryCursor.encode(page.next());
+    return new HistoryResponse(entries, nextCursor);
+  }
+
+  /**
+   * Checks the request's validators against the buoy's ingest version. When they match, Spring has
+   * already set the 304 status and the caller skips the store; otherwise the ETag and Last-Modified
+   * headers are set on the response. Buoys without a recorded version are always served in full.
+   */
+  private boolean isNotModified(WebRequest webRequest, int buoyId, String variant) {
+    return versionTracker
+        .getVersion(buoyId)
+        .map(
+            version ->
+                webRequest.checkNotModified(version.etag(variant), version.lastModifiedMillis()))
+        .orElse(false);
   }
 
   private HistoryEntry toHistoryEntry(BuoyResponse response, int buoyId, String type) {
@@ -1,13 +1,19 @@
 package edu.bu.web;
 
 import edu.bu.analytics.UnknownBuoyException;
+import edu.bu.analytics.geofence.CorridorFence;
+import edu.bu.analytics.geofence.Fence;
+import edu.bu.analytics.geofence.PolygonFence;
 import edu.bu.data.BuoyResponse;
 import edu.bu.data.DataStore;
 import edu.bu.data.Deployment;
+import edu.bu.data.DeploymentSavedEvent;
 import edu.bu.web.dto.DeploymentRequest;
 import edu.bu.web.dto.DeploymentResponse;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,13 +25,18 @@ public class DeploymentController {
   private static final Logger log = LoggerFactory.getLogger(DeploymentController.class);
 
   private final DataStore dataStore;
+  private final ApplicationEventPublisher eventPublisher;
 
   /** Creates a DeploymentController backed by the given DataStore. */
-  public DeploymentController(DataStore dataStore) {
+  public DeploymentController(DataStore dataStore, ApplicationEventPublisher eventPublisher) {
     this.dataStore = dataStore;
+    this.eventPublisher = eventPublisher;
   }
 
-  /** Deploys a buoy by recording its current GPS position as the geofence center. */
+  /**
+   * Deploys a buoy by recording its current GPS position as the geofence center, or with the
+   * polygon or corridor fence given in the request.
+   */
   @PostMapping("/deploy")
   public DeploymentResponse deploy(@RequestBody DeploymentRequest request)
       throws UnknownBuoyException {
@@ -42,11 +53,48 @@ public class DeploymentController {
     double lat = latest.getLatitude();
     double lon = latest.getLongitude();
     double radius = request.getAllowedRadiusMeters();
+    Fence fence = toFence(request);
 
-    Deployment deployment = new Deployment(buoyId, lat, lon, radius, System.currentTimeMillis());
+    Deployment deployment =
+        new Deployment(buoyId, lat, lon, radius, System.currentTimeMillis(), fence);
     dataStore.saveDeployment(deployment);
+    eventPublisher.publishEvent(new DeploymentSavedEvent(deployment));
 
     log.info("Deployment saved for buoy {}", buoyId);
-    return new DeploymentResponse(buoyId, lat, lon, radius);
+    return new DeploymentResponse(buoyId, lat, lon, radius, Fence.of(deployment).type());
+  }
+
+  /** Builds the requested polygon or corridor fence, or returns null for a circle. */
+  private static Fence toFence(DeploymentRequest request) {
+    if (request.getPolygon() != null && request.getCorridor() != null) {
+      throw new IllegalArgumentException("Give either a polygon or a corridor, not both");
+    }
+    if (request.getPolygon() != null) {
+      return new PolygonFence(
+          request.getPolygon().stream().map(DeploymentController::toPoints).toList());
+    }
+    if (request.getCorridor() != null) {
+      if (request.getCorridorHalfWidthMeters() == null) {
+        throw new IllegalArgumentException("corridorHalfWidthMeters is required with a corridor");
+      }
+      return new CorridorFence(
+          toPoints(request.getCorridor()), request.getCorridorHalfWidthMeters());
+    }
+    return null;
+  }
+
+  private static List<double[]> toPoints(List<List<Double>> points) {
+    if (points == null) {
+      throw new IllegalArgumentException("Fence rings must not be null");
+    }
+    return points.stream()
+        .map(
+            point -> {
+              if (point == null || point.size() != 2 || point.contains(null)) {
+                throw new IllegalArgumentException("Fence points must be [lat, lon] pairs");
+              }
+              return new double[] {point.get(0), point.get(1)};
+            })
+        .toList();
   }
 }
@@ -0,0 +1,41 @@
+package edu.bu.web;
+
+import edu.bu.analytics.geofence.BoundingBox;
+import edu.bu.fleet.FleetSnapshot;
+import edu.bu.fleet.FleetSnapshotService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+/** REST controller exposing the fleet-wide latest snapshot used by the map view. */
+@RestController
+public class FleetController {
+
+  private final FleetSnapshotService fleetSnapshotService;
+
+  /** Creates a FleetController backed by the given FleetSnapshotService. */
+  public FleetController(FleetSnapshotService fleetSnapshotService) {
+    this.fleetSnapshotService = fleetSnapshotService;
+  }
+
+  /**
+   * Returns the latest reading, deployment and fence status of every buoy, optionally limited to a
+   * bounding box and to buoys updated at or after updatedSince (epoch millis).
+   */
+  @GetMapping("/fleet/latest")
+  public FleetSnapshot getFleetLatest(
+      @RequestParam(required = false) Double minLat,
+      @RequestParam(required = false) Double minLon,
+      @RequestParam(required = false) Double maxLat,
+      @RequestParam(required = false) Double maxLon,
+      @RequestParam(required = false) Long updatedSince,
+      WebRequest webRequest) {
+    BoundingBox box = BoundingBox.fromParams(minLat, minLon, maxLat, maxLon);
+    FleetSnapshot snapshot = fleetSnapshotService.getSnapshot();
+    if (webRequest.checkNotModified(fleetSnapshotService.etag(snapshot))) {
+      return null;
+    }
+    return snapshot.filter(box, updatedSince);
+  }
+}
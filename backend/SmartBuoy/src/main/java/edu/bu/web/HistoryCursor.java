@@ -0,0 +1,49 @@
+package edu.bu.web;
+
+import edu.bu.data.HistoryPage;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for paging through /history. It encodes the timestamp of the last reading
+ * on a page and how many readings at that timestamp have been returned, so the next page resumes
+ * after them even when a page boundary falls between readings that share a timestamp.
+ */
+final class HistoryCursor {
+
+  private static final char SEPARATOR = '~';
+
+  /**
+   * Upper bound on readings already returned at one timestamp. Far more than any buoy reports at a
+   * single instant, and low enough that the store can add a page size to it without overflowing.
+   */
+  static final int MAX_SEEN = BuoyController.MAX_PAGE_SIZE * 100;
+
+  private HistoryCursor() {}
+
+  static String encode(HistoryPage.Position last) {
+    String text = last.timestamp().toString() + SEPARATOR + last.seen();
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  static HistoryPage.Position decode(String cursor) {
+    try {
+      String text = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = text.lastIndexOf(SEPARATOR);
+      if (separator < 0) {
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+      }
+      int seen = Integer.parseInt(text.substring(separator + 1));
+      if (seen < 0 || seen > MAX_SEEN) {
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+      }
+      return new HistoryPage.Position(Instant.parse(text.substring(0, separator)), seen);
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+  }
+}
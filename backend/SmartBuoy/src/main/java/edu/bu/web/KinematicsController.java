@@ -0,0 +1,26 @@
+package edu.bu.web;
+
+import edu.bu.analytics.UnknownBuoyException;
+import edu.bu.analytics.kinematics.DriftKinematics;
+import edu.bu.analytics.kinematics.KinematicsService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/** REST controller exposing the drift kinematics maintained during ingestion. */
+@RestController
+public class KinematicsController {
+
+  private final KinematicsService kinematicsService;
+
+  /** Creates a KinematicsController backed by the given KinematicsService. */
+  public KinematicsController(KinematicsService kinematicsService) {
+    this.kinematicsService = kinematicsService;
+  }
+
+  /** Returns the speed, heading and cumulative drift of a buoy. */
+  @GetMapping("/kinematics/{buoyId}")
+  public DriftKinematics getKinematics(@PathVariable int buoyId) throws UnknownBuoyException {
+    return kinematicsService.get(buoyId).orElseThrow(() -> new UnknownBuoyException(buoyId));
+  }
+}
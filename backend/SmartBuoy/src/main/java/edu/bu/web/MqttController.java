@@ -0,0 +1,28 @@
+package edu.bu.web;
+
+import edu.bu.mqtt.MqttConnectionStats;
+import edu.bu.mqtt.MqttShards;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** REST controller exposing the state and throughput of the MQTT connections. */
+@RestController
+public class MqttController {
+
+  /** Only wired when mqtt.enabled=true; there are no connections otherwise. */
+  @Nullable private final MqttShards mqttShards;
+
+  /** Creates an MqttController backed by the MQTT connections, if MQTT is enabled. */
+  public MqttController(@Autowired(required = false) MqttShards mqttShards) {
+    this.mqttShards = mqttShards;
+  }
+
+  /** Returns the connection state and message counters and rates of each MQTT connection. */
+  @GetMapping("/mqtt/connections")
+  public List<MqttConnectionStats> getConnections() {
+    return mqttShards == null ? List.of() : mqttShards.stats();
+  }
+}
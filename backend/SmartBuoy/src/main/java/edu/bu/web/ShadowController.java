@@ -1,42 +1,73 @@
 package edu.bu.web;
 
+import edu.bu.shadow.BuoyThingNames;
 import edu.bu.shadow.DeviceShadow;
 import edu.bu.shadow.ShadowService;
 import edu.bu.shadow.ShadowUpdateMessage;
-import org.springframework.beans.factory.annotation.Value;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/shadow")
 public class ShadowController {
 
-  @Value("${mqtt.thing-name:esp32}")
-  private String thingName;
-
   private final ShadowService shadowService;
+  private final BuoyThingNames buoyThingNames;
 
-  public ShadowController(ShadowService shadowService) {
+  public ShadowController(ShadowService shadowService, BuoyThingNames buoyThingNames) {
     this.shadowService = shadowService;
+    this.buoyThingNames = buoyThingNames;
+  }
+
+  /**
+   * Returns the known shadows of the comma-separated things, or of every thing when none are
+   * given.
+   */
+  @GetMapping
+  public List<DeviceShadow> getShadows(@RequestParam(required = false) String things) {
+    if (things == null) {
+      return shadowService.getShadows();
+    }
+    List<String> thingNames =
+        Arrays.stream(things.split(","))
+            .map(String::trim)
+            .filter(thing -> !thing.isEmpty())
+            .distinct()
+            .toList();
+    return shadowService.getShadows(thingNames);
   }
 
+  /**
+   * Returns the shadow of the thing the buoy id maps to, e.g. esp32 for the dashboard's buoy-1, or
+   * 404 when the id addresses no known thing.
+   */
   @GetMapping("/{buoyId}")
   public ResponseEntity<DeviceShadow> getShadow(@PathVariable String buoyId) {
-    return shadowService
-        .getShadow(thingName)
+    return buoyThingNames
+        .thingName(buoyId)
+        .flatMap(shadowService::getShadow)
         .map(ResponseEntity::ok)
         .orElse(ResponseEntity.notFound().build());
   }
 
+  /** Queues a desired state for the thing the buoy id maps to, or answers 404 if there is none. */
   @PostMapping("/{buoyId}")
   public ResponseEntity<Void> updateDesired(
       @PathVariable String buoyId, @RequestBody ShadowUpdateMessage.ShadowFields desired) {
-    shadowService.publishDesiredState(thingName, desired);
+    Optional<String> thingName = buoyThingNames.thingName(buoyId);
+    if (thingName.isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+    shadowService.publishDesiredState(thingName.get(), desired);
     return ResponseEntity.accepted().build();
   }
 }
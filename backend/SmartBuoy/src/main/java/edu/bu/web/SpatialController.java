@@ -0,0 +1,103 @@
+package edu.bu.web;
+
+import edu.bu.analytics.geofence.BoundingBox;
+import edu.bu.spatial.ClusterMarker;
+import edu.bu.spatial.FenceMatch;
+import edu.bu.spatial.HeatmapService;
+import edu.bu.spatial.SpatialIndexService;
+import edu.bu.spatial.SpatialMatch;
+import edu.bu.web.dto.ClusterResponse;
+import edu.bu.web.dto.HeatmapResponse;
+import java.util.List;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller exposing spatial queries across the fleet's positions and fences, clustered map
+ * markers, and heatmaps of the latest readings.
+ */
+@RestController
+public class SpatialController {
+
+  private static final int MAX_ZOOM = 24;
+
+  private final SpatialIndexService spatialIndexService;
+  private final HeatmapService heatmapService;
+
+  /** Creates a SpatialController backed by the given spatial index and heatmap services. */
+  public SpatialController(
+      SpatialIndexService spatialIndexService, HeatmapService heatmapService) {
+    this.spatialIndexService = spatialIndexService;
+    this.heatmapService = heatmapService;
+  }
+
+  /** Returns buoys whose latest position is within radius meters of the point, nearest first. */
+  @GetMapping("/spatial/buoys/near")
+  public List<SpatialMatch> getBuoysNear(
+      @RequestParam double lat, @RequestParam double lon, @RequestParam double radius) {
+    validatePoint(lat, lon);
+    if (!(radius > 0)) {
+      throw new IllegalArgumentException("radius must be positive");
+    }
+    return spatialIndexService.buoysWithin(lat, lon, radius);
+  }
+
+  /** Returns buoys whose latest position is inside the bounding box. */
+  @GetMapping("/spatial/buoys")
+  public List<SpatialMatch> getBuoysInBox(
+      @RequestParam double minLat,
+      @RequestParam double minLon,
+      @RequestParam double maxLat,
+      @RequestParam double maxLon) {
+    return spatialIndexService.buoysInBox(new BoundingBox(minLat, minLon, maxLat, maxLon));
+  }
+
+  /** Returns the deployment fences that contain the point. */
+  @GetMapping("/spatial/fences")
+  public List<FenceMatch> getFencesContaining(@RequestParam double lat, @RequestParam double lon) {
+    validatePoint(lat, lon);
+    return spatialIndexService.fencesContaining(lat, lon);
+  }
+
+  /**
+   * Returns the markers to draw for the bounding box at a map zoom level, with nearby buoys merged
+   * into one marker at their centroid.
+   */
+  @GetMapping("/spatial/clusters")
+  public ClusterResponse getClusters(
+      @RequestParam double minLat,
+      @RequestParam double minLon,
+      @RequestParam double maxLat,
+      @RequestParam double maxLon,
+      @RequestParam int zoom) {
+    if (zoom < 0 || zoom > MAX_ZOOM) {
+      throw new IllegalArgumentException("zoom must be between 0 and " + MAX_ZOOM);
+    }
+    List<ClusterMarker> markers =
+        spatialIndexService.clusters(new BoundingBox(minLat, minLon, maxLat, maxLon), zoom);
+    return new ClusterResponse(zoom, markers);
+  }
+
+  /**
+   * Returns the count and the mean, minimum and maximum latest temperature and pressure of the
+   * buoys in each non-empty grid cell at the given resolution in degrees, optionally limited to a
+   * bounding box.
+   */
+  @GetMapping("/spatial/heatmap")
+  public HeatmapResponse getHeatmap(
+      @RequestParam double resolution,
+      @RequestParam(required = false) Double minLat,
+      @RequestParam(required = false) Double minLon,
+      @RequestParam(required = false) Double maxLat,
+      @RequestParam(required = false) Double maxLon) {
+    BoundingBox box = BoundingBox.fromParams(minLat, minLon, maxLat, maxLon);
+    return new HeatmapResponse(resolution, heatmapService.heatmap(resolution, box));
+  }
+
+  private static void validatePoint(double lat, double lon) {
+    if (!(lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180)) {
+      throw new IllegalArgumentException("Point is outside valid coordinates");
+    }
+  }
+}
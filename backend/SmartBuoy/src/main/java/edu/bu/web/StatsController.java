@@ -0,0 +1,71 @@
+package edu.bu.web;
+
+import edu.bu.data.AsyncDataStore;
+import edu.bu.web.dto.StatsResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller exposing windowed summary statistics, so summary cards need not download and
+ * aggregate the raw history themselves.
+ */
+@RestController
+public class StatsController {
+
+  private static final Pattern WINDOW = Pattern.compile("(\\d{1,7})([smhd])");
+  private static final Duration MAX_WINDOW = Duration.ofDays(30);
+
+  private final AsyncDataStore dataStore;
+
+  /** Creates a StatsController backed by the given AsyncDataStore. */
+  public StatsController(AsyncDataStore dataStore) {
+    this.dataStore = dataStore;
+  }
+
+  /**
+   * Returns count, min, max, mean, sample standard deviation and rate of change per hour of the
+   * temperature or pressure readings in the trailing window, given as a number followed by s, m, h
+   * or d (default 24h).
+   */
+  @GetMapping("/stats/{measurementType}/{buoyId}")
+  public CompletableFuture<StatsResponse> getStats(
+      @PathVariable String measurementType,
+      @PathVariable int buoyId,
+      @RequestParam(defaultValue = "24h") String window) {
+    String type = measurementType.toLowerCase();
+    if (!type.equals("temperature") && !type.equals("pressure")) {
+      throw new IllegalArgumentException("Invalid measurement type for stats: " + type);
+    }
+    Instant until = Instant.now();
+    Instant from = until.minus(parseWindow(window));
+    return dataStore
+        .getStatsAsync(buoyId, type, from, until)
+        .thenApply(stats -> new StatsResponse(buoyId, type, window, stats));
+  }
+
+  private static Duration parseWindow(String window) {
+    Matcher matcher = WINDOW.matcher(window);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Invalid window: " + window);
+    }
+    long amount = Long.parseLong(matcher.group(1));
+    Duration duration =
+        switch (matcher.group(2)) {
+          case "s" -> Duration.ofSeconds(amount);
+          case "m" -> Duration.ofMinutes(amount);
+          case "h" -> Duration.ofHours(amount);
+          default -> Duration.ofDays(amount);
+        };
+    if (duration.isZero() || duration.compareTo(MAX_WINDOW) > 0) {
+      throw new IllegalArgumentException("Window must be positive and at most 30d: " + window);
+    }
+    return duration;
+  }
+}
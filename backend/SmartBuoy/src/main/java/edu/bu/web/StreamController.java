@@ -0,0 +1,51 @@
+package edu.bu.web;
+
+import edu.bu.stream.LiveStreamService;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/** REST controller exposing the Server-Sent Events stream of live readings and shadow changes. */
+@RestController
+public class StreamController {
+
+  private final LiveStreamService liveStreamService;
+
+  /** Creates a StreamController backed by the given LiveStreamService. */
+  public StreamController(LiveStreamService liveStreamService) {
+    this.liveStreamService = liveStreamService;
+  }
+
+  /**
+   * Opens an event stream. The optional buoys param is a comma-separated list of buoy ids or thing
+   * names; without it every buoy is streamed.
+   */
+  @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<ResponseBodyEmitter> stream(@RequestParam(required = false) String buoys) {
+    return ResponseEntity.ok()
+        .contentType(MediaType.TEXT_EVENT_STREAM)
+        .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+        // Stops reverse proxies such as nginx from buffering the stream.
+        .header("X-Accel-Buffering", "no")
+        .body(liveStreamService.subscribe(parseBuoyFilter(buoys)));
+  }
+
+  private static Set<String> parseBuoyFilter(String buoys) {
+    if (buoys == null) {
+      return null;
+    }
+    Set<String> filter =
+        Arrays.stream(buoys.split(","))
+            .map(String::trim)
+            .filter(buoy -> !buoy.isEmpty())
+            .collect(Collectors.toSet());
+    return filter.isEmpty() ? null : filter;
+  }
+}
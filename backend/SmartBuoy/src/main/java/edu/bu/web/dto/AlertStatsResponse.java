@@ -0,0 +1,7 @@
+package edu.bu.web.dto;
+
+import edu.bu.alert.SinkStats;
+import java.util.List;
+
+/** Response body for GET /alerts/stats. */
+public record AlertStatsResponse(long suppressed, List<SinkStats> sinks) {}
@@ -0,0 +1,30 @@
+package edu.bu.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * Request body for the POST /history/batch endpoint. from is required and to, sent as "to" and
+ * defaulting to the latest reading, is optional; both are epoch millis. deadlineMillis bounds how
+ * long the batch waits for slow buoys.
+ */
+public class BatchHistoryRequest {
+
+  private List<Integer> buoyIds;
+  private List<String> types;
+  private Long from;
+  @JsonProperty("to")
+  private Long until;
+  private Long deadlineMillis;
+
+  public List<Integer> getBuoyIds() { return buoyIds; }
+  public void setBuoyIds(List<Integer> buoyIds) { this.buoyIds = buoyIds; }
+  public List<String> getTypes() { return types; }
+  public void setTypes(List<String> types) { this.types = types; }
+  public Long getFrom() { return from; }
+  public void setFrom(Long from) { this.from = from; }
+  public Long getUntil() { return until; }
+  public void setUntil(Long until) { this.until = until; }
+  public Long getDeadlineMillis() { return deadlineMillis; }
+  public void setDeadlineMillis(Long deadlineMillis) { this.deadlineMillis = deadlineMillis; }
+}
@@ -0,0 +1,29 @@
+package edu.bu.web.dto;
+
+import java.util.List;
+
+/**
+ * Response for the POST /history/batch endpoint, with one result per requested buoy in request
+ * order. Partial is true when any buoy timed out or failed.
+ */
+public class BatchHistoryResponse {
+
+  private final List<BuoyHistoryResult> results;
+  private final boolean partial;
+
+  /** Creates a BatchHistoryResponse from the per-buoy results. */
+  public BatchHistoryResponse(List<BuoyHistoryResult> results) {
+    this.results = results;
+    this.partial =
+        results.stream()
+            .anyMatch(r -> r.getStatus().equals("timeout") || r.getStatus().equals("error"));
+  }
+
+  public List<BuoyHistoryResult> getResults() {
+    return results;
+  }
+
+  public boolean isPartial() {
+    return partial;
+  }
+}
@@ -0,0 +1,61 @@
+package edu.bu.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One buoy's part of a batch history response. Status is ok, not_found, timeout or error; only ok
+ * results carry history, keyed by measurement type.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BuoyHistoryResult {
+
+  private int buoyId;
+  private String status;
+  private Map<String, List<HistoryEntry>> history;
+  private Boolean truncated;
+  private String error;
+
+  /** Creates a result holding the buoy's history, truncated when the reading cap was hit. */
+  public static BuoyHistoryResult ok(
+      int buoyId, Map<String, List<HistoryEntry>> history, boolean truncated) {
+    BuoyHistoryResult result = new BuoyHistoryResult();
+    result.buoyId = buoyId;
+    result.status = "ok";
+    result.history = history;
+    result.truncated = truncated ? Boolean.TRUE : null;
+    return result;
+  }
+
+  /** Creates a result for a buoy the store has never seen. */
+  public static BuoyHistoryResult notFound(int buoyId) {
+    BuoyHistoryResult result = new BuoyHistoryResult();
+    result.buoyId = buoyId;
+    result.status = "not_found";
+    return result;
+  }
+
+  /** Creates a result for a buoy whose read missed the batch deadline. */
+  public static BuoyHistoryResult timeout(int buoyId) {
+    BuoyHistoryResult result = new BuoyHistoryResult();
+    result.buoyId = buoyId;
+    result.status = "timeout";
+    return result;
+  }
+
+  /** Creates a result for a buoy whose read failed. */
+  public static BuoyHistoryResult error(int buoyId, String error) {
+    BuoyHistoryResult result = new BuoyHistoryResult();
+    result.buoyId = buoyId;
+    result.status = "error";
+    result.error = error;
+    return result;
+  }
+
+  public int getBuoyId() { return buoyId; }
+  public String getStatus() { return status; }
+  public Map<String, List<HistoryEntry>> getHistory() { return history; }
+  public Boolean getTruncated() { return truncated; }
+  public String getError() { return error; }
+}
@@ -0,0 +1,7 @@
+package edu.bu.web.dto;
+
+import edu.bu.spatial.ClusterMarker;
+import java.util.List;
+
+/** Response body for GET /spatial/clusters. */
+public record ClusterResponse(int zoom, List<ClusterMarker> markers) {}
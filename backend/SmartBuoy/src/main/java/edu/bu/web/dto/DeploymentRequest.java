@@ -1,13 +1,28 @@
 package edu.bu.web.dto;
 
-/** Request body for the POST /deploy endpoint. */
+import java.util.List;
+
+/**
+ * Request body for the POST /deploy endpoint. Without a polygon or corridor the fence is a circle
+ * of allowedRadiusMeters around the buoy's current position. Points are [lat, lon] pairs; a
+ * polygon's first ring is its outline and any further rings are holes.
+ */
 public class DeploymentRequest {
 
   private int buoyId;
   private double allowedRadiusMeters;
+  private List<List<List<Double>>> polygon;
+  private List<List<Double>> corridor;
+  private Double corridorHalfWidthMeters;
 
   public int getBuoyId() { return buoyId; }
   public void setBuoyId(int buoyId) { this.buoyId = buoyId; }
   public double getAllowedRadiusMeters() { return allowedRadiusMeters; }
   public void setAllowedRadiusMeters(double allowedRadiusMeters) { this.allowedRadiusMeters = allowedRadiusMeters; }
+  public List<List<List<Double>>> getPolygon() { return polygon; }
+  public void setPolygon(List<List<List<Double>>> polygon) { this.polygon = polygon; }
+  public List<List<Double>> getCorridor() { return corridor; }
+  public void setCorridor(List<List<Double>> corridor) { this.corridor = corridor; }
+  public Double getCorridorHalfWidthMeters() { return corridorHalfWidthMeters; }
+  public void setCorridorHalfWidthMeters(Double corridorHalfWidthMeters) { this.corridorHalfWidthMeters = corridorHalfWidthMeters; }
 }
@@ -8,15 +8,27 @@ public class DeploymentResponse {
   private double latitude;
   private double longitude;
   private double allowedRadiusMeters;
+  private String fenceType;
 
-  /** Creates a successful deployment response. */
+  /** Creates a successful deployment response for a circle fence. */
   public DeploymentResponse(
       int buoyId, double latitude, double longitude, double allowedRadiusMeters) {
+    this(buoyId, latitude, longitude, allowedRadiusMeters, "circle");
+  }
+
+  /** Creates a successful deployment response for a fence of the given type. */
+  public DeploymentResponse(
+      int buoyId,
+      double latitude,
+      double longitude,
+      double allowedRadiusMeters,
+      String fenceType) {
     this.status = "deployed";
     this.buoyId = buoyId;
     this.latitude = latitude;
     this.longitude = longitude;
     this.allowedRadiusMeters = allowedRadiusMeters;
+    this.fenceType = fenceType;
   }
 
   public String getStatus() { return status; }
@@ -24,4 +36,5 @@ public class DeploymentResponse {
   public double getLatitude() { return latitude; }
   public double getLongitude() { return longitude; }
   public double getAllowedRadiusMeters() { return allowedRadiusMeters; }
+  public String getFenceType() { return fenceType; }
 }
@@ -0,0 +1,7 @@
+package edu.bu.web.dto;
+
+import edu.bu.spatial.HeatmapCell;
+import java.util.List;
+
+/** Response body for GET /spatial/heatmap. */
+public record HeatmapResponse(double resolutionDegrees, List<HeatmapCell> cells) {}
@@ -1,18 +1,34 @@
 package edu.bu.web.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
 
-/** Wraps a list of HistoryEntry records for the /history endpoint response. */
+/**
+ * Wraps a list of HistoryEntry records for the /history endpoint response. Paged responses carry
+ * the cursor for the next page, which is omitted on the last page and for unpaged reads.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class HistoryResponse {
 
   private final List<HistoryEntry> history;
+  private final String nextCursor;
 
   /** Creates a HistoryResponse with the given list of entries. */
   public HistoryResponse(List<HistoryEntry> history) {
+    this(history, null);
+  }
+
+  /** Creates a page of a HistoryResponse followed by the given cursor. */
+  public HistoryResponse(List<HistoryEntry> history, String nextCursor) {
     this.history = history;
+    this.nextCursor = nextCursor;
   }
 
   public List<HistoryEntry> getHistory() {
     return history;
   }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
 }
@@ -0,0 +1,40 @@
+package edu.bu.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import edu.bu.analytics.stats.WindowStats;
+
+/** Response DTO for the /stats endpoint: a measurement's summary over a trailing window. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StatsResponse {
+
+  private final int buoyId;
+  private final String measurementType;
+  private final String window;
+  private final WindowStats stats;
+
+  /** Creates a StatsResponse for the given buoy, measurement type and window. */
+  public StatsResponse(int buoyId, String measurementType, String window, WindowStats stats) {
+    this.buoyId = buoyId;
+    this.measurementType = measurementType;
+    this.window = window;
+    this.stats = stats;
+  }
+
+  public int getBuoyId() {
+    return buoyId;
+  }
+
+  public String getMeasurementType() {
+    return measurementType;
+  }
+
+  public String getWindow() {
+    return window;
+  }
+
+  @JsonUnwrapped
+  public WindowStats getStats() {
+    return stats;
+  }
+}
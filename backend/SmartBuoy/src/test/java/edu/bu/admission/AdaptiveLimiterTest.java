@@ -0,0 +1,74 @@
+package edu.bu.admission;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveLimiterTest {
+
+  private static final long FAST = 1_000_000L;
+  private static final long SLOW = 500_000_000L;
+
+  /* Requests beyond the limit are rejected rather than queued */
+  @Test
+  public void testRejectsBeyondLimit() {
+    AdaptiveLimiter limiter = new AdaptiveLimiter("test", 2, 1, 10, 100);
+
+    assertTrue(limiter.tryAcquire());
+    assertTrue(limiter.tryAcquire());
+    assertFalse(limiter.tryAcquire());
+
+    limiter.release(FAST, false);
+    assertTrue(limiter.tryAcquire());
+  }
+
+  /* Fast completions under load grow the limit additively up to the max */
+  @Test
+  public void testFastResponsesIncreaseLimit() {
+    AdaptiveLimiter limiter = new AdaptiveLimiter("test", 2, 1, 3, 100);
+
+    for (int i = 0; i < 5; i++) {
+      limiter.tryAcquire();
+      limiter.tryAcquire();
+      limiter.release(FAST, false);
+      limiter.release(FAST, false);
+    }
+
+    assertEquals(3, limiter.getLimit());
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  /* Idle capacity is not evidence the backend can take more */
+  @Test
+  public void testUnderusedLimitDoesNotGrow() {
+    AdaptiveLimiter limiter = new AdaptiveLimiter("test", 10, 1, 100, 100);
+
+    for (int i = 0; i < 20; i++) {
+      limiter.tryAcquire();
+      limiter.release(FAST, false);
+    }
+
+    assertEquals(10, limiter.getLimit());
+  }
+
+  /* Slow or failed completions shrink the limit multiplicatively down to the min */
+  @Test
+  public void testSlowAndFailedResponsesDecreaseLimit() {
+    AdaptiveLimiter limiter = new AdaptiveLimiter("test", 10, 2, 10, 100);
+
+    limiter.tryAcquire();
+    limiter.release(SLOW, false);
+    assertEquals(9, limiter.getLimit());
+
+    for (int i = 0; i < 50; i++) {
+      limiter.tryAcquire();
+      limiter.release(FAST, true);
+    }
+    assertEquals(2, limiter.getLimit());
+  }
+
+  @Test
+  public void testInvalidLimitsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter("test", 5, 6, 10, 100));
+  }
+}
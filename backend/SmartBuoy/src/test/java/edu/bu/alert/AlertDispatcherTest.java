@@ -0,0 +1,244 @@
+package edu.bu.alert;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.bu.analytics.geofence.FenceState;
+import edu.bu.analytics.geofence.GeofenceTransitionEvent;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class AlertDispatcherTest {
+
+  private static final Instant NOW = Instant.parse("2024-06-01T00:00:00Z");
+
+  private AlertDispatcher dispatcher;
+
+  @AfterEach
+  public void tearDown() {
+    if (dispatcher != null) {
+      dispatcher.stop();
+    }
+  }
+
+  /* Repeats within the interval are suppressed and counted on the next alert sent */
+  @Test
+  public void testDeduplicatesPerBuoyAndType() throws Exception {
+    RecordingSink sink = new RecordingSink();
+    MutableClock clock = new MutableClock();
+    dispatcher = new AlertDispatcher(List.of(sink), 10, Duration.ofMinutes(5), clock);
+    dispatcher.start();
+
+    assertTrue(dispatcher.submit(alert(1, Alert.GEOFENCE_EXIT)));
+    assertFalse(dispatcher.submit(alert(1, Alert.GEOFENCE_EXIT)));
+    assertFalse(dispatcher.submit(alert(1, Alert.GEOFENCE_EXIT)));
+    assertTrue(dispatcher.submit(alert(2, Alert.GEOFENCE_EXIT)));
+    assertTrue(dispatcher.submit(alert(1, Alert.GEOFENCE_RETURN)));
+    clock.millis += Duration.ofMinutes(5).toMillis();
+    assertTrue(dispatcher.submit(alert(1, Alert.GEOFENCE_EXIT)));
+
+    List<Alert> received = sink.take(4);
+    assertEquals(0, received.get(0).suppressed());
+    assertEquals(2, received.get(3).suppressed());
+    assertEquals(2, dispatcher.getSuppressedCount());
+  }
+
+  /* A stuck sink fills its own queue and drops alerts without blocking submit or other sinks */
+  @Test
+  public void testSlowSinkNeverBlocksSubmit() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    AlertSink stuck =
+        new AlertSink() {
+          @Override
+          public String name() {
+            return "stuck";
+          }
+
+          @Override
+          public void deliver(Alert alert) throws InterruptedException {
+            release.await();
+          }
+        };
+    RecordingSink fast = new RecordingSink();
+    dispatcher = new AlertDispatcher(List.of(stuck, fast), 2, Duration.ZERO, new MutableClock());
+    dispatcher.start();
+
+    long start = System.nanoTime();
+    for (int buoy = 0; buoy < 50; buoy++) {
+      dispatcher.submit(alert(buoy, Alert.GEOFENCE_EXIT));
+      Thread.sleep(1);
+    }
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+    release.countDown();
+
+    SinkStats stuckStats = dispatcher.getSinkStats().get(0);
+    assertTrue(stuckStats.dropped() >= 47);
+    assertEquals(50, fast.take(50).size());
+  }
+
+  /* Failed deliveries are retried up to the sink's attempt limit */
+  @Test
+  public void testRetriesFailedDeliveries() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    RecordingSink flaky =
+        new RecordingSink() {
+          @Override
+          public void deliver(Alert alert) throws Exception {
+            if (calls.incrementAndGet() < 3) {
+              throw new IllegalStateException("unavailable");
+            }
+            super.deliver(alert);
+          }
+
+          @Override
+          public int maxAttempts() {
+            return 3;
+          }
+
+          @Override
+          public Duration initialBackoff() {
+            return Duration.ofMillis(5);
+          }
+        };
+    dispatcher = new AlertDispatcher(List.of(flaky), 10, Duration.ZERO, new MutableClock());
+    dispatcher.start();
+
+    dispatcher.submit(alert(1, Alert.GEOFENCE_EXIT));
+
+    assertEquals(1, flaky.take(1).size());
+    SinkStats stats = dispatcher.getSinkStats().get(0);
+    assertEquals(2, stats.retried());
+    assertEquals(0, stats.failed());
+  }
+
+  @Test
+  public void testGeofenceTransitionBecomesAlert() throws Exception {
+    RecordingSink sink = new RecordingSink();
+    dispatcher = new AlertDispatcher(List.of(sink), 10, Duration.ZERO, new MutableClock());
+    dispatcher.start();
+
+    dispatcher.onGeofenceTransition(
+        new GeofenceTransitionEvent(4, 0, FenceState.INSIDE, FenceState.OUTSIDE, 812.4, NOW));
+
+    Alert alert = sink.take(1).get(0);
+    assertEquals(4, alert.buoyId());
+    assertEquals(Alert.GEOFENCE_EXIT, alert.type());
+    assertTrue(alert.message().contains("812 m"));
+  }
+
+  /* Every change of fence state goes out however soon it follows the last */
+  @Test
+  public void testGeofenceStateChangesAreNeverSuppressed() throws Exception {
+    RecordingSink sink = new RecordingSink();
+    dispatcher = new AlertDispatcher(List.of(sink), 10, Duration.ofMinutes(5), new MutableClock());
+    dispatcher.start();
+
+    dispatcher.onGeofenceTransition(exit(7, 1));
+    dispatcher.onGeofenceTransition(
+        new GeofenceTransitionEvent(7, 1, FenceState.OUTSIDE, FenceState.INSIDE, 3.0, NOW));
+    dispatcher.onGeofenceTransition(exit(7, 1));
+    dispatcher.onGeofenceTransition(exit(7, 1));
+    dispatcher.onGeofenceTransition(exit(7, 2));
+
+    List<String> types = sink.take(4).stream().map(Alert::type).toList();
+    assertEquals(
+        List.of(
+            Alert.GEOFENCE_EXIT, Alert.GEOFENCE_RETURN, Alert.GEOFENCE_EXIT, Alert.GEOFENCE_EXIT),
+        types);
+    assertEquals(1, dispatcher.getSuppressedCount());
+  }
+
+  /* Repeats with no later alert are reported once their window expires */
+  @Test
+  public void testFlushesSuppressedRepeatsWhenWindowExpires() throws Exception {
+    RecordingSink sink = new RecordingSink();
+    MutableClock clock = new MutableClock();
+    dispatcher = new AlertDispatcher(List.of(sink), 10, Duration.ofMinutes(5), clock);
+    dispatcher.start();
+
+    dispatcher.submit(alert(1, Alert.GEOFENCE_EXIT));
+    dispatcher.submit(alert(1, Alert.GEOFENCE_EXIT));
+    dispatcher.submit(alert(1, Alert.GEOFENCE_EXIT));
+    dispatcher.submit(alert(2, Alert.GEOFENCE_EXIT));
+    dispatcher.flushExpired();
+    assertEquals(2, sink.take(2).size());
+
+    clock.millis += Duration.ofMinutes(5).toMillis();
+    dispatcher.flushExpired();
+    Alert flushed = sink.take(1).get(0);
+    assertEquals(1, flushed.buoyId());
+    assertEquals(1, flushed.suppressed());
+
+    dispatcher.flushExpired();
+    assertTrue(dispatcher.submit(alert(1, Alert.GEOFENCE_EXIT)));
+    assertEquals(0, sink.take(1).get(0).suppressed());
+  }
+
+  private static GeofenceTransitionEvent exit(int buoyId, long deployedAt) {
+    return new GeofenceTransitionEvent(
+        buoyId, deployedAt, FenceState.INSIDE, FenceState.OUTSIDE, 500.0, NOW);
+  }
+
+  private static Alert alert(int buoyId, String type) {
+    return new Alert(buoyId, type, "test", NOW, 0);
+  }
+
+  private static class RecordingSink implements AlertSink {
+    private final BlockingQueue<Alert> received = new LinkedBlockingQueue<>();
+
+    @Override
+    public String name() {
+      return "recording";
+    }
+
+    @Override
+    public void deliver(Alert alert) throws Exception {
+      received.add(alert);
+    }
+
+    List<Alert> take(int count) throws InterruptedException {
+      List<Alert> alerts = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        Alert alert = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(alert);
+        alerts.add(alert);
+      }
+      return alerts;
+    }
+  }
+
+  private static class MutableClock extends Clock {
+    private long millis = NOW.toEpochMilli();
+
+    @Override
+    public long millis() {
+      return millis;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+  }
+}
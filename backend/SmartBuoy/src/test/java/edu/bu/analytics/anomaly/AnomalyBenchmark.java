@@ -0,0 +1,54 @@
+package edu.bu.analytics.anomaly;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.bu.data.BuoyReadingEvent;
+import edu.bu.data.BuoyResponse;
+import java.time.Instant;
+import java.util.Random;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Measures anomaly detection throughput on the ingest path. Run with ./gradlew benchmark. */
+@Tag("Benchmark")
+public class AnomalyBenchmark {
+
+  private static final int BUOYS = 1_000;
+  private static final int READINGS_PER_BUOY = 1_000;
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int MEASURED_ROUNDS = 10;
+
+  @Test
+  public void benchmarkReadingsPerSecond() {
+    Random random = new Random(42);
+    BuoyReadingEvent[] events = new BuoyReadingEvent[BUOYS * READINGS_PER_BUOY];
+    for (int i = 0; i < events.length; i++) {
+      events[i] =
+          new BuoyReadingEvent(
+              new BuoyResponse(
+                  i % BUOYS,
+                  Instant.ofEpochSecond(i / BUOYS),
+                  20 + random.nextGaussian() * 0.2,
+                  101_300 + random.nextGaussian() * 20,
+                  42.0,
+                  -70.0));
+    }
+    for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+      // A fresh service per round, since repeated timestamps would be skipped as late.
+      long[] published = new long[1];
+      AnomalyDetectionService service =
+          new AnomalyDetectionService(event -> published[0]++, 0.02, 5, 30, 1_000);
+      long start = System.nanoTime();
+      for (BuoyReadingEvent event : events) {
+        service.onReading(event);
+      }
+      double nanosPerReading = (double) (System.nanoTime() - start) / events.length;
+      if (round >= WARMUP_ROUNDS) {
+        System.out.printf(
+            "Anomaly detection %,d buoys: %.1f ns/reading (%.1f M readings/s)%n",
+            BUOYS, nanosPerReading, 1e3 / nanosPerReading);
+      }
+      assertTrue(published[0] < events.length / 10_000);
+    }
+  }
+}
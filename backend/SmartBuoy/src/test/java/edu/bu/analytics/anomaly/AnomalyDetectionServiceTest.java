@@ -0,0 +1,101 @@
+package edu.bu.analytics.anomaly;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.bu.data.BuoyReadingEvent;
+import edu.bu.data.BuoyResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AnomalyDetectionServiceTest {
+
+  private static final Instant START = Instant.parse("2024-06-01T00:00:00Z");
+
+  private final List<Object> events = new ArrayList<>();
+  private final Random random = new Random(5);
+  private AnomalyDetectionService service;
+
+  @BeforeEach
+  public void setUp() {
+    service = new AnomalyDetectionService(events::add, 0.02, 5, 30, 100);
+  }
+
+  /* Ordinary sensor noise raises nothing */
+  @Test
+  public void testNoiseIsNotFlagged() {
+    for (int i = 0; i < 2_000; i++) {
+      feed(1, i, 20 + random.nextGaussian() * 0.2, 101_300 + random.nextGaussian() * 20);
+    }
+
+    assertTrue(events.isEmpty());
+  }
+
+  /* A sudden pressure drop is flagged once and logged */
+  @Test
+  public void testPressureDropIsFlagged() {
+    for (int i = 0; i < 200; i++) {
+      feed(1, i, 20 + random.nextGaussian() * 0.2, 101_300 + random.nextGaussian() * 20);
+    }
+    feed(1, 200, 20.0, 100_900);
+
+    assertEquals(1, events.size());
+    AnomalyEvent anomaly = (AnomalyEvent) events.get(0);
+    assertEquals("pressure", anomaly.field());
+    assertEquals(100_900, anomaly.value(), 1e-9);
+    assertEquals(101_300, anomaly.expected(), 10);
+    assertTrue(anomaly.zScore() < -5);
+    assertEquals(List.of(anomaly), service.getAnomalies(1, null, 10));
+    assertTrue(service.getAnomalies(2, null, 10).isEmpty());
+  }
+
+  /* Nothing is flagged during warm-up, and late readings are ignored */
+  @Test
+  public void testWarmupAndLateReadings() {
+    for (int i = 0; i < 20; i++) {
+      feed(1, i, i % 2 == 0 ? 10 : 30, 101_300);
+    }
+    feed(1, 25, 20, 101_300);
+    feed(1, 24, 500, 101_300);
+
+    assertTrue(events.isEmpty());
+  }
+
+  /* A single spike does not mask the next one */
+  @Test
+  public void testSpikeDoesNotInflateVariance() {
+    for (int i = 0; i < 200; i++) {
+      feed(1, i, 20 + random.nextGaussian() * 0.2, 101_300);
+    }
+    feed(1, 200, 40, 101_300);
+    feed(1, 201, 20, 101_300);
+    feed(1, 202, 24, 101_300);
+
+    assertEquals(2, events.size());
+  }
+
+  @Test
+  public void testLogKeepsNewestAndFiltersBySince() {
+    AnomalyLog anomalyLog = new AnomalyLog(3);
+    for (int i = 0; i < 5; i++) {
+      anomalyLog.add(new AnomalyEvent(i % 2, "temperature", i * 1000L, 0, 0, 5));
+    }
+
+    List<AnomalyEvent> all = anomalyLog.query(null, null, 10);
+    assertEquals(3, all.size());
+    assertEquals(4000L, all.get(0).timestamp());
+    assertEquals(2, anomalyLog.query(0, null, 10).size());
+    assertEquals(2, anomalyLog.query(null, 3000L, 10).size());
+    assertEquals(1, anomalyLog.query(null, null, 1).size());
+  }
+
+  private void feed(int buoyId, int second, double temperature, double pressure) {
+    service.onReading(
+        new BuoyReadingEvent(
+            new BuoyResponse(
+                buoyId, START.plusSeconds(second), temperature, pressure, 42.0, -70.0)));
+  }
+}
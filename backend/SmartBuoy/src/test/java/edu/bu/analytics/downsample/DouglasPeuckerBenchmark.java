@@ -0,0 +1,47 @@
+package edu.bu.analytics.downsample;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Measures Douglas-Peucker on a million-fix drifting track. Run with ./gradlew benchmark. */
+@Tag("Benchmark")
+public class DouglasPeuckerBenchmark {
+
+  private static final int POINTS = 1_000_000;
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int MEASURED_ROUNDS = 20;
+
+  @Test
+  public void benchmarkMillionPointTrack() {
+    // Metres east and north of a buoy drifting with the current plus GPS noise.
+    double[] x = new double[POINTS];
+    double[] y = new double[POINTS];
+    Random random = new Random(42);
+    double heading = 0;
+    for (int i = 1; i < POINTS; i++) {
+      heading += random.nextGaussian() * 0.05;
+      x[i] = x[i - 1] + Math.sin(heading) * 0.5 + random.nextGaussian() * 0.2;
+      y[i] = y[i - 1] + Math.cos(heading) * 0.5 + random.nextGaussian() * 0.2;
+    }
+
+    for (double tolerance : new double[] {1, 10, 100}) {
+      for (int i = 0; i < WARMUP_ROUNDS; i++) {
+        DouglasPeucker.simplify(x, y, tolerance);
+      }
+      long start = System.nanoTime();
+      int[] kept = null;
+      for (int i = 0; i < MEASURED_ROUNDS; i++) {
+        kept = DouglasPeucker.simplify(x, y, tolerance);
+      }
+      double millis = (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+
+      assertTrue(kept.length < POINTS);
+      System.out.printf(
+          "Douglas-Peucker %,d points, %.0f m -> %,d: %.2f ms/op%n",
+          POINTS, tolerance, kept.length, millis);
+    }
+  }
+}
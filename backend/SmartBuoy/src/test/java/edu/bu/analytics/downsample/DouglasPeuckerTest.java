@@ -0,0 +1,94 @@
+package edu.bu.analytics.downsample;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.bu.data.BuoyResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class DouglasPeuckerTest {
+
+  @Test
+  public void testStraightLineKeepsOnlyEnds() {
+    double[] x = new double[100];
+    double[] y = new double[100];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = i;
+      y[i] = 2 * i;
+    }
+
+    assertArrayEquals(new int[] {0, 99}, DouglasPeucker.simplify(x, y, 0.001));
+  }
+
+  @Test
+  public void testKeepsCornerBeyondTolerance() {
+    double[] x = {0, 1, 2, 3, 4, 5, 6};
+    double[] y = {0, 0.1, 0, 3, 0, 0.1, 0};
+
+    assertArrayEquals(new int[] {0, 2, 3, 4, 6}, DouglasPeucker.simplify(x, y, 0.5));
+    assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6}, DouglasPeucker.simplify(x, y, 0));
+  }
+
+  /* Every dropped point of a million-point random walk lies within tolerance of the result */
+  @Test
+  public void testDroppedPointsWithinToleranceOnLongTrack() {
+    Random random = new Random(9);
+    int size = 1_000_000;
+    double[] x = new double[size];
+    double[] y = new double[size];
+    for (int i = 1; i < size; i++) {
+      x[i] = x[i - 1] + random.nextGaussian();
+      y[i] = y[i - 1] + random.nextGaussian();
+    }
+
+    int[] kept = DouglasPeucker.simplify(x, y, 25);
+
+    assertEquals(0, kept[0]);
+    assertEquals(size - 1, kept[kept.length - 1]);
+    assertTrue(kept.length < size / 10);
+    for (int k = 0; k + 1 < kept.length; k++) {
+      int a = kept[k];
+      int b = kept[k + 1];
+      for (int i = a + 1; i < b; i++) {
+        assertTrue(segmentDistance(x, y, i, a, b) <= 25);
+      }
+    }
+  }
+
+  @Test
+  public void testSimplifyTrackUsesMetres() {
+    // A straight track north with one fix 0.0005 degrees (about 41 m at 42°N) to the east.
+    List<BuoyResponse> track = new ArrayList<>();
+    Instant start = Instant.now();
+    for (int i = 0; i < 11; i++) {
+      double lon = i == 5 ? -69.9995 : -70.0;
+      track.add(new BuoyResponse(1, start.plusSeconds(i), 20.0, 1.0, 42.0 + i * 0.001, lon));
+    }
+
+    assertTrue(HistoryDownsampler.simplifyTrack(track, 30).contains(track.get(5)));
+    assertEquals(
+        List.of(track.get(0), track.get(10)), HistoryDownsampler.simplifyTrack(track, 50));
+  }
+
+  @Test
+  public void testToleranceForZoom() {
+    assertEquals(156_543.03, HistoryDownsampler.toleranceForZoom(0, 0), 0.01);
+    assertEquals(1.19, HistoryDownsampler.toleranceForZoom(17, 0), 0.01);
+    assertEquals(0.30, HistoryDownsampler.toleranceForZoom(18, 60), 0.01);
+    assertThrows(IllegalArgumentException.class, () -> HistoryDownsampler.toleranceForZoom(25, 0));
+  }
+
+  private static double segmentDistance(double[] x, double[] y, int p, int a, int b) {
+    double dx = x[b] - x[a];
+    double dy = y[b] - y[a];
+    double lengthSquared = dx * dx + dy * dy;
+    double t =
+        lengthSquared == 0
+            ? 0
+            : Math.max(0, Math.min(1, ((x[p] - x[a]) * dx + (y[p] - y[a]) * dy) / lengthSquared));
+    return Math.hypot(x[p] - x[a] - t * dx, y[p] - y[a] - t * dy);
+  }
+}
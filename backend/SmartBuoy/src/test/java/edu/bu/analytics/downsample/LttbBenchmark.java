@@ -0,0 +1,46 @@
+package edu.bu.analytics.downsample;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Measures LTTB on one week of 1 Hz readings. Run with ./gradlew benchmark. */
+@Tag("Benchmark")
+public class LttbBenchmark {
+
+  private static final int WEEK_AT_1HZ = 7 * 24 * 3600;
+  private static final int WARMUP_ROUNDS = 20;
+  private static final int MEASURED_ROUNDS = 50;
+
+  @Test
+  public void benchmarkWeekOfOneHertzData() {
+    double[] x = new double[WEEK_AT_1HZ];
+    double[] y = new double[WEEK_AT_1HZ];
+    Random random = new Random(42);
+    double pressure = 1013.0;
+    for (int i = 0; i < WEEK_AT_1HZ; i++) {
+      x[i] = i * 1000.0;
+      pressure += random.nextGaussian() * 0.05;
+      y[i] = pressure;
+    }
+
+    for (int threshold : new int[] {500, 2000, 10000}) {
+      for (int i = 0; i < WARMUP_ROUNDS; i++) {
+        Lttb.downsample(x, y, threshold);
+      }
+      long start = System.nanoTime();
+      int[] kept = null;
+      for (int i = 0; i < MEASURED_ROUNDS; i++) {
+        kept = Lttb.downsample(x, y, threshold);
+      }
+      double millis = (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+
+      assertEquals(threshold, kept.length);
+      System.out.printf(
+          "LTTB %,d points -> %,d: %.2f ms/op (%.1f Mpoints/s)%n",
+          WEEK_AT_1HZ, threshold, millis, WEEK_AT_1HZ / millis / 1000);
+    }
+  }
+}
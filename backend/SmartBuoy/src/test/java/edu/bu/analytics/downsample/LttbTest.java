@@ -0,0 +1,88 @@
+package edu.bu.analytics.downsample;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.bu.data.BuoyResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class LttbTest {
+
+  @Test
+  public void testKeepsFirstAndLastAndHonoursThreshold() {
+    double[] x = new double[1000];
+    double[] y = new double[1000];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = i;
+      y[i] = Math.sin(i / 20.0);
+    }
+
+    int[] kept = Lttb.downsample(x, y, 50);
+
+    assertEquals(50, kept.length);
+    assertEquals(0, kept[0]);
+    assertEquals(999, kept[49]);
+    for (int i = 1; i < kept.length; i++) {
+      assertTrue(kept[i] > kept[i - 1]);
+    }
+  }
+
+  @Test
+  public void testKeepsIsolatedSpike() {
+    double[] x = new double[500];
+    double[] y = new double[500];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = i;
+      y[i] = 1013.0;
+    }
+    y[321] = 980.0;
+
+    int[] kept = Lttb.downsample(x, y, 20);
+
+    boolean spikeKept = false;
+    for (int index : kept) {
+      spikeKept |= index == 321;
+    }
+    assertTrue(spikeKept);
+  }
+
+  @Test
+  public void testReturnsEverythingWhenBelowThreshold() {
+    int[] kept = Lttb.downsample(new double[] {1, 2, 3}, new double[] {4, 5, 6}, 10);
+
+    assertArrayEquals(new int[] {0, 1, 2}, kept);
+  }
+
+  @Test
+  public void testRejectsThresholdBelowThree() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> Lttb.downsample(new double[] {1, 2, 3}, new double[] {4, 5, 6}, 2));
+  }
+
+  @Test
+  public void testHistoryDownsamplerKeepsTrackTurn() {
+    Instant start = Instant.now();
+    List<BuoyResponse> history = new ArrayList<>();
+    // Drift east for 100 fixes, then north for 100: the corner must survive simplification.
+    for (int i = 0; i < 100; i++) {
+      history.add(new BuoyResponse(1, start.plusSeconds(i), 20, 1013, 42.0, -70.0 + i * 1e-4));
+    }
+    for (int i = 0; i < 100; i++) {
+      history.add(
+          new BuoyResponse(1, start.plusSeconds(100 + i), 20, 1013, 42.0 + i * 1e-4, -69.99));
+    }
+
+    List<BuoyResponse> kept = HistoryDownsampler.downsample(history, "location", 10);
+
+    Instant lastEast = start.plusSeconds(99);
+    Instant firstNorth = start.plusSeconds(100);
+    assertEquals(10, kept.size());
+    assertTrue(
+        kept.stream()
+            .map(BuoyResponse::getTimestamp)
+            .anyMatch(time -> time.equals(lastEast) || time.equals(firstNorth)));
+  }
+}
@@ -0,0 +1,80 @@
+package edu.bu.analytics.geofence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class CorridorFenceTest {
+
+  // An L-shaped lane: 0.1 degree east along 42°N, then 0.1 degree north.
+  private static final List<double[]> LANE =
+      List.of(
+          new double[] {42.0, -70.0}, new double[] {42.0, -69.9}, new double[] {42.1, -69.9});
+
+  @Test
+  public void testPointsNearTheLaneAreInside() {
+    CorridorFence fence = new CorridorFence(LANE, 100);
+
+    assertFalse(fence.isOutside(42.0, -69.95));
+    assertFalse(fence.isOutside(42.0005, -69.95));
+    assertTrue(fence.isOutside(42.002, -69.95));
+    assertFalse(fence.isOutside(42.05, -69.9005));
+    assertTrue(fence.isOutside(42.05, -69.95));
+    assertTrue(fence.isOutside(43.0, -69.9));
+    assertEquals("corridor", fence.type());
+  }
+
+  /* Grid lookups agree with measuring the distance to every segment */
+  @Test
+  public void testAgreesWithBruteForceOnLongPath() {
+    Random random = new Random(11);
+    List<double[]> path = new ArrayList<>();
+    double lat = 42.0;
+    double lon = -70.0;
+    for (int i = 0; i < 500; i++) {
+      path.add(new double[] {lat, lon});
+      lat += (random.nextDouble() - 0.3) * 0.002;
+      lon += (random.nextDouble() - 0.3) * 0.002;
+    }
+    CorridorFence fence = new CorridorFence(path, 75);
+    LocalProjection projection = new LocalProjection(path.get(0)[0], path.get(0)[1]);
+
+    for (int i = 0; i < 20_000; i++) {
+      double[] near = path.get(random.nextInt(path.size()));
+      double pointLat = near[0] + (random.nextDouble() - 0.5) * 0.004;
+      double pointLon = near[1] + (random.nextDouble() - 0.5) * 0.004;
+      double pointEast = projection.east(pointLon);
+      double pointNorth = projection.north(pointLat);
+      double nearest = Double.POSITIVE_INFINITY;
+      for (int segment = 0; segment < path.size() - 1; segment++) {
+        double[] start = path.get(segment);
+        double[] end = path.get(segment + 1);
+        nearest =
+            Math.min(
+                nearest,
+                LocalProjection.segmentDistance(
+                    pointEast,
+                    pointNorth,
+                    projection.east(start[1]),
+                    projection.north(start[0]),
+                    projection.east(end[1]),
+                    projection.north(end[0])));
+      }
+      assertEquals(nearest > 75, fence.isOutside(pointLat, pointLon));
+    }
+  }
+
+  @Test
+  public void testMarginChangesTheHalfWidth() {
+    CorridorFence fence = new CorridorFence(LANE, 100);
+
+    assertEquals(150, fence.withMargin(50).halfWidthMeters(), 1e-9);
+    assertEquals(1, fence.withMargin(-500).halfWidthMeters(), 1e-9);
+    assertThrows(IllegalArgumentException.class, () -> new CorridorFence(LANE, 0));
+    assertThrows(
+        IllegalArgumentException.class, () -> new CorridorFence(List.of(LANE.get(0)), 100));
+  }
+}
@@ -0,0 +1,72 @@
+package edu.bu.analytics.geofence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.bu.data.Deployment;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class DeploymentGeometryTest {
+
+  /* The fast path agrees with haversine for points clustered around the boundary */
+  @Test
+  public void testAgreesWithHaversineNearBoundary() {
+    Random random = new Random(3);
+    for (int fence = 0; fence < 500; fence++) {
+      double lat = random.nextDouble() * 178 - 89;
+      double lon = random.nextDouble() * 360 - 180;
+      double radius = Math.pow(10, 1 + random.nextDouble() * 5.5);
+      DeploymentGeometry geometry = new DeploymentGeometry(lat, lon, radius);
+
+      for (int i = 0; i < 400; i++) {
+        double distance = radius * (1 + (random.nextDouble() - 0.5) * 0.2);
+        double[] point = destination(lat, lon, random.nextDouble() * 2 * Math.PI, distance);
+        boolean expected = GeoUtils.distanceMeters(lat, lon, point[0], point[1]) > radius;
+        assertEquals(expected, geometry.isOutside(point[0], point[1]));
+      }
+    }
+  }
+
+  /* Points far away, including across the antimeridian, are classified by the box check */
+  @Test
+  public void testAntimeridianAndFarPoints() {
+    DeploymentGeometry geometry = new DeploymentGeometry(0.0, 179.999, 1_000);
+
+    assertFalse(geometry.isOutside(0.0, -179.9995));
+    assertTrue(geometry.isOutside(0.0, -179.98));
+    assertTrue(geometry.isOutside(45.0, 0.0));
+  }
+
+  @Test
+  public void testClassifyBatch() {
+    DeploymentGeometry geometry = DeploymentGeometry.of(new Deployment(1, 42.0, -70.0, 50, 0));
+    double[] lats = {42.0, 42.0001, 42.01, 41.99};
+    double[] lons = {-70.0, -70.0001, -70.01, -70.0};
+    boolean[] outside = new boolean[4];
+
+    assertEquals(2, geometry.classify(lats, lons, outside));
+    assertFalse(outside[0]);
+    assertFalse(outside[1]);
+    assertTrue(outside[2]);
+    assertTrue(outside[3]);
+  }
+
+  /** Point at the given bearing and great-circle distance from the start. */
+  static double[] destination(double lat, double lon, double bearing, double meters) {
+    double angular = meters / GeoUtils.EARTH_RADIUS;
+    double phi = Math.toRadians(lat);
+    double lambda = Math.toRadians(lon);
+    double phi2 =
+        Math.asin(
+            Math.sin(phi) * Math.cos(angular)
+                + Math.cos(phi) * Math.sin(angular) * Math.cos(bearing));
+    double lambda2 =
+        lambda
+            + Math.atan2(
+                Math.sin(bearing) * Math.sin(angular) * Math.cos(phi),
+                Math.cos(angular) - Math.sin(phi) * Math.sin(phi2));
+    double lon2 = Math.toDegrees(lambda2);
+    lon2 = ((lon2 + 540) % 360) - 180;
+    return new double[] {Math.toDegrees(phi2), lon2};
+  }
+}
@@ -0,0 +1,72 @@
+package edu.bu.analytics.geofence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.bu.data.Deployment;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+public class FenceTrackerTest {
+
+  private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+  private static final Deployment FENCE = new Deployment(1, 42.0, -70.0, 100, 0);
+
+  private final FenceTracker tracker = new FenceTracker(FENCE, 10, Duration.ofSeconds(60));
+
+  /* Readings inside the hysteresis band never leave the fence */
+  @Test
+  public void testHysteresisBandDoesNotTransition() {
+    for (int i = 0; i < 10; i++) {
+      assertEquals(Optional.empty(), update(T0.plusSeconds(i * 30L), 105));
+    }
+    assertEquals(FenceState.INSIDE, tracker.state());
+  }
+
+  /* Leaving needs every reading beyond the margin for the whole dwell time */
+  @Test
+  public void testExitAfterDwell() {
+    assertEquals(Optional.empty(), update(T0, 150));
+    assertEquals(Optional.empty(), update(T0.plusSeconds(30), 150));
+    assertEquals(Optional.of(FenceState.OUTSIDE), update(T0.plusSeconds(60), 150));
+    assertEquals(Optional.empty(), update(T0.plusSeconds(90), 150));
+  }
+
+  /* A reading back within the margin restarts the dwell */
+  @Test
+  public void testBriefExcursionIsIgnored() {
+    update(T0, 150);
+    update(T0.plusSeconds(50), 100);
+    assertEquals(Optional.empty(), update(T0.plusSeconds(70), 150));
+    assertEquals(Optional.empty(), update(T0.plusSeconds(100), 150));
+    assertEquals(Optional.of(FenceState.OUTSIDE), update(T0.plusSeconds(130), 150));
+  }
+
+  /* Returning needs a distance within the radius minus the margin */
+  @Test
+  public void testReturnNeedsInnerThreshold() {
+    update(T0, 150);
+    update(T0.plusSeconds(60), 150);
+
+    update(T0.plusSeconds(120), 95);
+    assertEquals(Optional.empty(), update(T0.plusSeconds(180), 95));
+    update(T0.plusSeconds(240), 50);
+    assertEquals(Optional.of(FenceState.INSIDE), update(T0.plusSeconds(300), 50));
+  }
+
+  /* Late readings do not count toward or against a transition */
+  @Test
+  public void testOutOfOrderReadingsIgnored() {
+    update(T0.plusSeconds(60), 150);
+    assertEquals(Optional.empty(), update(T0, 150));
+    assertEquals(Optional.of(FenceState.OUTSIDE), update(T0.plusSeconds(120), 150));
+  }
+
+  /** Feeds a reading the given distance due north of the fence centre. */
+  private Optional<FenceState> update(Instant timestamp, double distanceMeters) {
+    double lat = FENCE.lat + Math.toDegrees(distanceMeters / GeoUtils.EARTH_RADIUS);
+    return tracker.update(timestamp, lat, FENCE.lon);
+  }
+}
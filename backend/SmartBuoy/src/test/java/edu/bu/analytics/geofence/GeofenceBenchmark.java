@@ -0,0 +1,71 @@
+package edu.bu.analytics.geofence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.bu.data.Deployment;
+import java.util.Random;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares per-reading haversine fence checks with the precomputed {@link DeploymentGeometry}.
+ * Run with ./gradlew benchmark.
+ */
+@Tag("Benchmark")
+public class GeofenceBenchmark {
+
+  private static final int POINTS = 1_000_000;
+  private static final int WARMUP_ROUNDS = 10;
+  private static final int MEASURED_ROUNDS = 30;
+
+  @Test
+  public void benchmarkFenceChecks() {
+    Deployment deployment = new Deployment(1, 42.35, -70.95, 500, 0);
+    DeploymentGeometry geometry = DeploymentGeometry.of(deployment);
+
+    // Readings scattered up to twice the radius from the centre, as a drifting buoy reports.
+    Random random = new Random(42);
+    double[] lats = new double[POINTS];
+    double[] lons = new double[POINTS];
+    for (int i = 0; i < POINTS; i++) {
+      double[] point =
+          DeploymentGeometryTest.destination(
+              deployment.lat,
+              deployment.lon,
+              random.nextDouble() * 2 * Math.PI,
+              random.nextDouble() * 2 * deployment.allowedRadiusMeters);
+      lats[i] = point[0];
+      lons[i] = point[1];
+    }
+    boolean[] outside = new boolean[POINTS];
+
+    int[] haversineOutside = new int[1];
+    measure(
+        "haversine",
+        () -> {
+          int count = 0;
+          for (int i = 0; i < POINTS; i++) {
+            if (GeofenceService.isOutsideFence(deployment, lats[i], lons[i])) {
+              count++;
+            }
+          }
+          haversineOutside[0] = count;
+        });
+    int[] geometryOutside = new int[1];
+    measure("geometry", () -> geometryOutside[0] = geometry.classify(lats, lons, outside));
+
+    assertEquals(haversineOutside[0], geometryOutside[0]);
+  }
+
+  private static void measure(String name, Runnable round) {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      round.run();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      round.run();
+    }
+    double nanosPerCheck = (double) (System.nanoTime() - start) / MEASURED_ROUNDS / POINTS;
+    System.out.printf("%-9s %,d checks: %.1f ns/check%n", name, POINTS, nanosPerCheck);
+  }
+}
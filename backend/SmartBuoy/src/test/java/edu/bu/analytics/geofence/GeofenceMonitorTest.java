@@ -0,0 +1,56 @@
+package edu.bu.analytics.geofence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.bu.data.BuoyReadingEvent;
+import edu.bu.data.BuoyResponse;
+import edu.bu.data.Deployment;
+import edu.bu.data.DeploymentSavedEvent;
+import edu.bu.data.InMemoryStore;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class GeofenceMonitorTest {
+
+  private final List<Object> events = new ArrayList<>();
+  private GeofenceMonitor monitor;
+
+  @BeforeEach
+  public void setUp() {
+    monitor = new GeofenceMonitor(new InMemoryStore(), events::add, 10, 0);
+  }
+
+  /* A buoy that stays outside raises one transition, not one per reading */
+  @Test
+  public void testPublishesOnlyTransitions() {
+    monitor.onDeployment(new DeploymentSavedEvent(new Deployment(1, 42.0, -70.0, 50, 0)));
+    Instant now = Instant.now();
+
+    for (int i = 0; i < 5; i++) {
+      monitor.onReading(reading(now.plusSeconds(i), 42.01, -70.0));
+    }
+    monitor.onReading(reading(now.plusSeconds(10), 42.0, -70.0));
+
+    assertEquals(2, events.size());
+    GeofenceTransitionEvent left = (GeofenceTransitionEvent) events.get(0);
+    assertEquals(FenceState.OUTSIDE, left.current());
+    assertEquals(FenceState.INSIDE, ((GeofenceTransitionEvent) events.get(1)).current());
+    assertEquals(Optional.of(FenceState.INSIDE), monitor.getState(1));
+  }
+
+  @Test
+  public void testUndeployedBuoyIsNotTracked() {
+    monitor.onReading(reading(Instant.now(), 10.0, 10.0));
+
+    assertTrue(events.isEmpty());
+    assertEquals(Optional.empty(), monitor.getState(1));
+  }
+
+  private static BuoyReadingEvent reading(Instant timestamp, double lat, double lon) {
+    return new BuoyReadingEvent(new BuoyResponse(1, timestamp, 20.0, 101300.0, lat, lon));
+  }
+}
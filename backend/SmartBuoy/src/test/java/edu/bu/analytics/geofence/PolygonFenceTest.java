@@ -0,0 +1,100 @@
+package edu.bu.analytics.geofence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class PolygonFenceTest {
+
+  // A 0.1 degree square around (42.05, -69.95) with a 0.02 degree square hole in the middle.
+  private static final List<double[]> OUTLINE =
+      List.of(
+          new double[] {42.0, -70.0},
+          new double[] {42.0, -69.9},
+          new double[] {42.1, -69.9},
+          new double[] {42.1, -70.0});
+  private static final List<double[]> HOLE =
+      List.of(
+          new double[] {42.04, -69.96},
+          new double[] {42.04, -69.94},
+          new double[] {42.06, -69.94},
+          new double[] {42.06, -69.96});
+
+  @Test
+  public void testSquareWithHole() {
+    PolygonFence fence = new PolygonFence(List.of(OUTLINE, HOLE));
+
+    assertFalse(fence.isOutside(42.02, -69.98));
+    assertTrue(fence.isOutside(42.05, -69.95));
+    assertTrue(fence.isOutside(42.2, -69.95));
+    assertTrue(fence.isOutside(42.05, -70.05));
+    assertEquals("polygon", fence.type());
+  }
+
+  /* Slab lookups agree with a plain crossing count over every edge of a concave polygon */
+  @Test
+  public void testAgreesWithBruteForceOnStar() {
+    Random random = new Random(7);
+    List<double[]> star = new ArrayList<>();
+    for (int i = 0; i < 400; i++) {
+      double angle = 2 * Math.PI * i / 400;
+      double radius = i % 2 == 0 ? 0.1 : 0.03 + random.nextDouble() * 0.05;
+      star.add(new double[] {42.0 + radius * Math.sin(angle), -70.0 + radius * Math.cos(angle)});
+    }
+    PolygonFence fence = new PolygonFence(List.of(star));
+
+    for (int i = 0; i < 20_000; i++) {
+      double lat = 42.0 + (random.nextDouble() - 0.5) * 0.25;
+      double lon = -70.0 + (random.nextDouble() - 0.5) * 0.25;
+      assertEquals(!bruteForceContains(star, lat, lon), fence.isOutside(lat, lon));
+    }
+  }
+
+  @Test
+  public void testMarginsGrowAndShrinkTheFence() {
+    PolygonFence fence = new PolygonFence(List.of(OUTLINE));
+    // Roughly 22 m north of the northern edge, and 22 m south of it.
+    double outsideLat = 42.1 + 0.0002;
+    double insideLat = 42.1 - 0.0002;
+
+    assertTrue(fence.isOutside(outsideLat, -69.95));
+    assertFalse(fence.withMargin(50).isOutside(outsideLat, -69.95));
+    assertTrue(fence.withMargin(10).isOutside(outsideLat, -69.95));
+
+    assertFalse(fence.isOutside(insideLat, -69.95));
+    assertTrue(fence.withMargin(-50).isOutside(insideLat, -69.95));
+    assertFalse(fence.withMargin(-10).isOutside(insideLat, -69.95));
+    assertFalse(fence.withMargin(-50).isOutside(42.05, -69.95));
+  }
+
+  @Test
+  public void testRejectsInvalidRings() {
+    assertThrows(IllegalArgumentException.class, () -> new PolygonFence(List.of()));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new PolygonFence(List.of(List.of(new double[] {42, -70}, new double[] {43, -70}))));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new PolygonFence(
+                List.of(
+                    List.of(
+                        new double[] {42, -70}, new double[] {95, -70}, new double[] {42, -69}))));
+  }
+
+  private static boolean bruteForceContains(List<double[]> ring, double lat, double lon) {
+    boolean inside = false;
+    for (int i = 0, j = ring.size() - 1; i < ring.size(); j = i++) {
+      double[] a = ring.get(i);
+      double[] b = ring.get(j);
+      if ((a[0] > lat) != (b[0] > lat)
+          && lon < a[1] + (lat - a[0]) * (b[1] - a[1]) / (b[0] - a[0])) {
+        inside = !inside;
+      }
+    }
+    return inside;
+  }
+}
@@ -0,0 +1,93 @@
+package edu.bu.analytics.kinematics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+public class KinematicsTrackerTest {
+
+  private static final Instant START = Instant.parse("2024-06-01T00:00:00Z");
+  // One ten-thousandth of a degree of latitude is about 11.1 m.
+  private static final double STEP_DEGREES = 0.0001;
+
+  private final KinematicsTracker tracker = new KinematicsTracker(1, 10, 15, 5);
+
+  /* A buoy drifting steadily north-east yields its speed, heading and path length */
+  @Test
+  public void testSteadyDrift() {
+    double cosLat = Math.cos(Math.toRadians(42.0));
+    for (int i = 0; i < 20; i++) {
+      tracker.update(
+          START.plusSeconds(10L * i), 42.0 + i * STEP_DEGREES, -70.0 + i * STEP_DEGREES / cosLat);
+    }
+
+    DriftKinematics kinematics = tracker.snapshot();
+    double stepMeters = Math.hypot(11.1195, 11.1195);
+    assertEquals(stepMeters / 10, kinematics.speedMetersPerSecond(), 0.01);
+    assertEquals(45, kinematics.headingDegrees(), 0.1);
+    assertEquals(19 * stepMeters, kinematics.driftMeters(), 0.5);
+    assertEquals(10, kinematics.fixes());
+    assertEquals(START.toEpochMilli(), kinematics.since());
+  }
+
+  /* A single jump far beyond the speed limit is dropped without moving the buoy */
+  @Test
+  public void testRejectsOutlier() {
+    tracker.update(START, 42.0, -70.0);
+    tracker.update(START.plusSeconds(10), 42.0 + STEP_DEGREES, -70.0);
+
+    assertFalse(tracker.update(START.plusSeconds(20), 43.0, -70.0));
+    assertTrue(tracker.update(START.plusSeconds(30), 42.0 + 2 * STEP_DEGREES, -70.0));
+
+    DriftKinematics kinematics = tracker.snapshot();
+    assertEquals(1, kinematics.rejectedFixes());
+    assertEquals(3, kinematics.fixes());
+    assertEquals(0, kinematics.headingDegrees(), 0.1);
+  }
+
+  /* Repeated far fixes mean the buoy was moved, so the window restarts there */
+  @Test
+  public void testRestartsAfterRepeatedRejections() {
+    tracker.update(START, 42.0, -70.0);
+    for (int i = 1; i < KinematicsTracker.RESTART_AFTER_REJECTIONS; i++) {
+      assertFalse(tracker.update(START.plusSeconds(i), 43.0, -70.0));
+    }
+    assertTrue(
+        tracker.update(
+            START.plusSeconds(KinematicsTracker.RESTART_AFTER_REJECTIONS), 43.0, -70.0));
+
+    DriftKinematics kinematics = tracker.snapshot();
+    assertEquals(1, kinematics.fixes());
+    assertNull(kinematics.speedMetersPerSecond());
+    assertEquals(0, kinematics.driftMeters(), 1e-9);
+  }
+
+  /* Jitter below the minimum step and stale fixes add no drift */
+  @Test
+  public void testIgnoresJitterAndStaleFixes() {
+    tracker.update(START, 42.0, -70.0);
+    for (int i = 1; i <= 30; i++) {
+      double jitter = (i % 2 == 0 ? 1 : -1) * 0.00002;
+      tracker.update(START.plusSeconds(i), 42.0 + jitter, -70.0);
+    }
+    assertFalse(tracker.update(START, 42.001, -70.0));
+
+    DriftKinematics kinematics = tracker.snapshot();
+    assertEquals(0, kinematics.driftMeters(), 1e-9);
+    // Fitting over the window keeps jitter of a few metres per second well below walking pace.
+    assertTrue(kinematics.speedMetersPerSecond() < 0.5);
+  }
+
+  @Test
+  public void testResetDriftOnDeployment() {
+    tracker.update(START, 42.0, -70.0);
+    tracker.update(START.plusSeconds(60), 42.001, -70.0);
+    tracker.resetDrift(START.plusSeconds(60).toEpochMilli());
+    tracker.update(START.plusSeconds(120), 42.001 + STEP_DEGREES, -70.0);
+
+    DriftKinematics kinematics = tracker.snapshot();
+    assertEquals(11.1, kinematics.driftMeters(), 0.1);
+    assertEquals(START.plusSeconds(60).toEpochMilli(), kinematics.since());
+  }
+}
@@ -0,0 +1,112 @@
+package edu.bu.analytics.stats;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class SeriesIndexTest {
+
+  private static final double EPSILON = 1e-6;
+
+  /* Window stats match a direct computation over the same readings */
+  @Test
+  public void testStatsMatchBruteForce() {
+    Random random = new Random(42);
+    SeriesIndex index = new SeriesIndex();
+    long[] times = new long[1000];
+    double[] values = new double[1000];
+    for (int i = 0; i < times.length; i++) {
+      times[i] = i * 1000L;
+      values[i] = 101325.0 + random.nextGaussian() * 0.01;
+      index.append(times[i], values[i]);
+    }
+
+    for (int trial = 0; trial < 200; trial++) {
+      int from = random.nextInt(times.length);
+      int to = from + random.nextInt(times.length - from);
+      WindowStats stats = index.stats(times[from], times[to]);
+      assertStatsMatch(values, times, from, to, stats);
+    }
+  }
+
+  /* Aged-out readings leave the window and later appends still index correctly */
+  @Test
+  public void testTrimAndGrow() {
+    SeriesIndex index = new SeriesIndex();
+    long[] times = new long[500];
+    double[] values = new double[500];
+    for (int i = 0; i < times.length; i++) {
+      times[i] = i * 1000L;
+      values[i] = Math.sin(i / 10.0) * 5 + 20;
+      index.append(times[i], values[i]);
+      if (i % 50 == 49) {
+        index.trimBefore(times[i - 40]);
+      }
+    }
+
+    assertEquals(41, index.size());
+    assertStatsMatch(values, times, 459, 499, index.stats(0, Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testEmptyAndSingleReadingWindows() {
+    SeriesIndex index = new SeriesIndex();
+    assertEquals(0, index.stats(0, Long.MAX_VALUE).count());
+
+    index.append(1000, 20.0);
+    WindowStats single = index.stats(0, 2000);
+    assertEquals(1, single.count());
+    assertEquals(20.0, single.mean());
+    assertNull(single.stddev());
+    assertNull(single.ratePerHour());
+    assertEquals(0, index.stats(2000, 3000).count());
+  }
+
+  /* Rate of change is expressed per hour between the first and last readings */
+  @Test
+  public void testRatePerHour() {
+    SeriesIndex index = new SeriesIndex();
+    index.append(0, 10.0);
+    index.append(1_800_000, 11.0);
+    index.append(3_600_000, 13.0);
+
+    assertEquals(3.0, index.stats(0, 3_600_000).ratePerHour(), EPSILON);
+    assertEquals(2.0, index.stats(0, 1_800_000).ratePerHour(), EPSILON);
+  }
+
+  @Test
+  public void testOutOfOrderAppendRejected() {
+    SeriesIndex index = new SeriesIndex();
+    index.append(2000, 1.0);
+    assertThrows(IllegalArgumentException.class, () -> index.append(1000, 2.0));
+  }
+
+  private static void assertStatsMatch(
+      double[] values, long[] times, int from, int to, WindowStats stats) {
+    int count = to - from + 1;
+    double min = Double.POSITIVE_INFINITY;
+    double max = Double.NEGATIVE_INFINITY;
+    double sum = 0;
+    for (int i = from; i <= to; i++) {
+      min = Math.min(min, values[i]);
+      max = Math.max(max, values[i]);
+      sum += values[i];
+    }
+    double mean = sum / count;
+    double squares = 0;
+    for (int i = from; i <= to; i++) {
+      squares += (values[i] - mean) * (values[i] - mean);
+    }
+
+    assertEquals(count, stats.count());
+    assertEquals(min, stats.min());
+    assertEquals(max, stats.max());
+    assertEquals(mean, stats.mean(), EPSILON);
+    if (count > 1) {
+      assertEquals(Math.sqrt(squares / (count - 1)), stats.stddev(), EPSILON * 1e-3);
+      double rate = (values[to] - values[from]) / ((times[to] - times[from]) / 3_600_000.0);
+      assertEquals(rate, stats.ratePerHour(), EPSILON);
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package edu.bu.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.bu.data.BuoyReadingEvent;
+import edu.bu.data.BuoyResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+
+public class EventConfigTest {
+
+  /* A listener that throws neither skips the listeners after it nor fails the publisher */
+  @Test
+  public void testFailingListenerDoesNotSkipOthers() {
+    SimpleApplicationEventMulticaster multicaster = EventConfig.applicationEventMulticaster();
+    List<Object> received = new ArrayList<>();
+    ApplicationListener<ApplicationEvent> failing =
+        event -> {
+          throw new IllegalStateException("listener failed");
+        };
+    ApplicationListener<ApplicationEvent> recording = received::add;
+    multicaster.addApplicationListener(failing);
+    multicaster.addApplicationListener(recording);
+
+    BuoyReadingEvent reading =
+        new BuoyReadingEvent(new BuoyResponse(1, Instant.now(), 20.0, 101300.0, 42.0, -70.0));
+    assertDoesNotThrow(
+        () -> multicaster.multicastEvent(new PayloadApplicationEvent<>(this, reading)));
+
+    assertEquals(1, received.size());
+  }
+}
@@ -3,8 +3,10 @@ package edu.bu.data;
 import static org.junit.jupiter.api.Assertions.*;
 
 import edu.bu.analytics.UnknownBuoyException;
+import edu.bu.analytics.stats.WindowStats;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -183,4 +185,97 @@ public class InMemoryStoreTest {
     assertEquals(-70.0, fetched.lon);
     assertEquals(30.0, fetched.allowedRadiusMeters);
   }
+
+  /* Readings arriving out of order are kept in timestamp order */
+  @Test
+  public void testOutOfOrderReadingsAreSorted() throws UnknownBuoyException {
+    Instant now = Instant.now();
+    BuoyResponse later = new BuoyResponse(1, now.plusSeconds(60), 21.0, 101320.0, 42.37, -71.06);
+    BuoyResponse earlier = new BuoyResponse(1, now, 20.5, 101325.0, 42.36, -71.05);
+
+    store.update(Arrays.asList(later, earlier));
+
+    List<BuoyResponse> history = store.getHistory(1);
+    assertEquals(20.5, history.get(0).getTemperature());
+    assertEquals(21.0, history.get(1).getTemperature());
+  }
+
+  /* Pages resume right after the previous page's last reading */
+  @Test
+  public void testHistoryPagesCoverHistoryOnce() throws Exception {
+    Instant start = Instant.now().minusSeconds(600);
+    for (int i = 0; i < 5; i++) {
+      store.update(
+          List.of(new BuoyResponse(1, start.plusSeconds(i * 60L), i, 101325.0, 42.36, -71.05)));
+    }
+
+    HistoryPage first = store.getHistoryPageAsync(1, null, 2).get();
+    assertEquals(2, first.readings().size());
+    assertEquals(new HistoryPage.Position(start.plusSeconds(60), 1), first.next());
+
+    HistoryPage second = store.getHistoryPageAsync(1, first.next(), 2).get();
+    assertEquals(2.0, second.readings().get(0).getTemperature());
+    assertEquals(3.0, second.readings().get(1).getTemperature());
+
+    HistoryPage last = store.getHistoryPageAsync(1, second.next(), 2).get();
+    assertEquals(1, last.readings().size());
+    assertEquals(4.0, last.readings().get(0).getTemperature());
+    assertNull(last.next());
+  }
+
+  /* A page boundary between readings that share a timestamp neither skips nor repeats them */
+  @Test
+  public void testHistoryPageBoundaryWithinEqualTimestamps() throws Exception {
+    Instant start = Instant.now().minusSeconds(600);
+    Instant shared = start.plusSeconds(60);
+    store.update(
+        List.of(
+            new BuoyResponse(1, shared, 1.0, 101325.0, 42.36, -71.05),
+            new BuoyResponse(1, start.plusSeconds(120), 4.0, 101325.0, 42.36, -71.05),
+            new BuoyResponse(1, start, 0.0, 101325.0, 42.36, -71.05)));
+    // Out-of-order inserts land next to the reading they share a timestamp with.
+    store.update(
+        List.of(
+            new BuoyResponse(1, shared, 2.0, 101325.0, 42.36, -71.05),
+            new BuoyResponse(1, shared, 3.0, 101325.0, 42.36, -71.05)));
+
+    List<Double> paged = new ArrayList<>();
+    HistoryPage.Position position = null;
+    do {
+      HistoryPage page = store.getHistoryPageAsync(1, position, 2).get();
+      page.readings().forEach(reading -> paged.add(reading.getTemperature()));
+      position = page.next();
+    } while (position != null);
+
+    assertEquals(List.of(0.0, 1.0, 2.0, 3.0, 4.0), paged);
+  }
+
+  /* Paging an unknown buoy fails the future */
+  @Test
+  public void testHistoryPageUnknownBuoyFails() {
+    assertTrue(store.getHistoryPageAsync(999, null, 10).isCompletedExceptionally());
+  }
+
+  /* Stats cover only the window and survive readings arriving out of order */
+  @Test
+  public void testStatsOverWindow() throws Exception {
+    Instant now = Instant.now();
+    BuoyResponse outside =
+        new BuoyResponse(1, now.minusSeconds(7200), 10.0, 101325.0, 42.36, -71.05);
+    BuoyResponse late = new BuoyResponse(1, now.minusSeconds(1800), 12.0, 101310.0, 42.36, -71.05);
+    store.update(List.of(outside));
+    store.update(List.of(new BuoyResponse(1, now, 14.0, 101300.0, 42.36, -71.05)));
+    store.update(List.of(late));
+
+    WindowStats stats = store.getStatsAsync(1, "temperature", now.minusSeconds(3600), now).get();
+    assertEquals(2, stats.count());
+    assertEquals(12.0, stats.min());
+    assertEquals(14.0, stats.max());
+    assertEquals(13.0, stats.mean(), 1e-9);
+    assertEquals(4.0, stats.ratePerHour(), 1e-9);
+
+    WindowStats pressure = store.getStatsAsync(1, "pressure", now.minusSeconds(7200), now).get();
+    assertEquals(3, pressure.count());
+    assertEquals(101300.0, pressure.min());
+  }
 }
@@ -0,0 +1,129 @@
+package edu.bu.fleet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.bu.analytics.geofence.BoundingBox;
+import edu.bu.analytics.kinematics.KinematicsService;
+import edu.bu.data.BuoyReadingEvent;
+import edu.bu.data.BuoyResponse;
+import edu.bu.data.Deployment;
+import edu.bu.data.DeploymentSavedEvent;
+import edu.bu.data.InMemoryStore;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FleetSnapshotServiceTest {
+
+  private KinematicsService kinematics;
+  private FleetSnapshotService service;
+
+  @BeforeEach
+  public void setUp() {
+    kinematics = new KinematicsService(10, 15, 5);
+    service = new FleetSnapshotService(new InMemoryStore(), kinematics);
+  }
+
+  @Test
+  public void testSnapshotContainsEveryBuoy() {
+    Instant now = Instant.now();
+    service.onReading(new BuoyReadingEvent(new BuoyResponse(2, now, 20.0, 101300.0, 41.7, -70.0)));
+    service.onReading(new BuoyReadingEvent(new BuoyResponse(1, now, 21.0, 101320.0, 42.3, -71.0)));
+
+    List<FleetEntry> buoys = service.getSnapshot().buoys();
+
+    assertEquals(2, buoys.size());
+    assertEquals(1, buoys.get(0).buoyId());
+    assertEquals(2, buoys.get(1).buoyId());
+  }
+
+  @Test
+  public void testSnapshotIsReusedUntilFleetChanges() {
+    service.onReading(
+        new BuoyReadingEvent(new BuoyResponse(1, Instant.now(), 20.0, 101300.0, 42.0, -70.0)));
+
+    FleetSnapshot first = service.getSnapshot();
+    assertSame(first, service.getSnapshot());
+
+    service.onReading(
+        new BuoyReadingEvent(
+            new BuoyResponse(1, Instant.now().plusSeconds(5), 20.5, 101300.0, 42.0, -70.0)));
+    assertNotSame(first, service.getSnapshot());
+  }
+
+  @Test
+  public void testOlderReadingDoesNotReplaceNewer() {
+    Instant now = Instant.now();
+    service.onReading(new BuoyReadingEvent(new BuoyResponse(1, now, 22.0, 101300.0, 42.0, -70.0)));
+    service.onReading(
+        new BuoyReadingEvent(
+            new BuoyResponse(1, now.minusSeconds(60), 18.0, 101300.0, 42.0, -70.0)));
+
+    assertEquals(22.0, service.getSnapshot().buoys().get(0).temperature());
+  }
+
+  @Test
+  public void testDeploymentAddsFenceStatus() {
+    service.onReading(
+        new BuoyReadingEvent(new BuoyResponse(1, Instant.now(), 20.0, 101300.0, 42.01, -70.01)));
+    assertNull(service.getSnapshot().buoys().get(0).outsideFence());
+
+    service.onDeployment(
+        new DeploymentSavedEvent(new Deployment(1, 42.0, -70.0, 50, System.currentTimeMillis())));
+
+    FleetEntry entry = service.getSnapshot().buoys().get(0);
+    assertNotNull(entry.deployment());
+    assertTrue(entry.outsideFence());
+  }
+
+  @Test
+  public void testEntriesCarryKinematics() {
+    Instant now = Instant.now();
+    for (int i = 0; i < 2; i++) {
+      BuoyReadingEvent event =
+          new BuoyReadingEvent(
+              new BuoyResponse(1, now.plusSeconds(60 * i), 20.0, 1.0, 42.0 + i * 0.0001, -70.0));
+      kinematics.onReading(event);
+      service.onReading(event);
+    }
+
+    FleetEntry entry = service.getSnapshot().buoys().get(0);
+    assertNotNull(entry.kinematics());
+    assertEquals(2, entry.kinematics().fixes());
+    assertEquals(0.185, entry.kinematics().speedMetersPerSecond(), 0.001);
+  }
+
+  @Test
+  public void testFiltersByBoundingBoxAndUpdatedSince() {
+    Instant now = Instant.now();
+    service.onReading(
+        new BuoyReadingEvent(new BuoyResponse(1, now.minusSeconds(3600), 20.0, 1.0, 42.0, -70.0)));
+    service.onReading(new BuoyReadingEvent(new BuoyResponse(2, now, 20.0, 1.0, 42.5, -70.5)));
+    service.onReading(new BuoyReadingEvent(new BuoyResponse(3, now, 20.0, 1.0, 10.0, 10.0)));
+
+    FleetSnapshot snapshot = service.getSnapshot();
+    BoundingBox box = new BoundingBox(41.0, -71.0, 43.0, -69.0);
+
+    assertEquals(2, snapshot.filter(box, null).buoys().size());
+    assertEquals(2, snapshot.filter(null, now.toEpochMilli()).buoys().size());
+    List<FleetEntry> both = snapshot.filter(box, now.toEpochMilli()).buoys();
+    assertEquals(1, both.size());
+    assertEquals(2, both.get(0).buoyId());
+  }
+
+  @Test
+  public void testBoundingBoxAcrossAntimeridian() {
+    BoundingBox box = new BoundingBox(-10.0, 170.0, 10.0, -170.0);
+
+    assertTrue(box.contains(0.0, 175.0));
+    assertTrue(box.contains(0.0, -175.0));
+    assertFalse(box.contains(0.0, 0.0));
+  }
+
+  @Test
+  public void testPartialBoundingBoxIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> BoundingBox.fromParams(1.0, 2.0, null, 4.0));
+    assertNull(BoundingBox.fromParams(null, null, null, null));
+  }
+}
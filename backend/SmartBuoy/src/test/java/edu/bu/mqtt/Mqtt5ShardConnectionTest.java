@@ -0,0 +1,23 @@
+package edu.bu.mqtt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class Mqtt5ShardConnectionTest {
+
+  @Test
+  public void testSharedFilterPrefixesTheGroup() {
+    assertEquals(
+        "$share/backend/$aws/things/+/shadow/update/delta",
+        Mqtt5ShardConnection.sharedFilter("backend", "$aws/things/+/shadow/update/delta"));
+  }
+
+  @Test
+  public void testSharedFilterRejectsInvalidGroups() {
+    for (String group : new String[] {"", "a/b", "+", "#"}) {
+      assertThrows(
+          IllegalArgumentException.class, () -> Mqtt5ShardConnection.sharedFilter(group, "t"));
+    }
+  }
+}
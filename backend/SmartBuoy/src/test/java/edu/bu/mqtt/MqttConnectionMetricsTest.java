@@ -0,0 +1,51 @@
+package edu.bu.mqtt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class MqttConnectionMetricsTest {
+
+  private final AtomicLong now = new AtomicLong(1_000);
+  private final MqttConnectionMetrics metrics = new MqttConnectionMetrics(now::get);
+
+  @Test
+  public void testCountsMessages() {
+    metrics.recordInbound();
+    metrics.recordInbound();
+    metrics.recordOutbound();
+    metrics.recordFailure();
+
+    assertEquals(2, metrics.inbound());
+    assertEquals(1, metrics.outbound());
+    assertEquals(1, metrics.failures());
+  }
+
+  /* Rates cover the interval since the last recomputation once it spans ten seconds */
+  @Test
+  public void testRatesAreRecomputedAfterEachWindow() {
+    for (int i = 0; i < 500; i++) {
+      metrics.recordInbound();
+    }
+    advanceSeconds(5);
+    assertEquals(0.0, metrics.inboundPerSecond());
+
+    advanceSeconds(5);
+    assertEquals(50.0, metrics.inboundPerSecond(), 1e-9);
+    assertEquals(0.0, metrics.outboundPerSecond());
+
+    for (int i = 0; i < 200; i++) {
+      metrics.recordInbound();
+    }
+    advanceSeconds(4);
+    assertEquals(50.0, metrics.inboundPerSecond(), 1e-9);
+    advanceSeconds(16);
+    assertEquals(10.0, metrics.inboundPerSecond(), 1e-9);
+  }
+
+  private void advanceSeconds(long seconds) {
+    now.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+  }
+}
@@ -0,0 +1,24 @@
+package edu.bu.mqtt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class MqttShardsTest {
+
+  /* A thing always maps to the same connection, and a fleet spreads over all of them */
+  @Test
+  public void testShardOfIsStableAndSpreadsThings() {
+    int[] counts = new int[4];
+    for (int i = 0; i < 4000; i++) {
+      String thingName = "buoy-" + i;
+      int shard = MqttShards.shardOf(thingName, 4);
+      assertEquals(shard, MqttShards.shardOf(thingName, 4));
+      counts[shard]++;
+    }
+    for (int count : counts) {
+      assertTrue(count > 800, "unbalanced shards: " + count);
+    }
+    assertEquals(0, MqttShards.shardOf("esp32", 1));
+  }
+}
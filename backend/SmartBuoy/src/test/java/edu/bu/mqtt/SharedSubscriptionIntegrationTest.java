@@ -0,0 +1,253 @@
+package edu.bu.mqtt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.hivemq.embedded.EmbeddedHiveMQ;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.eclipse.paho.mqttv5.client.MqttConnectionOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.integration.mqtt.support.MqttHeaders;
+import org.springframework.messaging.Message;
+
+/** MQTT 5 shared subscriptions and persistent sessions against an embedded HiveMQ broker. */
+@Tag("IntegrationTest")
+public class SharedSubscriptionIntegrationTest {
+
+  private static final String BROKER_URI = "tcp://localhost:1883";
+  private static final String FILTER = "things/+/shadow/update/delta";
+  private static final String GET_FILTER = "things/+/shadow/get/accepted";
+  private static final String ACCEPTED_FILTER = "things/+/shadow/update/accepted";
+  private static final String GROUP = "backend";
+
+  @TempDir private Path brokerDir;
+
+  private EmbeddedHiveMQ broker;
+  private ScheduledExecutorService scheduler;
+  private final List<MqttConnection> connections = new ArrayList<>();
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    broker =
+        EmbeddedHiveMQ.builder()
+            .withConfigurationFolder(brokerDir.resolve("conf"))
+            .withDataFolder(brokerDir.resolve("data"))
+            .withExtensionsFolder(brokerDir.resolve("extensions"))
+            .build();
+    broker.start().get(30, TimeUnit.SECONDS);
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+  }
+
+  @AfterEach
+  public void tearDown() throws Exception {
+    connections.forEach(MqttConnection::stop);
+    scheduler.shutdownNow();
+    broker.stop().get(30, TimeUnit.SECONDS);
+    broker.close();
+  }
+
+  /* Each message reaches exactly one member of the group, and both members get a share */
+  @Test
+  public void testGroupMembersShareTheMessages() throws Exception {
+    CountDownLatch subscribed = new CountDownLatch(2);
+    CountDownLatch delivered = new CountDownLatch(100);
+    AtomicInteger first = new AtomicInteger();
+    AtomicInteger second = new AtomicInteger();
+    subscriber("node-a", first, subscribed, delivered);
+    subscriber("node-b", second, subscribed, delivered);
+    assertTrue(subscribed.await(10, TimeUnit.SECONDS));
+
+    MqttConnection publisher = connection("publisher", new String[0], new CountDownLatch(0), null);
+    publisher.start();
+    awaitConnected(publisher);
+    for (int i = 0; i < 100; i++) {
+      assertTrue(publisher.publish("things/buoy-" + i + "/shadow/update/delta", "{}"));
+    }
+
+    assertTrue(delivered.await(10, TimeUnit.SECONDS));
+    TimeUnit.MILLISECONDS.sleep(200);
+    assertEquals(100, first.get() + second.get());
+    assertTrue(first.get() > 0 && second.get() > 0, first.get() + " / " + second.get());
+  }
+
+  /* GET replies are subscribed outside the group, so the node that asked always receives them */
+  @Test
+  public void testGetRepliesAreNotShared() throws Exception {
+    CountDownLatch subscribed = new CountDownLatch(2);
+    CountDownLatch delivered = new CountDownLatch(40);
+    AtomicInteger first = new AtomicInteger();
+    AtomicInteger second = new AtomicInteger();
+    String[] topics = {Mqtt5ShardConnection.sharedFilter(GROUP, FILTER), GET_FILTER};
+    for (AtomicInteger received : List.of(first, second)) {
+      connection(
+              "node-" + connections.size(),
+              topics,
+              subscribed,
+              () -> {
+                received.incrementAndGet();
+                delivered.countDown();
+              })
+          .start();
+    }
+    assertTrue(subscribed.await(10, TimeUnit.SECONDS));
+
+    MqttConnection publisher = connection("publisher", new String[0], new CountDownLatch(0), null);
+    publisher.start();
+    awaitConnected(publisher);
+    for (int i = 0; i < 20; i++) {
+      assertTrue(publisher.publish("things/buoy-" + i + "/shadow/get/accepted", "{}"));
+    }
+
+    assertTrue(delivered.await(10, TimeUnit.SECONDS));
+    TimeUnit.MILLISECONDS.sleep(200);
+    assertEquals(20, first.get());
+    assertEquals(20, second.get());
+  }
+
+  /* Update acks are subscribed outside the group, so each node sees the ack of its own update */
+  @Test
+  public void testEachNodeSeesItsOwnUpdateAck() throws Exception {
+    CountDownLatch subscribed = new CountDownLatch(3);
+    inboundConnection(
+            "device",
+            new String[] {"things/+/shadow/update"},
+            subscribed,
+            message -> {
+              String topic = (String) message.getHeaders().get(MqttHeaders.RECEIVED_TOPIC);
+              connections.get(0).publish(topic + "/accepted", message.getPayload());
+            })
+        .start();
+    String[] topics = {Mqtt5ShardConnection.sharedFilter(GROUP, FILTER), ACCEPTED_FILTER};
+    List<Set<String>> acks = new ArrayList<>();
+    List<MqttConnection> nodes = new ArrayList<>();
+    for (int node = 0; node < 2; node++) {
+      Set<String> received = ConcurrentHashMap.newKeySet();
+      acks.add(received);
+      nodes.add(
+          inboundConnection(
+              "node-" + node, topics, subscribed, message -> received.add(message.getPayload())));
+    }
+    nodes.forEach(MqttConnection::start);
+    assertTrue(subscribed.await(10, TimeUnit.SECONDS));
+
+    for (int i = 0; i < 10; i++) {
+      for (int node = 0; node < 2; node++) {
+        String token = "{\"clientToken\":\"node-" + node + "-" + i + "\"}";
+        assertTrue(nodes.get(node).publish("things/buoy-" + i + "/shadow/update", token));
+      }
+    }
+
+    for (int node = 0; node < 2; node++) {
+      for (int i = 0; i < 10; i++) {
+        String token = "{\"clientToken\":\"node-" + node + "-" + i + "\"}";
+        awaitContains(acks.get(node), token);
+      }
+    }
+  }
+
+  /* The broker queues messages for a disconnected session and delivers them on its return */
+  @Test
+  public void testSessionOutlivesTheConnection() throws Exception {
+    CountDownLatch subscribed = new CountDownLatch(1);
+    MqttConnection node = subscriber("node-a", new AtomicInteger(), subscribed, null);
+    assertTrue(subscribed.await(10, TimeUnit.SECONDS));
+    node.stop();
+
+    MqttConnection publisher = connection("publisher", new String[0], new CountDownLatch(0), null);
+    publisher.start();
+    awaitConnected(publisher);
+    for (int i = 0; i < 10; i++) {
+      assertTrue(publisher.publish("things/buoy-" + i + "/shadow/update/delta", "{}"));
+    }
+
+    CountDownLatch delivered = new CountDownLatch(10);
+    subscriber("node-a", new AtomicInteger(), new CountDownLatch(1), delivered);
+    assertTrue(delivered.await(10, TimeUnit.SECONDS));
+  }
+
+  private MqttConnection subscriber(
+      String clientId, AtomicInteger received, CountDownLatch subscribed, CountDownLatch delivered)
+      throws Exception {
+    String[] topics = {Mqtt5ShardConnection.sharedFilter(GROUP, FILTER)};
+    MqttConnection connection =
+        connection(
+            clientId,
+            topics,
+            subscribed,
+            () -> {
+              received.incrementAndGet();
+              if (delivered != null) {
+                delivered.countDown();
+              }
+            });
+    connection.start();
+    return connection;
+  }
+
+  private MqttConnection connection(
+      String clientId, String[] topics, CountDownLatch subscribed, Runnable onMessage)
+      throws Exception {
+    return inboundConnection(
+        clientId,
+        topics,
+        subscribed,
+        message -> {
+          if (onMessage != null) {
+            onMessage.run();
+          }
+        });
+  }
+
+  private MqttConnection inboundConnection(
+      String clientId,
+      String[] topics,
+      CountDownLatch subscribed,
+      Consumer<Message<String>> inbound)
+      throws Exception {
+    MqttConnectionOptions options = new MqttConnectionOptions();
+    options.setServerURIs(new String[] {BROKER_URI});
+    options.setCleanStart(false);
+    options.setSessionExpiryInterval(60L);
+    options.setAutomaticReconnect(false);
+    MqttConnection connection =
+        new Mqtt5ShardConnection(
+            connections.size(),
+            clientId,
+            options,
+            topics,
+            1,
+            inbound,
+            subscribed::countDown,
+            scheduler);
+    connections.add(connection);
+    return connection;
+  }
+
+  private static void awaitContains(Set<String> received, String payload)
+      throws InterruptedException {
+    for (int i = 0; i < 100 && !received.contains(payload); i++) {
+      TimeUnit.MILLISECONDS.sleep(100);
+    }
+    assertTrue(received.contains(payload), payload);
+  }
+
+  private static void awaitConnected(MqttConnection connection) throws InterruptedException {
+    for (int i = 0; i < 100 && !connection.stats().connected(); i++) {
+      TimeUnit.MILLISECONDS.sleep(100);
+    }
+    assertTrue(connection.stats().connected());
+  }
+}
@@ -0,0 +1,33 @@
+package edu.bu.mqtt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class SubscribeBatchesTest {
+
+  /* Filters go out in order, at most eight per SUBSCRIBE */
+  @Test
+  public void testSplitsIntoBatchesOfEight() {
+    String[] topics = new String[20];
+    for (int i = 0; i < topics.length; i++) {
+      topics[i] = "t" + i;
+    }
+
+    List<String[]> batches = SubscribeBatches.of(topics);
+
+    assertEquals(3, batches.size());
+    assertEquals(8, batches.get(0).length);
+    assertEquals(8, batches.get(1).length);
+    assertArrayEquals(new String[] {"t16", "t17", "t18", "t19"}, batches.get(2));
+    assertTrue(SubscribeBatches.of(new String[0]).isEmpty());
+  }
+
+  @Test
+  public void testRejectsMoreSubscriptionsThanTheQuota() {
+    SubscribeBatches.checkQuota(0, new String[50]);
+    assertThrows(
+        IllegalArgumentException.class, () -> SubscribeBatches.checkQuota(0, new String[51]));
+  }
+}
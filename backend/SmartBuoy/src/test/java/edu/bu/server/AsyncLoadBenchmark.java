@@ -0,0 +1,213 @@
+package edu.bu.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.bu.analytics.UnknownBuoyException;
+import edu.bu.analytics.stats.WindowStats;
+import edu.bu.data.AsyncDataStore;
+import edu.bu.data.BuoyResponse;
+import edu.bu.data.DataStore;
+import edu.bu.data.Deployment;
+import edu.bu.data.HistoryPage;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Compares the blocking and the future-based request models against a store with fixed latency.
+ * The servlet pool is kept small so the blocking model saturates it. The history admission limit
+ * is raised above the client count, since the blocking path is not admission controlled and
+ * shed requests would otherwise count as fast failures. Run with ./gradlew benchmark.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      "server.tomcat.threads.max=16",
+      "spring.mvc.async.request-timeout=30s",
+      "admission.history.initial-limit=400",
+      "admission.history.max-limit=400"
+    })
+@Tag("Benchmark")
+public class AsyncLoadBenchmark {
+
+  private static final long STORE_LATENCY_MS = 100;
+  private static final int CONCURRENT_CLIENTS = 200;
+  private static final Duration RUN_TIME = Duration.ofSeconds(10);
+
+  @LocalServerPort private int port;
+
+  @Test
+  public void compareBlockingAndAsyncHistoryReads() throws Exception {
+    LoadResult blocking = runLoad("/blocking/history/1");
+    LoadResult async = runLoad("/history/temperature/1");
+
+    System.out.printf("blocking: %s%nasync:    %s%n", blocking, async);
+    assertEquals(0, blocking.failures());
+    assertEquals(0, async.failures());
+  }
+
+  private LoadResult runLoad(String path) throws Exception {
+    HttpClient client = HttpClient.newHttpClient();
+    HttpRequest request =
+        HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+    List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+    List<Integer> failures = Collections.synchronizedList(new ArrayList<>());
+    long deadline = System.nanoTime() + RUN_TIME.toNanos();
+
+    try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < CONCURRENT_CLIENTS; i++) {
+        clients.submit(
+            () -> {
+              while (System.nanoTime() < deadline) {
+                long start = System.nanoTime();
+                HttpResponse<String> response =
+                    client.send(request, HttpResponse.BodyHandlers.ofString());
+                latencies.add(System.nanoTime() - start);
+                if (response.statusCode() != 200) {
+                  failures.add(response.statusCode());
+                }
+              }
+              return null;
+            });
+      }
+    }
+
+    List<Long> sorted = new ArrayList<>(latencies);
+    Collections.sort(sorted);
+    double seconds = RUN_TIME.toMillis() / 1000.0;
+    return new LoadResult(
+        sorted.size() / seconds,
+        sorted.get(sorted.size() / 2) / 1e6,
+        sorted.get((int) (sorted.size() * 0.99)) / 1e6,
+        failures.size());
+  }
+
+  private record LoadResult(
+      double requestsPerSecond, double p50Millis, double p99Millis, int failures) {
+    @Override
+    public String toString() {
+      return String.format(
+          "%.0f req/s, p50 %.1f ms, p99 %.1f ms, %d failures",
+          requestsPerSecond, p50Millis, p99Millis, failures);
+    }
+  }
+
+  /** Replaces the real store with one that answers after a fixed delay. */
+  @TestConfiguration
+  static class SlowStoreConfig {
+
+    @Bean
+    @Primary
+    SlowStore slowStore() {
+      return new SlowStore();
+    }
+
+    @Bean
+    BlockingHistoryController blockingHistoryController(SlowStore slowStore) {
+      return new BlockingHistoryController(slowStore);
+    }
+  }
+
+  /** Same read as /history but holding the servlet thread for the whole store call. */
+  @RestController
+  static class BlockingHistoryController {
+
+    private final DataStore dataStore;
+
+    BlockingHistoryController(DataStore dataStore) {
+      this.dataStore = dataStore;
+    }
+
+    @GetMapping("/blocking/history/{buoyId}")
+    public List<BuoyResponse> getHistory(@PathVariable int buoyId) throws UnknownBuoyException {
+      return dataStore.getHistory(buoyId);
+    }
+  }
+
+  /**
+   * Blocking reads sleep for the latency; async reads complete on a timer without holding a
+   * thread, like a response arriving on the HTTP client's I/O thread.
+   */
+  static class SlowStore implements DataStore, AsyncDataStore {
+
+    private final List<BuoyResponse> history =
+        List.of(new BuoyResponse(1, Instant.now(), 20.0, 101325.0, 42.36, -71.05));
+
+    @Override
+    public void update(List<BuoyResponse> responses) {}
+
+    @Override
+    public List<BuoyResponse> getHistory(int buoy) {
+      try {
+        Thread.sleep(STORE_LATENCY_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return history;
+    }
+
+    @Override
+    public Optional<BuoyResponse> getLatest(int buoyId) {
+      return Optional.of(getHistory(buoyId).get(0));
+    }
+
+    @Override
+    public List<BuoyResponse> getLatestForAll() {
+      return List.of();
+    }
+
+    @Override
+    public void saveDeployment(Deployment deployment) {}
+
+    @Override
+    public Optional<Deployment> getDeployment(int buoyId) {
+      return Optional.empty();
+    }
+
+    @Override
+    public CompletableFuture<List<BuoyResponse>> getHistoryAsync(int buoyId) {
+      Executor delayed =
+          CompletableFuture.delayedExecutor(STORE_LATENCY_MS, TimeUnit.MILLISECONDS);
+      return CompletableFuture.supplyAsync(() -> history, delayed);
+    }
+
+    @Override
+    public CompletableFuture<Optional<BuoyResponse>> getLatestAsync(int buoyId) {
+      return getHistoryAsync(buoyId).thenApply(readings -> Optional.of(readings.get(0)));
+    }
+
+    @Override
+    public CompletableFuture<HistoryPage> getHistoryPageAsync(
+        int buoyId, HistoryPage.Position after, int limit) {
+      return getHistoryAsync(buoyId).thenApply(readings -> new HistoryPage(readings, null));
+    }
+
+    @Override
+    public CompletableFuture<WindowStats> getStatsAsync(
+        int buoyId, String field, Instant from, Instant until) {
+      return CompletableFuture.completedFuture(WindowStats.empty());
+    }
+  }
+}
@@ -1,9 +1,13 @@
 package edu.bu.server;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.jayway.jsonpath.JsonPath;
+import edu.bu.data.BuoyReadingEvent;
 import edu.bu.data.BuoyResponse;
 import edu.bu.data.InMemoryStore;
 import java.time.Instant;
@@ -16,8 +20,13 @@ import org.junit.jupiter.api.Timeout;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 /** Integration tests for the SmartBuoy REST API endpoints. */
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -29,6 +38,15 @@ public class ServerIntegrationTest {
 
   @Autowired private InMemoryStore store;
 
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
+  /** Performs a request, following up with the async dispatch when the handler returned one. */
+  private ResultActions perform(MockHttpServletRequestBuilder request) throws Exception {
+    ResultActions actions = mockMvc.perform(request);
+    MvcResult result = actions.andReturn();
+    return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+  }
+
   @BeforeEach
   public void setUp() {
     store.clearAll();
@@ -38,8 +56,7 @@ public class ServerIntegrationTest {
   @Test
   @Timeout(value = 5, unit = TimeUnit.SECONDS)
   public void testHistoryEndpointReturnsData() throws Exception {
-    mockMvc
-        .perform(get("/history/temperature/1"))
+    perform(get("/history/temperature/1"))
         .andExpect(status().isOk())
         .andExpect(content().contentType(MediaType.APPLICATION_JSON))
         .andExpect(jsonPath("$.history[0].buoyId").value(1))
@@ -50,14 +67,13 @@ public class ServerIntegrationTest {
   @Test
   @Timeout(value = 5, unit = TimeUnit.SECONDS)
   public void testUnknownBuoyReturns404() throws Exception {
-    mockMvc.perform(get("/history/temperature/999")).andExpect(status().isNotFound());
+    perform(get("/history/temperature/999")).andExpect(status().isNotFound());
   }
 
   @Test
   @Timeout(value = 5, unit = TimeUnit.SECONDS)
   public void testContentTypeIsJson() throws Exception {
-    mockMvc
-        .perform(get("/history/temperature/1"))
+    perform(get("/history/temperature/1"))
         .andExpect(content().contentType(MediaType.APPLICATION_JSON));
   }
 
@@ -70,8 +86,7 @@ public class ServerIntegrationTest {
             new BuoyResponse(1, Instant.now().plusSeconds(60), 23.0, 101320.0, 42.37, -71.06)));
 
     String body =
-        mockMvc
-            .perform(get("/history/temperature/1"))
+        perform(get("/history/temperature/1"))
             .andExpect(status().isOk())
             .andReturn()
             .getResponse()
@@ -94,8 +109,7 @@ public class ServerIntegrationTest {
               () -> {
                 for (int j = 0; j < requestsPerThread; j++) {
                   try {
-                    mockMvc
-                        .perform(get("/history/temperature/1"))
+                    perform(get("/history/temperature/1"))
                         .andExpect(status().isOk());
                   } catch (Exception e) {
                     fail("Server failed under load: " + e.getMessage());
@@ -113,8 +127,7 @@ public class ServerIntegrationTest {
   @Test
   @Timeout(value = 5, unit = TimeUnit.SECONDS)
   public void testLatestTemperatureEndpoint() throws Exception {
-    mockMvc
-        .perform(get("/temperature/1"))
+    perform(get("/temperature/1"))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.measurementType").value("temperature"))
         .andExpect(jsonPath("$.temperature").value(22.5));
@@ -123,8 +136,7 @@ public class ServerIntegrationTest {
   @Test
   @Timeout(value = 5, unit = TimeUnit.SECONDS)
   public void testLatestPressureEndpoint() throws Exception {
-    mockMvc
-        .perform(get("/pressure/1"))
+    perform(get("/pressure/1"))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.measurementType").value("pressure"))
         .andExpect(jsonPath("$.pressure").value(101325.0));
@@ -133,8 +145,7 @@ public class ServerIntegrationTest {
   @Test
   @Timeout(value = 5, unit = TimeUnit.SECONDS)
   public void testLatestLocationEndpoint() throws Exception {
-    mockMvc
-        .perform(get("/location/1"))
+    perform(get("/location/1"))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.latitude").value(42.36))
         .andExpect(jsonPath("$.longitude").value(-71.05));
@@ -143,14 +154,13 @@ public class ServerIntegrationTest {
   @Test
   @Timeout(value = 5, unit = TimeUnit.SECONDS)
   public void testLatestEndpointInvalidBuoyIdReturns404() throws Exception {
-    mockMvc.perform(get("/temperature/999")).andExpect(status().isNotFound());
+    perform(get("/temperature/999")).andExpect(status().isNotFound());
   }
 
   @Test
   @Timeout(value = 5, unit = TimeUnit.SECONDS)
   public void testCurrentTemperatureEndpoint() throws Exception {
-    mockMvc
-        .perform(get("/current/temperature/1"))
+    perform(get("/current/temperature/1"))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.measurementType").value("temperature"))
         .andExpect(jsonPath("$.temperature").value(22.5));
@@ -159,8 +169,7 @@ public class ServerIntegrationTest {
   @Test
   @Timeout(value = 5, unit = TimeUnit.SECONDS)
   public void testCurrentPressureEndpoint() throws Exception {
-    mockMvc
-        .perform(get("/current/pressure/1"))
+    perform(get("/current/pressure/1"))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.measurementType").value("pressure"))
         .andExpect(jsonPath("$.pressure").value(101325.0));
@@ -169,8 +178,7 @@ public class ServerIntegrationTest {
   @Test
   @Timeout(value = 5, unit = TimeUnit.SECONDS)
   public void testCurrentLocationEndpoint() throws Exception {
-    mockMvc
-        .perform(get("/current/location/1"))
+    perform(get("/current/location/1"))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.latitude").value(42.36))
         .andExpect(jsonPath("$.longitude").value(-71.05));
@@ -179,14 +187,13 @@ public class ServerIntegrationTest {
   @Test
   @Timeout(value = 5, unit = TimeUnit.SECONDS)
   public void testCurrentInvalidBuoyReturns404() throws Exception {
-    mockMvc.perform(get("/current/temperature/999")).andExpect(status().isNotFound());
+    perform(get("/current/temperature/999")).andExpect(status().isNotFound());
   }
 
   @Test
   @Timeout(value = 5, unit = TimeUnit.SECONDS)
   public void testHistoryWithMeasurementType() throws Exception {
-    mockMvc
-        .perform(get("/history/temperature/1"))
+    perform(get("/history/temperature/1"))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.history[0].measurementType").value("temperature"))
         .andExpect(jsonPath("$.history[0].temperature").value(22.5));
@@ -201,8 +208,7 @@ public class ServerIntegrationTest {
             new BuoyResponse(1, Instant.now(), 25.0, 101200.0, 42.0, -71.0)));
 
     String body =
-        mockMvc
-            .perform(get("/history/temperature/1?hours=1"))
+        perform(get("/history/temperature/1?hours=1"))
             .andExpect(status().isOk())
             .andReturn()
             .getResponse()
@@ -211,4 +217,266 @@ public class ServerIntegrationTest {
     assertTrue(body.contains("25.0"));
     assertFalse(body.contains("20.0"));
   }
+
+  @Test
+  @Timeout(value = 5, unit = TimeUnit.SECONDS)
+  public void testCurrentReturns304WhenETagMatches() throws Exception {
+    BuoyResponse reading = new BuoyResponse(1, Instant.now(), 23.5, 101300.0, 42.36, -71.05);
+    store.update(Arrays.asList(reading));
+    eventPublisher.publishEvent(new BuoyReadingEvent(reading));
+
+    String etag =
+        perform(get("/current/temperature/1"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+    assertNotNull(etag);
+
+    perform(get("/current/temperature/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified());
+  }
+
+  @Test
+  @Timeout(value = 5, unit = TimeUnit.SECONDS)
+  public void testHistoryETagChangesAfterNewReading() throws Exception {
+    BuoyResponse first = new BuoyResponse(1, Instant.now(), 23.5, 101300.0, 42.36, -71.05);
+    eventPublisher.publishEvent(new BuoyReadingEvent(first));
+
+    String etag =
+        perform(get("/history/temperature/1"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+    BuoyResponse second =
+        new BuoyResponse(1, Instant.now().plusSeconds(60), 24.0, 101290.0, 42.36, -71.05);
+    store.update(Arrays.asList(second));
+    eventPublisher.publishEvent(new BuoyReadingEvent(second));
+
+    perform(get("/history/temperature/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.history[1].temperature").value(24.0));
+  }
+
+  @Test
+  @Timeout(value = 5, unit = TimeUnit.SECONDS)
+  public void testHistoryHoursWindowIsNotConditional() throws Exception {
+    BuoyResponse reading = new BuoyResponse(1, Instant.now(), 23.5, 101300.0, 42.36, -71.05);
+    eventPublisher.publishEvent(new BuoyReadingEvent(reading));
+    String etag =
+        perform(get("/history/temperature/1"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+    assertNotNull(etag);
+
+    perform(
+            get("/history/temperature/1?hours=1")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .header(HttpHeaders.IF_MODIFIED_SINCE, "Fri, 01 Jan 2100 00:00:00 GMT"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+  }
+
+  @Test
+  @Timeout(value = 5, unit = TimeUnit.SECONDS)
+  public void testHistoryPagesFollowCursor() throws Exception {
+    BuoyResponse second =
+        new BuoyResponse(1, Instant.now().plusSeconds(60), 24.0, 101290.0, 42.36, -71.05);
+    store.update(Arrays.asList(second));
+
+    String cursor =
+        JsonPath.read(
+            perform(get("/history/temperature/1").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.history.length()").value(1))
+                .andExpect(jsonPath("$.history[0].temperature").value(22.5))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            "$.nextCursor");
+
+    perform(get("/history/temperature/1").param("limit", "1").param("cursor", cursor))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.history[0].temperature").value(24.0))
+        .andExpect(jsonPath("$.nextCursor").doesNotExist());
+  }
+
+  @Test
+  @Timeout(value = 5, unit = TimeUnit.SECONDS)
+  public void testHistoryInvalidCursorReturns400() throws Exception {
+    perform(get("/history/temperature/1").param("cursor", "not-a-cursor"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @Timeout(value = 5, unit = TimeUnit.SECONDS)
+  public void testLocationHistorySimplifiesTrack() throws Exception {
+    // Fixes continuing north in a straight line from the one stored in setUp.
+    Instant start = Instant.now();
+    for (int i = 1; i <= 10; i++) {
+      double lat = 42.36 + i * 0.001;
+      store.update(
+          Arrays.asList(new BuoyResponse(1, start.plusSeconds(i), 22.5, 101325.0, lat, -71.05)));
+    }
+
+    perform(get("/history/location/1").param("toleranceMeters", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.history.length()").value(2));
+    perform(get("/history/temperature/1").param("zoom", "12")).andExpect(status().isBadRequest());
+    perform(get("/history/location/1").param("zoom", "30")).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @Timeout(value = 5, unit = TimeUnit.SECONDS)
+  public void testStatsEndpoint() throws Exception {
+    store.update(
+        Arrays.asList(
+            new BuoyResponse(1, Instant.now().minusSeconds(60), 24.5, 101290.0, 42.36, -71.05)));
+
+    perform(get("/stats/temperature/1").param("window", "1h"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.window").value("1h"))
+        .andExpect(jsonPath("$.count").value(2))
+        .andExpect(jsonPath("$.min").value(22.5))
+        .andExpect(jsonPath("$.max").value(24.5));
+  }
+
+  @Test
+  @Timeout(value = 5, unit = TimeUnit.SECONDS)
+  public void testStatsInvalidWindowReturns400() throws Exception {
+    perform(get("/stats/temperature/1").param("window", "yesterday"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @Timeout(value = 5, unit = TimeUnit.SECONDS)
+  public void testHistoryBatchCombinesBuoys() throws Exception {
+    store.update(Arrays.asList(new BuoyResponse(2, Instant.now(), 18.0, 101200.0, 41.70, -70.00)));
+
+    perform(
+            post("/history/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    "{\"buoyIds\": [1, 2, 999], \"types\": [\"temperature\"], \"from\": "
+                        + Instant.now().minusSeconds(3600).toEpochMilli()
+                        + "}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.partial").value(false))
+        .andExpect(jsonPath("$.results[0].status").value("ok"))
+        .andExpect(jsonPath("$.results[0].history.temperature[0].temperature").value(22.5))
+        .andExpect(jsonPath("$.results[1].history.temperature[0].temperature").value(18.0))
+        .andExpect(jsonPath("$.results[1].history.pressure").doesNotExist())
+        .andExpect(jsonPath("$.results[2].status").value("not_found"));
+  }
+
+  /* Readings after "to" are left out, and without "from" the request is rejected */
+  @Test
+  @Timeout(value = 5, unit = TimeUnit.SECONDS)
+  public void testHistoryBatchHonoursRange() throws Exception {
+    Instant start = Instant.parse("2024-06-01T00:00:00Z");
+    store.update(
+        Arrays.asList(
+            new BuoyResponse(3, start.minusSeconds(60), 10.0, 101300.0, 42.0, -70.0),
+            new BuoyResponse(3, start, 11.0, 101300.0, 42.0, -70.0),
+            new BuoyResponse(3, start.plusSeconds(60), 12.0, 101300.0, 42.0, -70.0),
+            new BuoyResponse(3, start.plusSeconds(120), 13.0, 101300.0, 42.0, -70.0)));
+
+    perform(
+            post("/history/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    "{\"buoyIds\": [3], \"types\": [\"temperature\"], \"from\": "
+                        + start.toEpochMilli()
+                        + ", \"to\": "
+                        + start.plusSeconds(60).toEpochMilli()
+                        + "}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.results[0].history.temperature.length()").value(2))
+        .andExpect(jsonPath("$.results[0].history.temperature[0].temperature").value(11.0))
+        .andExpect(jsonPath("$.results[0].history.temperature[1].temperature").value(12.0))
+        .andExpect(jsonPath("$.results[0].truncated").value(false));
+    perform(
+            post("/history/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"buoyIds\": [3]}"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @Timeout(value = 5, unit = TimeUnit.SECONDS)
+  public void testHistoryBatchRequiresBuoys() throws Exception {
+    perform(
+            post("/history/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"buoyIds\": []}"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @Timeout(value = 5, unit = TimeUnit.SECONDS)
+  public void testKinematicsEndpoint() throws Exception {
+    Instant start = Instant.now().minusSeconds(120);
+    eventPublisher.publishEvent(
+        new BuoyReadingEvent(new BuoyResponse(7, start, 20.0, 101300.0, 42.0, -70.0)));
+    eventPublisher.publishEvent(
+        new BuoyReadingEvent(
+            new BuoyResponse(7, start.plusSeconds(60), 20.0, 101300.0, 42.0001, -70.0)));
+
+    perform(get("/kinematics/7"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.fixes").value(2))
+        .andExpect(jsonPath("$.headingDegrees").isNumber())
+        .andExpect(jsonPath("$.driftMeters").isNumber());
+    perform(get("/kinematics/999")).andExpect(status().isNotFound());
+  }
+
+  @Test
+  @Timeout(value = 5, unit = TimeUnit.SECONDS)
+  public void testHeatmapEndpoint() throws Exception {
+    eventPublisher.publishEvent(
+        new BuoyReadingEvent(new BuoyResponse(8, Instant.now(), 12.0, 101000.0, -33.2, 151.4)));
+
+    perform(
+            get("/spatial/heatmap")
+                .param("resolution", "1")
+                .param("minLat", "-34")
+                .param("minLon", "151")
+                .param("maxLat", "-33")
+                .param("maxLon", "152"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.cells[0].minLat").value(-34.0))
+        .andExpect(jsonPath("$.cells[0].temperature.mean").value(12.0));
+    perform(get("/spatial/heatmap").param("resolution", "0.3")).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testClustersEndpoint() throws Exception {
+    eventPublisher.publishEvent(
+        new BuoyReadingEvent(new BuoyResponse(9, Instant.now(), 12.0, 101000.0, -45.1, -120.2)));
+
+    perform(
+            get("/spatial/clusters")
+                .param("minLat", "-46")
+                .param("minLon", "-121")
+                .param("maxLat", "-44")
+                .param("maxLon", "-119")
+                .param("zoom", "10"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.zoom").value(10))
+        .andExpect(jsonPath("$.markers[0].count").value(1))
+        .andExpect(jsonPath("$.markers[0].buoyId").value(9));
+    perform(
+            get("/spatial/clusters")
+                .param("minLat", "-46")
+                .param("minLon", "-121")
+                .param("maxLat", "-44")
+                .param("maxLon", "-119")
+                .param("zoom", "30"))
+        .andExpect(status().isBadRequest());
+  }
 }
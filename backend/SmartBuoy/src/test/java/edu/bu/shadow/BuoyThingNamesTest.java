@@ -0,0 +1,66 @@
+package edu.bu.shadow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class BuoyThingNamesTest {
+
+  private final ShadowService shadows =
+      new ShadowService(null, new ObjectMapper(), event -> {}, 4, 1, 10, 250, 1, 10);
+
+  @AfterEach
+  public void tearDown() {
+    shadows.stop();
+  }
+
+  /* Mapped buoys resolve by numeric id in either of the frontend's forms */
+  @Test
+  public void testMappedBuoys() {
+    BuoyThingNames names = names("1=esp32, 2=buoy-two", false);
+
+    assertEquals(Optional.of("esp32"), names.thingName("buoy-1"));
+    assertEquals(Optional.of("esp32"), names.thingName("1"));
+    assertEquals(Optional.of("buoy-two"), names.thingName("buoy-2"));
+    assertEquals(Optional.of("esp32"), names.thingName(1));
+    assertEquals(Optional.empty(), names.thingName(3));
+  }
+
+  /* Listed things and things with a known shadow address themselves; anything else nothing */
+  @Test
+  public void testKnownThingsAddressThemselves() {
+    shadows.restore(
+        List.of(new DeviceShadow("thing-123", 80, false, false, true, Instant.EPOCH, 1L)));
+    BuoyThingNames names = names("1=esp32", false);
+
+    assertEquals(Optional.of("esp32"), names.thingName("esp32"));
+    assertEquals(Optional.of("thing-123"), names.thingName("thing-123"));
+    assertEquals(Optional.empty(), names.thingName("thing-456"));
+    assertEquals(Optional.empty(), names.thingName("buoy-3"));
+  }
+
+  /* The default thing answers for unknown ids only when the fallback is enabled */
+  @Test
+  public void testDefaultThingFallbackIsOptIn() {
+    BuoyThingNames names = names("", true);
+
+    assertEquals(Optional.of("esp32"), names.thingName("buoy-3"));
+    assertEquals(Optional.of("esp32"), names.thingName(3));
+  }
+
+  @Test
+  public void testRejectsMalformedMapping() {
+    assertThrows(IllegalArgumentException.class, () -> names("1", false));
+    assertThrows(IllegalArgumentException.class, () -> names("1=", false));
+    assertThrows(IllegalArgumentException.class, () -> names("esp32=esp32", false));
+  }
+
+  private BuoyThingNames names(String mappings, boolean fallback) {
+    return new BuoyThingNames(shadows, mappings, new String[] {"esp32"}, fallback, "esp32");
+  }
+}
@@ -0,0 +1,142 @@
+package edu.bu.shadow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class DesiredStateOutboxTest {
+
+  private static final long DEBOUNCE_MILLIS = 50;
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final List<Published> published = new CopyOnWriteArrayList<>();
+
+  private record Published(String thingName, Map<String, Object> desired, String clientToken) {}
+
+  @AfterEach
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  /* A burst of toggles within the debounce window becomes one merged update */
+  @Test
+  public void testBurstIsMergedIntoOneUpdate() throws InterruptedException {
+    DesiredStateOutbox outbox = outbox(1, 10_000, true);
+    outbox.submit("esp32", Map.of("led", true));
+    outbox.submit("esp32", Map.of("led", false));
+    outbox.submit("esp32", Map.of("buzzer", true));
+    outbox.submit("other", Map.of("led", true));
+
+    waitForPublishes(2);
+    Thread.sleep(DEBOUNCE_MILLIS * 2);
+
+    assertEquals(2, published.size());
+    Published esp32 =
+        published.stream().filter(p -> p.thingName().equals("esp32")).findFirst().get();
+    assertEquals(Map.of("led", false, "buzzer", true), esp32.desired());
+  }
+
+  /* Changes made while an update is unacknowledged wait for its acknowledgement */
+  @Test
+  public void testInFlightLimitHoldsChangesUntilAcknowledged() throws InterruptedException {
+    DesiredStateOutbox outbox = outbox(1, 10_000, true);
+    outbox.submit("esp32", Map.of("led", true));
+    waitForPublishes(1);
+
+    outbox.submit("esp32", Map.of("led", false));
+    outbox.submit("esp32", Map.of("buzzer", true));
+    Thread.sleep(DEBOUNCE_MILLIS * 3);
+    assertEquals(1, published.size());
+
+    assertFalse(outbox.acknowledge("esp32", "unknown"));
+    assertTrue(outbox.acknowledge("esp32", published.get(0).clientToken()));
+    waitForPublishes(2);
+    assertEquals(Map.of("led", false, "buzzer", true), published.get(1).desired());
+
+    assertTrue(outbox.acknowledge("esp32", published.get(1).clientToken()));
+    assertEquals(0, outbox.activeThings());
+  }
+
+  /* Another node's outbox issues different tokens, so its acknowledgements release nothing here */
+  @Test
+  public void testTokensAreUniquePerOutbox() throws InterruptedException {
+    DesiredStateOutbox first = outbox(1, 10_000, true);
+    DesiredStateOutbox second = outbox(1, 10_000, true);
+    first.submit("esp32", Map.of("led", true));
+    second.submit("esp32", Map.of("led", false));
+    waitForPublishes(2);
+
+    String firstToken = tokenOf(Map.of("led", true));
+    String secondToken = tokenOf(Map.of("led", false));
+    assertNotEquals(firstToken, secondToken);
+    assertFalse(second.acknowledge("esp32", firstToken));
+    assertFalse(first.acknowledge("esp32", secondToken));
+    assertTrue(first.acknowledge("esp32", firstToken));
+    assertTrue(second.acknowledge("esp32", secondToken));
+  }
+
+  /* An update that is never acknowledged releases its slot after the timeout */
+  @Test
+  public void testAckTimeoutReleasesSlot() throws InterruptedException {
+    DesiredStateOutbox outbox = outbox(1, 100, true);
+    outbox.submit("esp32", Map.of("led", true));
+    waitForPublishes(1);
+    outbox.submit("esp32", Map.of("led", false));
+
+    waitForPublishes(2);
+    assertEquals(Map.of("led", false), published.get(1).desired());
+  }
+
+  /* A failed publish frees its slot instead of blocking the thing */
+  @Test
+  public void testFailedPublishReleasesSlot() throws InterruptedException {
+    DesiredStateOutbox outbox = outbox(1, 10_000, false);
+    outbox.submit("esp32", Map.of("led", true));
+    waitForPublishes(1);
+    outbox.submit("esp32", Map.of("led", false));
+
+    waitForPublishes(2);
+    Thread.sleep(DEBOUNCE_MILLIS);
+    assertEquals(0, outbox.activeThings());
+  }
+
+  @Test
+  public void testRejectsInvalidSettings() {
+    assertThrows(IllegalArgumentException.class, () -> outbox(0, 1000, true));
+    assertThrows(IllegalArgumentException.class, () -> outbox(1, 0, true));
+  }
+
+  private DesiredStateOutbox outbox(int maxInFlight, long ackTimeoutMillis, boolean succeed) {
+    return new DesiredStateOutbox(
+        (thingName, desired, clientToken) -> {
+          published.add(new Published(thingName, desired, clientToken));
+          return succeed;
+        },
+        scheduler,
+        DEBOUNCE_MILLIS,
+        maxInFlight,
+        ackTimeoutMillis);
+  }
+
+  private void waitForPublishes(int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (published.size() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(count, published.size());
+  }
+
+  private String tokenOf(Map<String, Object> desired) {
+    return published.stream()
+        .filter(update -> update.desired().equals(desired))
+        .findFirst()
+        .get()
+        .clientToken();
+  }
+}
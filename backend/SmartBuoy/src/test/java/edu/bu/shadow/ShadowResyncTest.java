@@ -0,0 +1,117 @@
+package edu.bu.shadow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class ShadowResyncTest {
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final List<String> requested = new CopyOnWriteArrayList<>();
+  private final List<Long> requestedAt = new CopyOnWriteArrayList<>();
+
+  @AfterEach
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  /* Every thing is requested once, no faster than the configured rate */
+  @Test
+  public void testRequestsAreRateLimited() throws InterruptedException {
+    ShadowResync resync = resync(thing -> true, 0, 100, 3);
+    resync.start(List.of("a", "b", "c", "d", "e"));
+
+    waitFor(() -> requested.size() == 5 && resync.remaining() == 0);
+    assertEquals(List.of("a", "b", "c", "d", "e"), requested);
+    long spanMillis = (requestedAt.get(4) - requestedAt.get(0)) / 1_000_000;
+    assertTrue(spanMillis >= 35, "requests spanned only " + spanMillis + " ms");
+  }
+
+  /* The first request waits for a random delay within the jitter */
+  @Test
+  public void testFirstRequestIsJittered() throws InterruptedException {
+    ShadowResync resync = resync(thing -> true, 200, 1000, 3);
+    long start = System.nanoTime();
+    resync.start(List.of("a"));
+
+    waitFor(() -> requested.size() == 1);
+    long delayMillis = (requestedAt.get(0) - start) / 1_000_000;
+    assertTrue(delayMillis <= 400, "delay " + delayMillis + " ms");
+  }
+
+  /* Failed requests are retried with backoff until they succeed or run out of attempts */
+  @Test
+  public void testFailuresAreRetriedUpToMaxAttempts() throws InterruptedException {
+    Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    Predicate<String> request =
+        thing -> {
+          AtomicInteger count = attempts.computeIfAbsent(thing, ignored -> new AtomicInteger());
+          int attempt = count.incrementAndGet();
+          return thing.equals("flaky") && attempt == 2;
+        };
+    ShadowResync resync = resync(request, 0, 1000, 3);
+    resync.start(List.of("flaky", "down"));
+
+    waitFor(() -> attempts.containsKey("down") && attempts.get("down").get() == 3);
+    waitFor(() -> resync.remaining() == 0);
+    Thread.sleep(50);
+    assertEquals(2, attempts.get("flaky").get());
+    assertEquals(3, attempts.get("down").get());
+  }
+
+  /* A new resync abandons the queue and pending retries of the previous one */
+  @Test
+  public void testRestartReplacesPreviousResync() throws InterruptedException {
+    ShadowResync resync = resync(thing -> !thing.startsWith("old"), 0, 20, 5);
+    resync.start(List.of("old-1", "old-2", "old-3", "old-4"));
+    waitFor(() -> requested.size() >= 1);
+    resync.start(List.of("new"));
+
+    waitFor(() -> requested.contains("new") && resync.remaining() == 0);
+    Thread.sleep(100);
+    assertEquals(1, requested.stream().filter(thing -> thing.equals("new")).count());
+    assertTrue(requested.stream().filter(thing -> thing.startsWith("old")).count() <= 2);
+  }
+
+  @Test
+  public void testRejectsInvalidSettings() {
+    assertThrows(IllegalArgumentException.class, () -> resync(thing -> true, -1, 10, 1));
+    assertThrows(IllegalArgumentException.class, () -> resync(thing -> true, 0, 0, 1));
+    assertThrows(IllegalArgumentException.class, () -> resync(thing -> true, 0, 10, 0));
+  }
+
+  private ShadowResync resync(
+      Predicate<String> request, long jitterMillis, double perSecond, int maxAttempts) {
+    return new ShadowResync(
+        thing -> {
+          requested.add(thing);
+          requestedAt.add(System.nanoTime());
+          return request.test(thing);
+        },
+        scheduler,
+        new Random(1),
+        jitterMillis,
+        perSecond,
+        maxAttempts,
+        10);
+  }
+
+  private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertTrue(condition.getAsBoolean(), "condition not met in time");
+  }
+}
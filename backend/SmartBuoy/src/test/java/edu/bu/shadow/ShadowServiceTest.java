@@ -0,0 +1,60 @@
+package edu.bu.shadow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+public class ShadowServiceTest {
+
+  /* Reported and desired fields are merged over the current shadow and the version advances */
+  @Test
+  public void testMergeAppliesNewerDocument() {
+    DeviceShadow current = new DeviceShadow("esp32", 80, false, false, true, Instant.EPOCH, 4L);
+    ShadowUpdateMessage update = document(5L);
+    update.getState().getReported().setBattery(75);
+    update.getState().getDesired().setLed(true);
+
+    DeviceShadow merged = ShadowService.merge("esp32", current, update);
+
+    assertEquals(75, merged.battery());
+    assertEquals(Boolean.TRUE, merged.led());
+    assertEquals(Boolean.FALSE, merged.buzzer());
+    assertEquals(Boolean.TRUE, merged.deployed());
+    assertEquals(Long.valueOf(5), merged.version());
+  }
+
+  /* An accepted document older than the stored version cannot overwrite it */
+  @Test
+  public void testMergeIgnoresOlderDocument() {
+    DeviceShadow current = new DeviceShadow("esp32", 80, true, false, true, Instant.EPOCH, 7L);
+    ShadowUpdateMessage update = document(6L);
+    update.getState().getReported().setLed(false);
+
+    assertSame(current, ShadowService.merge("esp32", current, update));
+  }
+
+  /* Documents without a version are applied and keep the last known version */
+  @Test
+  public void testMergeWithoutVersion() {
+    DeviceShadow current = new DeviceShadow("esp32", 80, true, false, true, Instant.EPOCH, 7L);
+    ShadowUpdateMessage update = document(null);
+    update.getState().getReported().setBattery(60);
+
+    DeviceShadow merged = ShadowService.merge("esp32", current, update);
+
+    assertEquals(60, merged.battery());
+    assertEquals(Long.valueOf(7), merged.version());
+    assertNull(ShadowService.merge("esp32", null, document(null)).version());
+  }
+
+  private static ShadowUpdateMessage document(Long version) {
+    ShadowUpdateMessage.ShadowState state = new ShadowUpdateMessage.ShadowState();
+    state.setReported(new ShadowUpdateMessage.ShadowFields());
+    state.setDesired(new ShadowUpdateMessage.ShadowFields());
+    ShadowUpdateMessage update = new ShadowUpdateMessage();
+    update.setState(state);
+    update.setVersion(version);
+    return update;
+  }
+}
@@ -0,0 +1,87 @@
+package edu.bu.shadow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ShadowStoreTest {
+
+  @Test
+  public void testShardCountRoundsUpToPowerOfTwo() {
+    assertEquals(1, new ShadowStore(1).shardCount());
+    assertEquals(16, new ShadowStore(16).shardCount());
+    assertEquals(32, new ShadowStore(17).shardCount());
+    assertThrows(IllegalArgumentException.class, () -> new ShadowStore(0));
+  }
+
+  /* Updates see the previous shadow of the same thing, starting from null */
+  @Test
+  public void testUpdateAppliesToCurrentShadow() {
+    ShadowStore store = new ShadowStore(4);
+    store.update("esp32", existing -> shadow("esp32", existing == null ? 1 : existing.battery()));
+    store.update("esp32", existing -> shadow("esp32", existing.battery() + 1));
+
+    assertEquals(2, store.get("esp32").battery());
+    assertNull(store.get("other"));
+  }
+
+  /* A change that keeps the current shadow reports no update */
+  @Test
+  public void testUnchangedShadowReturnsNull() {
+    ShadowStore store = new ShadowStore(4);
+    DeviceShadow stored = store.update("esp32", existing -> shadow("esp32", 80));
+
+    assertNull(store.update("esp32", existing -> existing));
+    assertSame(stored, store.get("esp32"));
+  }
+
+  /* Thousands of things spread over every shard and list back in name order */
+  @Test
+  public void testAllListsEveryThingInNameOrder() {
+    ShadowStore store = new ShadowStore(16);
+    boolean[] used = new boolean[store.shardCount()];
+    List<String> names = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      String name = String.format("buoy-%05d", i);
+      names.add(name);
+      used[store.shardOf(name)] = true;
+      store.update(name, existing -> shadow(name, 50));
+    }
+
+    assertEquals(5000, store.size());
+    assertEquals(names, store.all().stream().map(DeviceShadow::buoyId).toList());
+    for (boolean shardUsed : used) {
+      assertTrue(shardUsed);
+    }
+  }
+
+  /* Concurrent read-modify-write updates of one thing are never lost */
+  @Test
+  public void testConcurrentUpdatesAreAtomic() throws InterruptedException {
+    ShadowStore store = new ShadowStore(8);
+    store.update("esp32", existing -> shadow("esp32", 0));
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] =
+          new Thread(
+              () -> {
+                for (int i = 0; i < 10_000; i++) {
+                  store.update("esp32", existing -> shadow("esp32", existing.battery() + 1));
+                }
+              });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(40_000, store.get("esp32").battery());
+  }
+
+  private static DeviceShadow shadow(String thingName, int battery) {
+    return new DeviceShadow(thingName, battery, null, null, null, Instant.EPOCH, null);
+  }
+}
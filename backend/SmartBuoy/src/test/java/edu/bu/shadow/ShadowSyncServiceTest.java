@@ -0,0 +1,48 @@
+package edu.bu.shadow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ShadowSyncServiceTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+  /* Configured and known things are requested only when missing or older than the max age */
+  @Test
+  public void testStaleThingsSkipsFreshSnapshots() {
+    ShadowService shadows =
+        new ShadowService(null, new ObjectMapper(), event -> {}, 4, 1, 10, 250, 1, 10);
+    shadows.restore(
+        List.of(
+            shadow("fresh", NOW.minus(Duration.ofSeconds(60))),
+            shadow("old", NOW.minus(Duration.ofMinutes(10))),
+            shadow("known-old", NOW.minus(Duration.ofHours(2)))));
+    ShadowSyncService sync =
+        new ShadowSyncService(shadows, new ObjectMapper(), "", 30, 300, 50, 10, 5);
+
+    assertEquals(
+        List.of("fresh-config", "old", "known-old"),
+        sync.staleThings(List.of("fresh-config", "fresh", "old"), NOW));
+  }
+
+  /* A snapshot never replaces state already received for a thing */
+  @Test
+  public void testRestoreKeepsLiveState() {
+    ShadowService shadows =
+        new ShadowService(null, new ObjectMapper(), event -> {}, 4, 1, 10, 250, 1, 10);
+    DeviceShadow live = shadow("esp32", NOW);
+    shadows.restore(List.of(live));
+    shadows.restore(List.of(shadow("esp32", NOW.minus(Duration.ofDays(1)))));
+
+    assertSame(live, shadows.getShadow("esp32").get());
+  }
+
+  private static DeviceShadow shadow(String thingName, Instant lastUpdated) {
+    return new DeviceShadow(thingName, 90, false, false, true, lastUpdated, 1L);
+  }
+}
@@ -0,0 +1,71 @@
+package edu.bu.shadow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class ShadowTopicRouterTest {
+
+  /* Every subscribed response topic routes back to its thing and type */
+  @Test
+  public void testRoutesEverySubscribedTopic() {
+    for (ShadowMessageType type : ShadowMessageType.values()) {
+      String topic = "$aws/things/buoy-17/shadow/" + type.suffix();
+      assertEquals(new ShadowTopicRouter.Route("buoy-17", type), ShadowTopicRouter.route(topic));
+    }
+  }
+
+  @Test
+  public void testWildcardSubscriptions() {
+    assertArrayEquals(
+        new String[] {
+          "$aws/things/+/shadow/update/delta",
+          "$aws/things/+/shadow/update/accepted",
+          "$aws/things/+/shadow/update/rejected",
+          "$aws/things/+/shadow/get/accepted"
+        },
+        ShadowTopicRouter.subscriptions("+"));
+  }
+
+  /* Only deltas may be shared across nodes; responses stay with the node that made the request */
+  @Test
+  public void testSplitsDeltaAndResponseSubscriptions() {
+    assertArrayEquals(
+        new String[] {"$aws/things/+/shadow/update/delta"},
+        ShadowTopicRouter.deltaSubscriptions("+"));
+    assertArrayEquals(
+        new String[] {
+          "$aws/things/+/shadow/update/accepted",
+          "$aws/things/+/shadow/update/rejected",
+          "$aws/things/+/shadow/get/accepted"
+        },
+        ShadowTopicRouter.responseSubscriptions("+"));
+  }
+
+  @Test
+  public void testPublishTopics() {
+    assertEquals("$aws/things/esp32/shadow/update", ShadowTopicRouter.updateTopic("esp32"));
+    assertEquals("$aws/things/esp32/shadow/get", ShadowTopicRouter.getTopic("esp32"));
+  }
+
+  /* Topics outside the routed shadow responses are rejected rather than misclassified */
+  @Test
+  public void testRejectsUnroutedTopics() {
+    String[] topics = {
+      null,
+      "",
+      "$aws/things/",
+      "$aws/things//shadow/update/delta",
+      "$aws/things/esp32",
+      "$aws/things/esp32/shadow/update",
+      "$aws/things/esp32/shadow/update/delta/extra",
+      "$aws/things/esp32/shadow/update/documents",
+      "$aws/things/esp32/shadow/name/led/update/delta",
+      "$aws/things/esp32/jobs/notify",
+      "buoys/esp32/shadow/update/delta"
+    };
+    for (String topic : topics) {
+      assertNull(ShadowTopicRouter.route(topic), String.valueOf(topic));
+    }
+  }
+}
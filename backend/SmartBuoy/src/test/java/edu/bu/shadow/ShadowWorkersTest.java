@@ -0,0 +1,112 @@
+package edu.bu.shadow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class ShadowWorkersTest {
+
+  private ShadowWorkers workers;
+
+  @AfterEach
+  public void tearDown() {
+    if (workers != null) {
+      workers.stop();
+    }
+  }
+
+  /* Each thing's messages are processed in submission order */
+  @Test
+  public void testPreservesOrderPerThing() throws InterruptedException {
+    workers = new ShadowWorkers(4, 16);
+    workers.start();
+    int things = 50;
+    int perThing = 200;
+    Map<String, List<Integer>> seen = new HashMap<>();
+    for (int t = 0; t < things; t++) {
+      seen.put("buoy-" + t, new ArrayList<>());
+    }
+    CountDownLatch done = new CountDownLatch(things * perThing);
+    for (int i = 0; i < perThing; i++) {
+      for (int t = 0; t < things; t++) {
+        String thing = "buoy-" + t;
+        int sequence = i;
+        workers.submit(
+            thing,
+            () -> {
+              List<Integer> sequences = seen.get(thing);
+              synchronized (sequences) {
+                sequences.add(sequence);
+              }
+              done.countDown();
+            });
+      }
+    }
+
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    for (List<Integer> sequences : seen.values()) {
+      synchronized (sequences) {
+        assertEquals(perThing, sequences.size());
+        for (int i = 0; i < perThing; i++) {
+          assertEquals(i, sequences.get(i).intValue());
+        }
+      }
+    }
+  }
+
+  /* A slow thing holds up only the things that share its partition */
+  @Test
+  public void testSlowThingDoesNotBlockOtherPartitions() throws InterruptedException {
+    workers = new ShadowWorkers(2, 4);
+    workers.start();
+    String slow = "slow";
+    String other = "other-0";
+    for (int i = 1; workers.partitionOf(other) == workers.partitionOf(slow); i++) {
+      other = "other-" + i;
+    }
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch otherDone = new CountDownLatch(1);
+    workers.submit(
+        slow,
+        () -> {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+    workers.submit(other, otherDone::countDown);
+
+    assertTrue(otherDone.await(5, TimeUnit.SECONDS));
+    release.countDown();
+  }
+
+  /* A failing task is logged and the worker carries on */
+  @Test
+  public void testFailedTaskDoesNotStopWorker() throws InterruptedException {
+    workers = new ShadowWorkers(1, 4);
+    workers.start();
+    CountDownLatch done = new CountDownLatch(1);
+    workers.submit(
+        "esp32",
+        () -> {
+          throw new IllegalStateException("bad document");
+        });
+    workers.submit("esp32", done::countDown);
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testRejectsInvalidSizes() {
+    assertThrows(IllegalArgumentException.class, () -> new ShadowWorkers(0, 10));
+    assertThrows(IllegalArgumentException.class, () -> new ShadowWorkers(2, 0));
+  }
+}
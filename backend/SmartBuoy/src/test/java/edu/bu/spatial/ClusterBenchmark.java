@@ -0,0 +1,55 @@
+package edu.bu.spatial;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.bu.analytics.geofence.BoundingBox;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Measures clustered viewport queries over 100k buoys. Run with ./gradlew benchmark. */
+@Tag("Benchmark")
+public class ClusterBenchmark {
+
+  private static final int BUOYS = 100_000;
+  private static final int WARMUP_ROUNDS = 2_000;
+  private static final int MEASURED_ROUNDS = 10_000;
+
+  @Test
+  public void benchmarkViewportQueries() {
+    ClusterIndex index = new ClusterIndex(16);
+    Random random = new Random(42);
+    long start = System.nanoTime();
+    for (int id = 0; id < BUOYS; id++) {
+      index.put(id, random.nextDouble() * 140 - 70, random.nextDouble() * 360 - 180);
+    }
+    System.out.printf(
+        "Cluster index: %,d buoys inserted in %.1f ms%n", BUOYS, (System.nanoTime() - start) / 1e6);
+
+    // A roughly 1280x800 pixel map at each zoom, centred off New England.
+    for (int zoom : new int[] {2, 5, 8, 12, 16}) {
+      double width = 360.0 * 5 / (1 << zoom);
+      double height = Math.min(140, width * 0.6);
+      BoundingBox box =
+          new BoundingBox(
+              Math.max(-90, 40 - height / 2),
+              Math.max(-180, -65 - width / 2),
+              Math.min(90, 40 + height / 2),
+              Math.min(180, -65 + width / 2));
+      for (int i = 0; i < WARMUP_ROUNDS; i++) {
+        index.clusters(box, zoom);
+      }
+      List<ClusterMarker> markers = null;
+      start = System.nanoTime();
+      for (int i = 0; i < MEASURED_ROUNDS; i++) {
+        markers = index.clusters(box, zoom);
+      }
+      double micros = (System.nanoTime() - start) / 1e3 / MEASURED_ROUNDS;
+
+      assertNotNull(markers);
+      System.out.printf(
+          "Clusters at zoom %d: %,d markers in %.1f us/op%n", zoom, markers.size(), micros);
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package edu.bu.spatial;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.bu.analytics.geofence.BoundingBox;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class ClusterIndexTest {
+
+  private static final BoundingBox WORLD = new BoundingBox(-90, -180, 90, 180);
+
+  /* Every buoy is counted exactly once at every zoom */
+  @Test
+  public void testCountsCoverEveryBuoyAtEveryZoom() {
+    ClusterIndex index = new ClusterIndex(12);
+    Random random = new Random(3);
+    for (int id = 0; id < 1000; id++) {
+      index.put(id, random.nextDouble() * 160 - 80, random.nextDouble() * 360 - 180);
+    }
+    for (int zoom = 0; zoom <= 14; zoom++) {
+      int total = index.clusters(WORLD, zoom).stream().mapToInt(ClusterMarker::count).sum();
+      assertEquals(1000, total);
+    }
+  }
+
+  /* Nearby buoys merge at low zoom and split apart when zoomed in */
+  @Test
+  public void testNearbyBuoysMergeUntilZoomedIn() {
+    ClusterIndex index = new ClusterIndex(16);
+    index.put(1, 42.3500, -71.0500);
+    index.put(2, 42.3600, -71.0400);
+    index.put(3, -33.9, 18.4);
+
+    List<ClusterMarker> far = sorted(index.clusters(WORLD, 4));
+    assertEquals(2, far.size());
+    ClusterMarker boston = far.get(0);
+    assertEquals(2, boston.count());
+    assertNull(boston.buoyId());
+    assertEquals(42.355, boston.latitude(), 1e-9);
+    assertEquals(-71.045, boston.longitude(), 1e-9);
+
+    List<ClusterMarker> near = index.clusters(new BoundingBox(42, -72, 43, -70), 16);
+    assertEquals(2, near.size());
+    for (ClusterMarker marker : near) {
+      assertEquals(1, marker.count());
+      assertNotNull(marker.buoyId());
+    }
+  }
+
+  /* A lone buoy's marker carries its id and exact position */
+  @Test
+  public void testLoneBuoyMarkerHasIdAndPosition() {
+    ClusterIndex index = new ClusterIndex(8);
+    index.put(7, 10.123, 20.456);
+    index.put(8, 10.124, 20.457);
+    index.put(8, -10, -20);
+
+    List<ClusterMarker> markers = index.clusters(new BoundingBox(9, 19, 11, 21), 3);
+    assertEquals(List.of(new ClusterMarker(10.123, 20.456, 1, 7)), markers);
+  }
+
+  /* Moving a buoy removes it from its old cell on every level */
+  @Test
+  public void testMoveLeavesNoEmptyClusters() {
+    ClusterIndex index = new ClusterIndex(10);
+    index.put(1, 0, 0);
+    index.put(1, 45, 90);
+    for (int zoom = 0; zoom <= 10; zoom++) {
+      List<ClusterMarker> markers = index.clusters(WORLD, zoom);
+      assertEquals(1, markers.size());
+      assertEquals(new ClusterMarker(45, 90, 1, 1), markers.get(0));
+    }
+  }
+
+  /* A viewport across the antimeridian returns the clusters on both sides and nothing else */
+  @Test
+  public void testViewportWrappingAntimeridian() {
+    ClusterIndex index = new ClusterIndex(10);
+    index.put(1, 0, 179.5);
+    index.put(2, 0, -179.5);
+    index.put(3, 0, 0);
+
+    List<ClusterMarker> markers = sorted(index.clusters(new BoundingBox(-5, 175, 5, -175), 6));
+    assertEquals(List.of(2, 1), markers.stream().map(ClusterMarker::buoyId).toList());
+  }
+
+  /* Viewport queries return exactly the world clusters whose cells overlap the viewport */
+  @Test
+  public void testViewportIsSubsetOfWorldClusters() {
+    ClusterIndex index = new ClusterIndex(10);
+    Random random = new Random(5);
+    for (int id = 0; id < 200; id++) {
+      index.put(id, 40 + random.nextDouble() * 5, -70 + random.nextDouble() * 5);
+    }
+    BoundingBox box = new BoundingBox(41, -69, 43, -67);
+    // At zoom 4 the box spans fewer cells than are occupied; at zoom 10 it spans far more.
+    for (int zoom : new int[] {4, 7, 10}) {
+      List<ClusterMarker> world = index.clusters(WORLD, zoom);
+      List<ClusterMarker> viewport = index.clusters(box, zoom);
+      assertTrue(world.containsAll(viewport), "zoom " + zoom);
+      for (ClusterMarker marker : world) {
+        if (marker.count() == 1 && box.contains(marker.latitude(), marker.longitude())) {
+          assertTrue(viewport.contains(marker), "zoom " + zoom + " missing " + marker);
+        }
+      }
+      int buoysInBox = 0;
+      for (ClusterMarker marker : index.clusters(WORLD, index.maxZoom())) {
+        if (box.contains(marker.latitude(), marker.longitude())) {
+          buoysInBox += marker.count();
+        }
+      }
+      assertTrue(viewport.stream().mapToInt(ClusterMarker::count).sum() >= buoysInBox);
+    }
+  }
+
+  @Test
+  public void testRejectsInvalidMaxZoom() {
+    assertThrows(IllegalArgumentException.class, () -> new ClusterIndex(-1));
+    assertThrows(IllegalArgumentException.class, () -> new ClusterIndex(25));
+  }
+
+  private static List<ClusterMarker> sorted(List<ClusterMarker> markers) {
+    return markers.stream().sorted(Comparator.comparingDouble(ClusterMarker::longitude)).toList();
+  }
+}
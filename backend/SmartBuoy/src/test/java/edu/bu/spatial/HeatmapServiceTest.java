@@ -0,0 +1,92 @@
+package edu.bu.spatial;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.bu.analytics.geofence.BoundingBox;
+import edu.bu.data.BuoyReadingEvent;
+import edu.bu.data.BuoyResponse;
+import edu.bu.data.InMemoryStore;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class HeatmapServiceTest {
+
+  private static final Instant START = Instant.parse("2024-06-01T00:00:00Z");
+
+  private final HeatmapService service =
+      new HeatmapService(new InMemoryStore(), new double[] {0.25, 1});
+
+  /* Cells maintained as buoys move agree with aggregating the latest readings from scratch */
+  @Test
+  public void testIncrementalCellsMatchRecomputation() {
+    Random random = new Random(13);
+    Map<Integer, BuoyResponse> latest = new HashMap<>();
+    for (int i = 0; i < 5_000; i++) {
+      int buoyId = random.nextInt(200);
+      // Buoys cluster in a 3 by 3 degree area, so cells hold several and buoys change cells.
+      BuoyResponse reading =
+          new BuoyResponse(
+              buoyId,
+              START.plusSeconds(i),
+              10 + random.nextInt(20),
+              101_000 + random.nextInt(600),
+              41 + random.nextDouble() * 3,
+              -71 + random.nextDouble() * 3);
+      latest.put(buoyId, reading);
+      service.onReading(new BuoyReadingEvent(reading));
+    }
+
+    for (double resolution : new double[] {0.25, 1}) {
+      List<HeatmapCell> cells = service.heatmap(resolution, null);
+      assertEquals(latest.size(), cells.stream().mapToInt(HeatmapCell::count).sum());
+      for (HeatmapCell cell : cells) {
+        List<BuoyResponse> members =
+            latest.values().stream()
+                .filter(r -> Math.floor(r.getLatitude() / resolution) * resolution == cell.minLat())
+                .filter(
+                    r -> Math.floor(r.getLongitude() / resolution) * resolution == cell.minLon())
+                .toList();
+        assertEquals(members.size(), cell.count());
+        assertEquals(
+            members.stream().mapToDouble(BuoyResponse::getTemperature).average().orElseThrow(),
+            cell.temperature().mean(),
+            1e-9);
+        assertEquals(
+            members.stream().mapToDouble(BuoyResponse::getTemperature).min().orElseThrow(),
+            cell.temperature().min());
+        assertEquals(
+            members.stream().mapToDouble(BuoyResponse::getPressure).max().orElseThrow(),
+            cell.pressure().max());
+      }
+    }
+  }
+
+  @Test
+  public void testOlderReadingIsIgnoredAndBoxFilters() {
+    service.onReading(reading(1, 60, 20.0, 42.1, -70.9));
+    service.onReading(reading(1, 0, 5.0, 10.0, 10.0));
+    service.onReading(reading(2, 60, 24.0, 42.2, -70.8));
+    service.onReading(reading(3, 60, 15.0, 10.0, 10.0));
+
+    List<HeatmapCell> cells = service.heatmap(1, new BoundingBox(41.5, -71.5, 43.0, -70.0));
+    assertEquals(1, cells.size());
+    HeatmapCell cell = cells.get(0);
+    assertEquals(42.0, cell.minLat());
+    assertEquals(-71.0, cell.minLon());
+    assertEquals(2, cell.count());
+    assertEquals(22.0, cell.temperature().mean(), 1e-9);
+    assertEquals(20.0, cell.temperature().min());
+    assertEquals(2, service.heatmap(1, null).size());
+    assertThrows(IllegalArgumentException.class, () -> service.heatmap(0.5, null));
+  }
+
+  private static BuoyReadingEvent reading(
+      int buoyId, int second, double temperature, double lat, double lon) {
+    return new BuoyReadingEvent(
+        new BuoyResponse(buoyId, START.plusSeconds(second), temperature, 101_300.0, lat, lon));
+  }
+}
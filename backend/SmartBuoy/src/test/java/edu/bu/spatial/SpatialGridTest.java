@@ -0,0 +1,117 @@
+package edu.bu.spatial;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.bu.analytics.geofence.BoundingBox;
+import edu.bu.analytics.geofence.GeoUtils;
+import edu.bu.data.Deployment;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class SpatialGridTest {
+
+  private final GeoGrid grid = new GeoGrid(0.25);
+
+  /* Radius queries agree with a linear scan, including near the antimeridian and the poles */
+  @Test
+  public void testWithinMatchesLinearScan() {
+    Random random = new Random(7);
+    PositionGrid positions = new PositionGrid(grid);
+    double[][] points = randomPoints(random, 2000, positions);
+
+    double[][] centres = {{42.3, -71.0}, {0.0, 179.9}, {-10.0, -179.95}, {89.5, 30.0}, {-89.9, 0}};
+    for (double[] centre : centres) {
+      for (double radius : new double[] {1_000, 50_000, 500_000, 3_000_000}) {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < points.length; i++) {
+          if (GeoUtils.distanceMeters(centre[0], centre[1], points[i][0], points[i][1])
+              <= radius) {
+            expected.add(i);
+          }
+        }
+        List<Integer> actual =
+            positions.within(centre[0], centre[1], radius).stream()
+                .map(SpatialMatch::buoyId)
+                .sorted()
+                .toList();
+        assertEquals(expected, actual);
+      }
+    }
+  }
+
+  /* Box queries agree with a linear scan, including a box wrapping the antimeridian */
+  @Test
+  public void testInBoxMatchesLinearScan() {
+    Random random = new Random(11);
+    PositionGrid positions = new PositionGrid(grid);
+    double[][] points = randomPoints(random, 2000, positions);
+
+    List<BoundingBox> boxes =
+        List.of(
+            new BoundingBox(40, -75, 45, -65),
+            new BoundingBox(-20, 170, 20, -170),
+            new BoundingBox(-90, -180, 90, 180));
+    for (BoundingBox box : boxes) {
+      List<Integer> expected = new ArrayList<>();
+      for (int i = 0; i < points.length; i++) {
+        if (box.contains(points[i][0], points[i][1])) {
+          expected.add(i);
+        }
+      }
+      assertEquals(expected, positions.inBox(box).stream().map(SpatialMatch::buoyId).toList());
+    }
+  }
+
+  /* A newer position moves the buoy; an older one arriving late is ignored */
+  @Test
+  public void testPositionUpdatesKeepNewest() {
+    PositionGrid positions = new PositionGrid(grid);
+    positions.put(1, 42.0, -70.0, 2000);
+    positions.put(1, 10.0, 10.0, 1000);
+    assertEquals(1, positions.within(42.0, -70.0, 100).size());
+
+    positions.put(1, 10.0, 10.0, 3000);
+    assertTrue(positions.within(42.0, -70.0, 100).isEmpty());
+    assertEquals(1, positions.within(10.0, 10.0, 100).size());
+  }
+
+  /* Point lookups find small and large fences, and replaced fences are forgotten */
+  @Test
+  public void testFencesContaining() {
+    FenceGrid fences = new FenceGrid(grid);
+    fences.put(new Deployment(1, 42.0, -70.0, 500, 0));
+    fences.put(new Deployment(2, 42.001, -70.0, 50, 0));
+    fences.put(new Deployment(3, 0.0, 179.99, 5_000, 0));
+    fences.put(new Deployment(4, 40.0, -70.0, 1_000_000, 0));
+
+    List<FenceMatch> matches = fences.containing(42.001, -70.0);
+    assertEquals(List.of(2, 1, 4), matches.stream().map(FenceMatch::buoyId).toList());
+    assertEquals(List.of(3), ids(fences.containing(0.0, -179.99)));
+
+    fences.put(new Deployment(1, 10.0, 10.0, 500, 0));
+    assertEquals(List.of(2, 4), ids(fences.containing(42.001, -70.0)));
+    assertEquals(List.of(1), ids(fences.containing(10.0, 10.0)));
+  }
+
+  private static List<Integer> ids(List<FenceMatch> matches) {
+    return matches.stream().map(FenceMatch::buoyId).toList();
+  }
+
+  private static double[][] randomPoints(Random random, int count, PositionGrid positions) {
+    double[][] points = new double[count][];
+    for (int i = 0; i < count; i++) {
+      // Half the points cluster in the queried areas so the small radii have something to find.
+      double lat = i % 2 == 0 ? random.nextDouble() * 180 - 90 : 42.3 + random.nextGaussian();
+      double lon = i % 2 == 0 ? random.nextDouble() * 360 - 180 : -71.0 + random.nextGaussian();
+      if (i % 10 == 1) {
+        lat = random.nextGaussian() * 5;
+        lon = random.nextBoolean() ? 180 - random.nextDouble() : -180 + random.nextDouble();
+      }
+      points[i] = new double[] {lat, lon};
+      positions.put(i, lat, lon, 0);
+    }
+    return points;
+  }
+}
@@ -0,0 +1,83 @@
+package edu.bu.stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.bu.data.BuoyReadingEvent;
+import edu.bu.data.BuoyResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+public class LiveStreamServiceTest {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private LiveStreamService service;
+
+  @AfterEach
+  public void tearDown() {
+    release.countDown();
+    service.shutdown();
+  }
+
+  /* Stalled clients park only their own writers, so a fast client still gets every event */
+  @Test
+  public void testSlowSubscribersDoNotDelayOthers() throws Exception {
+    service = new LiveStreamService(new ObjectMapper(), 256, 3600, 30);
+    for (int i = 0; i < 16; i++) {
+      service.register(stalled(), null);
+    }
+    BlockingQueue<String> received = new LinkedBlockingQueue<>();
+    service.register(
+        new ResponseBodyEmitter() {
+          @Override
+          public void send(Object object, MediaType mediaType) {
+            received.add(new String((byte[]) object, StandardCharsets.UTF_8));
+          }
+        },
+        null);
+
+    for (int buoyId = 1; buoyId <= 3; buoyId++) {
+      service.onReading(new BuoyReadingEvent(reading(buoyId)));
+      String frame = received.poll(5, TimeUnit.SECONDS);
+      assertNotNull(frame, "event for buoy " + buoyId + " was not delivered");
+      assertTrue(frame.startsWith("event: reading\n"));
+    }
+  }
+
+  @Test
+  public void testSubscriberIsDisconnectedWhenItsBufferOverflows() {
+    service = new LiveStreamService(new ObjectMapper(), 2, 3600, 30);
+    service.register(stalled(), null);
+
+    for (int buoyId = 1; buoyId <= 5; buoyId++) {
+      service.onReading(new BuoyReadingEvent(reading(buoyId)));
+    }
+
+    assertEquals(0, service.getSubscriberCount());
+  }
+
+  private ResponseBodyEmitter stalled() {
+    return new ResponseBodyEmitter() {
+      @Override
+      public void send(Object object, MediaType mediaType) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+  }
+
+  private static BuoyResponse reading(int buoyId) {
+    return new BuoyResponse(buoyId, Instant.now(), 20.0, 101300.0, 42.36, -71.05);
+  }
+}
@@ -0,0 +1,75 @@
+package edu.bu.stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+public class StreamSubscriberTest {
+
+  private final List<String> sent = new ArrayList<>();
+  private boolean completed;
+  private StreamSubscriber subscriber;
+
+  @BeforeEach
+  public void setUp() {
+    ResponseBodyEmitter recorder =
+        new ResponseBodyEmitter() {
+          @Override
+          public void send(Object object, MediaType mediaType) {
+            sent.add(new String((byte[]) object, StandardCharsets.UTF_8));
+          }
+
+          @Override
+          public void complete() {
+            completed = true;
+          }
+        };
+    subscriber = new StreamSubscriber(recorder, null, 2);
+  }
+
+  @Test
+  public void testFirstOfferRequestsDrain() throws Exception {
+    assertTrue(subscriber.offer("reading:1", frame("a")));
+    assertFalse(subscriber.offer("reading:2", frame("b")));
+
+    subscriber.drain();
+
+    assertEquals(List.of("a", "b"), sent);
+    assertTrue(subscriber.offer("reading:1", frame("c")));
+  }
+
+  @Test
+  public void testPendingFramesForSameKeyAreCoalesced() throws Exception {
+    subscriber.offer("reading:1", frame("old"));
+    subscriber.offer("reading:1", frame("new"));
+
+    subscriber.drain();
+
+    assertEquals(List.of("new"), sent);
+    assertFalse(subscriber.isOverflowed());
+  }
+
+  @Test
+  public void testOverflowDiscardsBufferAndClosesStream() throws Exception {
+    subscriber.offer("reading:1", frame("a"));
+    subscriber.offer("reading:2", frame("b"));
+    subscriber.offer("reading:3", frame("c"));
+    assertTrue(subscriber.isOverflowed());
+    assertFalse(subscriber.offer("reading:4", frame("d")));
+
+    subscriber.drain();
+
+    assertTrue(sent.isEmpty());
+    assertTrue(completed);
+  }
+
+  private static byte[] frame(String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+}
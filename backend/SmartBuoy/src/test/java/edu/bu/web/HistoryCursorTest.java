@@ -0,0 +1,52 @@
+package edu.bu.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.bu.data.HistoryPage;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+public class HistoryCursorTest {
+
+  @Test
+  public void testRoundTrip() {
+    HistoryPage.Position position =
+        new HistoryPage.Position(Instant.parse("2024-05-01T12:00:00Z"), 3);
+
+    assertEquals(position, HistoryCursor.decode(HistoryCursor.encode(position)));
+  }
+
+  /* A forged seen count near Integer.MAX_VALUE would overflow seen + limit in the store */
+  @Test
+  public void testRejectsSeenOutOfRange() {
+    assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode(cursor("-1")));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> HistoryCursor.decode(cursor(Integer.toString(HistoryCursor.MAX_SEEN + 1))));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> HistoryCursor.decode(cursor(Integer.toString(Integer.MAX_VALUE))));
+    assertEquals(
+        HistoryCursor.MAX_SEEN,
+        HistoryCursor.decode(cursor(Integer.toString(HistoryCursor.MAX_SEEN))).seen());
+  }
+
+  @Test
+  public void testRejectsMalformedCursor() {
+    assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode("not base64!"));
+    assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode(encode("no-sep")));
+    assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode(encode("x~1")));
+  }
+
+  private static String cursor(String seen) {
+    return encode("2024-05-01T12:00:00Z~" + seen);
+  }
+
+  private static String encode(String text) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(text.getBytes(StandardCharsets.UTF_8));
+  }
+}
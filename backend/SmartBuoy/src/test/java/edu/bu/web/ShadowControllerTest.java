@@ -0,0 +1,92 @@
+package edu.bu.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.bu.shadow.BuoyThingNames;
+import edu.bu.shadow.DeviceShadow;
+import edu.bu.shadow.ShadowService;
+import edu.bu.shadow.ShadowTopicRouter;
+import edu.bu.shadow.ShadowUpdateMessage;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.integration.mqtt.support.MqttHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+
+public class ShadowControllerTest {
+
+  private final BlockingQueue<Message<?>> published = new LinkedBlockingQueue<>();
+  private final MessageChannel channel =
+      (message, timeout) -> {
+        published.add(message);
+        return true;
+      };
+  private final ShadowService shadows =
+      new ShadowService(channel, new ObjectMapper(), event -> {}, 4, 1, 10, 0, 1, 10);
+  private final ShadowController controller =
+      new ShadowController(
+          shadows, new BuoyThingNames(shadows, "1=esp32", new String[] {"esp32"}, false, "esp32"));
+
+  @AfterEach
+  public void tearDown() {
+    shadows.stop();
+  }
+
+  /* The dashboard asks for buoy-1, which is the esp32 thing */
+  @Test
+  public void testDashboardBuoyIdReadsThingShadow() {
+    shadows.restore(List.of(new DeviceShadow("esp32", 80, true, false, true, Instant.EPOCH, 3L)));
+
+    ResponseEntity<DeviceShadow> response = controller.getShadow("buoy-1");
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals("esp32", response.getBody().buoyId());
+  }
+
+  /* Desired state for buoy-1 is published to the esp32 shadow */
+  @Test
+  public void testDashboardBuoyIdUpdatesThingShadow() throws InterruptedException {
+    ShadowUpdateMessage.ShadowFields desired = new ShadowUpdateMessage.ShadowFields();
+    desired.setLed(true);
+
+    controller.updateDesired("buoy-1", desired);
+
+    Message<?> message = published.poll(5, TimeUnit.SECONDS);
+    assertNotNull(message);
+    assertEquals(
+        ShadowTopicRouter.updateTopic("esp32"), message.getHeaders().get(MqttHeaders.TOPIC));
+  }
+
+  /* A thing whose shadow is known addresses itself */
+  @Test
+  public void testKnownThingReadsItsOwnShadow() {
+    shadows.restore(
+        List.of(new DeviceShadow("thing-123", 80, true, false, true, Instant.EPOCH, 3L)));
+
+    ResponseEntity<DeviceShadow> response = controller.getShadow("thing-123");
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals("thing-123", response.getBody().buoyId());
+  }
+
+  /* Unknown ids are not redirected to the default thing */
+  @Test
+  public void testUnknownIdIsNotFound() {
+    shadows.restore(List.of(new DeviceShadow("esp32", 80, true, false, true, Instant.EPOCH, 3L)));
+    ShadowUpdateMessage.ShadowFields desired = new ShadowUpdateMessage.ShadowFields();
+    desired.setLed(true);
+
+    assertEquals(HttpStatus.NOT_FOUND, controller.getShadow("buoy-7").getStatusCode());
+    assertEquals(
+        HttpStatus.NOT_FOUND, controller.updateDesired("buoy-7", desired).getStatusCode());
+    assertTrue(published.isEmpty());
+  }
+}